@@ -0,0 +1,82 @@
+package internal.org.springframework.content.commons.boot.autoconfigure;
+
+import java.io.File;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.content.commons.io.ContentCache;
+import org.springframework.content.commons.io.ContentCache.EvictionPolicy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnClass(ContentCache.class)
+@ConditionalOnProperty(prefix = "content.cache", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ContentCacheAutoConfiguration.ContentCacheProperties.class)
+public class ContentCacheAutoConfiguration {
+
+	@Bean
+	@ConditionalOnMissingBean
+	public ContentCache contentCache(ContentCacheProperties properties) {
+		return new ContentCache(new File(properties.getDirectory()), properties.getMaxSize(), properties.getEvictionPolicy());
+	}
+
+	@ConfigurationProperties(prefix = "content.cache", exceptionIfInvalid = true, ignoreUnknownFields = true)
+	public static class ContentCacheProperties {
+
+		/**
+		 * Whether content of stores annotated with @CachedContent is cached
+		 */
+		boolean enabled = false;
+
+		/**
+		 * The directory cached content is written to
+		 */
+		String directory = new File(System.getProperty("java.io.tmpdir"), "spring-content-cache").getPath();
+
+		/**
+		 * The maximum total size of cached content, in bytes
+		 */
+		long maxSize = 256L * 1024 * 1024;
+
+		/**
+		 * Which content to evict when the cache is full; LRU or LFU
+		 */
+		EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public String getDirectory() {
+			return directory;
+		}
+
+		public void setDirectory(String directory) {
+			this.directory = directory;
+		}
+
+		public long getMaxSize() {
+			return maxSize;
+		}
+
+		public void setMaxSize(long maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		public EvictionPolicy getEvictionPolicy() {
+			return evictionPolicy;
+		}
+
+		public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+			this.evictionPolicy = evictionPolicy;
+		}
+	}
+}
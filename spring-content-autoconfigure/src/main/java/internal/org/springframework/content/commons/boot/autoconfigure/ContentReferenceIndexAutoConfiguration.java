@@ -0,0 +1,29 @@
+package internal.org.springframework.content.commons.boot.autoconfigure;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.content.commons.repository.ContentReferenceIndex;
+import org.springframework.content.commons.repository.JdbcContentReferenceIndex;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+@AutoConfigureAfter(DataSourceAutoConfiguration.class)
+@ConditionalOnClass({ContentReferenceIndex.class, JdbcTemplate.class})
+@ConditionalOnBean(DataSource.class)
+@ConditionalOnProperty(prefix = "content.reference-index", name = "enabled", havingValue = "true")
+public class ContentReferenceIndexAutoConfiguration {
+
+	@Bean
+	@ConditionalOnMissingBean(ContentReferenceIndex.class)
+	public JdbcContentReferenceIndex contentReferenceIndex(DataSource dataSource) {
+		return new JdbcContentReferenceIndex(dataSource);
+	}
+}
@@ -0,0 +1,95 @@
+package internal.org.springframework.content.commons.boot.autoconfigure;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.content.commons.repository.events.AsyncStoreEventDispatcher;
+import org.springframework.content.commons.repository.events.AsyncStoreEventDispatcher.OverflowPolicy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnClass(AsyncStoreEventDispatcher.class)
+@ConditionalOnProperty(prefix = "content.events.async", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(StoreEventsAutoConfiguration.AsyncStoreEventProperties.class)
+public class StoreEventsAutoConfiguration {
+
+	@Bean
+	@ConditionalOnMissingBean
+	public AsyncStoreEventDispatcher asyncStoreEventDispatcher(AsyncStoreEventProperties properties) {
+		AsyncStoreEventDispatcher dispatcher = new AsyncStoreEventDispatcher(properties.getThreads(), properties.getQueueCapacity(), properties.getOverflowPolicy());
+		dispatcher.setAwaitTerminationMillis(properties.getAwaitTerminationMillis());
+		return dispatcher;
+	}
+
+	@ConfigurationProperties(prefix = "content.events.async", exceptionIfInvalid = true, ignoreUnknownFields = true)
+	public static class AsyncStoreEventProperties {
+
+		/**
+		 * Whether After* store events are published asynchronously
+		 */
+		boolean enabled = false;
+
+		/**
+		 * The number of threads publishing events
+		 */
+		int threads = 1;
+
+		/**
+		 * The maximum number of events waiting to be published
+		 */
+		int queueCapacity = 1000;
+
+		/**
+		 * What to do with events when the queue is full; BLOCK, DROP or CALLER_RUNS
+		 */
+		OverflowPolicy overflowPolicy = OverflowPolicy.CALLER_RUNS;
+
+		/**
+		 * How long to wait for queued events to be published on shutdown
+		 */
+		long awaitTerminationMillis = 30000;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getThreads() {
+			return threads;
+		}
+
+		public void setThreads(int threads) {
+			this.threads = threads;
+		}
+
+		public int getQueueCapacity() {
+			return queueCapacity;
+		}
+
+		public void setQueueCapacity(int queueCapacity) {
+			this.queueCapacity = queueCapacity;
+		}
+
+		public OverflowPolicy getOverflowPolicy() {
+			return overflowPolicy;
+		}
+
+		public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+			this.overflowPolicy = overflowPolicy;
+		}
+
+		public long getAwaitTerminationMillis() {
+			return awaitTerminationMillis;
+		}
+
+		public void setAwaitTerminationMillis(long awaitTerminationMillis) {
+			this.awaitTerminationMillis = awaitTerminationMillis;
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package internal.org.springframework.content.commons.boot.autoconfigure;
+
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.content.commons.metrics.MicrometerStoreMetrics;
+import org.springframework.content.commons.metrics.StoreMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.spring.autoconfigure.MetricsAutoConfiguration;
+
+@Configuration
+@AutoConfigureAfter(MetricsAutoConfiguration.class)
+@ConditionalOnClass({StoreMetrics.class, MeterRegistry.class})
+@ConditionalOnBean(MeterRegistry.class)
+@ConditionalOnProperty(prefix = "content.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class StoreMetricsAutoConfiguration {
+
+	@Bean
+	@ConditionalOnMissingBean(StoreMetrics.class)
+	public MicrometerStoreMetrics storeMetrics(MeterRegistry registry) {
+		return new MicrometerStoreMetrics(registry);
+	}
+}
@@ -2,6 +2,8 @@ package internal.org.springframework.content.fs.boot.autoconfigure;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,6 +11,9 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.content.fs.io.FileSystemResourceLoader;
+import org.springframework.content.fs.io.FsyncPolicy;
+import org.springframework.content.fs.io.MappedFileCache;
+import org.springframework.content.fs.io.ShardedFileSystemLayout;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -26,7 +31,25 @@ public class FilesystemContentAutoConfiguration {
 
     @Bean
 	FileSystemResourceLoader fileSystemResourceLoader(FilesystemProperties properties) {
-		return new FileSystemResourceLoader(properties.getFilesystemRoot());
+		FileSystemResourceLoader loader;
+		if (properties.getFilesystemRoots().isEmpty()) {
+			loader = new FileSystemResourceLoader(properties.getFilesystemRoot());
+		} else {
+			if (properties.getFilesystemRootWeights().isEmpty()) {
+				loader = new FileSystemResourceLoader(properties.getFilesystemRoots());
+			} else {
+				loader = new FileSystemResourceLoader(properties.getFilesystemRoots(), properties.getFilesystemRootWeights());
+			}
+		}
+		loader.setAtomicWrites(properties.isAtomicWrites());
+		loader.setFsyncPolicy(properties.getFsyncPolicy());
+		if (properties.getShardDepth() > 0) {
+			loader.setLayout(new ShardedFileSystemLayout(properties.getShardDepth(), properties.getShardWidth()));
+		}
+		if (properties.getMappedCacheSize() > 0) {
+			loader.setMappedFileCache(new MappedFileCache(properties.getMappedCacheSize(), properties.getMappedFileMaxSize(), properties.getMappedIdleMillis()));
+		}
+		return loader;
 	}
 
 	@Component
@@ -40,6 +63,51 @@ public class FilesystemContentAutoConfiguration {
 	     */
 		String filesystemRoot;
 
+		/**
+		 * The roots, typically on separate disks, that file system stores stripe their content over; overrides filesystemRoot
+		 */
+		List<String> filesystemRoots = new ArrayList<>();
+
+		/**
+		 * The weight of each of the filesystemRoots, in the same order; equal weights if empty
+		 */
+		List<Long> filesystemRootWeights = new ArrayList<>();
+
+		/**
+		 * Whether content is written to a temporary file that is atomically renamed into place
+		 */
+		boolean atomicWrites = false;
+
+		/**
+		 * What is forced to the device when content is written
+		 */
+		FsyncPolicy fsyncPolicy = FsyncPolicy.NONE;
+
+		/**
+		 * The number of nested directories content is sharded into; 0 stores all content in the root
+		 */
+		int shardDepth = 0;
+
+		/**
+		 * The number of hex characters naming each shard directory
+		 */
+		int shardWidth = 2;
+
+		/**
+		 * The most bytes of small files kept memory-mapped for reading; 0 reads files as usual
+		 */
+		long mappedCacheSize = 0;
+
+		/**
+		 * The largest file that is memory-mapped
+		 */
+		long mappedFileMaxSize = 1024 * 1024;
+
+		/**
+		 * How long, in milliseconds, a memory-mapped file is kept without being read
+		 */
+		long mappedIdleMillis = 60 * 1000;
+
 		public String getFilesystemRoot() {
             if (filesystemRoot == null) {
                 try {
@@ -55,5 +123,77 @@ public class FilesystemContentAutoConfiguration {
 		public void setFilesystemRoot(String filesystemRoot) {
 			this.filesystemRoot = filesystemRoot;
 		}
+
+		public List<String> getFilesystemRoots() {
+			return filesystemRoots;
+		}
+
+		public void setFilesystemRoots(List<String> filesystemRoots) {
+			this.filesystemRoots = filesystemRoots;
+		}
+
+		public List<Long> getFilesystemRootWeights() {
+			return filesystemRootWeights;
+		}
+
+		public void setFilesystemRootWeights(List<Long> filesystemRootWeights) {
+			this.filesystemRootWeights = filesystemRootWeights;
+		}
+
+		public boolean isAtomicWrites() {
+			return atomicWrites;
+		}
+
+		public void setAtomicWrites(boolean atomicWrites) {
+			this.atomicWrites = atomicWrites;
+		}
+
+		public FsyncPolicy getFsyncPolicy() {
+			return fsyncPolicy;
+		}
+
+		public void setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+			this.fsyncPolicy = fsyncPolicy;
+		}
+
+		public int getShardDepth() {
+			return shardDepth;
+		}
+
+		public void setShardDepth(int shardDepth) {
+			this.shardDepth = shardDepth;
+		}
+
+		public int getShardWidth() {
+			return shardWidth;
+		}
+
+		public void setShardWidth(int shardWidth) {
+			this.shardWidth = shardWidth;
+		}
+
+		public long getMappedCacheSize() {
+			return mappedCacheSize;
+		}
+
+		public void setMappedCacheSize(long mappedCacheSize) {
+			this.mappedCacheSize = mappedCacheSize;
+		}
+
+		public long getMappedFileMaxSize() {
+			return mappedFileMaxSize;
+		}
+
+		public void setMappedFileMaxSize(long mappedFileMaxSize) {
+			this.mappedFileMaxSize = mappedFileMaxSize;
+		}
+
+		public long getMappedIdleMillis() {
+			return mappedIdleMillis;
+		}
+
+		public void setMappedIdleMillis(long mappedIdleMillis) {
+			this.mappedIdleMillis = mappedIdleMillis;
+		}
 	}
 }
@@ -0,0 +1,62 @@
+package org.springframework.content.commons.boot;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.nio.file.Files;
+
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.util.EnvironmentTestUtils;
+import org.springframework.content.commons.io.ContentCache;
+import org.springframework.content.commons.io.ContentCache.EvictionPolicy;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+import internal.org.springframework.content.commons.boot.autoconfigure.ContentCacheAutoConfiguration;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class ContentCacheAutoConfigurationTest {
+
+	private AnnotationConfigApplicationContext context;
+
+	{
+		Describe("ContentCacheAutoConfiguration", () -> {
+			BeforeEach(() -> {
+				context = new AnnotationConfigApplicationContext();
+			});
+			AfterEach(() -> {
+				context.close();
+			});
+			Context("given a default configuration", () -> {
+				It("should not register a content cache", () -> {
+					context.register(ContentCacheAutoConfiguration.class);
+					context.refresh();
+					assertThat(context.getBeanNamesForType(ContentCache.class).length, is(0));
+				});
+			});
+			Context("given the content cache is enabled", () -> {
+				BeforeEach(() -> {
+					EnvironmentTestUtils.addEnvironment(context, "content.cache.enabled:true",
+							"content.cache.directory:" + Files.createTempDirectory("content-cache"),
+							"content.cache.max-size:1024",
+							"content.cache.eviction-policy:LFU");
+				});
+				It("should register a configured content cache", () -> {
+					context.register(ContentCacheAutoConfiguration.class);
+					context.refresh();
+					ContentCache cache = context.getBean(ContentCache.class);
+					assertThat(cache.getMaxSize(), is(1024L));
+					assertThat(cache.getEvictionPolicy(), is(EvictionPolicy.LFU));
+				});
+			});
+		});
+	}
+}
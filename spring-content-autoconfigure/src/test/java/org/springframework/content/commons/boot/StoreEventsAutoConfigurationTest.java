@@ -0,0 +1,55 @@
+package org.springframework.content.commons.boot;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.util.EnvironmentTestUtils;
+import org.springframework.content.commons.repository.events.AsyncStoreEventDispatcher;
+import org.springframework.content.commons.repository.events.AsyncStoreEventDispatcher.OverflowPolicy;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+import internal.org.springframework.content.commons.boot.autoconfigure.StoreEventsAutoConfiguration;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class StoreEventsAutoConfigurationTest {
+
+	private AnnotationConfigApplicationContext context;
+
+	{
+		Describe("StoreEventsAutoConfiguration", () -> {
+			BeforeEach(() -> {
+				context = new AnnotationConfigApplicationContext();
+			});
+			AfterEach(() -> {
+				context.close();
+			});
+			Context("given a default configuration", () -> {
+				It("should not register an async dispatcher", () -> {
+					context.register(StoreEventsAutoConfiguration.class);
+					context.refresh();
+					assertThat(context.getBeanNamesForType(AsyncStoreEventDispatcher.class).length, is(0));
+				});
+			});
+			Context("given async dispatch is enabled", () -> {
+				BeforeEach(() -> {
+					EnvironmentTestUtils.addEnvironment(context, "content.events.async.enabled:true", "content.events.async.overflow-policy:DROP");
+				});
+				It("should register a configured async dispatcher", () -> {
+					context.register(StoreEventsAutoConfiguration.class);
+					context.refresh();
+					assertThat(context.getBean(AsyncStoreEventDispatcher.class).getOverflowPolicy(), is(OverflowPolicy.DROP));
+				});
+			});
+		});
+	}
+}
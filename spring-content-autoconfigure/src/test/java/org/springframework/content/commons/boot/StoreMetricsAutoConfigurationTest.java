@@ -0,0 +1,76 @@
+package org.springframework.content.commons.boot;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.util.EnvironmentTestUtils;
+import org.springframework.content.commons.metrics.MicrometerStoreMetrics;
+import org.springframework.content.commons.metrics.StoreMetrics;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+import internal.org.springframework.content.commons.boot.autoconfigure.StoreMetricsAutoConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class StoreMetricsAutoConfigurationTest {
+
+	private AnnotationConfigApplicationContext context;
+
+	{
+		Describe("StoreMetricsAutoConfiguration", () -> {
+			BeforeEach(() -> {
+				context = new AnnotationConfigApplicationContext();
+			});
+			AfterEach(() -> {
+				context.close();
+			});
+			Context("given no meter registry", () -> {
+				It("should not register store metrics", () -> {
+					context.register(StoreMetricsAutoConfiguration.class);
+					context.refresh();
+					assertThat(context.getBeanNamesForType(StoreMetrics.class).length, is(0));
+				});
+			});
+			Context("given a meter registry", () -> {
+				It("should register Micrometer store metrics", () -> {
+					context.register(RegistryConfig.class, StoreMetricsAutoConfiguration.class);
+					context.refresh();
+					assertThat(context.getBean(StoreMetrics.class), is(instanceOf(MicrometerStoreMetrics.class)));
+				});
+			});
+			Context("given metrics are disabled", () -> {
+				BeforeEach(() -> {
+					EnvironmentTestUtils.addEnvironment(context, "content.metrics.enabled:false");
+				});
+				It("should not register store metrics", () -> {
+					context.register(RegistryConfig.class, StoreMetricsAutoConfiguration.class);
+					context.refresh();
+					assertThat(context.getBeanNamesForType(StoreMetrics.class).length, is(0));
+				});
+			});
+		});
+	}
+
+	@Configuration
+	public static class RegistryConfig {
+
+		@Bean
+		public MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+}
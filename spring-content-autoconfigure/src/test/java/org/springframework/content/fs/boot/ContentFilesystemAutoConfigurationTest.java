@@ -1,5 +1,7 @@
 package org.springframework.content.fs.boot;
 
+import java.util.Arrays;
+
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -8,10 +10,13 @@ import javax.persistence.Id;
 import org.junit.runner.RunWith;
 import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.util.EnvironmentTestUtils;
 import org.springframework.content.commons.annotations.Content;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.repository.ContentStore;
 import org.springframework.content.fs.io.FileSystemResourceLoader;
+import org.springframework.content.fs.io.FsyncPolicy;
+import org.springframework.content.fs.io.ShardedFileSystemLayout;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -21,6 +26,7 @@ import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
 
 import static org.hamcrest.CoreMatchers.endsWith;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
@@ -66,6 +72,65 @@ public class ContentFilesystemAutoConfigurationTest {
 				});
 			});
 
+			Context("given an environment specifying atomic, synced writes", () -> {
+				It("should configure the loader to write atomically and fsync", () -> {
+					AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+					EnvironmentTestUtils.addEnvironment(context, "content.fs.atomic-writes=true", "content.fs.fsync-policy=FILE_AND_DIRECTORY");
+					context.register(TestConfig.class);
+					context.refresh();
+
+					FileSystemResourceLoader loader = context.getBean(FileSystemResourceLoader.class);
+					assertThat(loader.isAtomicWrites(), is(true));
+					assertThat(loader.getFsyncPolicy(), is(FsyncPolicy.FILE_AND_DIRECTORY));
+
+					context.close();
+				});
+			});
+
+			Context("given an environment specifying a shard depth", () -> {
+				It("should configure the loader with a sharded layout", () -> {
+					AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+					EnvironmentTestUtils.addEnvironment(context, "content.fs.shard-depth=3", "content.fs.shard-width=1");
+					context.register(TestConfig.class);
+					context.refresh();
+
+					FileSystemResourceLoader loader = context.getBean(FileSystemResourceLoader.class);
+					assertThat(loader.getLayout(), is(instanceOf(ShardedFileSystemLayout.class)));
+					assertThat(((ShardedFileSystemLayout)loader.getLayout()).getDepth(), is(3));
+					assertThat(((ShardedFileSystemLayout)loader.getLayout()).getWidth(), is(1));
+
+					context.close();
+				});
+			});
+
+			Context("given an environment specifying a mapped cache size", () -> {
+				It("should configure the loader with a mapped file cache", () -> {
+					AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+					EnvironmentTestUtils.addEnvironment(context, "content.fs.mapped-cache-size=1048576", "content.fs.mapped-file-max-size=4096");
+					context.register(TestConfig.class);
+					context.refresh();
+
+					FileSystemResourceLoader loader = context.getBean(FileSystemResourceLoader.class);
+					assertThat(loader.getMappedFileCache().getMaxFileSize(), is(4096L));
+
+					context.close();
+				});
+			});
+
+			Context("given an environment specifying several filesystem roots", () -> {
+				It("should configure the loader to stripe content over them", () -> {
+					AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+					EnvironmentTestUtils.addEnvironment(context, "content.fs.filesystem-roots=/some/disk1/,/some/disk2/");
+					context.register(TestConfig.class);
+					context.refresh();
+
+					FileSystemResourceLoader loader = context.getBean(FileSystemResourceLoader.class);
+					assertThat(loader.getFilesystemRoots(), is(Arrays.asList("/some/disk1/", "/some/disk2/")));
+
+					context.close();
+				});
+			});
+
 			Context("given a configuration that contributes a loader bean", () -> {
 				It("should have that loader bean in the context", () -> {
 					AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
@@ -0,0 +1,81 @@
+package internal.org.springframework.content.commons.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * An input stream that counts the bytes read from the stream it wraps, and reports the
+ * count once, when the end of the stream is reached or the stream is closed.
+ * Skipped bytes are not counted.
+ */
+public class CountingInputStream extends FilterInputStream {
+
+	private final LongConsumer listener;
+	private long count;
+	private boolean reported;
+
+	public CountingInputStream(InputStream in, LongConsumer listener) {
+		super(in);
+		this.listener = listener;
+	}
+
+	@Override
+	public int read() throws IOException {
+		int b = super.read();
+		if (b == -1) {
+			report();
+		} else {
+			count++;
+		}
+		return b;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		int n = super.read(b, off, len);
+		if (n == -1) {
+			report();
+		} else {
+			count += n;
+		}
+		return n;
+	}
+
+	/**
+	 * Returns the stream being counted, so that copies can transfer from it directly.
+	 */
+	public InputStream getWrapped() {
+		return in;
+	}
+
+	/**
+	 * Counts bytes read from the wrapped stream other than through this stream, such as
+	 * by a channel transfer.
+	 */
+	public void count(long bytes) {
+		count += bytes;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			super.close();
+		} finally {
+			report();
+		}
+	}
+
+	private void report() {
+		if (!reported) {
+			reported = true;
+			listener.accept(count);
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package internal.org.springframework.content.commons.io;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * An output stream that counts the bytes written to the stream it wraps, and reports the
+ * count once, when the stream is closed.
+ */
+public class CountingOutputStream extends FilterOutputStream {
+
+	private final LongConsumer listener;
+	private long count;
+	private boolean reported;
+
+	public CountingOutputStream(OutputStream out, LongConsumer listener) {
+		super(out);
+		this.listener = listener;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		out.write(b);
+		count++;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		out.write(b, off, len);
+		count += len;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			super.close();
+		} finally {
+			if (!reported) {
+				reported = true;
+				listener.accept(count);
+			}
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package internal.org.springframework.content.commons.io;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * A publisher that completes immediately without emitting anything.
+ */
+public final class EmptyPublisher<T> implements Publisher<T> {
+
+	private static final EmptyPublisher<Object> INSTANCE = new EmptyPublisher<>();
+
+	private EmptyPublisher() {
+	}
+
+	@SuppressWarnings("unchecked")
+	public static <T> Publisher<T> instance() {
+		return (Publisher<T>) INSTANCE;
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super T> subscriber) {
+		subscriber.onSubscribe(new Subscription() {
+			@Override
+			public void request(long n) {
+			}
+
+			@Override
+			public void cancel() {
+			}
+		});
+		subscriber.onComplete();
+	}
+}
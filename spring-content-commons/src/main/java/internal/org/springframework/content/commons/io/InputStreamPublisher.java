@@ -0,0 +1,139 @@
+package internal.org.springframework.content.commons.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.util.Assert;
+
+/**
+ * Publishes the content of a blocking {@link InputStream} as {@link ByteBuffer}s.
+ * <p>
+ * The stream is opened on first demand and read on the given executor, one buffer per
+ * requested element, so that subscribers never block on I/O.
+ */
+public class InputStreamPublisher implements Publisher<ByteBuffer> {
+
+	private final Callable<InputStream> streamSupplier;
+	private final Executor executor;
+	private final int bufferSize;
+
+	public InputStreamPublisher(Callable<InputStream> streamSupplier, Executor executor, int bufferSize) {
+		Assert.notNull(streamSupplier, "streamSupplier must not be null");
+		Assert.notNull(executor, "executor must not be null");
+		Assert.isTrue(bufferSize > 0, "bufferSize must be greater than zero");
+		this.streamSupplier = streamSupplier;
+		this.executor = executor;
+		this.bufferSize = bufferSize;
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super ByteBuffer> subscriber) {
+		Assert.notNull(subscriber, "subscriber must not be null");
+		subscriber.onSubscribe(new ReadSubscription(subscriber));
+	}
+
+	private class ReadSubscription implements Subscription, Runnable {
+
+		private final Subscriber<? super ByteBuffer> subscriber;
+		private final AtomicLong demand = new AtomicLong();
+		private final AtomicInteger wip = new AtomicInteger();
+
+		private volatile boolean cancelled;
+		private volatile Throwable requestError;
+		private boolean done;
+		private InputStream stream;
+
+		ReadSubscription(Subscriber<? super ByteBuffer> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				requestError = new IllegalArgumentException("request must be greater than zero (rule 3.9)");
+			} else {
+				long current, next;
+				do {
+					current = demand.get();
+					next = current + n < 0 ? Long.MAX_VALUE : current + n;
+				} while (!demand.compareAndSet(current, next));
+			}
+			schedule();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			schedule();
+		}
+
+		private void schedule() {
+			if (wip.getAndIncrement() == 0) {
+				executor.execute(this);
+			}
+		}
+
+		@Override
+		public void run() {
+			int missed = 1;
+			do {
+				drain();
+				missed = wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void drain() {
+			if (done) {
+				return;
+			}
+			if (cancelled) {
+				terminate();
+				return;
+			}
+			if (requestError != null) {
+				terminate();
+				subscriber.onError(requestError);
+				return;
+			}
+
+			try {
+				if (stream == null) {
+					stream = streamSupplier.call();
+				}
+				while (demand.get() > 0 && !cancelled) {
+					byte[] bytes = new byte[bufferSize];
+					int read = stream.read(bytes);
+					if (read == -1) {
+						terminate();
+						subscriber.onComplete();
+						return;
+					}
+					demand.decrementAndGet();
+					subscriber.onNext(ByteBuffer.wrap(bytes, 0, read));
+				}
+			} catch (Exception e) {
+				terminate();
+				subscriber.onError(e);
+			}
+		}
+
+		private void terminate() {
+			done = true;
+			if (stream != null) {
+				try {
+					stream.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+	}
+}
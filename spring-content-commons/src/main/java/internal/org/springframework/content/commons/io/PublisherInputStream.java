@@ -0,0 +1,122 @@
+package internal.org.springframework.content.commons.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Exposes a {@link Publisher} of {@link ByteBuffer}s as a blocking {@link InputStream}
+ * for APIs that only accept streams.
+ * <p>
+ * Buffers are requested one at a time, as the previous one is consumed, so at most one
+ * buffer is held in memory.  Reads block until the next buffer arrives.
+ */
+public class PublisherInputStream extends InputStream implements Subscriber<ByteBuffer> {
+
+	private static final Object COMPLETE = new Object();
+
+	private final BlockingQueue<Object> signals = new LinkedBlockingQueue<>();
+
+	private volatile Subscription subscription;
+	private ByteBuffer current;
+	private boolean finished;
+
+	public PublisherInputStream(Publisher<ByteBuffer> publisher) {
+		publisher.subscribe(this);
+	}
+
+	@Override
+	public void onSubscribe(Subscription subscription) {
+		this.subscription = subscription;
+		subscription.request(1);
+	}
+
+	@Override
+	public void onNext(ByteBuffer buffer) {
+		signals.add(buffer);
+	}
+
+	@Override
+	public void onError(Throwable t) {
+		signals.add(t);
+	}
+
+	@Override
+	public void onComplete() {
+		signals.add(COMPLETE);
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!fill()) {
+			return -1;
+		}
+		return current.get() & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (!fill()) {
+			return -1;
+		}
+		int n = Math.min(len, current.remaining());
+		current.get(b, off, n);
+		return n;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return current != null ? current.remaining() : 0;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!finished) {
+			finished = true;
+			Subscription s = subscription;
+			if (s != null) {
+				s.cancel();
+			}
+		}
+	}
+
+	private boolean fill() throws IOException {
+		while (current == null || !current.hasRemaining()) {
+			if (finished) {
+				return false;
+			}
+			if (current != null) {
+				current = null;
+				subscription.request(1);
+			}
+
+			Object signal;
+			try {
+				signal = signals.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted waiting for content");
+			}
+
+			if (signal == COMPLETE) {
+				finished = true;
+				return false;
+			} else if (signal instanceof Throwable) {
+				finished = true;
+				throw new IOException("Error publishing content", (Throwable) signal);
+			}
+			current = (ByteBuffer) signal;
+		}
+		return true;
+	}
+}
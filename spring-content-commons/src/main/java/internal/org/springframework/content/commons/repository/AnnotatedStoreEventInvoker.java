@@ -16,6 +16,7 @@ import org.springframework.content.commons.annotations.HandleBeforeGetContent;
 import org.springframework.content.commons.annotations.HandleBeforeSetContent;
 import org.springframework.content.commons.annotations.HandleBeforeUnsetContent;
 import org.springframework.content.commons.annotations.StoreEventHandler;
+import org.springframework.content.commons.repository.StoreBatchEvent;
 import org.springframework.content.commons.repository.StoreEvent;
 import org.springframework.content.commons.repository.events.AfterGetContentEvent;
 import org.springframework.content.commons.repository.events.AfterSetContentEvent;
@@ -25,7 +26,9 @@ import org.springframework.content.commons.repository.events.BeforeSetContentEve
 import org.springframework.content.commons.repository.events.BeforeUnsetContentEvent;
 import org.springframework.content.commons.utils.ReflectionService;
 import org.springframework.content.commons.utils.ReflectionServiceImpl;
-import org.springframework.context.ApplicationListener;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.event.SmartApplicationListener;
+import org.springframework.core.Ordered;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.LinkedMultiValueMap;
@@ -33,7 +36,7 @@ import org.springframework.util.MultiValueMap;
 import org.springframework.util.ReflectionUtils;
 
 public class AnnotatedStoreEventInvoker
-		implements ApplicationListener<StoreEvent>, BeanPostProcessor {
+		implements SmartApplicationListener, BeanPostProcessor {
 
 	private static final Log logger = LogFactory.getLog(AnnotatedStoreEventInvoker.class);
 
@@ -88,9 +91,50 @@ public class AnnotatedStoreEventInvoker
 		return bean;
 	}
 
+	/**
+	 * Whether any handler method has been registered for the given event type.
+	 * <p>
+	 * Unlike {@link #supportsEventType(Class)} the answer may change while the context is
+	 * refreshing, as handler beans are post-processed.  Batch events have handlers when
+	 * their per-entity event does.
+	 *
+	 * @param eventType
+	 * 					the store event type
+	 * @return true if a handler for eventType exists
+	 */
+	public boolean hasHandlers(Class<? extends ApplicationEvent> eventType) {
+		Class<? extends StoreEvent> entityEventType = StoreBatchEvent.getEntityEventType(eventType);
+		return handlerMethods.containsKey(entityEventType != null ? entityEventType : eventType);
+	}
+
+	@Override
+	public boolean supportsEventType(Class<? extends ApplicationEvent> eventType) {
+		return StoreEvent.class.isAssignableFrom(eventType);
+	}
+
+	@Override
+	public boolean supportsSourceType(Class<?> sourceType) {
+		return true;
+	}
+
 	@Override
-	public void onApplicationEvent(StoreEvent event) {
-		Class<? extends StoreEvent> eventType = event.getClass();
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE;
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationEvent event) {
+		if (event instanceof StoreBatchEvent) {
+			StoreBatchEvent<?> batch = (StoreBatchEvent<?>) event;
+			if (hasHandlers(batch.getClass())) {
+				for (Object entity : batch.getEntities()) {
+					onApplicationEvent(batch.forEntity(entity));
+				}
+			}
+			return;
+		}
+
+		Class<? extends ApplicationEvent> eventType = event.getClass();
 
 		if (!handlerMethods.containsKey(eventType)) {
 			return;
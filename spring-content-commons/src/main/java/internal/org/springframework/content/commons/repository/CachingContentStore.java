@@ -0,0 +1,178 @@
+package internal.org.springframework.content.commons.repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.io.ContentCache;
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.StoreAccessException;
+import org.springframework.content.commons.utils.ContentPropertyMetadata;
+import org.springframework.util.Assert;
+
+/**
+ * Decorates a {@link ContentStore} with a read-through {@link ContentCache}.
+ * <p>
+ * Content is cached by content id.  Cached content is invalidated once the delegate has
+ * set or unset it, at the point the corresponding After* event is published.  Ranged
+ * reads are served from the cache when the content is cached, but do not populate it.
+ * Writes made through {@link #getResource(Serializable)} bypass the cache.
+ */
+public class CachingContentStore<S, SID extends Serializable> extends ContentStoreDecorator<S, SID> {
+
+	private final ContentCache cache;
+	private final String namespace;
+
+	/**
+	 * @param delegate
+	 * 					the store to cache content of
+	 * @param cache
+	 * 					the cache
+	 * @param namespace
+	 * 					prefixes this store's cache keys so that stores can share a cache
+	 */
+	public CachingContentStore(ContentStore<S, SID> delegate, ContentCache cache, String namespace) {
+		super(delegate);
+		Assert.notNull(cache, "cache cannot be null");
+		Assert.notNull(namespace, "namespace cannot be null");
+
+		this.cache = cache;
+		this.namespace = namespace;
+	}
+
+	@Override
+	public void setContent(S property, InputStream content) {
+		Object previousId = contentId(property);
+		try {
+			getDelegate().setContent(property, content);
+		} finally {
+			invalidate(previousId);
+			invalidate(contentId(property));
+		}
+	}
+
+	@Override
+	public void unsetContent(S property) {
+		Object previousId = contentId(property);
+		try {
+			getDelegate().unsetContent(property);
+		} finally {
+			invalidate(previousId);
+		}
+	}
+
+	@Override
+	public InputStream getContent(S property) {
+		Object contentId = contentId(property);
+		if (contentId == null) {
+			return getDelegate().getContent(property);
+		}
+
+		try {
+			return cache.get(key(contentId), () -> getDelegate().getContent(property));
+		} catch (IOException e) {
+			throw new StoreAccessException(String.format("Unable to get content %s", contentId), e);
+		}
+	}
+
+	@Override
+	public InputStream getContent(S property, long offset, long length) {
+		Object contentId = contentId(property);
+		if (contentId != null) {
+			try {
+				InputStream cached = cache.getIfPresent(key(contentId), offset, length);
+				if (cached != null) {
+					return cached;
+				}
+			} catch (IOException e) {
+				throw new StoreAccessException(String.format("Unable to get content %s", contentId), e);
+			}
+		}
+		return getDelegate().getContent(property, offset, length);
+	}
+
+	@Override
+	public Map<S, InputStream> getContents(Collection<S> properties) {
+		// read through the cache one property at a time
+		Map<S, InputStream> contents = new LinkedHashMap<>();
+		for (S property : properties) {
+			contents.put(property, getContent(property));
+		}
+		return contents;
+	}
+
+	@Override
+	public void setContents(Map<S, InputStream> contents) {
+		List<Object> ids = contentIds(contents.keySet());
+		try {
+			getDelegate().setContents(contents);
+		} finally {
+			ids.addAll(contentIds(contents.keySet()));
+			ids.forEach(this::invalidate);
+		}
+	}
+
+	@Override
+	public void unsetContents(Collection<S> properties) {
+		List<Object> ids = contentIds(properties);
+		try {
+			getDelegate().unsetContents(properties);
+		} finally {
+			ids.forEach(this::invalidate);
+		}
+	}
+
+	@Override
+	public void copyContent(S source, S target) {
+		Object previousId = contentId(target);
+		try {
+			getDelegate().copyContent(source, target);
+		} finally {
+			invalidate(previousId);
+			invalidate(contentId(target));
+		}
+	}
+
+	@Override
+	public void moveContent(S source, S target) {
+		Object sourceId = contentId(source);
+		Object previousId = contentId(target);
+		try {
+			getDelegate().moveContent(source, target);
+		} finally {
+			invalidate(sourceId);
+			invalidate(previousId);
+			invalidate(contentId(target));
+		}
+	}
+
+	private void invalidate(Object contentId) {
+		if (contentId != null) {
+			cache.invalidate(key(contentId));
+		}
+	}
+
+	private String key(Object contentId) {
+		return namespace + ":" + contentId;
+	}
+
+	private List<Object> contentIds(Collection<S> properties) {
+		List<Object> ids = new ArrayList<>(properties.size());
+		for (S property : properties) {
+			ids.add(contentId(property));
+		}
+		return ids;
+	}
+
+	private static Object contentId(Object property) {
+		if (property == null)
+			return null;
+		return ContentPropertyMetadata.forClass(property.getClass()).getValue(property, ContentId.class);
+	}
+}
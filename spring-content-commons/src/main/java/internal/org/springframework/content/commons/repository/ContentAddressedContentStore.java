@@ -0,0 +1,290 @@
+package internal.org.springframework.content.commons.repository;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.io.ContentCopyUtils;
+import org.springframework.content.commons.repository.AssociativeStore;
+import org.springframework.content.commons.repository.ContentReferenceIndex;
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.Store;
+import org.springframework.content.commons.repository.StoreAccessException;
+import org.springframework.content.commons.utils.ContentPropertyMetadata;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.util.Assert;
+
+/**
+ * Decorates a {@link ContentStore} so that content is stored once per SHA-256 digest.
+ * <p>
+ * Content is spooled to a temporary file while its digest is computed.  When content
+ * with the same digest is already stored the property is pointed at it and the
+ * delegate is not written to.  Stored content is only deleted once the last property
+ * referencing it is unset, and never when the index does not know of it.  Stores whose content ids are Strings use the digest as the
+ * content id; others keep the ids their delegate generates.
+ * <p>
+ * References are indexed under the store's name, so content is only shared between
+ * entities of the same store.
+ */
+public class ContentAddressedContentStore<S, SID extends Serializable> extends ContentStoreDecorator<S, SID> {
+
+	private static Log logger = LogFactory.getLog(ContentAddressedContentStore.class);
+
+	private static final String ALGORITHM = "SHA-256";
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+	private static final int LOCKS = 64;
+
+	private final ContentReferenceIndex index;
+	private final String store;
+	private final Object[] locks = new Object[LOCKS];
+
+	public ContentAddressedContentStore(ContentStore<S, SID> delegate, ContentReferenceIndex index, String store) {
+		super(delegate);
+		Assert.notNull(index, "index cannot be null");
+		Assert.hasText(store, "store cannot be empty");
+
+		this.index = index;
+		this.store = store;
+		for (int i = 0; i < LOCKS; i++) {
+			locks[i] = new Object();
+		}
+	}
+
+	@Override
+	public void setContent(S property, InputStream content) {
+		ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(property.getClass());
+
+		File spool = null;
+		try {
+			spool = File.createTempFile("content-addressed", ".tmp");
+			MessageDigest md = MessageDigest.getInstance(ALGORITHM);
+			long length;
+			try (InputStream in = new DigestInputStream(content, md); OutputStream out = new FileOutputStream(spool)) {
+				length = ContentCopyUtils.copy(in, out);
+			}
+			String digest = hex(md.digest());
+
+			Object previousId = metadata.getValue(property, ContentId.class);
+			Object previousLength = metadata.getValue(property, ContentLength.class);
+			if (previousId != null && digest.equals(index.findDigest(store, previousId))) {
+				metadata.setValue(property, ContentLength.class, length);
+				return;
+			}
+
+			Object contentId;
+			synchronized (lock(digest)) {
+				contentId = toContentId(metadata, index.findContentId(store, digest));
+				if (contentId != null) {
+					index.addReference(store, digest, contentId);
+				} else {
+					Class<?> idType = metadata.getPropertyType(ContentId.class);
+					metadata.setValue(property, ContentId.class, idType != null && idType.isAssignableFrom(String.class) ? digest : null);
+					if (metadata.getPropertyType(ContentLength.class) != null) {
+						metadata.setValue(property, ContentLength.class, -1L);
+					}
+					try (InputStream in = new FileInputStream(spool)) {
+						getDelegate().setContent(property, in);
+					}
+					contentId = metadata.getValue(property, ContentId.class);
+					if (!written(property, metadata, contentId)) {
+						metadata.setValue(property, ContentId.class, previousId);
+						metadata.setValue(property, ContentLength.class, previousLength);
+						throw new StoreAccessException(String.format("Unable to write content %s", digest));
+					}
+					index.addReference(store, digest, contentId);
+				}
+			}
+
+			// the previous content is only released once the new content is referenced, so
+			// that a failed write leaves the property as it was
+			if (previousId != null) {
+				metadata.setValue(property, ContentId.class, previousId);
+				release(property, metadata, previousId);
+			}
+			metadata.setValue(property, ContentId.class, contentId);
+			metadata.setValue(property, ContentLength.class, length);
+		} catch (IOException | NoSuchAlgorithmException e) {
+			throw new StoreAccessException("Unable to set content-addressed content", e);
+		} finally {
+			if (spool != null && !spool.delete()) {
+				logger.debug(String.format("Unable to delete spool file %s", spool));
+			}
+		}
+	}
+
+	@Override
+	public void unsetContent(S property) {
+		if (property == null)
+			return;
+		ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(property.getClass());
+		Object contentId = metadata.getValue(property, ContentId.class);
+		if (contentId == null)
+			return;
+
+		release(property, metadata, contentId);
+	}
+
+	/**
+	 * Points target at source's stored content, without copying it.
+	 */
+	@Override
+	public void copyContent(S source, S target) {
+		ContentPropertyMetadata sourceMetadata = ContentPropertyMetadata.forClass(source.getClass());
+		Object contentId = sourceMetadata.getValue(source, ContentId.class);
+		if (contentId == null)
+			return;
+		String digest = index.findDigest(store, contentId);
+		if (digest == null) {
+			// not stored by digest, so copy the content itself
+			super.copyContent(source, target);
+			return;
+		}
+
+		ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(target.getClass());
+		Object previousId = metadata.getValue(target, ContentId.class);
+		if (previousId != null && digest.equals(index.findDigest(store, previousId))) {
+			metadata.setValue(target, ContentLength.class, sourceMetadata.getValue(source, ContentLength.class));
+			return;
+		}
+
+		// the digest is read again under its lock, so that the content cannot be released
+		// between finding it and referencing it
+		synchronized (lock(digest)) {
+			if (!digest.equals(index.findDigest(store, contentId))) {
+				throw new StoreAccessException(String.format("Content %s was released while being copied", contentId));
+			}
+			index.addReference(store, digest, contentId);
+		}
+		if (previousId != null) {
+			release(target, metadata, previousId);
+		}
+		metadata.setValue(target, ContentId.class, contentId);
+		metadata.setValue(target, ContentLength.class, sourceMetadata.getValue(source, ContentLength.class));
+	}
+
+	/**
+	 * Associates entity with the content stored under id, referencing it when it is stored
+	 * by digest, and releases the content entity was previously associated with.
+	 */
+	@Override
+	public void associate(S entity, SID id) {
+		if (!(getDelegate() instanceof AssociativeStore)) {
+			super.associate(entity, id);
+			return;
+		}
+
+		ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(entity.getClass());
+		Object previousId = metadata.getValue(entity, ContentId.class);
+		if (id.equals(previousId)) {
+			super.associate(entity, id);
+			return;
+		}
+
+		String digest = index.findDigest(store, id);
+		if (digest != null) {
+			synchronized (lock(digest)) {
+				if (!digest.equals(index.findDigest(store, id))) {
+					throw new StoreAccessException(String.format("Content %s was released while being associated", id));
+				}
+				index.addReference(store, digest, id);
+			}
+		}
+		if (previousId != null) {
+			release(entity, metadata, previousId);
+		}
+		super.associate(entity, id);
+	}
+
+	/**
+	 * Removes entity's reference to its content.  Unassociating never deletes content, so
+	 * content whose last reference is removed is left in the store.
+	 */
+	@Override
+	public void unassociate(S entity) {
+		if (!(getDelegate() instanceof AssociativeStore)) {
+			super.unassociate(entity);
+			return;
+		}
+
+		ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(entity.getClass());
+		Object contentId = metadata.getValue(entity, ContentId.class);
+		if (contentId != null) {
+			String digest = index.findDigest(store, contentId);
+			if (digest != null) {
+				synchronized (lock(digest)) {
+					index.removeReference(store, digest);
+				}
+			}
+		}
+		super.unassociate(entity);
+	}
+
+	// the filesystem and s3 stores log write failures rather than throwing them, so a write
+	// is only trusted once the delegate has set the content length, or the content exists
+	@SuppressWarnings("unchecked")
+	private boolean written(S property, ContentPropertyMetadata metadata, Object contentId) {
+		if (contentId == null) {
+			return false;
+		}
+		if (metadata.getPropertyType(ContentLength.class) != null) {
+			Object length = metadata.getValue(property, ContentLength.class);
+			return !(length instanceof Number) || ((Number) length).longValue() != -1L;
+		}
+		if (getDelegate() instanceof Store) {
+			return ((Store<Serializable>) getDelegate()).getResource((Serializable) contentId).exists();
+		}
+		return true;
+	}
+
+	// indexes may only hold ids as Strings, so ids are converted back to the property's type
+	private Object toContentId(ContentPropertyMetadata metadata, Object contentId) {
+		Class<?> idType = metadata.getPropertyType(ContentId.class);
+		if (contentId == null || idType == null || idType.isInstance(contentId)) {
+			return contentId;
+		}
+		return DefaultConversionService.getSharedInstance().convert(contentId, idType);
+	}
+
+	// content is only deleted once the index says it is no longer referenced; content the
+	// index does not know of may still be referenced, so it is left in place
+	private void release(S property, ContentPropertyMetadata metadata, Object contentId) {
+		String digest = index.findDigest(store, contentId);
+		if (digest == null) {
+			logger.warn(String.format("Content %s is not in the reference index, so it is not deleted", contentId));
+		} else {
+			synchronized (lock(digest)) {
+				if (index.removeReference(store, digest) == 0) {
+					getDelegate().unsetContent(property);
+				}
+			}
+		}
+
+		// reset content fields
+		metadata.setValue(property, ContentId.class, null);
+		metadata.setValue(property, ContentLength.class, 0);
+	}
+
+	private Object lock(String digest) {
+		return locks[(digest.hashCode() & Integer.MAX_VALUE) % LOCKS];
+	}
+
+	private static String hex(byte[] bytes) {
+		char[] chars = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			chars[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+			chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+		}
+		return new String(chars);
+	}
+}
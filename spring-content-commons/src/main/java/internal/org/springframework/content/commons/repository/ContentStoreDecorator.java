@@ -0,0 +1,86 @@
+package internal.org.springframework.content.commons.repository;
+
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+
+import org.springframework.content.commons.repository.AssociativeStore;
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.Store;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+
+/**
+ * Base class for {@link ContentStore}s that add behavior to another store.  All
+ * operations are passed through to the delegate; {@link Store} and
+ * {@link AssociativeStore} operations throw {@link UnsupportedOperationException} when
+ * the delegate does not implement them.
+ */
+public abstract class ContentStoreDecorator<S, SID extends Serializable> implements Store<SID>, AssociativeStore<S, SID>, ContentStore<S, SID> {
+
+	private final ContentStore<S, SID> delegate;
+
+	protected ContentStoreDecorator(ContentStore<S, SID> delegate) {
+		Assert.notNull(delegate, "delegate cannot be null");
+		this.delegate = delegate;
+	}
+
+	protected ContentStore<S, SID> getDelegate() {
+		return delegate;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public Resource getResource(SID id) {
+		if (delegate instanceof Store) {
+			return ((Store<SID>) delegate).getResource(id);
+		}
+		throw new UnsupportedOperationException(String.format("%s does not support getResource", delegate.getClass().getSimpleName()));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void associate(S entity, SID id) {
+		if (delegate instanceof AssociativeStore) {
+			((AssociativeStore<S, SID>) delegate).associate(entity, id);
+			return;
+		}
+		throw new UnsupportedOperationException(String.format("%s does not support associate", delegate.getClass().getSimpleName()));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void unassociate(S entity) {
+		if (delegate instanceof AssociativeStore) {
+			((AssociativeStore<S, SID>) delegate).unassociate(entity);
+			return;
+		}
+		throw new UnsupportedOperationException(String.format("%s does not support unassociate", delegate.getClass().getSimpleName()));
+	}
+
+	@Override
+	public void setContent(S property, InputStream content) {
+		delegate.setContent(property, content);
+	}
+
+	@Override
+	public void unsetContent(S property) {
+		delegate.unsetContent(property);
+	}
+
+	@Override
+	public InputStream getContent(S property) {
+		return delegate.getContent(property);
+	}
+
+	@Override
+	public InputStream getContent(S property, long offset, long length) {
+		return delegate.getContent(property, offset, length);
+	}
+
+	@Override
+	public Map<S, InputStream> getContents(Collection<S> properties) {
+		return delegate.getContents(properties);
+	}
+}
@@ -10,36 +10,55 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.content.commons.repository.StoreInvoker;
 import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.StoreExtension;
 import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
 
+/**
+ * The invoker handed to a store's extensions.  One invoker serves all of a store's
+ * extensions; the invocation an extension is handling is bound to the calling thread
+ * while it runs.
+ */
 public class StoreInvokerImpl implements StoreInvoker {
 
 	private static final Log LOGGER = LogFactory.getLog(StoreInvokerImpl.class);
 
-	private Class<?> domainClass = null;
+	private static final Method getContentMethod = ReflectionUtils.findMethod(ContentStore.class, "getContent", Object.class);
 
-	private Class<? extends Serializable> contentIdClass = null;
+	private final ThreadLocal<MethodInvocation> invocation = new ThreadLocal<>();
 
-	private Method getContentMethod = null;
+	private Class<?> domainClass = null;
 
-	private MethodInvocation invocation = null;
+	private Class<? extends Serializable> contentIdClass = null;
 
 
-	public StoreInvokerImpl(Class<?> domainClass, Class<? extends Serializable> contentIdClass, MethodInvocation invocation) {
-		Assert.notNull(domainClass, "domainClass must not be null");
+	/**
+	 * @param domainClass
+	 * 					the store's entity type, or null for stores that have none
+	 * @param contentIdClass
+	 * 					the store's content id type, or null for stores that have none
+	 */
+	public StoreInvokerImpl(Class<?> domainClass, Class<? extends Serializable> contentIdClass) {
 		this.domainClass = domainClass;
-
-		Assert.notNull(contentIdClass, "contentIdClass must not be null");
 		this.contentIdClass = contentIdClass;
+	}
 
+	/**
+	 * Has extension handle invocation with this invoker.
+	 */
+	public Object invoke(StoreExtension extension, MethodInvocation invocation) {
 		Assert.notNull(invocation, "invocation must not be null");
-		this.invocation = invocation;
-
+		// an extension may call another of the store's extensions
+		MethodInvocation outer = this.invocation.get();
+		this.invocation.set(invocation);
 		try {
-			Class<?> storeClazz  = ContentStore.class;
-			getContentMethod = storeClazz.getMethod("getContent", Object.class);
-		} catch (Exception e) {
-			LOGGER.error("Failed to get ContentStore.getContentmethod", e);
+			return extension.invoke(invocation, this);
+		} finally {
+			if (outer != null) {
+				this.invocation.set(outer);
+			} else {
+				this.invocation.remove();
+			}
 		}
 	}
 
@@ -55,8 +74,10 @@ public class StoreInvokerImpl implements StoreInvoker {
 
 	@Override
 	public InputStream invokeGetContent() {
+		MethodInvocation invocation = this.invocation.get();
+		Assert.state(invocation != null, "invokeGetContent can only be called by an extension handling an invocation");
 		try {
-			return (InputStream) this.getContentMethod.invoke(invocation.getThis(), invocation.getArguments()[0]);
+			return (InputStream) getContentMethod.invoke(invocation.getThis(), invocation.getArguments()[0]);
 		} catch (IllegalAccessException e) {
 			LOGGER.error(String.format("Unable to get content for inovcation", invocation.getMethod().getName()), e);
 		} catch (InvocationTargetException e) {
@@ -0,0 +1,261 @@
+package internal.org.springframework.content.commons.repository.factory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.content.commons.repository.StoreEvent;
+import org.springframework.content.commons.repository.events.AsyncStoreEventDispatcher;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.AbstractApplicationEventMulticaster;
+import org.springframework.context.event.ApplicationEventMulticaster;
+import org.springframework.context.support.AbstractApplicationContext;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import internal.org.springframework.content.commons.repository.AnnotatedStoreEventInvoker;
+
+/**
+ * Publishes store events, allowing callers to find out beforehand whether anyone is
+ * listening so that events need not be created at all.
+ * <p>
+ * Listeners are looked up through each context's event multicaster, as it would look
+ * them up to multicast the event, and the answer is cached by event and source type, so
+ * that asking again allocates nothing.  The multicasters, and the reflective access to
+ * them, are resolved once.  A multicaster discards its own cache whenever listeners are
+ * added or removed; that is detected and the cache is cleared, so listeners registered
+ * after refresh are seen, as are store event handlers.  Until the context is running, or
+ * when the publisher is not an {@link AbstractApplicationContext}, every event is
+ * assumed to have listeners.
+ * <p>
+ * When an {@link AsyncStoreEventDispatcher} is given, {@literal After*} events are
+ * handed to it instead of being published on the calling thread.
+ */
+class StoreEventPublisher {
+
+	private static final Log logger = LogFactory.getLog(StoreEventPublisher.class);
+
+	private static final Method getApplicationListenersMethod = ReflectionUtils.findMethod(AbstractApplicationEventMulticaster.class, "getApplicationListeners", ApplicationEvent.class, ResolvableType.class);
+
+	private static final Field retrieverCacheField = ReflectionUtils.findField(AbstractApplicationEventMulticaster.class, "retrieverCache");
+
+	private static final Constructor<?> listenerCacheKeyConstructor = ClassUtils.getConstructorIfAvailable(
+			ClassUtils.resolveClassName(AbstractApplicationEventMulticaster.class.getName() + "$ListenerCacheKey", AbstractApplicationEventMulticaster.class.getClassLoader()),
+			ResolvableType.class, Class.class);
+
+	static {
+		ReflectionUtils.makeAccessible(getApplicationListenersMethod);
+		ReflectionUtils.makeAccessible(retrieverCacheField);
+		ReflectionUtils.makeAccessible(listenerCacheKeyConstructor);
+	}
+
+	// the event type and source its canaries are looked up with
+	private static final ResolvableType CANARY_EVENT_TYPE = ResolvableType.forClass(StoreEvent.class);
+	private static final Object CANARY_SOURCE = new Object();
+
+	private final ApplicationEventPublisher publisher;
+	private final AsyncStoreEventDispatcher dispatcher;
+
+	private volatile Listeners listeners;
+
+	StoreEventPublisher(ApplicationEventPublisher publisher) {
+		this(publisher, null);
+	}
+
+	StoreEventPublisher(ApplicationEventPublisher publisher, AsyncStoreEventDispatcher dispatcher) {
+		this.publisher = publisher;
+		this.dispatcher = dispatcher;
+	}
+
+	/**
+	 * @param source
+	 * 					the source the event would have: an entity, or the collection of
+	 * 					entities of a batch event
+	 */
+	boolean hasListeners(Class<? extends StoreEvent> eventType, Object source) {
+		if (publisher == null) {
+			return false;
+		}
+		if (!(publisher instanceof AbstractApplicationContext) || !((AbstractApplicationContext) publisher).isRunning() || source == null) {
+			return true;
+		}
+
+		Listeners listeners = this.listeners;
+		if (listeners == null || !listeners.isCurrent()) {
+			listeners = new Listeners((AbstractApplicationContext) publisher);
+			this.listeners = listeners;
+		}
+		return listeners.hasListeners(eventType, source);
+	}
+
+	void publishEvent(StoreEvent event) {
+		publisher.publishEvent(event);
+	}
+
+	void publishAfterEvent(StoreEvent event) {
+		if (dispatcher != null) {
+			dispatcher.dispatch(event, publisher);
+		} else {
+			publisher.publishEvent(event);
+		}
+	}
+
+	/**
+	 * The multicasters of a context and its parents, and the answers they have given,
+	 * until any of them discards its cache.
+	 */
+	private static class Listeners {
+
+		private final AbstractApplicationContext context;
+		private final long startupDate;
+		private final List<AbstractApplicationEventMulticaster> multicasters = new ArrayList<>();
+		private final List<Map<?, ?>> retrieverCaches = new ArrayList<>();
+		private final List<Object> canaryKeys = new ArrayList<>();
+		private final List<Object> canaries = new ArrayList<>();
+		private final Map<Class<?>, Map<Class<?>, Answer>> answers = new ConcurrentHashMap<>();
+
+		// whether every multicaster could be introspected
+		private final boolean introspectable;
+
+		Listeners(AbstractApplicationContext context) {
+			this.context = context;
+			this.startupDate = context.getStartupDate();
+			this.introspectable = resolve(context);
+		}
+
+		// events are also published to every parent context
+		private boolean resolve(ApplicationContext context) {
+			while (context != null) {
+				if (!(context instanceof AbstractApplicationContext)) {
+					return false;
+				}
+				ApplicationEventMulticaster multicaster = context.getBean(AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME, ApplicationEventMulticaster.class);
+				if (!(multicaster instanceof AbstractApplicationEventMulticaster)) {
+					if (logger.isDebugEnabled()) {
+						logger.debug(String.format("Unable to introspect listeners of %s", multicaster));
+					}
+					return false;
+				}
+				multicasters.add((AbstractApplicationEventMulticaster) multicaster);
+				context = context.getParent();
+			}
+
+			// looked up before any answer is given, so that the canaries are replaced if
+			// listeners change while answers are being worked out
+			for (AbstractApplicationEventMulticaster multicaster : multicasters) {
+				getApplicationListeners(multicaster, new ProbeEvent(CANARY_SOURCE), CANARY_EVENT_TYPE);
+				Map<?, ?> retrieverCache = (Map<?, ?>) ReflectionUtils.getField(retrieverCacheField, multicaster);
+				Object canaryKey = BeanUtils.instantiateClass(listenerCacheKeyConstructor, CANARY_EVENT_TYPE, Object.class);
+				retrieverCaches.add(retrieverCache);
+				canaryKeys.add(canaryKey);
+				canaries.add(retrieverCache.get(canaryKey));
+			}
+			return true;
+		}
+
+		/**
+		 * Returns false once a multicaster has discarded its cache, as it does when
+		 * listeners are added or removed, or the context has been refreshed again.
+		 */
+		boolean isCurrent() {
+			if (context.getStartupDate() != startupDate) {
+				return false;
+			}
+			for (int i = 0; i < canaries.size(); i++) {
+				Object canary = canaries.get(i);
+				// a multicaster that does not cache this class loader's events cannot be watched
+				if (canary == null || retrieverCaches.get(i).get(canaryKeys.get(i)) != canary) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		boolean hasListeners(Class<? extends StoreEvent> eventType, Object source) {
+			if (!introspectable) {
+				return true;
+			}
+
+			Map<Class<?>, Answer> bySource = answers.get(eventType);
+			if (bySource == null) {
+				bySource = answers.computeIfAbsent(eventType, type -> new ConcurrentHashMap<>());
+			}
+			Answer answer = bySource.get(source.getClass());
+			if (answer == null) {
+				answer = answer(eventType, source);
+				bySource.put(source.getClass(), answer);
+			}
+			return answer.hasListeners(eventType);
+		}
+
+		private Answer answer(Class<? extends StoreEvent> eventType, Object source) {
+			// stands in for the event, which the multicaster only asks for its source
+			ApplicationEvent probe = new ProbeEvent(source);
+			ResolvableType resolvableEventType = ResolvableType.forClass(eventType);
+
+			List<AnnotatedStoreEventInvoker> invokers = new ArrayList<>();
+			for (AbstractApplicationEventMulticaster multicaster : multicasters) {
+				for (ApplicationListener<?> listener : getApplicationListeners(multicaster, probe, resolvableEventType)) {
+					if (!(listener instanceof AnnotatedStoreEventInvoker)) {
+						return Answer.LISTENED;
+					}
+					invokers.add((AnnotatedStoreEventInvoker) listener);
+				}
+			}
+			return new Answer(invokers.toArray(new AnnotatedStoreEventInvoker[invokers.size()]));
+		}
+	}
+
+	/**
+	 * Whether an event and source type have listeners: always, or when one of the store
+	 * event handler invokers listening to them has handlers for the event, which it may
+	 * gain as handler beans are created.
+	 */
+	private static class Answer {
+
+		static final Answer LISTENED = new Answer(null);
+
+		private final AnnotatedStoreEventInvoker[] invokers;
+
+		Answer(AnnotatedStoreEventInvoker[] invokers) {
+			this.invokers = invokers;
+		}
+
+		boolean hasListeners(Class<? extends StoreEvent> eventType) {
+			if (invokers == null) {
+				return true;
+			}
+			for (AnnotatedStoreEventInvoker invoker : invokers) {
+				if (invoker.hasHandlers(eventType)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Collection<ApplicationListener<?>> getApplicationListeners(AbstractApplicationEventMulticaster multicaster, ApplicationEvent event, ResolvableType eventType) {
+		return (Collection<ApplicationListener<?>>) ReflectionUtils.invokeMethod(getApplicationListenersMethod, multicaster, event, eventType);
+	}
+
+	@SuppressWarnings("serial")
+	private static class ProbeEvent extends ApplicationEvent {
+
+		ProbeEvent(Object source) {
+			super(source);
+		}
+	}
+}
@@ -1,130 +1,392 @@
 package internal.org.springframework.content.commons.repository.factory;
 
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.lang.reflect.Method;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
+import org.reactivestreams.Publisher;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.content.commons.metrics.MeteredResource;
+import org.springframework.content.commons.metrics.StoreMetrics;
 import org.springframework.content.commons.repository.AssociativeStore;
 import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.PresignedUrlStore;
+import org.springframework.content.commons.repository.ReactiveContentStore;
 import org.springframework.content.commons.repository.Store;
 import org.springframework.content.commons.repository.StoreAccessException;
+import org.springframework.content.commons.repository.StoreBatchEvent;
 import org.springframework.content.commons.repository.StoreEvent;
 import org.springframework.content.commons.repository.StoreExtension;
 import org.springframework.content.commons.repository.events.AfterGetContentEvent;
+import org.springframework.content.commons.repository.events.AfterGetContentsEvent;
 import org.springframework.content.commons.repository.events.AfterSetContentEvent;
+import org.springframework.content.commons.repository.events.AfterSetContentsEvent;
 import org.springframework.content.commons.repository.events.AfterUnsetContentEvent;
+import org.springframework.content.commons.repository.events.AfterUnsetContentsEvent;
+import org.springframework.content.commons.repository.events.AsyncStoreEventDispatcher;
 import org.springframework.content.commons.repository.events.BeforeGetContentEvent;
+import org.springframework.content.commons.repository.events.BeforeGetContentsEvent;
 import org.springframework.content.commons.repository.events.BeforeSetContentEvent;
+import org.springframework.content.commons.repository.events.BeforeSetContentsEvent;
 import org.springframework.content.commons.repository.events.BeforeUnsetContentEvent;
+import org.springframework.content.commons.repository.events.BeforeUnsetContentsEvent;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
 import org.springframework.util.Assert;
 import org.springframework.util.ReflectionUtils;
 
+import internal.org.springframework.content.commons.io.CountingInputStream;
+import internal.org.springframework.content.commons.io.CountingOutputStream;
 import internal.org.springframework.content.commons.repository.StoreInvokerImpl;
 
 public class StoreMethodInterceptor implements MethodInterceptor {
 
-	private Map<Method,StoreExtension> extensions;
-	private ContentStore<Object, Serializable> store = null;
-	private ApplicationEventPublisher publisher;
-	
 	private static Method getContentMethod; 
+	private static Method getContentRangeMethod;
 	private static Method setContentMethod; 
 	private static Method unsetContentMethod;
+	private static Method getContentsMethod;
+	private static Method setContentsMethod;
+	private static Method unsetContentsMethod;
+	private static Method copyContentMethod;
+	private static Method moveContentMethod;
 	private static Method getResourceMethod;
 	private static Method associateResourceMethod;
 	private static Method unassociateResourceMethod;
-    private Class<?> domainClass = null;
-    private Class<? extends Serializable> contentIdClass = null;
-	
+	private static Method reactiveGetContentMethod;
+	private static Method reactiveSetContentMethod;
+	private static Method reactiveUnsetContentMethod;
+	private static Method getContentUrlMethod;
+	private static Method getUploadUrlMethod;
+	private static Method completeUploadMethod;
+
 	static {
 		getContentMethod = ReflectionUtils.findMethod(ContentStore.class, "getContent", Object.class);
 		Assert.notNull(getContentMethod);
+		getContentRangeMethod = ReflectionUtils.findMethod(ContentStore.class, "getContent", Object.class, long.class, long.class);
+		Assert.notNull(getContentRangeMethod);
 		setContentMethod = ReflectionUtils.findMethod(ContentStore.class, "setContent", Object.class, InputStream.class);
 		Assert.notNull(setContentMethod);
 		unsetContentMethod = ReflectionUtils.findMethod(ContentStore.class, "unsetContent", Object.class);
 		Assert.notNull(unsetContentMethod);
+		getContentsMethod = ReflectionUtils.findMethod(ContentStore.class, "getContents", Collection.class);
+		Assert.notNull(getContentsMethod);
+		setContentsMethod = ReflectionUtils.findMethod(ContentStore.class, "setContents", Map.class);
+		Assert.notNull(setContentsMethod);
+		unsetContentsMethod = ReflectionUtils.findMethod(ContentStore.class, "unsetContents", Collection.class);
+		Assert.notNull(unsetContentsMethod);
+		copyContentMethod = ReflectionUtils.findMethod(ContentStore.class, "copyContent", Object.class, Object.class);
+		Assert.notNull(copyContentMethod);
+		moveContentMethod = ReflectionUtils.findMethod(ContentStore.class, "moveContent", Object.class, Object.class);
+		Assert.notNull(moveContentMethod);
 		getResourceMethod = ReflectionUtils.findMethod(Store.class, "getResource", Serializable.class);
 		Assert.notNull(getResourceMethod);
 		associateResourceMethod = ReflectionUtils.findMethod(AssociativeStore.class, "associate", Object.class, Serializable.class);
-		Assert.notNull(getResourceMethod);
+		Assert.notNull(associateResourceMethod);
 		unassociateResourceMethod = ReflectionUtils.findMethod(AssociativeStore.class, "unassociate", Object.class);
-		Assert.notNull(getResourceMethod);
+		Assert.notNull(unassociateResourceMethod);
+		reactiveGetContentMethod = ReflectionUtils.findMethod(ReactiveContentStore.class, "getContent", Object.class);
+		Assert.notNull(reactiveGetContentMethod);
+		reactiveSetContentMethod = ReflectionUtils.findMethod(ReactiveContentStore.class, "setContent", Object.class, Publisher.class);
+		Assert.notNull(reactiveSetContentMethod);
+		reactiveUnsetContentMethod = ReflectionUtils.findMethod(ReactiveContentStore.class, "unsetContent", Object.class);
+		Assert.notNull(reactiveUnsetContentMethod);
+		getContentUrlMethod = ReflectionUtils.findMethod(PresignedUrlStore.class, "getContentUrl", Object.class, String.class, String.class);
+		Assert.notNull(getContentUrlMethod);
+		getUploadUrlMethod = ReflectionUtils.findMethod(PresignedUrlStore.class, "getUploadUrl", Object.class, String.class);
+		Assert.notNull(getUploadUrlMethod);
+		completeUploadMethod = ReflectionUtils.findMethod(PresignedUrlStore.class, "completeUpload", Object.class);
+		Assert.notNull(completeUploadMethod);
 	}
-	
+
+	private final ContentStore<Object, Serializable> store;
+	private final StoreEventPublisher publisher;
+	private final Map<Method, StoreMethod> dispatch = new HashMap<>();
+    private Class<?> domainClass = null;
+    private Class<? extends Serializable> contentIdClass = null;
+
 	public StoreMethodInterceptor(ContentStore<Object, Serializable> store, Class<?> domainClass, Class<? extends Serializable> contentIdClass, Map<Method,StoreExtension> extensions, ApplicationEventPublisher publisher) {
+		this(store, domainClass, contentIdClass, extensions, publisher, null);
+	}
+
+	public StoreMethodInterceptor(ContentStore<Object, Serializable> store, Class<?> domainClass, Class<? extends Serializable> contentIdClass, Map<Method,StoreExtension> extensions, ApplicationEventPublisher publisher, AsyncStoreEventDispatcher dispatcher) {
+		this(store, domainClass, contentIdClass, extensions, publisher, dispatcher, null, null, null);
+	}
+
+	public StoreMethodInterceptor(ContentStore<Object, Serializable> store, Class<?> domainClass, Class<? extends Serializable> contentIdClass, Map<Method,StoreExtension> extensions, ApplicationEventPublisher publisher, AsyncStoreEventDispatcher dispatcher,
+			StoreMetrics metrics, String storeName, String backend) {
 		if (extensions == null) {
 			extensions = Collections.<Method, StoreExtension>emptyMap();
 		}
 		this.store = store;
         this.domainClass = domainClass;
         this.contentIdClass = contentIdClass;
-		this.extensions = extensions;
-		this.publisher = publisher;
+		this.publisher = new StoreEventPublisher(publisher, dispatcher);
+
+		dispatch.put(getContentMethod, new EventPublishingStoreMethod(BeforeGetContentEvent.class, BeforeGetContentEvent::new, AfterGetContentEvent.class, AfterGetContentEvent::new, false));
+		dispatch.put(getContentRangeMethod, new EventPublishingStoreMethod(BeforeGetContentEvent.class, BeforeGetContentEvent::new, AfterGetContentEvent.class, AfterGetContentEvent::new, false));
+		dispatch.put(setContentMethod, new EventPublishingStoreMethod(BeforeSetContentEvent.class, BeforeSetContentEvent::new, AfterSetContentEvent.class, AfterSetContentEvent::new, false));
+		dispatch.put(unsetContentMethod, new EventPublishingStoreMethod(BeforeUnsetContentEvent.class, BeforeUnsetContentEvent::new, AfterUnsetContentEvent.class, AfterUnsetContentEvent::new, true));
+		dispatch.put(getContentsMethod, new BatchEventPublishingStoreMethod(BeforeGetContentsEvent.class, BeforeGetContentsEvent::new, AfterGetContentsEvent.class, AfterGetContentsEvent::new));
+		dispatch.put(setContentsMethod, new BatchEventPublishingStoreMethod(BeforeSetContentsEvent.class, BeforeSetContentsEvent::new, AfterSetContentsEvent.class, AfterSetContentsEvent::new));
+		dispatch.put(unsetContentsMethod, new BatchEventPublishingStoreMethod(BeforeUnsetContentsEvent.class, BeforeUnsetContentsEvent::new, AfterUnsetContentsEvent.class, AfterUnsetContentsEvent::new));
+		dispatch.put(copyContentMethod, new CopyEventPublishingStoreMethod(false));
+		dispatch.put(moveContentMethod, new CopyEventPublishingStoreMethod(true));
+		dispatch.put(getResourceMethod, MethodInvocation::proceed);
+		dispatch.put(associateResourceMethod, MethodInvocation::proceed);
+		dispatch.put(unassociateResourceMethod, MethodInvocation::proceed);
+		dispatch.put(reactiveGetContentMethod, MethodInvocation::proceed);
+		dispatch.put(reactiveSetContentMethod, MethodInvocation::proceed);
+		dispatch.put(reactiveUnsetContentMethod, MethodInvocation::proceed);
+		dispatch.put(getContentUrlMethod, MethodInvocation::proceed);
+		dispatch.put(getUploadUrlMethod, MethodInvocation::proceed);
+		// content uploaded to a presigned URL is set once the upload completes
+		dispatch.put(completeUploadMethod, new EventPublishingStoreMethod(BeforeSetContentEvent.class, BeforeSetContentEvent::new, AfterSetContentEvent.class, AfterSetContentEvent::new, false));
+
+		if (metrics != null) {
+			meter(getContentMethod, metrics, storeName, backend, "getContent", "single");
+			meter(getContentRangeMethod, metrics, storeName, backend, "getContent", "range");
+			meter(getContentsMethod, metrics, storeName, backend, "getContent", "batch");
+			meter(setContentMethod, metrics, storeName, backend, "setContent", "single");
+			meter(setContentsMethod, metrics, storeName, backend, "setContent", "batch");
+			meter(unsetContentMethod, metrics, storeName, backend, "unsetContent", "single");
+			meter(unsetContentsMethod, metrics, storeName, backend, "unsetContent", "batch");
+			meter(copyContentMethod, metrics, storeName, backend, "copyContent", "single");
+			meter(moveContentMethod, metrics, storeName, backend, "moveContent", "single");
+			meter(getResourceMethod, metrics, storeName, backend, "getResource", "single");
+		}
+
+		// extensions take precedence over store methods
+		if (!extensions.isEmpty()) {
+			StoreInvokerImpl invoker = new StoreInvokerImpl(this.domainClass, this.contentIdClass);
+			for (Map.Entry<Method, StoreExtension> entry : extensions.entrySet()) {
+				StoreExtension extension = entry.getValue();
+				dispatch.put(entry.getKey(), invocation -> invoker.invoke(extension, invocation));
+			}
+		}
 	}
-	
+
 	@Override
 	public Object invoke(MethodInvocation invocation) throws Throwable {
-		Method method = invocation.getMethod();
-		StoreExtension extension = extensions.get(method);
-		if (extension != null) {
-			return extension.invoke(invocation, new StoreInvokerImpl(domainClass, contentIdClass, invocation));
-		} else {
-			if (!isStoreMethod(invocation)) {
-				throw new StoreAccessException(String.format("No implementation found for %s", method.getName()));
+		StoreMethod storeMethod = dispatch.get(invocation.getMethod());
+		if (storeMethod == null) {
+			throw new StoreAccessException(String.format("No implementation found for %s", invocation.getMethod().getName()));
+		}
+		return storeMethod.invoke(invocation);
+	}
+
+	private void meter(Method method, StoreMetrics metrics, String storeName, String backend, String operation, String variant) {
+		dispatch.put(method, new MeteredStoreMethod(dispatch.get(method), metrics.operation(storeName, backend, operation, variant)));
+	}
+
+	private interface StoreMethod {
+		Object invoke(MethodInvocation invocation) throws Throwable;
+	}
+
+	private class EventPublishingStoreMethod implements StoreMethod {
+
+		private final Class<? extends StoreEvent> beforeType;
+		private final BiFunction<Object, ContentStore<Object, Serializable>, StoreEvent> beforeFactory;
+		private final Class<? extends StoreEvent> afterType;
+		private final BiFunction<Object, ContentStore<Object, Serializable>, StoreEvent> afterFactory;
+		private final boolean requiresSource;
+
+		EventPublishingStoreMethod(Class<? extends StoreEvent> beforeType, BiFunction<Object, ContentStore<Object, Serializable>, StoreEvent> beforeFactory,
+				Class<? extends StoreEvent> afterType, BiFunction<Object, ContentStore<Object, Serializable>, StoreEvent> afterFactory,
+				boolean requiresSource) {
+			this.beforeType = beforeType;
+			this.beforeFactory = beforeFactory;
+			this.afterType = afterType;
+			this.afterFactory = afterFactory;
+			this.requiresSource = requiresSource;
+		}
+
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+			Object[] args = invocation.getArguments();
+			Object source = (args.length > 0 ? args[0] : null);
+			boolean publish = args.length > 0 && (!requiresSource || source != null);
+
+			// events are only created when someone is listening for them
+			if (publish && publisher.hasListeners(beforeType, source)) {
+				publisher.publishEvent(beforeFactory.apply(source, store));
 			}
+
+			Object result = invocation.proceed();
+
+			if (publish && publisher.hasListeners(afterType, source)) {
+				publisher.publishAfterEvent(afterFactory.apply(source, store));
+			}
+			return result;
 		}
-		
-		StoreEvent before = null;
-		StoreEvent after = null;
-		
-		if (getContentMethod.equals(invocation.getMethod())) {
-			if (invocation.getArguments().length > 0) {
-				before = new BeforeGetContentEvent(invocation.getArguments()[0], store);
-				after = new AfterGetContentEvent(invocation.getArguments()[0], store);
+	}
+
+	/**
+	 * Publishes set content events for the target of a copy and, for a move, unset
+	 * content events for its source.
+	 */
+	private class CopyEventPublishingStoreMethod implements StoreMethod {
+
+		private final boolean move;
+
+		CopyEventPublishingStoreMethod(boolean move) {
+			this.move = move;
+		}
+
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+			Object source = invocation.getArguments()[0];
+			Object target = invocation.getArguments()[1];
+
+			if (target != null && publisher.hasListeners(BeforeSetContentEvent.class, target)) {
+				publisher.publishEvent(new BeforeSetContentEvent(target, store));
 			}
-		} else if (setContentMethod.equals(invocation.getMethod())) {
-			if (invocation.getArguments().length > 0) {
-				before = new BeforeSetContentEvent(invocation.getArguments()[0], store);
-				after = new AfterSetContentEvent(invocation.getArguments()[0], store);
+			if (move && source != null && publisher.hasListeners(BeforeUnsetContentEvent.class, source)) {
+				publisher.publishEvent(new BeforeUnsetContentEvent(source, store));
 			}
-		} else if (unsetContentMethod.equals(invocation.getMethod())) {
-			if (invocation.getArguments().length > 0 && invocation.getArguments()[0] != null) {
-				before = new BeforeUnsetContentEvent(invocation.getArguments()[0], store);
-				after = new AfterUnsetContentEvent(invocation.getArguments()[0], store);
+
+			Object result = invocation.proceed();
+
+			if (target != null && publisher.hasListeners(AfterSetContentEvent.class, target)) {
+				publisher.publishAfterEvent(new AfterSetContentEvent(target, store));
 			}
+			if (move && source != null && publisher.hasListeners(AfterUnsetContentEvent.class, source)) {
+				publisher.publishAfterEvent(new AfterUnsetContentEvent(source, store));
+			}
+			return result;
 		}
+	}
 
-		if (before != null) {
-			publisher.publishEvent(before);
-		}
-		Object result;
-		try {
-			result = invocation.proceed();
-		} catch (Exception e) {
-			throw e;
+	/**
+	 * Publishes one batch event for all entities of a bulk operation.
+	 */
+	private class BatchEventPublishingStoreMethod implements StoreMethod {
+
+		private final Class<? extends StoreBatchEvent<?>> beforeType;
+		private final BiFunction<Collection<?>, ContentStore<Object, Serializable>, StoreEvent> beforeFactory;
+		private final Class<? extends StoreBatchEvent<?>> afterType;
+		private final BiFunction<Collection<?>, ContentStore<Object, Serializable>, StoreEvent> afterFactory;
+
+		BatchEventPublishingStoreMethod(Class<? extends StoreBatchEvent<?>> beforeType, BiFunction<Collection<?>, ContentStore<Object, Serializable>, StoreEvent> beforeFactory,
+				Class<? extends StoreBatchEvent<?>> afterType, BiFunction<Collection<?>, ContentStore<Object, Serializable>, StoreEvent> afterFactory) {
+			this.beforeType = beforeType;
+			this.beforeFactory = beforeFactory;
+			this.afterType = afterType;
+			this.afterFactory = afterFactory;
 		}
 
-		if (after != null) {
-			publisher.publishEvent(after);
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+			Object arg = invocation.getArguments()[0];
+			Collection<?> entities = (arg instanceof Map ? ((Map<?, ?>) arg).keySet() : (Collection<?>) arg);
+			boolean publish = entities != null && !entities.isEmpty();
+
+			if (publish && publisher.hasListeners(beforeType, entities)) {
+				publisher.publishEvent(beforeFactory.apply(entities, store));
+			}
+
+			Object result = invocation.proceed();
+
+			if (publish && publisher.hasListeners(afterType, entities)) {
+				publisher.publishAfterEvent(afterFactory.apply(entities, store));
+			}
+			return result;
 		}
-		return result;
 	}
 
-	private boolean isStoreMethod(MethodInvocation invocation) {
-		if (getContentMethod.equals(invocation.getMethod()) || 
-			setContentMethod.equals(invocation.getMethod()) || 
-			unsetContentMethod.equals(invocation.getMethod()) || 
-			getResourceMethod.equals(invocation.getMethod()) ||
-			associateResourceMethod.equals(invocation.getMethod()) || 
-			unassociateResourceMethod.equals(invocation.getMethod())) {
-			return true;
+	/**
+	 * Times a store method, including its synchronous event listeners, and counts the
+	 * bytes streamed from and to the content it is given and returns, including content
+	 * of bulk operations and of returned resources.
+	 */
+	private static class MeteredStoreMethod implements StoreMethod {
+
+		private final StoreMethod delegate;
+		private final StoreMetrics.OperationMetrics metrics;
+
+		MeteredStoreMethod(StoreMethod delegate, StoreMetrics.OperationMetrics metrics) {
+			this.delegate = delegate;
+			this.metrics = metrics;
+		}
+
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+			Object[] args = invocation.getArguments();
+			for (int i = 0; i < args.length; i++) {
+				if (args[i] instanceof InputStream) {
+					args[i] = writing((InputStream) args[i]);
+				} else if (args[i] instanceof Map) {
+					args[i] = countValues((Map<?, ?>) args[i], this::writing);
+				}
+			}
+
+			StoreMetrics.Sample sample = metrics.start();
+			Object result;
+			try {
+				result = delegate.invoke(invocation);
+			} catch (Throwable t) {
+				sample.stop(t);
+				throw t;
+			}
+			sample.stop(null);
+
+			if (result instanceof InputStream) {
+				return reading((InputStream) result);
+			} else if (result instanceof Map) {
+				return countValues((Map<?, ?>) result, this::reading);
+			} else if (result instanceof Resource) {
+				return meteredResource((Resource) result);
+			}
+			return result;
+		}
+
+		private InputStream reading(InputStream in) {
+			return new CountingInputStream(in, metrics::recordBytesRead);
+		}
+
+		private InputStream writing(InputStream in) {
+			return new CountingInputStream(in, metrics::recordBytesWritten);
+		}
+
+		// keeps the map's iteration order, which bulk operations may rely on
+		private Map<Object, Object> countValues(Map<?, ?> map, Function<InputStream, InputStream> counter) {
+			Map<Object, Object> counted = new LinkedHashMap<>(map.size());
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				Object value = entry.getValue();
+				counted.put(entry.getKey(), value instanceof InputStream ? counter.apply((InputStream) value) : value);
+			}
+			return counted;
+		}
+
+		private Resource meteredResource(Resource resource) {
+			ProxyFactory factory = new ProxyFactory(resource);
+			factory.addInterface(MeteredResource.class);
+			factory.setOpaque(true);
+			factory.addAdvice((MethodInterceptor) invocation -> {
+				Method method = invocation.getMethod();
+				if (method.getDeclaringClass() == MeteredResource.class) {
+					metrics.recordBytesRead((Long) invocation.getArguments()[0]);
+					return null;
+				}
+				Object value = invocation.proceed();
+				if (value instanceof InputStream && "getInputStream".equals(method.getName())) {
+					return reading((InputStream) value);
+				} else if (value instanceof OutputStream && "getOutputStream".equals(method.getName())) {
+					return new CountingOutputStream((OutputStream) value, metrics::recordBytesWritten);
+				}
+				return value;
+			});
+			return (Resource) factory.getProxy();
 		}
-		return false;
 	}
 }
-
@@ -0,0 +1,18 @@
+package org.springframework.content.commons.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Reads content of the annotated {@link org.springframework.content.commons.repository.ContentStore}
+ * through the application's {@link org.springframework.content.commons.io.ContentCache}.
+ */
+@Target({ ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CachedContent {
+
+}
@@ -0,0 +1,22 @@
+package org.springframework.content.commons.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Stores content of the annotated {@link org.springframework.content.commons.repository.ContentStore}
+ * by its SHA-256 digest so that identical content is stored once.
+ * <p>
+ * Requires a persistent
+ * {@link org.springframework.content.commons.repository.ContentReferenceIndex} bean, such
+ * as {@link org.springframework.content.commons.repository.JdbcContentReferenceIndex}.
+ */
+@Target({ ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ContentAddressed {
+
+}
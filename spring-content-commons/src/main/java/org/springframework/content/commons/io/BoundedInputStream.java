@@ -0,0 +1,101 @@
+package org.springframework.content.commons.io;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream that reads at most a fixed number of bytes from the stream it wraps.
+ */
+public class BoundedInputStream extends FilterInputStream {
+
+	private long remaining;
+	private long mark = -1;
+
+	public BoundedInputStream(InputStream in, long length) {
+		super(in);
+		this.remaining = length;
+	}
+
+	/**
+	 * Positions in at offset, by skipping, and bounds it to length bytes. in is closed
+	 * if it cannot be positioned.
+	 * <p>
+	 * Intended for stores whose streams skip natively, such as file or GridFS streams.
+	 */
+	public static InputStream range(InputStream in, long offset, long length) throws IOException {
+		try {
+			long toSkip = offset;
+			while (toSkip > 0) {
+				long skipped = in.skip(toSkip);
+				if (skipped <= 0) {
+					// skip may legitimately return 0; fall back to reading to detect the end
+					if (in.read() == -1) {
+						throw new EOFException(String.format("Offset %d is beyond the end of the content", offset));
+					}
+					skipped = 1;
+				}
+				toSkip -= skipped;
+			}
+		} catch (IOException e) {
+			in.close();
+			throw e;
+		}
+		return new BoundedInputStream(in, length);
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (remaining <= 0) {
+			return -1;
+		}
+		int b = in.read();
+		if (b != -1) {
+			remaining--;
+		}
+		return b;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (remaining <= 0) {
+			return -1;
+		}
+		int read = in.read(b, off, (int) Math.min(len, remaining));
+		if (read > 0) {
+			remaining -= read;
+		}
+		return read;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = in.skip(Math.min(n, remaining));
+		remaining -= skipped;
+		return skipped;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return (int) Math.min(in.available(), remaining);
+	}
+
+	@Override
+	public synchronized void mark(int readlimit) {
+		in.mark(readlimit);
+		mark = remaining;
+	}
+
+	@Override
+	public synchronized void reset() throws IOException {
+		if (!in.markSupported()) {
+			throw new IOException("mark/reset not supported");
+		}
+		if (mark == -1) {
+			throw new IOException("mark not set");
+		}
+		in.reset();
+		remaining = mark;
+	}
+}
@@ -0,0 +1,462 @@
+package org.springframework.content.commons.io;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.Assert;
+
+/**
+ * A bounded, local-disk cache of content read from remote stores.
+ * <p>
+ * When the total size of cached content exceeds the maximum size, entries are evicted
+ * according to the {@link EvictionPolicy}.  Concurrent misses for the same key are
+ * collapsed into a single load, whose content is streamed to the caller as it is cached.
+ * Content larger than the maximum size is not cached.
+ * <p>
+ * Entries are held in memory and the cache directory is cleared on startup.  On
+ * platforms that cannot delete open files an evicted entry's file is left behind until
+ * the cache is next started.
+ */
+public class ContentCache implements DisposableBean {
+
+	private static Log logger = LogFactory.getLog(ContentCache.class);
+
+	private static final String PREFIX = "content";
+	private static final String SUFFIX = ".cache";
+
+	public enum EvictionPolicy {
+		/** evicts the least recently read entry */
+		LRU,
+		/** evicts the least frequently read entry, the least recently read among ties */
+		LFU
+	}
+
+	private final File directory;
+	private final long maxSize;
+	private final EvictionPolicy policy;
+
+	// access ordered, so iteration starts at the least recently read entry
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<String, Load> loads = new ConcurrentHashMap<>();
+	private long size;
+
+	public ContentCache(File directory, long maxSize, EvictionPolicy policy) {
+		Assert.notNull(directory, "directory cannot be null");
+		Assert.isTrue(maxSize > 0, "maxSize must be positive");
+		Assert.notNull(policy, "policy cannot be null");
+
+		this.directory = directory;
+		this.maxSize = maxSize;
+		this.policy = policy;
+
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IllegalStateException(String.format("Unable to create cache directory %s", directory));
+		}
+		clear();
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	public long getMaxSize() {
+		return maxSize;
+	}
+
+	public EvictionPolicy getEvictionPolicy() {
+		return policy;
+	}
+
+	/**
+	 * Returns the total size of cached content.
+	 *
+	 * @return the size in bytes
+	 */
+	public synchronized long getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the cached content for key, loading and caching it on a miss.  When a load
+	 * for key is already in progress the caller waits for it rather than loading again.
+	 * <p>
+	 * On a miss the loaded content is returned to the caller as it is read and copied
+	 * into the cache alongside; it is cached once the caller has read it to the end.
+	 * Content that turns out to be larger than the maximum size, or that is invalidated
+	 * while it is read, is still returned in full but not cached.  Callers waiting for the
+	 * load are released when the returned stream is read to the end or closed.
+	 *
+	 * @param key
+	 * 					the cache key
+	 * @param loader
+	 * 					loads the content; may return null if there is none
+	 * @return the content, or null if the loader returned null
+	 * @throws IOException
+	 * 					if the content cannot be read
+	 */
+	public InputStream get(String key, Callable<InputStream> loader) throws IOException {
+		InputStream cached = getIfPresent(key);
+		if (cached != null) {
+			return cached;
+		}
+
+		Load load = new Load();
+		Load existing = loads.putIfAbsent(key, load);
+		if (existing == null) {
+			return fill(key, loader, load);
+		}
+		existing.await();
+
+		// not cached when the load was invalidated, empty, too large, abandoned or already evicted
+		cached = getIfPresent(key);
+		if (cached != null) {
+			return cached;
+		}
+		return call(loader);
+	}
+
+	/**
+	 * Returns the cached content for key.
+	 *
+	 * @param key
+	 * 					the cache key
+	 * @return the content, or null if it is not cached
+	 * @throws IOException
+	 * 					if the cached content cannot be read
+	 */
+	public synchronized InputStream getIfPresent(String key) throws IOException {
+		Entry entry = hit(key);
+		return entry != null ? new FileInputStream(entry.file) : null;
+	}
+
+	/**
+	 * Returns at most length bytes of the cached content for key, starting at offset.
+	 *
+	 * @param key
+	 * 					the cache key
+	 * @param offset
+	 * 					the zero-based position of the first byte to read
+	 * @param length
+	 * 					the maximum number of bytes to read
+	 * @return the ranged content, or null if it is not cached
+	 * @throws IOException
+	 * 					if the cached content cannot be read
+	 */
+	public synchronized InputStream getIfPresent(String key, long offset, long length) throws IOException {
+		Entry entry = hit(key);
+		if (entry == null) {
+			return null;
+		}
+		FileChannel channel = new FileInputStream(entry.file).getChannel();
+		try {
+			channel.position(offset);
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+		return new BoundedInputStream(Channels.newInputStream(channel), length);
+	}
+
+	/**
+	 * Removes the content for key, and prevents a load of key that is in progress from
+	 * being cached.
+	 *
+	 * @param key
+	 * 					the cache key
+	 */
+	public synchronized void invalidate(String key) {
+		Load load = loads.remove(key);
+		if (load != null) {
+			load.invalidated = true;
+		}
+		Entry entry = entries.remove(key);
+		if (entry != null) {
+			remove(entry);
+		}
+	}
+
+	/**
+	 * Removes all cached content.
+	 */
+	public synchronized void clear() {
+		for (Load load : loads.values()) {
+			load.invalidated = true;
+		}
+		loads.clear();
+		entries.clear();
+		size = 0;
+
+		File[] files = directory.listFiles((dir, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+		if (files != null) {
+			for (File file : files) {
+				delete(file);
+			}
+		}
+	}
+
+	@Override
+	public void destroy() {
+		clear();
+	}
+
+	private InputStream fill(String key, Callable<InputStream> loader, Load load) throws IOException {
+		InputStream in;
+		try {
+			in = call(loader);
+		} catch (IOException | RuntimeException e) {
+			finish(key, load);
+			throw e;
+		}
+		if (in == null) {
+			finish(key, load);
+			return null;
+		}
+
+		File file;
+		OutputStream out;
+		try {
+			file = File.createTempFile(PREFIX, SUFFIX, directory);
+			out = new FileOutputStream(file);
+		} catch (IOException e) {
+			logger.debug(String.format("Unable to cache content for %s", key), e);
+			finish(key, load);
+			return in;
+		}
+		return new FillingInputStream(in, key, load, file, out);
+	}
+
+	private synchronized boolean admit(String key, Load load, File file, long length) {
+		if (load.invalidated || length > maxSize) {
+			return false;
+		}
+		Entry previous = entries.put(key, new Entry(file, length));
+		if (previous != null) {
+			remove(previous);
+		}
+		size += length;
+		evict(key);
+		return true;
+	}
+
+	private void finish(String key, Load load) {
+		loads.remove(key, load);
+		load.done.countDown();
+	}
+
+	private Entry hit(String key) {
+		Entry entry = entries.get(key);
+		if (entry != null) {
+			entry.hits++;
+		}
+		return entry;
+	}
+
+	// the entry just admitted is never the victim; it fits once every other entry is gone
+	private void evict(String admitted) {
+		while (size > maxSize) {
+			Map.Entry<String, Entry> victim = null;
+			for (Map.Entry<String, Entry> candidate : entries.entrySet()) {
+				if (candidate.getKey().equals(admitted)) {
+					continue;
+				}
+				if (victim == null) {
+					victim = candidate;
+					if (policy == EvictionPolicy.LRU) {
+						break;
+					}
+				} else if (candidate.getValue().hits < victim.getValue().hits) {
+					victim = candidate;
+				}
+			}
+			entries.remove(victim.getKey());
+			remove(victim.getValue());
+		}
+	}
+
+	private void remove(Entry entry) {
+		size -= entry.size;
+		delete(entry.file);
+	}
+
+	private static void delete(File file) {
+		if (file.exists() && !file.delete()) {
+			logger.debug(String.format("Unable to delete cache file %s", file));
+		}
+	}
+
+	private static InputStream call(Callable<InputStream> loader) throws IOException {
+		try {
+			return loader.call();
+		} catch (IOException | RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IOException(e);
+		}
+	}
+
+	// returns loaded content to the caller while copying it into a cache file; the copy is
+	// abandoned, but the content still returned, once it outgrows the cache or is invalidated
+	private class FillingInputStream extends FilterInputStream {
+
+		private final String key;
+		private final Load load;
+		private final File file;
+		private OutputStream out;
+		private long length;
+		private boolean finished;
+
+		private FillingInputStream(InputStream in, String key, Load load, File file, OutputStream out) {
+			super(in);
+			this.key = key;
+			this.load = load;
+			this.file = file;
+			this.out = out;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n;
+			try {
+				n = super.read(b, off, len);
+			} catch (IOException | RuntimeException e) {
+				finish(false);
+				throw e;
+			}
+			if (n == -1) {
+				finish(true);
+			} else if (n > 0) {
+				copy(b, off, n);
+			}
+			return n;
+		}
+
+		// bytes skipped never reach the cache file
+		@Override
+		public long skip(long n) throws IOException {
+			abandon();
+			return super.skip(n);
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+
+		@Override
+		public void mark(int readlimit) {
+		}
+
+		@Override
+		public void reset() throws IOException {
+			throw new IOException("mark/reset not supported");
+		}
+
+		// closed before the end, the cache file is incomplete
+		@Override
+		public void close() throws IOException {
+			try {
+				super.close();
+			} finally {
+				finish(false);
+			}
+		}
+
+		private void copy(byte[] b, int off, int n) {
+			if (out == null) {
+				return;
+			}
+			length += n;
+			if (length > maxSize || load.invalidated) {
+				abandon();
+				return;
+			}
+			try {
+				out.write(b, off, n);
+			} catch (IOException e) {
+				logger.debug(String.format("Unable to cache content for %s", key), e);
+				abandon();
+			}
+		}
+
+		private void abandon() {
+			if (out == null) {
+				return;
+			}
+			closeOut();
+			delete(file);
+		}
+
+		private void finish(boolean complete) {
+			if (finished) {
+				return;
+			}
+			finished = true;
+			boolean admitted = false;
+			if (out != null) {
+				admitted = closeOut() && complete && admit(key, load, file, length);
+				if (!admitted) {
+					delete(file);
+				}
+			}
+			ContentCache.this.finish(key, load);
+		}
+
+		private boolean closeOut() {
+			try {
+				out.close();
+				return true;
+			} catch (IOException e) {
+				logger.debug(String.format("Unable to close cache file %s", file), e);
+				return false;
+			} finally {
+				out = null;
+			}
+		}
+	}
+
+	private static class Entry {
+		private final File file;
+		private final long size;
+		private long hits;
+
+		private Entry(File file, long size) {
+			this.file = file;
+			this.size = size;
+		}
+	}
+
+	private static class Load {
+		private final CountDownLatch done = new CountDownLatch(1);
+		private volatile boolean invalidated;
+
+		private void await() throws IOException {
+			try {
+				done.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted waiting for content to load", e);
+			}
+		}
+	}
+}
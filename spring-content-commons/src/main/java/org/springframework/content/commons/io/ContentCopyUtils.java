@@ -0,0 +1,104 @@
+package org.springframework.content.commons.io;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.springframework.util.Assert;
+
+import internal.org.springframework.content.commons.io.CountingInputStream;
+
+/**
+ * Copies content between streams, as stores and the REST layer do for every upload and
+ * download.
+ * <p>
+ * Streams are copied through 64KB buffers that are pooled and reused rather than
+ * allocated per copy, so that large transfers take fewer system calls and produce no
+ * garbage.  When both ends are files the bytes are transferred channel to channel,
+ * without passing through the JVM at all, even when the input is counted for store
+ * metrics.
+ */
+public final class ContentCopyUtils {
+
+	public static final int BUFFER_SIZE = 64 * 1024;
+
+	// enough for every concurrent copy on a typical server; beyond it buffers are allocated
+	private static final int POOL_SIZE = Math.max(16, Runtime.getRuntime().availableProcessors() * 4);
+
+	private static final BlockingQueue<byte[]> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+
+	private ContentCopyUtils() {
+	}
+
+	/**
+	 * Copies all of in to out, leaving both open.
+	 *
+	 * @return the number of bytes copied
+	 * @throws IOException if either stream fails
+	 */
+	public static long copy(InputStream in, OutputStream out) throws IOException {
+		Assert.notNull(in, "in must not be null");
+		Assert.notNull(out, "out must not be null");
+
+		InputStream source = (in instanceof CountingInputStream ? ((CountingInputStream) in).getWrapped() : in);
+		if (source instanceof FileInputStream && out instanceof FileOutputStream) {
+			long count = transfer(((FileInputStream) source).getChannel(), ((FileOutputStream) out).getChannel());
+			if (in instanceof CountingInputStream) {
+				((CountingInputStream) in).count(count);
+			}
+			return count;
+		}
+
+		byte[] buffer = acquire();
+		try {
+			long count = 0;
+			int n;
+			while ((n = in.read(buffer)) != -1) {
+				out.write(buffer, 0, n);
+				count += n;
+			}
+			out.flush();
+			return count;
+		} finally {
+			release(buffer);
+		}
+	}
+
+	/**
+	 * Borrows a {@link #BUFFER_SIZE} buffer from the pool.  Buffers must be
+	 * {@link #release(byte[]) released} once no longer used.
+	 */
+	public static byte[] acquire() {
+		byte[] buffer = pool.poll();
+		return buffer != null ? buffer : new byte[BUFFER_SIZE];
+	}
+
+	/**
+	 * Returns a buffer to the pool.
+	 */
+	public static void release(byte[] buffer) {
+		if (buffer != null && buffer.length == BUFFER_SIZE) {
+			pool.offer(buffer);
+		}
+	}
+
+	private static long transfer(FileChannel in, FileChannel out) throws IOException {
+		long position = in.position();
+		long size = in.size();
+		long count = 0;
+		while (position + count < size) {
+			long n = in.transferTo(position + count, size - position - count, out);
+			if (n <= 0) {
+				break;
+			}
+			count += n;
+		}
+		in.position(position + count);
+		return count;
+	}
+}
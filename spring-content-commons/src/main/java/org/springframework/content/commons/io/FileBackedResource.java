@@ -0,0 +1,14 @@
+package org.springframework.content.commons.io;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * A resource whose content is held in a local file, returned by {@link #getFile()}.
+ * <p>
+ * Allows the file to be handed to the operating system, for example with
+ * {@link java.nio.channels.FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)},
+ * rather than copied through an input stream.
+ */
+public interface FileBackedResource extends Resource {
+
+}
@@ -0,0 +1,26 @@
+package org.springframework.content.commons.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * A resource that can natively read a byte range of its content without reading, or
+ * transferring, the bytes that precede it.
+ */
+public interface RangeableResource extends Resource {
+
+	/**
+	 * Returns a stream over at most length bytes of content starting at offset.
+	 *
+	 * @param offset
+	 * 					the zero-based position of the first byte to read
+	 * @param length
+	 * 					the maximum number of bytes to read
+	 * @return the ranged content
+	 * @throws IOException
+	 * 					if the content cannot be opened
+	 */
+	InputStream getInputStream(long offset, long length) throws IOException;
+}
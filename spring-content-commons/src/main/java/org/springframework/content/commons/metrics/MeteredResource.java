@@ -0,0 +1,20 @@
+package org.springframework.content.commons.metrics;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * Implemented by the resources that instrumented stores return from
+ * {@code getResource}.  Bytes streamed through the resource's input and output streams
+ * are counted; callers that transfer its content by other means, such as straight from
+ * its file, record the bytes they transfer.
+ */
+public interface MeteredResource extends Resource {
+
+	/**
+	 * Records bytes of the resource's content read other than through its input streams.
+	 *
+	 * @param bytes
+	 * 					the number of bytes read
+	 */
+	void recordBytesRead(long bytes);
+}
@@ -0,0 +1,92 @@
+package org.springframework.content.commons.metrics;
+
+import org.springframework.util.Assert;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Publishes store metrics to a Micrometer {@link MeterRegistry}.
+ * <p>
+ * The following meters are registered, each tagged with {@code store}, {@code backend},
+ * {@code operation} and {@code variant}:
+ * <ul>
+ * <li>{@code content.store.operations}, a timer of completed operations, also tagged
+ * with their {@code outcome}, {@code success} or {@code error}, and the simple class
+ * name of the {@code exception} they failed with, or {@code none}.</li>
+ * <li>{@code content.store.active}, a long task timer of the operations in flight.</li>
+ * <li>{@code content.store.bytes}, a counter of the bytes streamed, also tagged with their
+ * {@code direction}, {@code read} or {@code written}.</li>
+ * </ul>
+ * Operation latency includes synchronous event listeners but not the time taken to
+ * stream the content an operation returns.
+ */
+public class MicrometerStoreMetrics implements StoreMetrics {
+
+	public static final String OPERATIONS = "content.store.operations";
+	public static final String ACTIVE = "content.store.active";
+	public static final String BYTES = "content.store.bytes";
+
+	private final MeterRegistry registry;
+
+	public MicrometerStoreMetrics(MeterRegistry registry) {
+		Assert.notNull(registry, "registry cannot be null");
+		this.registry = registry;
+	}
+
+	@Override
+	public OperationMetrics operation(String store, String backend, String operation, String variant) {
+		Tags tags = Tags.of("store", store, "backend", backend, "operation", operation, "variant", variant);
+		return new MicrometerOperationMetrics(tags);
+	}
+
+	private class MicrometerOperationMetrics implements OperationMetrics {
+
+		private final Tags tags;
+		private final Timer succeeded;
+		private final LongTaskTimer active;
+		private final Counter read;
+		private final Counter written;
+
+		MicrometerOperationMetrics(Tags tags) {
+			this.tags = tags;
+			this.succeeded = timer("success", "none");
+			this.active = LongTaskTimer.builder(ACTIVE).tags(tags).register(registry);
+			this.read = Counter.builder(BYTES).tags(tags).tag("direction", "read").baseUnit("bytes").register(registry);
+			this.written = Counter.builder(BYTES).tags(tags).tag("direction", "written").baseUnit("bytes").register(registry);
+		}
+
+		@Override
+		public Sample start() {
+			LongTaskTimer.Sample task = active.start();
+			Timer.Sample sample = Timer.start(registry);
+			return error -> {
+				task.stop();
+				sample.stop(error == null ? succeeded : timer("error", error.getClass().getSimpleName()));
+			};
+		}
+
+		@Override
+		public void recordBytesRead(long bytes) {
+			read.increment(bytes);
+		}
+
+		@Override
+		public void recordBytesWritten(long bytes) {
+			written.increment(bytes);
+		}
+
+		// the registry returns the timer already registered with the same tags
+		private Timer timer(String outcome, String exception) {
+			return Timer.builder(OPERATIONS)
+					.tags(tags)
+					.tag("outcome", outcome)
+					.tag("exception", exception)
+					.publishPercentiles(0.5, 0.99)
+					.register(registry);
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package org.springframework.content.commons.metrics;
+
+/**
+ * Records the latency, outcome and throughput of store operations.
+ * <p>
+ * Every measurement is tagged with the name of the store interface, the store's backend
+ * type, such as {@code filesystem} or {@code s3}, the operation, such as
+ * {@code getContent}, and its variant: {@code single}, {@code range} or {@code batch}.
+ * {@link MicrometerStoreMetrics} publishes measurements to a Micrometer
+ * {@code MeterRegistry}; implement this interface to adapt them to another metrics
+ * library.
+ */
+public interface StoreMetrics {
+
+	/**
+	 * Returns the metrics of one variant of a store operation.  Called once for each
+	 * instrumented store method when the store is created.
+	 *
+	 * @param store
+	 * 					the store interface name
+	 * @param backend
+	 * 					the backend type
+	 * @param operation
+	 * 					the operation, for example {@code getContent}
+	 * @param variant
+	 * 					the variant of the operation: {@code single}, {@code range} for
+	 * 					ranged reads or {@code batch} for bulk operations
+	 * @return the operation's metrics
+	 */
+	OperationMetrics operation(String store, String backend, String operation, String variant);
+
+	/**
+	 * The metrics of one variant of a store operation.
+	 */
+	interface OperationMetrics {
+
+		/**
+		 * Called when the operation starts.
+		 *
+		 * @return the sample to stop when the operation completes
+		 */
+		Sample start();
+
+		/**
+		 * Records bytes read by the operation, as its content is streamed.
+		 *
+		 * @param bytes
+		 * 					the number of bytes read
+		 */
+		void recordBytesRead(long bytes);
+
+		/**
+		 * Records bytes written by the operation, as its content is streamed.
+		 *
+		 * @param bytes
+		 * 					the number of bytes written
+		 */
+		void recordBytesWritten(long bytes);
+	}
+
+	/**
+	 * An operation in flight.
+	 */
+	interface Sample {
+
+		/**
+		 * Called when the operation completes.
+		 *
+		 * @param error
+		 * 					the error the operation failed with, or null if it succeeded
+		 */
+		void stop(Throwable error);
+	}
+}
@@ -0,0 +1,61 @@
+package org.springframework.content.commons.repository;
+
+/**
+ * Tracks which stored content each SHA-256 digest maps to, and how many entities
+ * reference it, for {@link org.springframework.content.commons.annotations.ContentAddressed}
+ * stores.
+ * <p>
+ * References are kept per store, so that content is only ever shared within the store,
+ * and so the backend, that holds it.  The index must outlive the application for
+ * deduplicated content to be deleted safely, so implementations must be persistent;
+ * {@link JdbcContentReferenceIndex} keeps references in a database.
+ */
+public interface ContentReferenceIndex {
+
+	/**
+	 * Returns the content id under which content with the given digest is stored.
+	 *
+	 * @param store
+	 * 					the name of the store
+	 * @param digest
+	 * 					the hex-encoded SHA-256 digest of the content
+	 * @return the content id, or null if no such content is stored
+	 */
+	Object findContentId(String store, String digest);
+
+	/**
+	 * Returns the digest of the content stored under the given content id.
+	 *
+	 * @param store
+	 * 					the name of the store
+	 * @param contentId
+	 * 					the content id
+	 * @return the digest, or null if the content id is not indexed
+	 */
+	String findDigest(String store, Object contentId);
+
+	/**
+	 * Adds a reference to the content with the given digest, stored under contentId.
+	 *
+	 * @param store
+	 * 					the name of the store
+	 * @param digest
+	 * 					the hex-encoded SHA-256 digest of the content
+	 * @param contentId
+	 * 					the content id the content is stored under
+	 * @return the number of references after adding this one
+	 */
+	long addReference(String store, String digest, Object contentId);
+
+	/**
+	 * Removes a reference to the content with the given digest.  The digest is removed
+	 * from the index when its last reference is.
+	 *
+	 * @param store
+	 * 					the name of the store
+	 * @param digest
+	 * 					the hex-encoded SHA-256 digest of the content
+	 * @return the number of remaining references
+	 */
+	long removeReference(String store, String digest);
+}
@@ -1,7 +1,13 @@
 package org.springframework.content.commons.repository;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.content.commons.io.BoundedInputStream;
 
 public interface ContentStore<S, SID extends Serializable> extends ContentRepository<S, SID> {
 	
@@ -9,4 +15,107 @@ public interface ContentStore<S, SID extends Serializable> extends ContentReposi
 	void unsetContent(S property);
 	InputStream getContent(S property);
 
+	/**
+	 * Returns at most length bytes of the property's content starting at offset.
+	 * <p>
+	 * Store implementations override this to read the range natively; the default
+	 * skips over the full content stream.
+	 *
+	 * @param property
+	 * 					the content property
+	 * @param offset
+	 * 					the zero-based position of the first byte to read
+	 * @param length
+	 * 					the maximum number of bytes to read
+	 * @return the ranged content, or null if the property has no content
+	 */
+	default InputStream getContent(S property, long offset, long length) {
+		InputStream content = getContent(property);
+		if (content == null)
+			return null;
+		try {
+			return BoundedInputStream.range(content, offset, length);
+		} catch (IOException e) {
+			throw new StoreAccessException(String.format("Unable to read content range %d-%d", offset, offset + length - 1), e);
+		}
+	}
+
+	/**
+	 * Sets the content of each property in contents.
+	 * <p>
+	 * A single batch event is published for the whole operation. Store implementations
+	 * override this to batch the backend calls; the default sets each property in turn.
+	 *
+	 * @param contents
+	 * 					the content of each property
+	 */
+	default void setContents(Map<S, InputStream> contents) {
+		for (Map.Entry<S, InputStream> entry : contents.entrySet()) {
+			setContent(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Returns the content of each of the given properties.
+	 *
+	 * @param properties
+	 * 					the content properties
+	 * @return the content of each property, in iteration order of properties
+	 */
+	default Map<S, InputStream> getContents(Collection<S> properties) {
+		Map<S, InputStream> contents = new LinkedHashMap<>();
+		for (S property : properties) {
+			contents.put(property, getContent(property));
+		}
+		return contents;
+	}
+
+	/**
+	 * Removes the content of each of the given properties.
+	 *
+	 * @param properties
+	 * 					the content properties
+	 */
+	default void unsetContents(Collection<S> properties) {
+		for (S property : properties) {
+			unsetContent(property);
+		}
+	}
+
+	/**
+	 * Copies the content of source to target, replacing any content target has.
+	 * <p>
+	 * Target's content id and length are updated as by {@link #setContent}.  Does nothing
+	 * if source has no content.  Store implementations override this to copy within the
+	 * backend; the default reads the content and writes it back.
+	 *
+	 * @param source
+	 * 					the content property to copy from
+	 * @param target
+	 * 					the content property to copy to
+	 */
+	default void copyContent(S source, S target) {
+		InputStream content = getContent(source);
+		if (content == null)
+			return;
+		try (InputStream in = content) {
+			setContent(target, in);
+		} catch (IOException e) {
+			throw new StoreAccessException("Unable to copy content", e);
+		}
+	}
+
+	/**
+	 * Moves the content of source to target, replacing any content target has, and
+	 * unsets source's content.
+	 *
+	 * @param source
+	 * 					the content property to move from
+	 * @param target
+	 * 					the content property to move to
+	 */
+	default void moveContent(S source, S target) {
+		copyContent(source, target);
+		unsetContent(source);
+	}
 }
@@ -0,0 +1,63 @@
+package org.springframework.content.commons.repository;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link ContentReferenceIndex} held in memory.
+ * <p>
+ * References are lost on restart, after which content still referenced by other
+ * entities would be deleted, so this is only suitable for tests.  Stores created by
+ * Spring Content refuse it.
+ */
+public class InMemoryContentReferenceIndex implements ContentReferenceIndex {
+
+	private final Map<List<?>, Reference> references = new HashMap<>();
+	private final Map<List<?>, String> digests = new HashMap<>();
+
+	@Override
+	public synchronized Object findContentId(String store, String digest) {
+		Reference reference = references.get(Arrays.asList(store, digest));
+		return (reference != null ? reference.contentId : null);
+	}
+
+	@Override
+	public synchronized String findDigest(String store, Object contentId) {
+		return digests.get(Arrays.asList(store, contentId));
+	}
+
+	@Override
+	public synchronized long addReference(String store, String digest, Object contentId) {
+		Reference reference = references.get(Arrays.asList(store, digest));
+		if (reference == null) {
+			reference = new Reference(contentId);
+			references.put(Arrays.asList(store, digest), reference);
+			digests.put(Arrays.asList(store, contentId), digest);
+		}
+		return ++reference.count;
+	}
+
+	@Override
+	public synchronized long removeReference(String store, String digest) {
+		Reference reference = references.get(Arrays.asList(store, digest));
+		if (reference == null) {
+			return 0;
+		}
+		if (--reference.count == 0) {
+			references.remove(Arrays.asList(store, digest));
+			digests.remove(Arrays.asList(store, reference.contentId));
+		}
+		return reference.count;
+	}
+
+	private static class Reference {
+		private final Object contentId;
+		private long count;
+
+		private Reference(Object contentId) {
+			this.contentId = contentId;
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package org.springframework.content.commons.repository;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link ContentReferenceIndex} kept in the CONTENT_REFERENCES table, which is created
+ * if it does not exist.
+ * <p>
+ * Content ids are stored as Strings.  Reference counts are updated in single statements,
+ * so the index may be shared by several application instances.
+ */
+public class JdbcContentReferenceIndex implements ContentReferenceIndex, InitializingBean {
+
+	private static Log logger = LogFactory.getLog(JdbcContentReferenceIndex.class);
+
+	private static final String TABLE = "CONTENT_REFERENCES";
+
+	private final DataSource datasource;
+	private JdbcTemplate template;
+
+	public JdbcContentReferenceIndex(DataSource datasource) {
+		Assert.notNull(datasource, "datasource cannot be null");
+		this.datasource = datasource;
+	}
+
+	public void setTemplate(JdbcTemplate template) {
+		this.template = template;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		if (this.template == null) {
+			this.template = new JdbcTemplate(datasource);
+		}
+
+		this.template.execute((Connection con) -> {
+			try (ResultSet rs = con.getMetaData().getTables(null, null, TABLE, new String[] {"TABLE"})) {
+				if (rs.next()) {
+					return null;
+				}
+			}
+
+			logger.info(String.format("Creating content reference table %s", TABLE));
+			try (Statement stmt = con.createStatement()) {
+				stmt.executeUpdate("CREATE TABLE " + TABLE +
+						" (store_name VARCHAR(255) NOT NULL, " +
+						" digest CHAR(64) NOT NULL, " +
+						" content_id VARCHAR(255) NOT NULL, " +
+						" refs BIGINT NOT NULL, " +
+						" PRIMARY KEY (store_name, digest))");
+				stmt.executeUpdate("CREATE INDEX " + TABLE + "_ID ON " + TABLE + " (store_name, content_id)");
+			}
+			return null;
+		});
+	}
+
+	@Override
+	public Object findContentId(String store, String digest) {
+		List<String> ids = template.queryForList("SELECT content_id FROM " + TABLE + " WHERE store_name = ? AND digest = ?", String.class, store, digest);
+		return (ids.isEmpty() ? null : ids.get(0));
+	}
+
+	@Override
+	public String findDigest(String store, Object contentId) {
+		List<String> digests = template.queryForList("SELECT digest FROM " + TABLE + " WHERE store_name = ? AND content_id = ?", String.class, store, contentId.toString());
+		return (digests.isEmpty() ? null : digests.get(0));
+	}
+
+	@Override
+	public long addReference(String store, String digest, Object contentId) {
+		if (increment(store, digest) == 0) {
+			try {
+				template.update("INSERT INTO " + TABLE + " (store_name, digest, content_id, refs) VALUES (?, ?, ?, 1)", store, digest, contentId.toString());
+				return 1;
+			} catch (DuplicateKeyException e) {
+				// another instance referenced the digest first
+				increment(store, digest);
+			}
+		}
+		return count(store, digest);
+	}
+
+	@Override
+	public long removeReference(String store, String digest) {
+		if (template.update("UPDATE " + TABLE + " SET refs = refs - 1 WHERE store_name = ? AND digest = ? AND refs > 0", store, digest) == 0) {
+			return 0;
+		}
+		long refs = count(store, digest);
+		if (refs == 0) {
+			template.update("DELETE FROM " + TABLE + " WHERE store_name = ? AND digest = ? AND refs = 0", store, digest);
+		}
+		return refs;
+	}
+
+	private int increment(String store, String digest) {
+		return template.update("UPDATE " + TABLE + " SET refs = refs + 1 WHERE store_name = ? AND digest = ?", store, digest);
+	}
+
+	private long count(String store, String digest) {
+		List<Long> refs = template.queryForList("SELECT refs FROM " + TABLE + " WHERE store_name = ? AND digest = ?", Long.class, store, digest);
+		return (refs.isEmpty() ? 0 : refs.get(0));
+	}
+}
@@ -0,0 +1,56 @@
+package org.springframework.content.commons.repository;
+
+import java.net.URL;
+
+/**
+ * Implemented by stores whose backend can hand out short-lived URLs that clients read
+ * and write content at directly, so that the content does not pass through the JVM.
+ * <p>
+ * Extending this interface from a store interface opts the store in; the store's
+ * implementation must support it.  Spring Content REST redirects reads of such stores'
+ * content to {@link #getContentUrl}.
+ *
+ * @param <S>
+ * 				the entity type
+ */
+public interface PresignedUrlStore<S> {
+
+	/**
+	 * Returns a URL that the content of property can be read from until it expires.
+	 *
+	 * @param property
+	 * 					the content property
+	 * @param contentType
+	 * 					the Content-Type the URL's response has, or null for the stored one
+	 * @param contentDisposition
+	 * 					the Content-Disposition the URL's response has, or null for the stored one
+	 * @return the URL, or null if the property has no content
+	 */
+	URL getContentUrl(S property, String contentType, String contentDisposition);
+
+	/**
+	 * Returns a URL that content of property can be PUT to until it expires.  A content id
+	 * is assigned to property if it has none.
+	 * <p>
+	 * Content the property already has is kept, and read, until the upload has been
+	 * completed with {@link #completeUpload}; the uploaded content's length is not known
+	 * until then.
+	 *
+	 * @param property
+	 * 					the content property
+	 * @param contentType
+	 * 					the Content-Type the upload must be made with, or null for any
+	 * @return the URL
+	 */
+	URL getUploadUrl(S property, String contentType);
+
+	/**
+	 * Completes an upload made to a URL from {@link #getUploadUrl}, setting the property's
+	 * content length and, when the upload replaces its content, its content id.
+	 *
+	 * @param property
+	 * 					the content property
+	 * @return false if no content has been uploaded for the property
+	 */
+	boolean completeUpload(S property);
+}
@@ -0,0 +1,52 @@
+package org.springframework.content.commons.repository;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+import org.reactivestreams.Publisher;
+
+/**
+ * Non-blocking counterpart of {@link ContentStore}.
+ * <p>
+ * Content is streamed as a {@link Publisher} of {@link ByteBuffer}s so that no thread is
+ * held for the duration of a transfer.  Operations on reactive stores do not publish
+ * store events.
+ *
+ * @param <S>
+ * 				the entity type
+ * @param <SID>
+ * 				the content id type
+ */
+public interface ReactiveContentStore<S, SID extends Serializable> extends Store<SID> {
+
+	/**
+	 * Stores the given content and associates it with entity.
+	 *
+	 * @param entity
+	 * 					the entity to associate the content with
+	 * @param content
+	 * 					the content
+	 * @return a future completed with entity once all content has been written
+	 */
+	CompletableFuture<S> setContent(S entity, Publisher<ByteBuffer> content);
+
+	/**
+	 * Returns the content associated with entity.  The publisher completes without
+	 * emitting any buffers when there is no content.
+	 *
+	 * @param entity
+	 * 					the entity whose content to return
+	 * @return the content
+	 */
+	Publisher<ByteBuffer> getContent(S entity);
+
+	/**
+	 * Removes the content associated with entity.
+	 *
+	 * @param entity
+	 * 					the entity whose content to remove
+	 * @return a future completed with entity once the content has been removed
+	 */
+	CompletableFuture<S> unsetContent(S entity);
+}
@@ -0,0 +1,65 @@
+package org.springframework.content.commons.repository;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.GenericTypeResolver;
+
+/**
+ * Published once for a bulk store operation instead of once per entity.
+ * <p>
+ * The source of the event is the collection of entities. E is the per-entity event the
+ * batch stands for; store event listeners and annotated handlers receive one E per entity.
+ */
+public abstract class StoreBatchEvent<E extends StoreEvent> extends StoreEvent {
+
+	private static final long serialVersionUID = 3313307455458467553L;
+
+	private static final Map<Class<?>, Class<? extends StoreEvent>> ENTITY_EVENT_TYPES = new ConcurrentHashMap<>();
+
+	public StoreBatchEvent(Collection<?> entities, ContentStore<Object,Serializable> store) {
+		super(Collections.unmodifiableCollection(new ArrayList<>(entities)), store);
+	}
+
+	@SuppressWarnings("unchecked")
+	public Collection<Object> getEntities() {
+		return (Collection<Object>) getSource();
+	}
+
+	/**
+	 * Returns the per-entity event for one of this batch's entities.
+	 *
+	 * @param entity
+	 * 					one of the entities of this batch
+	 * @return the per-entity event
+	 */
+	@SuppressWarnings("unchecked")
+	public E forEntity(Object entity) {
+		Class<E> type = (Class<E>) getEntityEventType(getClass());
+		try {
+			return BeanUtils.instantiateClass(type.getConstructor(Object.class, ContentStore.class), entity, getStore());
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException(String.format("%s has no (Object, ContentStore) constructor", type.getName()), e);
+		}
+	}
+
+	/**
+	 * Returns the per-entity event type of a batch event type, or null if eventType is not
+	 * a batch event.
+	 *
+	 * @param eventType
+	 * 					the event type
+	 * @return the per-entity event type
+	 */
+	public static Class<? extends StoreEvent> getEntityEventType(Class<?> eventType) {
+		if (!StoreBatchEvent.class.isAssignableFrom(eventType)) {
+			return null;
+		}
+		return ENTITY_EVENT_TYPES.computeIfAbsent(eventType, type -> GenericTypeResolver.resolveTypeArgument(type, StoreBatchEvent.class).asSubclass(StoreEvent.class));
+	}
+}
@@ -2,27 +2,100 @@ package org.springframework.content.commons.repository.events;
 
 import static org.springframework.core.GenericTypeResolver.resolveTypeArgument;
 
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.content.commons.repository.StoreBatchEvent;
 import org.springframework.content.commons.repository.StoreEvent;
-import org.springframework.context.ApplicationListener;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.event.SmartApplicationListener;
+import org.springframework.core.Ordered;
 
 public abstract class AbstractStoreEventListener<T>
-		implements ApplicationListener<StoreEvent> {
+		implements SmartApplicationListener {
+
+	private static final Map<String, Class<? extends StoreEvent>> HOOKS = new HashMap<>();
+
+	static {
+		HOOKS.put("onBeforeGetContent", BeforeGetContentEvent.class);
+		HOOKS.put("onAfterGetContent", AfterGetContentEvent.class);
+		HOOKS.put("onBeforeSetContent", BeforeSetContentEvent.class);
+		HOOKS.put("onAfterSetContent", AfterSetContentEvent.class);
+		HOOKS.put("onBeforeUnsetContent", BeforeUnsetContentEvent.class);
+		HOOKS.put("onAfterUnsetContent", AfterUnsetContentEvent.class);
+	}
 
 	private final Class<?> INTERESTED_TYPE = resolveTypeArgument(getClass(), AbstractStoreEventListener.class);
 
+	private final Set<Class<? extends StoreEvent>> SUPPORTED_EVENTS = findOverriddenHooks(getClass());
+
+	/**
+	 * Only events whose {@literal on*} hooks are overridden by the subclass are supported,
+	 * so that stores can skip publishing events nobody listens to.  Batch events are
+	 * supported when the hook of their per-entity event is.
+	 */
+	@Override
+	public boolean supportsEventType(Class<? extends ApplicationEvent> eventType) {
+		Class<? extends StoreEvent> entityEventType = StoreBatchEvent.getEntityEventType(eventType);
+		if (entityEventType != null) {
+			eventType = entityEventType;
+		}
+		for (Class<? extends StoreEvent> supported : SUPPORTED_EVENTS) {
+			if (supported.isAssignableFrom(eventType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean supportsSourceType(Class<?> sourceType) {
+		// the source of a batch event is its collection of entities
+		return null == INTERESTED_TYPE || null == sourceType || INTERESTED_TYPE.isAssignableFrom(sourceType) || Collection.class.isAssignableFrom(sourceType);
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE;
+	}
+
 	/* (non-Javadoc)
 	 * @see org.springframework.context.ApplicationListener#onApplicationEvent(org.springframework.context.ApplicationEvent)
 	 */
-	@SuppressWarnings("unchecked")
 	@Override
-	public final void onApplicationEvent(StoreEvent event) {
+	public final void onApplicationEvent(ApplicationEvent applicationEvent) {
+
+		if (!(applicationEvent instanceof StoreEvent)) {
+			return;
+		}
 
+		// batch events are handed to the per-entity hooks one entity at a time
+		if (applicationEvent instanceof StoreBatchEvent) {
+			StoreBatchEvent<?> batch = (StoreBatchEvent<?>) applicationEvent;
+			for (Object entity : batch.getEntities()) {
+				if (null == INTERESTED_TYPE || INTERESTED_TYPE.isInstance(entity)) {
+					dispatch(batch.forEntity(entity));
+				}
+			}
+			return;
+		}
+
+		StoreEvent event = (StoreEvent) applicationEvent;
 		Class<?> srcType = event.getSource().getClass();
 
 		if (null != INTERESTED_TYPE && !INTERESTED_TYPE.isAssignableFrom(srcType)) {
 			return;
 		}
 
+		dispatch(event);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void dispatch(StoreEvent event) {
 		if (event instanceof BeforeGetContentEvent) {
 			onBeforeGetContent((BeforeGetContentEvent) event);
 			onBeforeGetContent((T) event.getSource());
@@ -127,4 +200,17 @@ public abstract class AbstractStoreEventListener<T>
 	 * @param entity The content entity being removed.
 	 */
 	protected void onAfterUnsetContent(T entity) {}
+
+	private static Set<Class<? extends StoreEvent>> findOverriddenHooks(Class<?> listenerClass) {
+		Set<Class<? extends StoreEvent>> events = new HashSet<>();
+		for (Class<?> clazz = listenerClass; clazz != null && clazz != AbstractStoreEventListener.class; clazz = clazz.getSuperclass()) {
+			for (Method method : clazz.getDeclaredMethods()) {
+				Class<? extends StoreEvent> event = HOOKS.get(method.getName());
+				if (event != null && !method.isBridge() && method.getParameterTypes().length == 1) {
+					events.add(event);
+				}
+			}
+		}
+		return events;
+	}
 }
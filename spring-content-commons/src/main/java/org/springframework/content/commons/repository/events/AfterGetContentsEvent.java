@@ -0,0 +1,17 @@
+package org.springframework.content.commons.repository.events;
+
+import java.io.Serializable;
+import java.util.Collection;
+
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.StoreBatchEvent;
+
+public class AfterGetContentsEvent extends StoreBatchEvent<AfterGetContentEvent> {
+
+	private static final long serialVersionUID = 5270867937843376212L;
+
+	public AfterGetContentsEvent(Collection<?> entities, ContentStore<Object,Serializable> store) {
+		super(entities, store);
+	}
+
+}
@@ -0,0 +1,17 @@
+package org.springframework.content.commons.repository.events;
+
+import java.io.Serializable;
+import java.util.Collection;
+
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.StoreBatchEvent;
+
+public class AfterSetContentsEvent extends StoreBatchEvent<AfterSetContentEvent> {
+
+	private static final long serialVersionUID = 8721180937405315049L;
+
+	public AfterSetContentsEvent(Collection<?> entities, ContentStore<Object,Serializable> store) {
+		super(entities, store);
+	}
+
+}
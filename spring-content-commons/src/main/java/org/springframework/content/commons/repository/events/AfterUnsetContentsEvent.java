@@ -0,0 +1,17 @@
+package org.springframework.content.commons.repository.events;
+
+import java.io.Serializable;
+import java.util.Collection;
+
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.StoreBatchEvent;
+
+public class AfterUnsetContentsEvent extends StoreBatchEvent<AfterUnsetContentEvent> {
+
+	private static final long serialVersionUID = -3098476019523868341L;
+
+	public AfterUnsetContentsEvent(Collection<?> entities, ContentStore<Object,Serializable> store) {
+		super(entities, store);
+	}
+
+}
@@ -0,0 +1,206 @@
+package org.springframework.content.commons.repository.events;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.content.commons.repository.StoreEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Publishes {@literal After*} store events on a dedicated, bounded thread pool so that
+ * listeners such as full-text indexers do not add their latency to store operations.
+ * <p>
+ * Dispatch is opt-in; registering a bean of this type switches every store in the
+ * application context over.  {@literal Before*} events are always published
+ * synchronously so that their listeners can still veto an operation by throwing.
+ * <p>
+ * Listeners of asynchronously dispatched events receive the same entity instance that
+ * was passed to the store and may therefore observe later modifications to it.
+ */
+public class AsyncStoreEventDispatcher implements DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(AsyncStoreEventDispatcher.class);
+
+	/**
+	 * What to do with an event when the queue is full.
+	 */
+	public enum OverflowPolicy {
+		/** wait for space in the queue */
+		BLOCK,
+		/** discard the event */
+		DROP,
+		/** publish the event synchronously on the calling thread */
+		CALLER_RUNS
+	}
+
+	private final ThreadPoolExecutor executor;
+	private final OverflowPolicy overflowPolicy;
+	private long awaitTerminationMillis = TimeUnit.SECONDS.toMillis(30);
+
+	private final AtomicLong submitted = new AtomicLong();
+	private final AtomicLong published = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private final AtomicLong callerRuns = new AtomicLong();
+
+	public AsyncStoreEventDispatcher() {
+		this(1, 1000, OverflowPolicy.CALLER_RUNS);
+	}
+
+	public AsyncStoreEventDispatcher(int threads, int queueCapacity, OverflowPolicy overflowPolicy) {
+		Assert.isTrue(threads > 0, "threads must be greater than zero");
+		Assert.isTrue(queueCapacity > 0, "queueCapacity must be greater than zero");
+		Assert.notNull(overflowPolicy, "overflowPolicy must not be null");
+
+		this.overflowPolicy = overflowPolicy;
+		this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(queueCapacity),
+				new CustomizableThreadFactory("store-events-"),
+				new OverflowHandler());
+	}
+
+	public void setAwaitTerminationMillis(long awaitTerminationMillis) {
+		this.awaitTerminationMillis = awaitTerminationMillis;
+	}
+
+	/**
+	 * Queues event for publication by publisher.
+	 *
+	 * @param event
+	 * 					the event to publish
+	 * @param publisher
+	 * 					the publisher to publish the event with
+	 */
+	public void dispatch(StoreEvent event, ApplicationEventPublisher publisher) {
+		submitted.incrementAndGet();
+		executor.execute(new PublishTask(event, publisher));
+	}
+
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	/**
+	 * @return the number of events handed to this dispatcher
+	 */
+	public long getSubmittedCount() {
+		return submitted.get();
+	}
+
+	/**
+	 * @return the number of events published, asynchronously or by the caller
+	 */
+	public long getPublishedCount() {
+		return published.get();
+	}
+
+	/**
+	 * @return the number of events whose listeners threw an exception
+	 */
+	public long getFailedCount() {
+		return failed.get();
+	}
+
+	/**
+	 * @return the number of events discarded because the queue was full
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	/**
+	 * @return the number of events published on the caller's thread because the queue was full
+	 */
+	public long getCallerRunsCount() {
+		return callerRuns.get();
+	}
+
+	/**
+	 * @return the number of events waiting to be published
+	 */
+	public int getQueueSize() {
+		return executor.getQueue().size();
+	}
+
+	/**
+	 * @return the number of events currently being published
+	 */
+	public int getActiveCount() {
+		return executor.getActiveCount();
+	}
+
+	/**
+	 * Stops accepting events and waits for queued events to be published.
+	 */
+	@Override
+	public void destroy() throws InterruptedException {
+		executor.shutdown();
+		if (!executor.awaitTermination(awaitTerminationMillis, TimeUnit.MILLISECONDS)) {
+			logger.warn(String.format("Timed out waiting for %s store events to be published", executor.getQueue().size()));
+			executor.shutdownNow();
+		}
+	}
+
+	private class PublishTask implements Runnable {
+
+		private final StoreEvent event;
+		private final ApplicationEventPublisher publisher;
+
+		PublishTask(StoreEvent event, ApplicationEventPublisher publisher) {
+			this.event = event;
+			this.publisher = publisher;
+		}
+
+		@Override
+		public void run() {
+			try {
+				publisher.publishEvent(event);
+				published.incrementAndGet();
+			} catch (RuntimeException e) {
+				failed.incrementAndGet();
+				logger.error(String.format("Failed to publish %s for %s", event.getClass().getSimpleName(), event.getSource()), e);
+			}
+		}
+	}
+
+	private class OverflowHandler implements RejectedExecutionHandler {
+
+		@Override
+		public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+			if (executor.isShutdown()) {
+				dropped.incrementAndGet();
+				logger.warn(String.format("Store event dispatcher is shut down; dropped %s", ((PublishTask) task).event));
+				return;
+			}
+
+			switch (overflowPolicy) {
+			case BLOCK:
+				try {
+					executor.getQueue().put(task);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					dropped.incrementAndGet();
+				}
+				break;
+			case DROP:
+				dropped.incrementAndGet();
+				if (logger.isDebugEnabled()) {
+					logger.debug(String.format("Store event queue full; dropped %s", ((PublishTask) task).event));
+				}
+				break;
+			case CALLER_RUNS:
+				callerRuns.incrementAndGet();
+				task.run();
+				break;
+			}
+		}
+	}
+}
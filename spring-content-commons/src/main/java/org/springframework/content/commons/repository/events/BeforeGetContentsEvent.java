@@ -0,0 +1,17 @@
+package org.springframework.content.commons.repository.events;
+
+import java.io.Serializable;
+import java.util.Collection;
+
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.StoreBatchEvent;
+
+public class BeforeGetContentsEvent extends StoreBatchEvent<BeforeGetContentEvent> {
+
+	private static final long serialVersionUID = -6163385210390542427L;
+
+	public BeforeGetContentsEvent(Collection<?> entities, ContentStore<Object,Serializable> store) {
+		super(entities, store);
+	}
+
+}
@@ -0,0 +1,17 @@
+package org.springframework.content.commons.repository.events;
+
+import java.io.Serializable;
+import java.util.Collection;
+
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.StoreBatchEvent;
+
+public class BeforeSetContentsEvent extends StoreBatchEvent<BeforeSetContentEvent> {
+
+	private static final long serialVersionUID = -1815713683412954962L;
+
+	public BeforeSetContentsEvent(Collection<?> entities, ContentStore<Object,Serializable> store) {
+		super(entities, store);
+	}
+
+}
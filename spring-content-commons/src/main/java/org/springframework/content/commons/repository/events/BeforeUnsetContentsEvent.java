@@ -0,0 +1,17 @@
+package org.springframework.content.commons.repository.events;
+
+import java.io.Serializable;
+import java.util.Collection;
+
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.StoreBatchEvent;
+
+public class BeforeUnsetContentsEvent extends StoreBatchEvent<BeforeUnsetContentEvent> {
+
+	private static final long serialVersionUID = 4387193672551045176L;
+
+	public BeforeUnsetContentsEvent(Collection<?> entities, ContentStore<Object,Serializable> store) {
+		super(entities, store);
+	}
+
+}
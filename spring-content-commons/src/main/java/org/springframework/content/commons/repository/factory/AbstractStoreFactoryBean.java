@@ -15,13 +15,26 @@ import org.springframework.beans.factory.BeanClassLoaderAware;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.content.commons.annotations.CachedContent;
+import org.springframework.content.commons.annotations.ContentAddressed;
+import org.springframework.content.commons.io.ContentCache;
+import org.springframework.content.commons.metrics.StoreMetrics;
+import org.springframework.content.commons.repository.ContentReferenceIndex;
 import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.InMemoryContentReferenceIndex;
+import org.springframework.content.commons.repository.PresignedUrlStore;
+import org.springframework.content.commons.repository.ReactiveContentStore;
 import org.springframework.content.commons.repository.Store;
 import org.springframework.content.commons.repository.StoreExtension;
+import org.springframework.content.commons.repository.events.AsyncStoreEventDispatcher;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 
+import internal.org.springframework.content.commons.repository.CachingContentStore;
+import internal.org.springframework.content.commons.repository.ContentAddressedContentStore;
 import internal.org.springframework.content.commons.repository.factory.StoreMethodInterceptor;
 
 public abstract class AbstractStoreFactoryBean
@@ -38,6 +51,18 @@ public abstract class AbstractStoreFactoryBean
     @Autowired(required=false)
     private Set<StoreExtension> extensions;
 
+	@Autowired(required=false)
+	private AsyncStoreEventDispatcher eventDispatcher;
+
+	@Autowired(required=false)
+	private ContentReferenceIndex referenceIndex;
+
+	@Autowired(required=false)
+	private ContentCache contentCache;
+
+	@Autowired(required=false)
+	private StoreMetrics metrics;
+
 	@Autowired
 	public void setStoreInterface(Class<? extends Store<Serializable>> storeInterface) {
 		Assert.notNull(storeInterface);
@@ -117,12 +142,33 @@ public abstract class AbstractStoreFactoryBean
 
 	@SuppressWarnings("unchecked")
 	protected Store<? extends Serializable> createContentStore() {
-		Object target = getContentStoreImpl();
+		boolean reactive = ReactiveContentStore.class.isAssignableFrom(storeInterface);
+		Object target = reactive ? getReactiveContentStoreImpl() : getContentStoreImpl();
+		String backend = getBackendType(target);
+		if (!reactive && AnnotationUtils.findAnnotation(storeInterface, ContentAddressed.class) != null) {
+			if (referenceIndex == null) {
+				throw new IllegalStateException(String.format("Content-addressed store %s requires a ContentReferenceIndex bean", storeInterface.getCanonicalName()));
+			}
+			if (referenceIndex instanceof InMemoryContentReferenceIndex) {
+				// its references are lost on restart, after which shared content would be deleted
+				throw new IllegalStateException(String.format("Content-addressed store %s requires a persistent ContentReferenceIndex", storeInterface.getCanonicalName()));
+			}
+			target = new ContentAddressedContentStore<>((ContentStore<Object,Serializable>)target, referenceIndex, storeInterface.getName());
+		}
+		if (!reactive && AnnotationUtils.findAnnotation(storeInterface, CachedContent.class) != null) {
+			if (contentCache == null) {
+				throw new IllegalStateException(String.format("Cached store %s requires a ContentCache bean", storeInterface.getCanonicalName()));
+			}
+			target = new CachingContentStore<>((ContentStore<Object,Serializable>)target, contentCache, storeInterface.getName());
+		}
+		if (PresignedUrlStore.class.isAssignableFrom(storeInterface) && !(target instanceof PresignedUrlStore)) {
+			throw new IllegalStateException(String.format("Store %s does not support presigned URLs", storeInterface.getCanonicalName()));
+		}
 
 		// Create proxy
 		ProxyFactory result = new ProxyFactory();
 		result.setTarget(target);
-		result.setInterfaces(new Class[] { storeInterface, Store.class, ContentStore.class });
+		result.setInterfaces(new Class[] { storeInterface, Store.class, reactive ? ReactiveContentStore.class : ContentStore.class });
 		
 		Map<Method, StoreExtension> extensionsMap = new HashMap<>();
 		try {
@@ -134,11 +180,15 @@ public abstract class AbstractStoreFactoryBean
 		} catch (Exception e) {
 			logger.error("Failed to setup extensions", e);
 		}
-		StoreMethodInterceptor intercepter = new StoreMethodInterceptor((ContentStore<Object,Serializable>)target, 
+		StoreMethodInterceptor intercepter = new StoreMethodInterceptor(reactive ? null : (ContentStore<Object,Serializable>)target, 
 																								getDomainClass(storeInterface), 
 																								getContentIdClass(storeInterface), 
 																								extensionsMap, 
-																								publisher);
+																								publisher,
+																								eventDispatcher,
+																								reactive ? null : metrics,
+																								storeInterface.getName(),
+																								backend);
 		result.addAdvice(intercepter);
 
 		return (Store<? extends Serializable>)result.getProxy(classLoader);
@@ -159,7 +209,8 @@ public abstract class AbstractStoreFactoryBean
         for ( Type t : types ) {
             if (t instanceof ParameterizedType) {
                 ParameterizedType pt = (ParameterizedType) t;
-                if (pt.getRawType().getTypeName().equals(ContentStore.class.getCanonicalName())) {
+                String rawTypeName = pt.getRawType().getTypeName();
+                if (rawTypeName.equals(ContentStore.class.getCanonicalName()) || rawTypeName.equals(ReactiveContentStore.class.getCanonicalName())) {
                     types = pt.getActualTypeArguments();
                     if (types.length != 2) {
                         throw new IllegalStateException(String.format("ContentRepository class %s must have domain and contentId types", repositoryClass.getCanonicalName()));
@@ -174,4 +225,36 @@ public abstract class AbstractStoreFactoryBean
     }
 
 	protected abstract Object getContentStoreImpl();
+
+	/**
+	 * Returns the backend type that store metrics are tagged with, derived from the
+	 * store implementation's class name; for example {@code s3} for {@code DefaultS3StoreImpl}.
+	 *
+	 * @param storeImpl
+	 * 					the store implementation
+	 * @return the backend type
+	 */
+	protected String getBackendType(Object storeImpl) {
+		String name = ClassUtils.getUserClass(storeImpl).getSimpleName();
+		if (name.startsWith("Default")) {
+			name = name.substring("Default".length());
+		}
+		if (name.startsWith("Reactive")) {
+			name = name.substring("Reactive".length());
+		}
+		if (name.endsWith("StoreImpl")) {
+			name = name.substring(0, name.length() - "StoreImpl".length());
+		}
+		return name.toLowerCase();
+	}
+
+	/**
+	 * Returns the implementation backing store interfaces that extend {@link ReactiveContentStore}.
+	 * Modules that support reactive stores override this.
+	 *
+	 * @return the reactive store implementation
+	 */
+	protected Object getReactiveContentStoreImpl() {
+		throw new UnsupportedOperationException(String.format("%s does not support reactive stores", getClass().getSimpleName()));
+	}
 }
@@ -0,0 +1,45 @@
+package org.springframework.content.commons.utils;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * Reflection-free access to the content properties of a single domain class.
+ * <p>
+ * Implementations are generated at compile time by the {@code spring-content-processor}
+ * annotation processor and are named after the domain class's binary name with an
+ * {@value #ACCESSOR_SUFFIX} suffix.  {@link ContentPropertyMetadata} picks them up
+ * automatically and falls back to reflection when no accessor exists.
+ */
+public interface ContentPropertyAccessor {
+
+	String ACCESSOR_SUFFIX = "_ContentAccessor";
+
+	/**
+	 * Whether this accessor was generated for the given annotation.  Annotations that
+	 * are not supported are always resolved reflectively.
+	 *
+	 * @param annotationClass
+	 * 					the content property annotation
+	 * @return true if this accessor handles the annotation
+	 */
+	boolean supports(Class<? extends Annotation> annotationClass);
+
+	boolean hasProperty(Class<? extends Annotation> annotationClass);
+
+	Class<?> getPropertyType(Class<? extends Annotation> annotationClass);
+
+	Object getValue(Object domainObj, Class<? extends Annotation> annotationClass);
+
+	/**
+	 * Sets the properties annotated with annotationClass to value.
+	 *
+	 * @param domainObj
+	 * 					the object containing the property
+	 * @param annotationClass
+	 * 					the annotation to look for
+	 * @param value
+	 * 					the value to set
+	 * @return false if value requires type conversion, in which case nothing was set
+	 */
+	boolean setValue(Object domainObj, Class<? extends Annotation> annotationClass, Object value);
+}
@@ -0,0 +1,282 @@
+package org.springframework.content.commons.utils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.BeansException;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.annotations.MimeType;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Registry of the content properties of a domain class.
+ * <p>
+ * Metadata is built once per class and holds precomputed accessors for each property
+ * annotated with a given annotation, so that reading and writing {@link ContentId},
+ * {@link ContentLength} and {@link MimeType} does not need to introspect the domain
+ * object on every store operation.
+ * <p>
+ * Properties are resolved exactly as {@link BeanUtils} always has: bean properties whose
+ * field is declared on the domain class itself, followed by public fields.  When a
+ * {@link ContentPropertyAccessor} has been generated for the domain class it is used
+ * instead and no reflection takes place.
+ */
+public final class ContentPropertyMetadata {
+
+	private static final Map<Class<?>, ContentPropertyMetadata> metadataCache = new ConcurrentReferenceHashMap<>();
+
+	private final Class<?> domainClass;
+	private final ContentPropertyAccessor accessor;
+	private final Map<Class<? extends Annotation>, AnnotatedProperties> properties = new ConcurrentHashMap<>();
+
+	private ContentPropertyMetadata(Class<?> domainClass) {
+		this.domainClass = domainClass;
+		this.accessor = findGeneratedAccessor(domainClass);
+
+		getProperties(ContentId.class);
+		getProperties(ContentLength.class);
+		getProperties(MimeType.class);
+	}
+
+	/**
+	 * Returns the content property metadata for the given domain class, building it on first use.
+	 *
+	 * @param domainClass
+	 * 					the domain class
+	 * @return the metadata
+	 */
+	public static ContentPropertyMetadata forClass(Class<?> domainClass) {
+		Assert.notNull(domainClass, "domainClass must not be null");
+		ContentPropertyMetadata metadata = metadataCache.get(domainClass);
+		if (metadata == null) {
+			metadata = new ContentPropertyMetadata(domainClass);
+			ContentPropertyMetadata existing = metadataCache.putIfAbsent(domainClass, metadata);
+			if (existing != null) {
+				metadata = existing;
+			}
+		}
+		return metadata;
+	}
+
+	/**
+	 * Clears the metadata cache.  Mostly intended for tests and class reloading.
+	 */
+	public static void clearCache() {
+		metadataCache.clear();
+	}
+
+	public Class<?> getDomainClass() {
+		return domainClass;
+	}
+
+	public boolean hasGeneratedAccessor() {
+		return accessor != null;
+	}
+
+	public boolean hasProperty(Class<? extends Annotation> annotationClass) {
+		if (accessor != null && accessor.supports(annotationClass)) {
+			return accessor.hasProperty(annotationClass);
+		}
+		return getProperties(annotationClass).isPresent();
+	}
+
+	public Class<?> getPropertyType(Class<? extends Annotation> annotationClass) {
+		if (accessor != null && accessor.supports(annotationClass)) {
+			return accessor.getPropertyType(annotationClass);
+		}
+		return getProperties(annotationClass).getType();
+	}
+
+	public Object getValue(Object domainObj, Class<? extends Annotation> annotationClass) throws BeansException {
+		if (accessor != null && accessor.supports(annotationClass)) {
+			return accessor.getValue(domainObj, annotationClass);
+		}
+		return getProperties(annotationClass).getValue(domainObj);
+	}
+
+	public void setValue(Object domainObj, Class<? extends Annotation> annotationClass, Object value) throws BeansException {
+		if (accessor != null && accessor.supports(annotationClass)) {
+			if (accessor.setValue(domainObj, annotationClass, value)) {
+				return;
+			}
+		}
+		getProperties(annotationClass).setValue(domainObj, value);
+	}
+
+	private static ContentPropertyAccessor findGeneratedAccessor(Class<?> domainClass) {
+		String accessorClassName = domainClass.getName() + ContentPropertyAccessor.ACCESSOR_SUFFIX;
+		ClassLoader classLoader = domainClass.getClassLoader();
+		if (!ClassUtils.isPresent(accessorClassName, classLoader)) {
+			return null;
+		}
+
+		try {
+			Class<?> accessorClass = ClassUtils.forName(accessorClassName, classLoader);
+			if (ContentPropertyAccessor.class.isAssignableFrom(accessorClass)) {
+				return (ContentPropertyAccessor) org.springframework.beans.BeanUtils.instantiateClass(accessorClass);
+			}
+		} catch (ClassNotFoundException | LinkageError | BeansException e) {
+			// fall back to reflection
+		}
+		return null;
+	}
+
+	private AnnotatedProperties getProperties(Class<? extends Annotation> annotationClass) {
+		AnnotatedProperties annotated = properties.get(annotationClass);
+		if (annotated == null) {
+			annotated = new AnnotatedProperties(domainClass, annotationClass);
+			properties.put(annotationClass, annotated);
+		}
+		return annotated;
+	}
+
+	private static class AnnotatedProperties {
+
+		private final List<BeanProperty> beanProperties;
+		private final List<Field> publicFields;
+
+		AnnotatedProperties(Class<?> domainClass, Class<? extends Annotation> annotationClass) {
+			List<BeanProperty> beanProperties = new ArrayList<>();
+			for (PropertyDescriptor descriptor : org.springframework.beans.BeanUtils.getPropertyDescriptors(domainClass)) {
+				Field field;
+				try {
+					field = domainClass.getDeclaredField(descriptor.getName());
+				} catch (NoSuchFieldException nsfe) {
+					continue;
+				}
+				if (field.getAnnotation(annotationClass) != null) {
+					beanProperties.add(new BeanProperty(descriptor, field.getType()));
+				}
+			}
+
+			List<Field> publicFields = new ArrayList<>();
+			for (Field field : domainClass.getFields()) {
+				if (field.getAnnotation(annotationClass) != null) {
+					publicFields.add(field);
+				}
+			}
+
+			this.beanProperties = beanProperties.isEmpty() ? Collections.<BeanProperty>emptyList() : beanProperties;
+			this.publicFields = publicFields.isEmpty() ? Collections.<Field>emptyList() : publicFields;
+		}
+
+		boolean isPresent() {
+			return !beanProperties.isEmpty() || !publicFields.isEmpty();
+		}
+
+		Class<?> getType() {
+			if (!beanProperties.isEmpty()) {
+				return beanProperties.get(0).fieldType;
+			}
+
+			Class<?> type = null;
+			for (Field field : publicFields) {
+				type = field.getType();
+			}
+			return type;
+		}
+
+		Object getValue(Object domainObj) {
+			Object value = null;
+			for (BeanProperty property : beanProperties) {
+				value = property.getValue(domainObj);
+			}
+
+			if (value == null) {
+				for (Field field : publicFields) {
+					try {
+						value = ReflectionUtils.getField(field, domainObj);
+					} catch (IllegalArgumentException iae) {}
+				}
+			}
+
+			return value;
+		}
+
+		void setValue(Object domainObj, Object value) {
+			for (Field field : publicFields) {
+				try {
+					ReflectionUtils.setField(field, domainObj, value);
+				} catch (IllegalArgumentException iae) {}
+			}
+
+			for (BeanProperty property : beanProperties) {
+				property.setValue(domainObj, value);
+			}
+		}
+	}
+
+	private static class BeanProperty {
+
+		private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+		private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+		private final String name;
+		private final Class<?> fieldType;
+		private final MethodHandle getter;
+		private final MethodHandle setter;
+		private final Class<?> setterType;
+
+		BeanProperty(PropertyDescriptor descriptor, Class<?> fieldType) {
+			this.name = descriptor.getName();
+			this.fieldType = fieldType;
+
+			Method readMethod = descriptor.getReadMethod();
+			this.getter = (readMethod != null ? unreflect(readMethod, GETTER_TYPE) : null);
+
+			Method writeMethod = descriptor.getWriteMethod();
+			this.setter = (writeMethod != null ? unreflect(writeMethod, SETTER_TYPE) : null);
+			this.setterType = (writeMethod != null ? writeMethod.getParameterTypes()[0] : null);
+		}
+
+		Object getValue(Object domainObj) {
+			if (getter == null) {
+				return new BeanWrapperImpl(domainObj).getPropertyValue(name);
+			}
+			try {
+				return (Object) getter.invokeExact(domainObj);
+			} catch (Throwable t) {
+				ReflectionUtils.rethrowRuntimeException(t);
+				return null;
+			}
+		}
+
+		void setValue(Object domainObj, Object value) {
+			// values that need type conversion go through a bean wrapper so conversion
+			// semantics are unchanged
+			if (setter == null || !ClassUtils.isAssignableValue(setterType, value)) {
+				new BeanWrapperImpl(domainObj).setPropertyValue(name, value);
+				return;
+			}
+			try {
+				setter.invokeExact(domainObj, value);
+			} catch (Throwable t) {
+				ReflectionUtils.rethrowRuntimeException(t);
+			}
+		}
+
+		private static MethodHandle unreflect(Method method, MethodType type) {
+			try {
+				ReflectionUtils.makeAccessible(method);
+				return MethodHandles.lookup().unreflect(method).asType(type);
+			} catch (IllegalAccessException iae) {
+				return null;
+			}
+		}
+	}
+}
@@ -5,4 +5,11 @@ import java.io.IOException;
 
 public interface FileService {
     void mkdirs(File file) throws IOException;
+
+    /**
+     * Forgets that file was made, so that the next {@link #mkdirs(File)} makes it again;
+     * for when a write into it failed because it was deleted after it was made.
+     */
+    default void forget(File file) {
+    }
 }
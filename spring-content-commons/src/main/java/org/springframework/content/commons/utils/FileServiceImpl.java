@@ -5,14 +5,47 @@ import org.springframework.util.Assert;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Remembers the directories it has made, or found to exist, so that repeated calls for
+ * the same directory cost no filesystem calls.  Directories deleted by others after
+ * they were remembered are not re-made until they are forgotten, see
+ * {@link #forget(File)}.
+ */
 public class FileServiceImpl implements FileService {
+
+    // bounds the memory held when content is spread over very many directories
+    private static final int MAX_KNOWN_DIRECTORIES = 100_000;
+
+    private final Set<File> knownDirectories = ConcurrentHashMap.newKeySet();
+
     public FileServiceImpl() {
     }
 
     @Override
     public void mkdirs(File file) throws IOException {
         Assert.notNull(file, "file must not be null");
-        FileUtils.forceMkdir(file);
+        if (knownDirectories.contains(file)) {
+            return;
+        }
+        try {
+            FileUtils.forceMkdir(file);
+        } catch (IOException e) {
+            // another thread may have made the directory first
+            if (!file.isDirectory()) {
+                throw e;
+            }
+        }
+        if (knownDirectories.size() >= MAX_KNOWN_DIRECTORIES) {
+            knownDirectories.clear();
+        }
+        knownDirectories.add(file);
+    }
+
+    @Override
+    public void forget(File file) {
+        knownDirectories.remove(file);
     }
 }
@@ -0,0 +1,33 @@
+package org.springframework.content.commons.utils;
+
+/**
+ * Fast, stable, non-cryptographic hashing, for placing content with rendezvous hashing
+ * over buckets or volumes.  Results must never change, or placed content is looked for
+ * in the wrong place.
+ */
+public final class HashingUtils {
+
+	private HashingUtils() {}
+
+	/**
+	 * Returns the 64-bit FNV-1a hash of value's chars.
+	 */
+	public static long hash(String value) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < value.length(); i++) {
+			hash ^= value.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/**
+	 * Returns z mixed by the splitmix64 finalizer, so that hashes differing in a few bits
+	 * score independently.
+	 */
+	public static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -19,6 +19,7 @@ import static org.mockito.Mockito.verify;
 
 import java.io.Serializable;
 import java.lang.reflect.Method;
+import java.util.Arrays;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -36,6 +37,7 @@ import org.springframework.content.commons.repository.events.AfterSetContentEven
 import org.springframework.content.commons.repository.events.AfterUnsetContentEvent;
 import org.springframework.content.commons.repository.events.BeforeGetContentEvent;
 import org.springframework.content.commons.repository.events.BeforeSetContentEvent;
+import org.springframework.content.commons.repository.events.BeforeSetContentsEvent;
 import org.springframework.content.commons.repository.events.BeforeUnsetContentEvent;
 import org.springframework.content.commons.utils.ReflectionService;
 import org.springframework.util.ReflectionUtils;
@@ -159,6 +161,18 @@ public class AnnotatedStoreEventInvokerTest {
 					verify(reflectionService).invokeMethod(argThat(is(handler)), argThat(isA(CustomEventHandler.class)), argThat(is(event.getSource())));
 				});
 			});
+			Context("given an event handler and a BeforeSetContents batch event", () -> {
+				BeforeEach(() -> {
+					event = new BeforeSetContentsEvent(Arrays.asList(new EventSource(), new EventSource()), store);
+				});
+				It("should call the per-entity handler method once for each entity", () -> {
+					Method handler = ReflectionUtils.findMethod(CustomEventHandler.class, "beforeSetContent", Object.class);
+
+					for (Object entity : ((BeforeSetContentsEvent) event).getEntities()) {
+						verify(reflectionService).invokeMethod(argThat(is(handler)), argThat(isA(CustomEventHandler.class)), argThat(is(entity)));
+					}
+				});
+			});
 			Context("given an event handler and an unknown event", () -> {
 				BeforeEach(() -> {
 					EventSource source = new EventSource();
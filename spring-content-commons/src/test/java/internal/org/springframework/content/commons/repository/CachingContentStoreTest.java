@@ -0,0 +1,113 @@
+package internal.org.springframework.content.commons.repository;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.io.ContentCache;
+import org.springframework.content.commons.io.ContentCache.EvictionPolicy;
+import org.springframework.content.commons.repository.ContentStore;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@SuppressWarnings("unchecked")
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class CachingContentStoreTest {
+
+	private CachingContentStore<TestEntity, String> store;
+	private ContentStore<TestEntity, String> delegate;
+	private ContentCache cache;
+	private TestEntity entity;
+
+	{
+		Describe("CachingContentStore", () -> {
+			BeforeEach(() -> {
+				delegate = mock(ContentStore.class);
+				cache = new ContentCache(Files.createTempDirectory("caching-store").toFile(), 1024, EvictionPolicy.LRU);
+				store = new CachingContentStore<>(delegate, cache, "test");
+
+				entity = new TestEntity();
+				entity.setContentId("12345");
+				when(delegate.getContent(entity)).thenAnswer(invocation -> new ByteArrayInputStream("hello".getBytes()));
+			});
+			AfterEach(() -> {
+				cache.destroy();
+			});
+			Context("#getContent", () -> {
+				It("should read the delegate once and then serve the content from the cache", () -> {
+					assertThat(read(store.getContent(entity)), is("hello"));
+					assertThat(read(store.getContent(entity)), is("hello"));
+					verify(delegate, times(1)).getContent(entity);
+				});
+			});
+			Context("#getContent with a range", () -> {
+				It("should serve the range from the cache when the content is cached", () -> {
+					read(store.getContent(entity));
+					assertThat(read(store.getContent(entity, 1, 2)), is("el"));
+					verify(delegate, never()).getContent(eq(entity), anyLong(), anyLong());
+				});
+				It("should read the range from the delegate otherwise", () -> {
+					store.getContent(entity, 1, 2);
+					verify(delegate).getContent(entity, 1, 2);
+				});
+			});
+			Context("#setContent", () -> {
+				It("should invalidate the cached content", () -> {
+					read(store.getContent(entity));
+					store.setContent(entity, new ByteArrayInputStream("world".getBytes()));
+					verify(delegate).setContent(eq(entity), any(InputStream.class));
+					read(store.getContent(entity));
+					verify(delegate, times(2)).getContent(entity);
+				});
+			});
+			Context("#unsetContent", () -> {
+				It("should invalidate the cached content", () -> {
+					read(store.getContent(entity));
+					store.unsetContent(entity);
+					verify(delegate).unsetContent(entity);
+					assertThat(cache.getSize(), is(0L));
+				});
+			});
+		});
+	}
+
+	private static String read(InputStream in) throws Exception {
+		try (InputStream content = in) {
+			return new String(IOUtils.toByteArray(content));
+		}
+	}
+
+	public static class TestEntity {
+		@ContentId
+		private String contentId;
+
+		public String getContentId() {
+			return contentId;
+		}
+
+		public void setContentId(String contentId) {
+			this.contentId = contentId;
+		}
+	}
+}
@@ -0,0 +1,254 @@
+package internal.org.springframework.content.commons.repository;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.UUID;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.repository.AssociativeStore;
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.InMemoryContentReferenceIndex;
+import org.springframework.content.commons.repository.StoreAccessException;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@SuppressWarnings("unchecked")
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class ContentAddressedContentStoreTest {
+
+	private static final String HELLO_SHA256 = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+	private static final String STORE = "TestStore";
+
+	private ContentAddressedContentStore<TestEntity, String> store;
+	private ContentStore<TestEntity, String> delegate;
+	private InMemoryContentReferenceIndex index;
+
+	private TestEntity entity, other;
+	private byte[] written;
+
+	{
+		Describe("ContentAddressedContentStore", () -> {
+			BeforeEach(() -> {
+				delegate = mock(ContentStore.class, withSettings().extraInterfaces(AssociativeStore.class));
+				doAnswer(invocation -> {
+					written = IOUtils.toByteArray((InputStream) invocation.getArguments()[1]);
+					((TestEntity) invocation.getArguments()[0]).setContentLen(written.length);
+					return null;
+				}).when(delegate).setContent(anyObject(), any(InputStream.class));
+				doAnswer(invocation -> {
+					((TestEntity) invocation.getArguments()[0]).setContentId((String) invocation.getArguments()[1]);
+					return null;
+				}).when((AssociativeStore<TestEntity, String>) delegate).associate(anyObject(), anyObject());
+				doAnswer(invocation -> {
+					TestEntity e = (TestEntity) invocation.getArguments()[0];
+					e.setContentId(null);
+					e.setContentLen(0L);
+					return null;
+				}).when(delegate).unsetContent(anyObject());
+
+				index = new InMemoryContentReferenceIndex();
+				store = new ContentAddressedContentStore<>(delegate, index, STORE);
+				entity = new TestEntity();
+				other = new TestEntity();
+			});
+			Context("#setContent", () -> {
+				BeforeEach(() -> {
+					store.setContent(entity, new ByteArrayInputStream("hello".getBytes()));
+				});
+				It("should store the content under its digest", () -> {
+					verify(delegate).setContent(eq(entity), any(InputStream.class));
+					assertThat(new String(written), is("hello"));
+					assertThat(entity.getContentId(), is(HELLO_SHA256));
+					assertThat(entity.getContentLen(), is(5L));
+				});
+				Context("given identical content for another entity", () -> {
+					BeforeEach(() -> {
+						store.setContent(other, new ByteArrayInputStream("hello".getBytes()));
+					});
+					It("should reference the stored content without writing it again", () -> {
+						verify(delegate, times(1)).setContent(anyObject(), any(InputStream.class));
+						assertThat(other.getContentId(), is(HELLO_SHA256));
+						assertThat(other.getContentLen(), is(5L));
+					});
+					Context("#unsetContent", () -> {
+						BeforeEach(() -> {
+							store.unsetContent(entity);
+						});
+						It("should keep the content while it is still referenced", () -> {
+							verify(delegate, never()).unsetContent(anyObject());
+							assertThat(entity.getContentId(), is(nullValue()));
+							assertThat(entity.getContentLen(), is(0L));
+							assertThat(index.findContentId(STORE, HELLO_SHA256), is(HELLO_SHA256));
+						});
+						It("should delete the content when the last reference is unset", () -> {
+							store.unsetContent(other);
+							verify(delegate).unsetContent(other);
+							assertThat(index.findContentId(STORE, HELLO_SHA256), is(nullValue()));
+						});
+					});
+				});
+				Context("#copyContent", () -> {
+					BeforeEach(() -> {
+						store.copyContent(entity, other);
+					});
+					It("should reference the stored content without copying it", () -> {
+						verify(delegate, times(1)).setContent(anyObject(), any(InputStream.class));
+						verify(delegate, never()).getContent(anyObject());
+						assertThat(other.getContentId(), is(HELLO_SHA256));
+						assertThat(other.getContentLen(), is(5L));
+					});
+					It("should keep the content until both are unset", () -> {
+						store.unsetContent(entity);
+						verify(delegate, never()).unsetContent(anyObject());
+						store.unsetContent(other);
+						verify(delegate).unsetContent(other);
+					});
+				});
+				Context("given the same content again", () -> {
+					BeforeEach(() -> {
+						store.setContent(entity, new ByteArrayInputStream("hello".getBytes()));
+					});
+					It("should neither write nor delete content", () -> {
+						verify(delegate, times(1)).setContent(anyObject(), any(InputStream.class));
+						verify(delegate, never()).unsetContent(anyObject());
+						assertThat(entity.getContentId(), is(HELLO_SHA256));
+					});
+				});
+				Context("given different content", () -> {
+					BeforeEach(() -> {
+						store.setContent(entity, new ByteArrayInputStream("world".getBytes()));
+					});
+					It("should release the previous content and store the new content", () -> {
+						verify(delegate).unsetContent(entity);
+						assertThat(index.findContentId(STORE, HELLO_SHA256), is(nullValue()));
+						assertThat(new String(written), is("world"));
+						assertThat(entity.getContentId(), is(not(HELLO_SHA256)));
+					});
+				});
+				Context("#associate", () -> {
+					BeforeEach(() -> {
+						store.associate(other, HELLO_SHA256);
+					});
+					It("should reference the stored content", () -> {
+						verify((AssociativeStore<TestEntity, String>) delegate).associate(other, HELLO_SHA256);
+						assertThat(other.getContentId(), is(HELLO_SHA256));
+					});
+					It("should keep the content until both are unset", () -> {
+						store.unsetContent(entity);
+						verify(delegate, never()).unsetContent(anyObject());
+						store.unsetContent(other);
+						verify(delegate).unsetContent(other);
+					});
+				});
+				Context("#unassociate", () -> {
+					BeforeEach(() -> {
+						store.unassociate(entity);
+					});
+					It("should remove the reference without deleting the content", () -> {
+						verify((AssociativeStore<TestEntity, String>) delegate).unassociate(entity);
+						verify(delegate, never()).unsetContent(anyObject());
+						assertThat(index.findContentId(STORE, HELLO_SHA256), is(nullValue()));
+					});
+				});
+			});
+			Context("given an entity with a non-String content id", () -> {
+				It("should let the delegate generate the content id", () -> {
+					ContentStore<UuidEntity, UUID> uuidDelegate = mock(ContentStore.class);
+					UUID generated = UUID.randomUUID();
+					doAnswer(invocation -> {
+						((UuidEntity) invocation.getArguments()[0]).contentId = generated;
+						((UuidEntity) invocation.getArguments()[0]).contentLen = 5L;
+						return null;
+					}).when(uuidDelegate).setContent(anyObject(), any(InputStream.class));
+
+					UuidEntity uuidEntity = new UuidEntity();
+					new ContentAddressedContentStore<>(uuidDelegate, index, STORE).setContent(uuidEntity, new ByteArrayInputStream("hello".getBytes()));
+
+					assertThat(uuidEntity.contentId, is(generated));
+					assertThat(index.findDigest(STORE, generated), is(HELLO_SHA256));
+				});
+			});
+			Context("given a write the delegate failed without throwing", () -> {
+				It("should throw and not reference the content", () -> {
+					doAnswer(invocation -> null).when(delegate).setContent(anyObject(), any(InputStream.class));
+
+					Exception e = null;
+					try {
+						store.setContent(entity, new ByteArrayInputStream("hello".getBytes()));
+					} catch (Exception ex) {
+						e = ex;
+					}
+					assertThat(e, is(instanceOf(StoreAccessException.class)));
+					assertThat(index.findContentId(STORE, HELLO_SHA256), is(nullValue()));
+					assertThat(entity.getContentId(), is(nullValue()));
+				});
+			});
+			Context("given content the index does not know of", () -> {
+				It("should unset the entity without deleting the content", () -> {
+					entity.setContentId(HELLO_SHA256);
+					entity.setContentLen(5L);
+					store.unsetContent(entity);
+
+					verify(delegate, never()).unsetContent(anyObject());
+					assertThat(entity.getContentId(), is(nullValue()));
+				});
+			});
+		});
+	}
+
+	public static class TestEntity {
+		@ContentId
+		private String contentId;
+
+		@ContentLength
+		private long contentLen;
+
+		public String getContentId() {
+			return contentId;
+		}
+
+		public void setContentId(String contentId) {
+			this.contentId = contentId;
+		}
+
+		public long getContentLen() {
+			return contentLen;
+		}
+
+		public void setContentLen(long contentLen) {
+			this.contentLen = contentLen;
+		}
+	}
+
+	public static class UuidEntity {
+		@ContentId
+		public UUID contentId;
+
+		@ContentLength
+		public long contentLen;
+	}
+}
@@ -9,9 +9,11 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -21,6 +23,7 @@ import org.springframework.content.commons.repository.ContentStore;
 import org.springframework.content.commons.repository.events.AbstractStoreEventListener;
 import org.springframework.content.commons.repository.events.AfterGetContentEvent;
 import org.springframework.content.commons.repository.events.AfterSetContentEvent;
+import org.springframework.content.commons.repository.events.AfterSetContentsEvent;
 import org.springframework.content.commons.repository.events.AfterUnsetContentEvent;
 import org.springframework.content.commons.repository.events.BeforeGetContentEvent;
 import org.springframework.content.commons.repository.events.BeforeSetContentEvent;
@@ -112,6 +115,21 @@ public class AbstractStoreEventListenerTest {
 						verify(consumer).onAfterSetContent(argThat(is(event.getSource())));
 					});
 				});
+				Context("given an after set contents batch event", () -> {
+					BeforeEach(() -> {
+						event = new AfterSetContentsEvent(Arrays.asList(new EventSource(), new EventSource()), store);
+					});
+					It("should call the event consumer once for each entity", () -> {
+						ArgumentCaptor<AfterSetContentEvent> argumentCaptor = ArgumentCaptor.forClass(AfterSetContentEvent.class);
+						verify(consumer, times(2)).onAfterSetContent(argumentCaptor.capture());
+						assertThat(argumentCaptor.getAllValues().get(0).getSource(), is(((AfterSetContentsEvent) event).getEntities().toArray()[0]));
+						assertThat(argumentCaptor.getAllValues().get(1).getSource(), is(((AfterSetContentsEvent) event).getEntities().toArray()[1]));
+						assertThat(argumentCaptor.getValue().getStore(), is(store));
+					});
+					It("should be supported when the per-entity hook is", () -> {
+						assertThat(listener.supportsEventType(AfterSetContentsEvent.class), is(true));
+					});
+				});
 				Context("given a before unset content event", () -> {
 					BeforeEach(() -> {
 						event = new BeforeUnsetContentEvent(new EventSource(), store);
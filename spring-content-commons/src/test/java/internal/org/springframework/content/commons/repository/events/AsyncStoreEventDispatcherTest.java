@@ -0,0 +1,168 @@
+package internal.org.springframework.content.commons.repository.events;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.events.AfterSetContentEvent;
+import org.springframework.content.commons.repository.events.AsyncStoreEventDispatcher;
+import org.springframework.content.commons.repository.events.AsyncStoreEventDispatcher.OverflowPolicy;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class AsyncStoreEventDispatcherTest {
+
+	private AsyncStoreEventDispatcher dispatcher;
+	private BlockingPublisher publisher;
+
+	{
+		Describe("AsyncStoreEventDispatcher", () -> {
+			BeforeEach(() -> {
+				publisher = new BlockingPublisher();
+			});
+			AfterEach(() -> {
+				publisher.release();
+				dispatcher.destroy();
+			});
+			Context("given an event", () -> {
+				BeforeEach(() -> {
+					dispatcher = new AsyncStoreEventDispatcher(1, 10, OverflowPolicy.BLOCK);
+					publisher.release();
+					dispatcher.dispatch(event(), publisher);
+					dispatcher.destroy();
+				});
+				It("should publish it on a dispatcher thread", () -> {
+					assertThat(publisher.threads.size(), is(1));
+					assertThat(publisher.threads.get(0), is(not(Thread.currentThread())));
+					assertThat(dispatcher.getSubmittedCount(), is(1L));
+					assertThat(dispatcher.getPublishedCount(), is(1L));
+				});
+			});
+			Context("given a listener that fails", () -> {
+				BeforeEach(() -> {
+					dispatcher = new AsyncStoreEventDispatcher(1, 10, OverflowPolicy.BLOCK);
+					dispatcher.dispatch(event(), new ObjectEventPublisher() {
+						@Override
+						public void publishEvent(Object event) {
+							throw new IllegalStateException();
+						}
+					});
+					dispatcher.destroy();
+				});
+				It("should count the failure", () -> {
+					assertThat(dispatcher.getFailedCount(), is(1L));
+					assertThat(dispatcher.getPublishedCount(), is(0L));
+				});
+			});
+			Context("given a full queue", () -> {
+				Context("and a drop policy", () -> {
+					BeforeEach(() -> {
+						dispatcher = fill(OverflowPolicy.DROP);
+						dispatcher.dispatch(event(), publisher);
+					});
+					It("should drop the event", () -> {
+						assertThat(dispatcher.getDroppedCount(), is(1L));
+						assertThat(dispatcher.getQueueSize(), is(1));
+					});
+				});
+				Context("and a caller-runs policy", () -> {
+					BeforeEach(() -> {
+						dispatcher = fill(OverflowPolicy.CALLER_RUNS);
+						dispatcher.dispatch(event(), new ObjectEventPublisher() {
+							@Override
+							public void publishEvent(Object event) {
+								publisher.threads.add(Thread.currentThread());
+							}
+						});
+					});
+					It("should publish the event on the calling thread", () -> {
+						assertThat(dispatcher.getCallerRunsCount(), is(1L));
+						assertThat(publisher.threads.contains(Thread.currentThread()), is(true));
+					});
+				});
+				Context("and a block policy", () -> {
+					BeforeEach(() -> {
+						dispatcher = fill(OverflowPolicy.BLOCK);
+						Thread releaser = new Thread(() -> {
+							try {
+								Thread.sleep(100);
+							} catch (InterruptedException e) {}
+							publisher.release();
+						});
+						releaser.start();
+						dispatcher.dispatch(event(), publisher);
+						dispatcher.destroy();
+					});
+					It("should wait for space and publish every event", () -> {
+						assertThat(dispatcher.getPublishedCount(), is(3L));
+						assertThat(dispatcher.getDroppedCount(), is(0L));
+					});
+				});
+			});
+		});
+	}
+
+	/*
+	 * Returns a single-threaded dispatcher whose worker is blocked and whose queue is full
+	 */
+	private AsyncStoreEventDispatcher fill(OverflowPolicy policy) throws InterruptedException {
+		AsyncStoreEventDispatcher dispatcher = new AsyncStoreEventDispatcher(1, 1, policy);
+		dispatcher.dispatch(event(), publisher);
+		publisher.started.await(5, TimeUnit.SECONDS);
+		dispatcher.dispatch(event(), publisher);
+		return dispatcher;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static AfterSetContentEvent event() {
+		return new AfterSetContentEvent(new Object(), mock(ContentStore.class));
+	}
+
+	private static abstract class ObjectEventPublisher implements ApplicationEventPublisher {
+
+		@Override
+		public void publishEvent(ApplicationEvent event) {
+			publishEvent((Object) event);
+		}
+	}
+
+	private static class BlockingPublisher extends ObjectEventPublisher {
+
+		private final CountDownLatch started = new CountDownLatch(1);
+		private final CountDownLatch latch = new CountDownLatch(1);
+		private final List<Thread> threads = new CopyOnWriteArrayList<>();
+
+		void release() {
+			latch.countDown();
+		}
+
+		@Override
+		public void publishEvent(Object event) {
+			threads.add(Thread.currentThread());
+			started.countDown();
+			try {
+				latch.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package internal.org.springframework.content.commons.repository.factory;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.JustBeforeEach;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.annotations.HandleBeforeSetContent;
+import org.springframework.content.commons.annotations.StoreEventHandler;
+import org.springframework.content.commons.repository.events.AbstractStoreEventListener;
+import org.springframework.content.commons.repository.events.AfterGetContentEvent;
+import org.springframework.content.commons.repository.events.AfterSetContentEvent;
+import org.springframework.content.commons.repository.events.BeforeSetContentEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.event.ApplicationEventMulticaster;
+import org.springframework.context.support.AbstractApplicationContext;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+import internal.org.springframework.content.commons.repository.AnnotatedStoreEventInvoker;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class StoreEventPublisherTest {
+
+	private StoreEventPublisher publisher;
+
+	private AnnotationConfigApplicationContext context;
+
+	{
+		Describe("StoreEventPublisher", () -> {
+			Context("given a publisher that is not an application context", () -> {
+				BeforeEach(() -> {
+					publisher = new StoreEventPublisher(mock(ApplicationEventPublisher.class));
+				});
+				It("should assume every event has listeners", () -> {
+					assertThat(publisher.hasListeners(AfterSetContentEvent.class, new TestEntity()), is(true));
+				});
+			});
+			Context("given an application context", () -> {
+				BeforeEach(() -> {
+					context = new AnnotationConfigApplicationContext();
+					context.register(AnnotatedStoreEventInvoker.class);
+				});
+				JustBeforeEach(() -> {
+					context.refresh();
+					publisher = new StoreEventPublisher(context);
+				});
+				AfterEach(() -> {
+					context.close();
+				});
+				Context("with no store event listeners", () -> {
+					It("should report no listeners", () -> {
+						assertThat(publisher.hasListeners(BeforeSetContentEvent.class, new TestEntity()), is(false));
+						assertThat(publisher.hasListeners(AfterSetContentEvent.class, new TestEntity()), is(false));
+					});
+				});
+				Context("with an annotated store event handler", () -> {
+					BeforeEach(() -> {
+						context.register(TestEventHandler.class);
+					});
+					It("should only report listeners for handled events", () -> {
+						assertThat(publisher.hasListeners(BeforeSetContentEvent.class, new TestEntity()), is(true));
+						assertThat(publisher.hasListeners(AfterSetContentEvent.class, new TestEntity()), is(false));
+					});
+				});
+				Context("with a store event listener", () -> {
+					BeforeEach(() -> {
+						context.register(TestEventListener.class);
+					});
+					It("should only report listeners for overridden hooks and interested types", () -> {
+						assertThat(publisher.hasListeners(AfterSetContentEvent.class, new TestEntity()), is(true));
+						assertThat(publisher.hasListeners(AfterGetContentEvent.class, new TestEntity()), is(false));
+						assertThat(publisher.hasListeners(AfterSetContentEvent.class, "not an entity"), is(false));
+					});
+				});
+				Context("with a listener added after listeners were looked up", () -> {
+					It("should report the new listener", () -> {
+						assertThat(publisher.hasListeners(AfterSetContentEvent.class, new TestEntity()), is(false));
+						context.addApplicationListener(new TestEventListener());
+						assertThat(publisher.hasListeners(AfterSetContentEvent.class, new TestEntity()), is(true));
+					});
+				});
+				Context("with a listener removed after listeners were looked up", () -> {
+					It("should no longer report the removed listener", () -> {
+						TestEventListener listener = new TestEventListener();
+						context.addApplicationListener(listener);
+						assertThat(publisher.hasListeners(AfterSetContentEvent.class, new TestEntity()), is(true));
+						context.getBean(AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME, ApplicationEventMulticaster.class).removeApplicationListener(listener);
+						assertThat(publisher.hasListeners(AfterSetContentEvent.class, new TestEntity()), is(false));
+					});
+				});
+			});
+		});
+	}
+
+	public static class TestEntity {
+	}
+
+	@StoreEventHandler
+	public static class TestEventHandler {
+		@HandleBeforeSetContent
+		public void beforeSetContent(TestEntity entity) {}
+	}
+
+	public static class TestEventListener extends AbstractStoreEventListener<TestEntity> {
+		@Override
+		protected void onAfterSetContent(TestEntity entity) {}
+	}
+}
@@ -5,44 +5,65 @@ import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.JustBeforeEach;
+import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.isA;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.CoreMatchers.startsWith;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.lang.reflect.Method;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.aopalliance.intercept.MethodInvocation;
+import org.apache.commons.io.IOUtils;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mockito;
 import org.springframework.content.commons.annotations.MimeType;
+import org.springframework.content.commons.metrics.MeteredResource;
+import org.springframework.content.commons.metrics.MicrometerStoreMetrics;
 import org.springframework.content.commons.repository.AssociativeStore;
 import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.PresignedUrlStore;
 import org.springframework.content.commons.repository.Store;
 import org.springframework.content.commons.repository.StoreExtension;
+import org.springframework.content.commons.repository.StoreInvoker;
 import org.springframework.content.commons.repository.events.AfterGetContentEvent;
 import org.springframework.content.commons.repository.events.AfterSetContentEvent;
+import org.springframework.content.commons.repository.events.AfterSetContentsEvent;
 import org.springframework.content.commons.repository.events.AfterUnsetContentEvent;
+import org.springframework.content.commons.repository.events.AsyncStoreEventDispatcher;
 import org.springframework.content.commons.repository.events.BeforeGetContentEvent;
 import org.springframework.content.commons.repository.events.BeforeSetContentEvent;
+import org.springframework.content.commons.repository.events.BeforeSetContentsEvent;
 import org.springframework.content.commons.repository.events.BeforeUnsetContentEvent;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
 
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @SuppressWarnings("unchecked")
 @RunWith(Ginkgo4jRunner.class)
 @Ginkgo4jConfiguration(threads = 1)
@@ -55,6 +76,8 @@ public class StoreMethodInterceptorTest {
 	private MethodInvocation invocation;
 	private StoreExtension extension;
 	private ApplicationEventPublisher publisher;
+	private AsyncStoreEventDispatcher dispatcher;
+	private SimpleMeterRegistry registry;
 
 	private Exception e;
 	
@@ -65,9 +88,10 @@ public class StoreMethodInterceptorTest {
 			BeforeEach(() -> {
 				store = mock(ContentStore.class);
 				publisher = mock(ApplicationEventPublisher.class);
+				dispatcher = null;
 			});
 			JustBeforeEach(() -> {
-				interceptor = new StoreMethodInterceptor(store, Object.class, String.class, extensions, publisher);
+				interceptor = new StoreMethodInterceptor(store, Object.class, String.class, extensions, publisher, dispatcher);
 				try {
 				    interceptor.invoke(invocation);
                 } catch (Exception invokeException) {
@@ -130,6 +154,90 @@ public class StoreMethodInterceptorTest {
 					inOrder.verify(publisher).publishEvent(argThat(isA(AfterSetContentEvent.class)));
 				});
 			});
+			Context("when the contents of several entities are set", () -> {
+				BeforeEach(() -> {
+					invocation = mock(MethodInvocation.class);
+
+					Map<Object, InputStream> contents = new HashMap<>();
+					contents.put(new ContentObject("plain/text"), mock(InputStream.class));
+					contents.put(new ContentObject("plain/text"), mock(InputStream.class));
+
+					when(invocation.getMethod()).thenReturn(ContentStore.class.getMethod("setContents", Map.class));
+					when(invocation.getArguments()).thenReturn(new Object[]{contents});
+				});
+				It("should publish a single batch event either side of proceeding", () -> {
+					InOrder inOrder = Mockito.inOrder(publisher, invocation);
+
+					inOrder.verify(publisher).publishEvent(argThat(isA(BeforeSetContentsEvent.class)));
+					inOrder.verify(invocation).proceed();
+					inOrder.verify(publisher).publishEvent(argThat(isA(AfterSetContentsEvent.class)));
+					verify(publisher, times(2)).publishEvent(anyObject());
+				});
+			});
+			Context("when moveContent is invoked", () -> {
+				BeforeEach(() -> {
+					invocation = mock(MethodInvocation.class);
+
+					when(invocation.getMethod()).thenReturn(ContentStore.class.getMethod("moveContent", Object.class, Object.class));
+					when(invocation.getArguments()).thenReturn(new Object[]{new ContentObject("plain/text"), new ContentObject("plain/text")});
+				});
+				It("should publish set events for the target and unset events for the source", () -> {
+					InOrder inOrder = Mockito.inOrder(publisher, invocation);
+
+					inOrder.verify(publisher).publishEvent(argThat(isA(BeforeSetContentEvent.class)));
+					inOrder.verify(publisher).publishEvent(argThat(isA(BeforeUnsetContentEvent.class)));
+					inOrder.verify(invocation).proceed();
+					inOrder.verify(publisher).publishEvent(argThat(isA(AfterSetContentEvent.class)));
+					inOrder.verify(publisher).publishEvent(argThat(isA(AfterUnsetContentEvent.class)));
+				});
+			});
+			Context("when completeUpload is invoked", () -> {
+				BeforeEach(() -> {
+					invocation = mock(MethodInvocation.class);
+
+					when(invocation.getMethod()).thenReturn(PresignedUrlStore.class.getMethod("completeUpload", Object.class));
+					when(invocation.getArguments()).thenReturn(new Object[]{new ContentObject("plain/text")});
+				});
+				It("should publish set content events either side of proceeding", () -> {
+					InOrder inOrder = Mockito.inOrder(publisher, invocation);
+
+					inOrder.verify(publisher).publishEvent(argThat(isA(BeforeSetContentEvent.class)));
+					inOrder.verify(invocation).proceed();
+					inOrder.verify(publisher).publishEvent(argThat(isA(AfterSetContentEvent.class)));
+				});
+			});
+			Context("when unsetContents is invoked with no entities", () -> {
+				BeforeEach(() -> {
+					invocation = mock(MethodInvocation.class);
+
+					when(invocation.getMethod()).thenReturn(ContentStore.class.getMethod("unsetContents", Collection.class));
+					when(invocation.getArguments()).thenReturn(new Object[]{Collections.emptyList()});
+				});
+				It("should proceed without publishing events", () -> {
+					verify(invocation).proceed();
+					verify(publisher, never()).publishEvent(anyObject());
+				});
+			});
+			Context("when setContent is invoked with an async event dispatcher", () -> {
+				BeforeEach(() -> {
+					invocation = mock(MethodInvocation.class);
+					dispatcher = mock(AsyncStoreEventDispatcher.class);
+
+					Class<?> storeClazz = ContentStore.class;
+					final Method setContentMethod = storeClazz.getMethod("setContent", Object.class, InputStream.class);
+
+					when(invocation.getMethod()).thenReturn(setContentMethod);
+					when(invocation.getArguments()).thenReturn(new Object[]{new ContentObject("plain/text")});
+				});
+				It("should publish the before event and dispatch the after event", () -> {
+					InOrder inOrder = Mockito.inOrder(publisher, invocation, dispatcher);
+
+					inOrder.verify(publisher).publishEvent(argThat(isA(BeforeSetContentEvent.class)));
+					inOrder.verify(invocation).proceed();
+					inOrder.verify(dispatcher).dispatch(argThat(isA(AfterSetContentEvent.class)), eq(publisher));
+					verify(publisher, never()).publishEvent(argThat(isA(AfterSetContentEvent.class)));
+				});
+			});
 			Context("when setContent is invoked with illegal arguments", () -> {
 				BeforeEach(() -> {
 					invocation = mock(MethodInvocation.class);
@@ -249,6 +357,12 @@ public class StoreMethodInterceptorTest {
 						verify(invocation, never()).proceed();
 						verify(publisher, never()).publishEvent(anyObject());
 					});
+					It("should hand the extension the same invoker on every call", () -> {
+						interceptor.invoke(invocation);
+						ArgumentCaptor<StoreInvoker> invokers = ArgumentCaptor.forClass(StoreInvoker.class);
+						verify(extension, times(2)).invoke(eq(invocation), invokers.capture());
+						assertThat(invokers.getAllValues().get(0), is(sameInstance(invokers.getAllValues().get(1))));
+					});
 				});
                 Context("when the extension implementation is not provided", () -> {
                     BeforeEach(() -> {
@@ -260,6 +374,116 @@ public class StoreMethodInterceptorTest {
                 });
             });
 		});
+		Describe("#invoke given store metrics", () -> {
+			BeforeEach(() -> {
+				store = mock(ContentStore.class);
+				publisher = mock(ApplicationEventPublisher.class);
+				registry = new SimpleMeterRegistry();
+				interceptor = new StoreMethodInterceptor(store, Object.class, String.class, null, publisher, null, new MicrometerStoreMetrics(registry), "TestStore", "test");
+				invocation = mock(MethodInvocation.class);
+			});
+			Context("when getContent is invoked", () -> {
+				BeforeEach(() -> {
+					when(invocation.getMethod()).thenReturn(ContentStore.class.getMethod("getContent", Object.class));
+					when(invocation.getArguments()).thenReturn(new Object[]{new ContentObject("plain/text")});
+					when(invocation.proceed()).thenReturn(new ByteArrayInputStream("hello".getBytes()));
+				});
+				It("should time the call and count the bytes read from the returned stream", () -> {
+					try (InputStream in = (InputStream) interceptor.invoke(invocation)) {
+						IOUtils.toByteArray(in);
+					}
+					Timer timer = registry.get(MicrometerStoreMetrics.OPERATIONS).tags("store", "TestStore", "backend", "test", "operation", "getContent", "variant", "single", "outcome", "success").timer();
+					assertThat(timer.count(), is(1L));
+					assertThat(registry.get(MicrometerStoreMetrics.ACTIVE).tags("operation", "getContent", "variant", "single").longTaskTimer().activeTasks(), is(0));
+					assertThat(bytes("getContent", "single", "read"), is(5.0));
+				});
+			});
+			Context("when a range of content is got", () -> {
+				BeforeEach(() -> {
+					when(invocation.getMethod()).thenReturn(ContentStore.class.getMethod("getContent", Object.class, long.class, long.class));
+					when(invocation.getArguments()).thenReturn(new Object[]{new ContentObject("plain/text"), 1L, 3L});
+					when(invocation.proceed()).thenReturn(new ByteArrayInputStream("ell".getBytes()));
+				});
+				It("should tag it as a range", () -> {
+					try (InputStream in = (InputStream) interceptor.invoke(invocation)) {
+						IOUtils.toByteArray(in);
+					}
+					assertThat(registry.get(MicrometerStoreMetrics.OPERATIONS).tags("operation", "getContent", "variant", "range").timer().count(), is(1L));
+					assertThat(registry.get(MicrometerStoreMetrics.OPERATIONS).tags("operation", "getContent", "variant", "single").timer().count(), is(0L));
+					assertThat(bytes("getContent", "range", "read"), is(3.0));
+				});
+			});
+			Context("when setContent is invoked", () -> {
+				BeforeEach(() -> {
+					Object[] args = new Object[]{new ContentObject("plain/text"), new ByteArrayInputStream("hello".getBytes())};
+					when(invocation.getMethod()).thenReturn(ContentStore.class.getMethod("setContent", Object.class, InputStream.class));
+					when(invocation.getArguments()).thenReturn(args);
+					when(invocation.proceed()).thenAnswer(i -> IOUtils.toByteArray((InputStream) args[1]));
+				});
+				It("should count the bytes written from the content argument", () -> {
+					interceptor.invoke(invocation);
+					assertThat(registry.get(MicrometerStoreMetrics.OPERATIONS).tags("operation", "setContent", "variant", "single").timer().count(), is(1L));
+					assertThat(bytes("setContent", "single", "written"), is(5.0));
+				});
+			});
+			Context("when the contents of several entities are set", () -> {
+				BeforeEach(() -> {
+					Map<Object, InputStream> contents = new LinkedHashMap<>();
+					contents.put(new ContentObject("plain/text"), new ByteArrayInputStream("hello".getBytes()));
+					contents.put(new ContentObject("plain/text"), new ByteArrayInputStream("world!".getBytes()));
+					Object[] args = new Object[]{contents};
+					when(invocation.getMethod()).thenReturn(ContentStore.class.getMethod("setContents", Map.class));
+					when(invocation.getArguments()).thenReturn(args);
+					when(invocation.proceed()).thenAnswer(i -> {
+						for (InputStream in : ((Map<Object, InputStream>) args[0]).values()) {
+							try (InputStream content = in) {
+								IOUtils.toByteArray(content);
+							}
+						}
+						return null;
+					});
+				});
+				It("should count the bytes written from every entity's content as a batch", () -> {
+					interceptor.invoke(invocation);
+					assertThat(registry.get(MicrometerStoreMetrics.OPERATIONS).tags("operation", "setContent", "variant", "batch").timer().count(), is(1L));
+					assertThat(bytes("setContent", "batch", "written"), is(11.0));
+				});
+			});
+			Context("when getResource is invoked", () -> {
+				BeforeEach(() -> {
+					when(invocation.getMethod()).thenReturn(Store.class.getMethod("getResource", Serializable.class));
+					when(invocation.getArguments()).thenReturn(new Object[]{"some-id"});
+					when(invocation.proceed()).thenReturn(new ByteArrayResource("hello".getBytes()));
+				});
+				It("should count the bytes read from the resource", () -> {
+					Resource resource = (Resource) interceptor.invoke(invocation);
+					try (InputStream in = resource.getInputStream()) {
+						IOUtils.toByteArray(in);
+					}
+					((MeteredResource) resource).recordBytesRead(10);
+					assertThat(bytes("getResource", "single", "read"), is(15.0));
+				});
+			});
+			Context("when unsetContent fails", () -> {
+				BeforeEach(() -> {
+					when(invocation.getMethod()).thenReturn(ContentStore.class.getMethod("unsetContent", Object.class));
+					when(invocation.getArguments()).thenReturn(new Object[]{new ContentObject("plain/text")});
+					when(invocation.proceed()).thenThrow(new IllegalStateException("badness"));
+				});
+				It("should count the error", () -> {
+					try {
+						interceptor.invoke(invocation);
+						fail("expected exception");
+					} catch (IllegalStateException ise) {
+						assertThat(registry.get(MicrometerStoreMetrics.OPERATIONS).tags("operation", "unsetContent", "outcome", "error", "exception", "IllegalStateException").timer().count(), is(1L));
+					}
+				});
+			});
+		});
+	}
+
+	private double bytes(String operation, String variant, String direction) {
+		return registry.get(MicrometerStoreMetrics.BYTES).tags("operation", operation, "variant", variant, "direction", direction).counter().count();
 	}
 	
 	public static class ContentObject {
@@ -0,0 +1,95 @@
+package internal.org.springframework.content.commons.utils;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.annotations.MimeType;
+import org.springframework.content.commons.utils.ContentPropertyMetadata;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class ContentPropertyMetadataTest {
+
+	private ContentPropertyMetadata metadata;
+	private TestEntity entity;
+	{
+		Describe("ContentPropertyMetadata", () -> {
+			BeforeEach(() -> {
+				metadata = ContentPropertyMetadata.forClass(TestEntity.class);
+				entity = new TestEntity();
+			});
+			Context("#forClass", () -> {
+				It("should return the same metadata for the same class", () -> {
+					assertThat(ContentPropertyMetadata.forClass(TestEntity.class), is(sameInstance(metadata)));
+				});
+			});
+			Context("given a public field", () -> {
+				It("should report the property", () -> {
+					assertThat(metadata.hasProperty(ContentId.class), is(true));
+					assertThat(metadata.getPropertyType(ContentId.class), is(CoreMatchers.<Class<?>>equalTo(String.class)));
+				});
+				It("should set and get the field", () -> {
+					metadata.setValue(entity, ContentId.class, "12345");
+					assertThat(entity.id, is("12345"));
+					assertThat(metadata.getValue(entity, ContentId.class), is("12345"));
+				});
+			});
+			Context("given a private field with a getter and setter", () -> {
+				It("should set and get the field via its accessors", () -> {
+					metadata.setValue(entity, ContentLength.class, 10L);
+					assertThat(entity.getLength(), is(10L));
+					assertThat(metadata.getValue(entity, ContentLength.class), is(10L));
+				});
+				It("should convert values that do not match the setter type", () -> {
+					metadata.setValue(entity, ContentLength.class, 0);
+					assertThat(entity.getLength(), is(0L));
+				});
+				It("should set null values", () -> {
+					entity.setMimeType("text/plain");
+					metadata.setValue(entity, MimeType.class, null);
+					assertThat(entity.getMimeType(), is(nullValue()));
+				});
+			});
+			Context("given an annotation with no matching property", () -> {
+				It("should report no property", () -> {
+					assertThat(metadata.hasProperty(Deprecated.class), is(false));
+					assertThat(metadata.getPropertyType(Deprecated.class), is(nullValue()));
+					assertThat(metadata.getValue(entity, Deprecated.class), is(nullValue()));
+				});
+			});
+		});
+	}
+
+	public static class TestEntity {
+		@ContentId public String id;
+		@ContentLength private long length;
+		@MimeType private String mimeType;
+		public TestEntity() {
+		}
+		public long getLength() {
+			return length;
+		}
+		public void setLength(long length) {
+			this.length = length;
+		}
+		public String getMimeType() {
+			return mimeType;
+		}
+		public void setMimeType(String mimeType) {
+			this.mimeType = mimeType;
+		}
+	}
+}
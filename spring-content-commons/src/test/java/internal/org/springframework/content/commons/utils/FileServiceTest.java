@@ -115,6 +115,26 @@ public class FileServiceTest {
 
             });
 
+            Context("when passed a directory it has made before", () -> {
+                BeforeEach(() -> {
+                    file = new File(parent, "something");
+                });
+                AfterEach(() -> {
+                    file.delete();
+                });
+                It("should not make it again", () -> {
+                    assertThat(file.delete(), is(true));
+                    fileService.mkdirs(file);
+                    assertThat(file.exists(), is(false));
+                });
+                It("should make it again once it is forgotten", () -> {
+                    assertThat(file.delete(), is(true));
+                    fileService.forget(file);
+                    fileService.mkdirs(file);
+                    assertThat(file.isDirectory(), is(true));
+                });
+            });
+
             Context("when passed null", () -> {
                 BeforeEach(() -> {
                     file = null;
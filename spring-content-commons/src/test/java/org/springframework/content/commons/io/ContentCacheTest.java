@@ -0,0 +1,175 @@
+package org.springframework.content.commons.io;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.io.ContentCache.EvictionPolicy;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class ContentCacheTest {
+
+	private ContentCache cache;
+	private File directory;
+	private AtomicInteger loads;
+
+	{
+		Describe("ContentCache", () -> {
+			BeforeEach(() -> {
+				directory = Files.createTempDirectory("content-cache").toFile();
+				loads = new AtomicInteger();
+				cache = new ContentCache(directory, 10, EvictionPolicy.LRU);
+			});
+			AfterEach(() -> {
+				cache.destroy();
+			});
+			Context("#get", () -> {
+				It("should load content once and then serve it from disk", () -> {
+					assertThat(read(cache.get("a", loader("hello"))), is("hello"));
+					assertThat(read(cache.get("a", loader("hello"))), is("hello"));
+					assertThat(loads.get(), is(1));
+					assertThat(cache.getSize(), is(5L));
+				});
+				It("should not cache missing content", () -> {
+					assertThat(cache.get("a", () -> null), is(nullValue()));
+					assertThat(cache.getSize(), is(0L));
+				});
+				It("should not cache content larger than the cache", () -> {
+					assertThat(read(cache.get("a", loader("hello world"))), is("hello world"));
+					assertThat(cache.getIfPresent("a"), is(nullValue()));
+					assertThat(directory.list().length, is(0));
+					assertThat(loads.get(), is(1));
+				});
+				It("should stream content to the caller as it is loaded", () -> {
+					try (InputStream in = cache.get("a", loader("hello"))) {
+						assertThat(in.read(), is((int) 'h'));
+						assertThat(cache.getIfPresent("a"), is(nullValue()));
+						assertThat(new String(IOUtils.toByteArray(in)), is("ello"));
+					}
+					assertThat(read(cache.getIfPresent("a")), is("hello"));
+				});
+				It("should not cache content that is closed before the end", () -> {
+					try (InputStream in = cache.get("a", loader("hello"))) {
+						in.read();
+					}
+					assertThat(cache.getIfPresent("a"), is(nullValue()));
+					assertThat(directory.list().length, is(0));
+					assertThat(read(cache.get("a", loader("hello"))), is("hello"));
+					assertThat(loads.get(), is(2));
+				});
+				It("should collapse concurrent misses into one load", () -> {
+					CountDownLatch loading = new CountDownLatch(1);
+					CountDownLatch release = new CountDownLatch(1);
+					ExecutorService executor = Executors.newFixedThreadPool(4);
+					try {
+						List<Future<String>> results = new ArrayList<>();
+						results.add(executor.submit(() -> read(cache.get("a", () -> {
+							loading.countDown();
+							release.await();
+							return loader("hello").call();
+						}))));
+						loading.await();
+						for (int i = 0; i < 3; i++) {
+							results.add(executor.submit(() -> read(cache.get("a", loader("hello")))));
+						}
+						Thread.sleep(100);
+						release.countDown();
+						for (Future<String> result : results) {
+							assertThat(result.get(10, TimeUnit.SECONDS), is("hello"));
+						}
+						assertThat(loads.get(), is(1));
+					} finally {
+						executor.shutdownNow();
+					}
+				});
+			});
+			Context("#getIfPresent with a range", () -> {
+				It("should read the range from the cached content", () -> {
+					read(cache.get("a", loader("hello")));
+					assertThat(read(cache.getIfPresent("a", 1, 3)), is("ell"));
+				});
+			});
+			Context("#invalidate", () -> {
+				It("should remove the cached content", () -> {
+					read(cache.get("a", loader("hello")));
+					cache.invalidate("a");
+					assertThat(cache.getIfPresent("a"), is(nullValue()));
+					assertThat(cache.getSize(), is(0L));
+					assertThat(directory.list().length, is(0));
+				});
+				It("should not cache a load that was in progress", () -> {
+					assertThat(read(cache.get("a", () -> {
+						cache.invalidate("a");
+						return loader("stale").call();
+					})), is("stale"));
+					assertThat(cache.getIfPresent("a"), is(nullValue()));
+				});
+			});
+			Context("given the LRU eviction policy", () -> {
+				It("should evict the least recently read content", () -> {
+					read(cache.get("a", loader("aaaa")));
+					read(cache.get("b", loader("bbbb")));
+					cache.getIfPresent("a").close();
+					read(cache.get("c", loader("cccc")));
+					assertThat(cache.getIfPresent("a"), is(not(nullValue())));
+					assertThat(cache.getIfPresent("b"), is(nullValue()));
+					assertThat(cache.getSize(), is(8L));
+				});
+			});
+			Context("given the LFU eviction policy", () -> {
+				BeforeEach(() -> {
+					cache = new ContentCache(directory, 10, EvictionPolicy.LFU);
+				});
+				It("should evict the least frequently read content", () -> {
+					read(cache.get("a", loader("aaaa")));
+					read(cache.get("b", loader("bbbb")));
+					cache.getIfPresent("a").close();
+					cache.getIfPresent("a").close();
+					cache.getIfPresent("b").close();
+					read(cache.get("c", loader("cccc")));
+					assertThat(cache.getIfPresent("a"), is(not(nullValue())));
+					assertThat(cache.getIfPresent("b"), is(nullValue()));
+				});
+			});
+		});
+	}
+
+	private Callable<InputStream> loader(String content) {
+		return () -> {
+			loads.incrementAndGet();
+			return new ByteArrayInputStream(content.getBytes());
+		};
+	}
+
+	private static String read(InputStream in) throws Exception {
+		try (InputStream content = in) {
+			return new String(IOUtils.toByteArray(content));
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package org.springframework.content.commons.io;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.runner.RunWith;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class ContentCopyUtilsTest {
+
+	private byte[] content;
+	private File source;
+	private File target;
+
+	{
+		Describe("ContentCopyUtils", () -> {
+			BeforeEach(() -> {
+				content = new byte[200 * 1024 + 17];
+				new Random(0).nextBytes(content);
+			});
+			Context("#copy", () -> {
+				It("should copy streams larger than a buffer", () -> {
+					ByteArrayOutputStream out = new ByteArrayOutputStream();
+					long copied = ContentCopyUtils.copy(new ByteArrayInputStream(content), out);
+
+					assertThat(copied, is((long) content.length));
+					assertThat(out.toByteArray(), is(content));
+				});
+			});
+			Context("#copy between files", () -> {
+				BeforeEach(() -> {
+					source = File.createTempFile("source", ".bin");
+					target = File.createTempFile("target", ".bin");
+					FileUtils.writeByteArrayToFile(source, content);
+				});
+				AfterEach(() -> {
+					source.delete();
+					target.delete();
+				});
+				It("should transfer from the stream's position", () -> {
+					long copied;
+					try (FileInputStream in = new FileInputStream(source); FileOutputStream out = new FileOutputStream(target)) {
+						in.skip(17);
+						copied = ContentCopyUtils.copy(in, out);
+						assertThat(in.read(), is(-1));
+					}
+
+					assertThat(copied, is(200L * 1024));
+					assertThat(FileUtils.readFileToByteArray(target).length, is(200 * 1024));
+				});
+			});
+			Context("#acquire", () -> {
+				It("should reuse released buffers", () -> {
+					byte[] buffer = ContentCopyUtils.acquire();
+					assertThat(buffer.length, is(ContentCopyUtils.BUFFER_SIZE));
+					ContentCopyUtils.release(buffer);
+
+					assertThat(ContentCopyUtils.acquire(), is(sameInstance(buffer)));
+				});
+			});
+		});
+	}
+}
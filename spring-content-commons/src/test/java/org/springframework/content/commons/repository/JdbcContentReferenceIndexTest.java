@@ -0,0 +1,71 @@
+package org.springframework.content.commons.repository;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.runner.RunWith;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class JdbcContentReferenceIndexTest {
+
+	private static final String DIGEST = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+	private EmbeddedDatabase database;
+	private JdbcContentReferenceIndex index;
+
+	{
+		Describe("JdbcContentReferenceIndex", () -> {
+			BeforeEach(() -> {
+				database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.HSQL).generateUniqueName(true).build();
+				index = new JdbcContentReferenceIndex(database);
+				index.afterPropertiesSet();
+			});
+			AfterEach(() -> {
+				database.shutdown();
+			});
+			It("should create its table only once", () -> {
+				JdbcContentReferenceIndex other = new JdbcContentReferenceIndex(database);
+				other.afterPropertiesSet();
+			});
+			Context("given a referenced digest", () -> {
+				BeforeEach(() -> {
+					assertThat(index.addReference("StoreA", DIGEST, 42L), is(1L));
+				});
+				It("should find its content id and digest", () -> {
+					assertThat(index.findContentId("StoreA", DIGEST), is("42"));
+					assertThat(index.findDigest("StoreA", 42L), is(DIGEST));
+				});
+				It("should count further references", () -> {
+					assertThat(index.addReference("StoreA", DIGEST, 42L), is(2L));
+					assertThat(index.removeReference("StoreA", DIGEST), is(1L));
+					assertThat(index.findContentId("StoreA", DIGEST), is("42"));
+				});
+				It("should forget the digest when its last reference is removed", () -> {
+					assertThat(index.removeReference("StoreA", DIGEST), is(0L));
+					assertThat(index.findContentId("StoreA", DIGEST), is(nullValue()));
+					assertThat(index.findDigest("StoreA", 42L), is(nullValue()));
+					assertThat(index.removeReference("StoreA", DIGEST), is(0L));
+				});
+				It("should not share the digest with other stores", () -> {
+					assertThat(index.findContentId("StoreB", DIGEST), is(nullValue()));
+					assertThat(index.addReference("StoreB", DIGEST, "other"), is(1L));
+					assertThat(index.findContentId("StoreB", DIGEST), is("other"));
+					assertThat(index.findContentId("StoreA", DIGEST), is("42"));
+				});
+			});
+		});
+	}
+}
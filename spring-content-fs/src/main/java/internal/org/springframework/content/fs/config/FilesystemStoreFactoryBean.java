@@ -3,11 +3,15 @@ package internal.org.springframework.content.fs.config;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.content.commons.repository.factory.AbstractStoreFactoryBean;
 import org.springframework.content.commons.utils.FileServiceImpl;
+import org.springframework.content.fs.config.CompressedContent;
 import org.springframework.content.fs.io.FileSystemResourceLoader;
+import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.util.Assert;
 
+import internal.org.springframework.content.fs.io.CompressionPolicy;
 import internal.org.springframework.content.fs.repository.DefaultFilesystemStoreImpl;
+import internal.org.springframework.content.fs.repository.DefaultReactiveFilesystemStoreImpl;
 
 @SuppressWarnings("rawtypes")
 public class FilesystemStoreFactoryBean extends AbstractStoreFactoryBean {
@@ -28,7 +32,20 @@ public class FilesystemStoreFactoryBean extends AbstractStoreFactoryBean {
 
 	@Override
 	protected Object getContentStoreImpl() {
-		return new DefaultFilesystemStoreImpl(loader, filesystemStoreConverter, new FileServiceImpl());
+		DefaultFilesystemStoreImpl store = new DefaultFilesystemStoreImpl(loader, filesystemStoreConverter, new FileServiceImpl());
+		CompressedContent compressed = AnnotationUtils.findAnnotation(getStoreInterface(), CompressedContent.class);
+		if (compressed != null) {
+			store.setCompressionPolicy(new CompressionPolicy(compressed));
+		}
+		return store;
+	}
+
+	@Override
+	protected Object getReactiveContentStoreImpl() {
+		if (AnnotationUtils.findAnnotation(getStoreInterface(), CompressedContent.class) != null) {
+			throw new IllegalStateException(String.format("@CompressedContent is not supported by reactive store %s", getStoreInterface().getName()));
+		}
+		return new DefaultReactiveFilesystemStoreImpl(loader, filesystemStoreConverter, new FileServiceImpl());
 	}
 
 }
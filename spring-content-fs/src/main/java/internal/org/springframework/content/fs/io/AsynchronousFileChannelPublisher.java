@@ -0,0 +1,139 @@
+package internal.org.springframework.content.fs.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.util.Assert;
+
+/**
+ * Publishes the content of a file as {@link ByteBuffer}s read with an
+ * {@link AsynchronousFileChannel}, one read per requested element.
+ */
+public class AsynchronousFileChannelPublisher implements Publisher<ByteBuffer> {
+
+	private final Path path;
+	private final int bufferSize;
+
+	public AsynchronousFileChannelPublisher(Path path, int bufferSize) {
+		Assert.notNull(path, "path must not be null");
+		Assert.isTrue(bufferSize > 0, "bufferSize must be greater than zero");
+		this.path = path;
+		this.bufferSize = bufferSize;
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super ByteBuffer> subscriber) {
+		Assert.notNull(subscriber, "subscriber must not be null");
+
+		AsynchronousFileChannel channel;
+		try {
+			channel = AsynchronousFileChannel.open(path, StandardOpenOption.READ);
+		} catch (IOException | RuntimeException e) {
+			subscriber.onSubscribe(new Subscription() {
+				@Override
+				public void request(long n) {
+				}
+
+				@Override
+				public void cancel() {
+				}
+			});
+			subscriber.onError(e);
+			return;
+		}
+		subscriber.onSubscribe(new ReadSubscription(subscriber, channel));
+	}
+
+	private class ReadSubscription implements Subscription, CompletionHandler<Integer, ByteBuffer> {
+
+		private final Subscriber<? super ByteBuffer> subscriber;
+		private final AsynchronousFileChannel channel;
+		private final AtomicLong demand = new AtomicLong();
+		private final AtomicBoolean reading = new AtomicBoolean();
+		private final AtomicBoolean terminated = new AtomicBoolean();
+		private long position;
+
+		ReadSubscription(Subscriber<? super ByteBuffer> subscriber, AsynchronousFileChannel channel) {
+			this.subscriber = subscriber;
+			this.channel = channel;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				if (terminate()) {
+					subscriber.onError(new IllegalArgumentException("request must be greater than zero (rule 3.9)"));
+				}
+				return;
+			}
+
+			long current, next;
+			do {
+				current = demand.get();
+				next = current + n < 0 ? Long.MAX_VALUE : current + n;
+			} while (!demand.compareAndSet(current, next));
+			read();
+		}
+
+		@Override
+		public void cancel() {
+			terminate();
+		}
+
+		private void read() {
+			if (!terminated.get() && demand.get() > 0 && reading.compareAndSet(false, true)) {
+				ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+				channel.read(buffer, position, buffer, this);
+			}
+		}
+
+		@Override
+		public void completed(Integer read, ByteBuffer buffer) {
+			if (terminated.get()) {
+				return;
+			}
+			if (read == -1) {
+				if (terminate()) {
+					subscriber.onComplete();
+				}
+				return;
+			}
+
+			position += read;
+			buffer.flip();
+			demand.decrementAndGet();
+			subscriber.onNext(buffer);
+
+			reading.set(false);
+			read();
+		}
+
+		@Override
+		public void failed(Throwable t, ByteBuffer buffer) {
+			if (terminate()) {
+				subscriber.onError(t);
+			}
+		}
+
+		private boolean terminate() {
+			if (!terminated.compareAndSet(false, true)) {
+				return false;
+			}
+			try {
+				channel.close();
+			} catch (IOException e) {
+				// ignore
+			}
+			return true;
+		}
+	}
+}
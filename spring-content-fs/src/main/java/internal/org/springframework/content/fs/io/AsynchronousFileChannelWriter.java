@@ -0,0 +1,175 @@
+package internal.org.springframework.content.fs.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.content.fs.io.FsyncPolicy;
+
+/**
+ * Writes the {@link ByteBuffer}s of a {@link Publisher} to a file with an
+ * {@link AsynchronousFileChannel}, requesting the next buffer only once the previous
+ * one has been written.
+ * <p>
+ * Like an atomic {@link DurableFileOutputStream} the content goes to a temporary file in
+ * the target's directory that, once forced according to the fsync policy, is renamed
+ * over the target; readers never see a partial write and a failed write leaves the
+ * target untouched.
+ */
+public class AsynchronousFileChannelWriter implements Subscriber<ByteBuffer>, CompletionHandler<Integer, ByteBuffer> {
+
+	private static Log logger = LogFactory.getLog(AsynchronousFileChannelWriter.class);
+
+	private final Path target;
+	private final Path file;
+	private final FsyncPolicy fsyncPolicy;
+	private final AsynchronousFileChannel channel;
+	private final CompletableFuture<Long> result = new CompletableFuture<>();
+	private final AtomicBoolean writing = new AtomicBoolean();
+	private final AtomicBoolean finished = new AtomicBoolean();
+
+	private Subscription subscription;
+	private volatile boolean completed;
+	private long position;
+
+	private AsynchronousFileChannelWriter(Path target, Path file, FsyncPolicy fsyncPolicy, AsynchronousFileChannel channel) {
+		this.target = target;
+		this.file = file;
+		this.fsyncPolicy = fsyncPolicy;
+		this.channel = channel;
+	}
+
+	/**
+	 * Writes content to a file, atomically replacing any existing content once all of it
+	 * has been written.
+	 *
+	 * @param content
+	 * 					the content to write
+	 * @param target
+	 * 					the file to write to
+	 * @param fsyncPolicy
+	 * 					how the write is forced to disk
+	 * @return a future completed with the number of bytes written once the target has
+	 * 					been replaced
+	 */
+	public static CompletableFuture<Long> write(Publisher<ByteBuffer> content, File target, FsyncPolicy fsyncPolicy) {
+		Path file = null;
+		AsynchronousFileChannel channel;
+		try {
+			file = DurableFileOutputStream.createTempFile(target.toPath());
+			channel = AsynchronousFileChannel.open(file, StandardOpenOption.WRITE);
+		} catch (IOException | RuntimeException e) {
+			if (file != null) {
+				discard(file);
+			}
+			CompletableFuture<Long> failed = new CompletableFuture<>();
+			failed.completeExceptionally(e);
+			return failed;
+		}
+
+		AsynchronousFileChannelWriter writer = new AsynchronousFileChannelWriter(target.toPath(), file, fsyncPolicy, channel);
+		content.subscribe(writer);
+		return writer.result;
+	}
+
+	@Override
+	public void onSubscribe(Subscription subscription) {
+		if (this.subscription != null) {
+			subscription.cancel();
+			return;
+		}
+		this.subscription = subscription;
+		subscription.request(1);
+	}
+
+	@Override
+	public void onNext(ByteBuffer buffer) {
+		writing.set(true);
+		channel.write(buffer, position, buffer, this);
+	}
+
+	@Override
+	public void onError(Throwable t) {
+		abort();
+		result.completeExceptionally(t);
+	}
+
+	@Override
+	public void onComplete() {
+		completed = true;
+		// the last write may still be in flight
+		if (!writing.get()) {
+			finish();
+		}
+	}
+
+	@Override
+	public void completed(Integer written, ByteBuffer buffer) {
+		position += written;
+		if (buffer.hasRemaining()) {
+			channel.write(buffer, position, buffer, this);
+			return;
+		}
+
+		writing.set(false);
+		if (completed) {
+			finish();
+		} else {
+			subscription.request(1);
+		}
+	}
+
+	@Override
+	public void failed(Throwable t, ByteBuffer buffer) {
+		subscription.cancel();
+		abort();
+		result.completeExceptionally(t);
+	}
+
+	private void finish() {
+		// onComplete may race the completion of the final write
+		if (!finished.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			if (fsyncPolicy != FsyncPolicy.NONE) {
+				channel.force(true);
+			}
+			channel.close();
+			DurableFileOutputStream.commit(file, target, fsyncPolicy);
+			result.complete(position);
+		} catch (IOException | RuntimeException e) {
+			abort();
+			result.completeExceptionally(e);
+		}
+	}
+
+	private void abort() {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			logger.debug(String.format("Unexpected error closing %s", file), e);
+		}
+		discard(file);
+	}
+
+	private static void discard(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			logger.debug(String.format("Unexpected error deleting %s", file), e);
+		}
+	}
+}
@@ -0,0 +1,228 @@
+package internal.org.springframework.content.fs.io;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.NoSuchFileException;
+
+import org.apache.commons.io.FileUtils;
+import org.springframework.content.commons.io.DeletableResource;
+import org.springframework.content.commons.io.RangeableResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.WritableResource;
+
+/**
+ * A file resource whose content may be stored in the {@link FramedCompression} format.
+ * <p>
+ * Content is stored either as is, at the resource's own file, or compressed, at a
+ * sibling whose name ends in {@link FramedCompression#SUFFIX}; which of the two exists
+ * records whether it is compressed.  Reads decompress compressed content and read any
+ * other content as is, and {@link #contentLength()} reports the uncompressed length.  The
+ * file is deliberately not exposed as a
+ * {@link org.springframework.content.commons.io.FileBackedResource}, whose file would be
+ * served as is.
+ */
+public class CompressedFileResource implements WritableResource, DeletableResource, RangeableResource {
+
+	private final Resource resource;
+	private final Resource compressed;
+	private final CompressionPolicy policy;
+	private final boolean compressWrites;
+
+	/**
+	 * @param compressed
+	 * 					the resource compressed content is stored at
+	 * @param compressWrites
+	 * 					whether {@link #getOutputStream()} compresses what is written
+	 */
+	public CompressedFileResource(Resource resource, Resource compressed, CompressionPolicy policy, boolean compressWrites) {
+		this.resource = resource;
+		this.compressed = compressed;
+		this.policy = policy;
+		this.compressWrites = compressWrites;
+	}
+
+	@Override
+	public InputStream getInputStream() throws IOException {
+		if (compressed.exists()) {
+			return open(0, Long.MAX_VALUE);
+		}
+		return resource.getInputStream();
+	}
+
+	@Override
+	public InputStream getInputStream(long offset, long length) throws IOException {
+		if (compressed.exists()) {
+			return open(offset, length);
+		}
+		if (resource instanceof RangeableResource) {
+			return ((RangeableResource) resource).getInputStream(offset, length);
+		}
+		throw new UnsupportedOperationException(String.format("%s does not support ranged reads", resource));
+	}
+
+	@Override
+	public long contentLength() throws IOException {
+		if (compressed.exists()) {
+			return FramedCompression.length(compressed.getFile(), policy.getMaxFrameSize());
+		}
+		return resource.contentLength();
+	}
+
+	/**
+	 * Returns a stream that writes the content compressed or as is, and once it is closed
+	 * deletes the content's other form.  The stream can be aborted, leaving the existing
+	 * content in place.
+	 */
+	@Override
+	public ReplacingOutputStream getOutputStream() throws IOException {
+		if (!compressWrites) {
+			return new ReplacingOutputStream(((WritableResource) resource).getOutputStream(), compressed);
+		}
+		File file = compressed.getFile();
+		if (!file.getParentFile().exists()) {
+			FileUtils.forceMkdir(file.getParentFile());
+		}
+		OutputStream out = ((WritableResource) compressed).getOutputStream();
+		return new ReplacingOutputStream(new FramedCompressionOutputStream(out, policy.getFrameSize(), policy.getLevel()), resource);
+	}
+
+	@Override
+	public void delete() {
+		delete(compressed);
+		delete(resource);
+	}
+
+	private static void delete(Resource resource) {
+		if (resource instanceof DeletableResource && resource.exists()) {
+			((DeletableResource) resource).delete();
+		}
+	}
+
+	@Override
+	public boolean isWritable() {
+		return resource instanceof WritableResource && ((WritableResource) resource).isWritable();
+	}
+
+	@Override
+	public boolean exists() {
+		return compressed.exists() || resource.exists();
+	}
+
+	@Override
+	public boolean isReadable() {
+		return resource.isReadable();
+	}
+
+	@Override
+	public boolean isOpen() {
+		return resource.isOpen();
+	}
+
+	@Override
+	public URL getURL() throws IOException {
+		return resource.getURL();
+	}
+
+	@Override
+	public URI getURI() throws IOException {
+		return resource.getURI();
+	}
+
+	/**
+	 * Returns the file holding the content; the compressed one if it exists.
+	 */
+	@Override
+	public File getFile() throws IOException {
+		return compressed.exists() ? compressed.getFile() : resource.getFile();
+	}
+
+	@Override
+	public long lastModified() throws IOException {
+		return resource.lastModified();
+	}
+
+	@Override
+	public Resource createRelative(String relativePath) throws IOException {
+		return resource.createRelative(relativePath);
+	}
+
+	@Override
+	public String getFilename() {
+		return resource.getFilename();
+	}
+
+	@Override
+	public String getDescription() {
+		return resource.getDescription();
+	}
+
+	@Override
+	public String toString() {
+		return resource.toString();
+	}
+
+	private InputStream open(long offset, long length) throws IOException {
+		try {
+			return FramedCompression.open(compressed.getFile(), offset, length, policy.getMaxFrameSize());
+		} catch (NoSuchFileException e) {
+			throw new FileNotFoundException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Writes content in one form and, once closed, deletes its other form.
+	 */
+	public static class ReplacingOutputStream extends FilterOutputStream {
+
+		private final Resource replaced;
+		private boolean closed;
+
+		ReplacingOutputStream(OutputStream out, Resource replaced) {
+			super(out);
+			this.replaced = replaced;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			out.close();
+			delete(replaced);
+		}
+
+		/**
+		 * Closes the stream without completing the content, leaving the existing content
+		 * in place where the underlying stream supports it.
+		 */
+		public void abort() {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			if (out instanceof FramedCompressionOutputStream) {
+				((FramedCompressionOutputStream) out).abort();
+			} else if (out instanceof DurableFileOutputStream) {
+				((DurableFileOutputStream) out).abort();
+			} else {
+				try {
+					out.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+	}
+}
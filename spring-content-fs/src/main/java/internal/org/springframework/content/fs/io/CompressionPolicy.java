@@ -0,0 +1,93 @@
+package internal.org.springframework.content.fs.io;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.content.fs.config.CompressedContent;
+import org.springframework.util.Assert;
+import org.springframework.util.MimeType;
+
+/**
+ * Which content a filesystem store compresses, and how; from its {@link CompressedContent}
+ * annotation.
+ */
+public class CompressionPolicy {
+
+	private final List<MimeType> mimeTypes = new ArrayList<>();
+	private final int frameSize;
+	private final int level;
+	private final int maxFrameSize;
+
+	public CompressionPolicy(CompressedContent annotation) {
+		this(annotation.mimeTypes(), annotation.frameSize(), annotation.level(), annotation.maxFrameSize());
+	}
+
+	public CompressionPolicy(String[] mimeTypes, int frameSize, int level) {
+		this(mimeTypes, frameSize, level, Math.max(frameSize, Defaults.class.getAnnotation(CompressedContent.class).maxFrameSize()));
+	}
+
+	public CompressionPolicy(String[] mimeTypes, int frameSize, int level, int maxFrameSize) {
+		Assert.isTrue(frameSize > 0, "frameSize must be positive");
+		Assert.isTrue(level >= 1 && level <= 9, "level must be between 1 and 9");
+		Assert.isTrue(maxFrameSize >= frameSize, "maxFrameSize must be at least frameSize");
+		for (String mimeType : mimeTypes) {
+			this.mimeTypes.add(MimeType.valueOf(mimeType));
+		}
+		this.frameSize = frameSize;
+		this.level = level;
+		this.maxFrameSize = maxFrameSize;
+	}
+
+	public int getFrameSize() {
+		return frameSize;
+	}
+
+	/**
+	 * Returns the largest frame size of compressed content that is read.
+	 */
+	public int getMaxFrameSize() {
+		return maxFrameSize;
+	}
+
+	public int getLevel() {
+		return level;
+	}
+
+	/**
+	 * Returns whether all content is compressed, whatever its mime type.
+	 */
+	public boolean appliesToAll() {
+		return mimeTypes.isEmpty();
+	}
+
+	/**
+	 * Returns whether content of mimeType is compressed.
+	 *
+	 * @param mimeType
+	 * 					the content's mime type, or null if unknown
+	 */
+	public boolean appliesTo(Object mimeType) {
+		if (appliesToAll()) {
+			return true;
+		}
+		if (mimeType == null) {
+			return false;
+		}
+		MimeType actual;
+		try {
+			actual = MimeType.valueOf(mimeType.toString());
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+		for (MimeType pattern : mimeTypes) {
+			if (pattern.includes(actual)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@CompressedContent
+	private static class Defaults {
+	}
+}
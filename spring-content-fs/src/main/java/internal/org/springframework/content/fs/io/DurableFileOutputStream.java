@@ -0,0 +1,200 @@
+package internal.org.springframework.content.fs.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.content.fs.io.FsyncPolicy;
+
+/**
+ * Writes a file according to a {@link FsyncPolicy}, optionally atomically.
+ * <p>
+ * Atomic writes go to a temporary file in the target's directory that is renamed over
+ * the target with {@link StandardCopyOption#ATOMIC_MOVE} on {@link #close()}.  Readers
+ * therefore see either the previous content or the new content, never a partial write,
+ * and concurrent writers of the same file resolve last-writer-wins.  A write that fails
+ * should be {@link #abort() aborted} so that the temporary file is discarded and the
+ * target left untouched.
+ */
+public class DurableFileOutputStream extends OutputStream {
+
+	private static Log logger = LogFactory.getLog(DurableFileOutputStream.class);
+
+	private final Path target;
+	private final Path file;
+	private final FsyncPolicy fsyncPolicy;
+	private final FileChannel channel;
+	private boolean closed = false;
+
+	public DurableFileOutputStream(File target, boolean atomic, FsyncPolicy fsyncPolicy) throws IOException {
+		this.target = target.toPath();
+		this.fsyncPolicy = fsyncPolicy;
+		if (atomic) {
+			this.file = createTempFile(this.target);
+			this.channel = FileChannel.open(this.file, StandardOpenOption.WRITE);
+		} else {
+			this.file = this.target;
+			this.channel = FileChannel.open(this.file, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+		}
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[] {(byte) b}, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		ensureOpen();
+		ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * Forces the content according to the fsync policy and, for atomic writes, renames it
+	 * into place.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+
+		try {
+			if (fsyncPolicy != FsyncPolicy.NONE) {
+				channel.force(true);
+			}
+		} catch (IOException e) {
+			channel.close();
+			discard();
+			throw e;
+		}
+		channel.close();
+
+		if (file != target) {
+			try {
+				commit(file, target, fsyncPolicy);
+			} catch (IOException e) {
+				discard();
+				throw e;
+			}
+		} else if (fsyncPolicy == FsyncPolicy.FILE_AND_DIRECTORY) {
+			forceDirectory(target.getParent());
+		}
+	}
+
+	/**
+	 * Creates the temporary file an atomic write of target goes to, next to target.
+	 * <p>
+	 * Unlike {@link Files#createTempFile}, which restricts the file to its owner, the file
+	 * is created with the default permissions, so the umask applies as it would to target;
+	 * when target exists its permissions are carried over, as a write in place keeps them.
+	 */
+	public static Path createTempFile(Path target) throws IOException {
+		String prefix = "." + target.getFileName();
+		while (true) {
+			Path file = target.resolveSibling(prefix + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+			try {
+				Files.createFile(file);
+			} catch (FileAlreadyExistsException e) {
+				continue;
+			}
+			try {
+				copyPermissions(target, file);
+			} catch (IOException e) {
+				Files.deleteIfExists(file);
+				throw e;
+			}
+			return file;
+		}
+	}
+
+	private static void copyPermissions(Path from, Path to) throws IOException {
+		PosixFileAttributeView view = Files.getFileAttributeView(from, PosixFileAttributeView.class);
+		if (view == null) {
+			return;
+		}
+		Set<PosixFilePermission> permissions;
+		try {
+			permissions = view.readAttributes().permissions();
+		} catch (NoSuchFileException e) {
+			return;
+		}
+		Files.setPosixFilePermissions(to, permissions);
+	}
+
+	/**
+	 * Renames a temporary file, already forced according to the fsync policy, over its
+	 * target and forces the target's directory if the policy says so.
+	 */
+	static void commit(Path file, Path target, FsyncPolicy fsyncPolicy) throws IOException {
+		Files.move(file, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		if (fsyncPolicy == FsyncPolicy.FILE_AND_DIRECTORY) {
+			forceDirectory(target.getParent());
+		}
+	}
+
+	/**
+	 * Closes the stream without committing the write.  An atomic write leaves the target
+	 * untouched; a direct write leaves whatever was written so far.
+	 */
+	public void abort() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+
+		try {
+			channel.close();
+		} catch (IOException e) {
+			logger.debug(String.format("Unexpected error closing %s", file), e);
+		}
+		discard();
+	}
+
+	private void discard() {
+		if (file == target) {
+			return;
+		}
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			logger.debug(String.format("Unexpected error deleting %s", file), e);
+		}
+	}
+
+	private void ensureOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+	}
+
+	private static void forceDirectory(Path directory) throws IOException {
+		try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+			dir.force(true);
+		} catch (IOException e) {
+			// Windows cannot open a directory to fsync it
+			if (!System.getProperty("os.name", "").startsWith("Windows")) {
+				throw e;
+			}
+			logger.debug(String.format("Unable to fsync directory %s", directory), e);
+		}
+	}
+}
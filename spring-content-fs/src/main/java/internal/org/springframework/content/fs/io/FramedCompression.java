@@ -0,0 +1,233 @@
+package internal.org.springframework.content.fs.io;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * The seekable compressed file format written by {@link FramedCompressionOutputStream}.
+ * <p>
+ * A file holds a header, the frames, each deflated independently from a fixed number of
+ * uncompressed bytes, an index of the frames' file offsets and a footer:
+ *
+ * <pre>
+ * header: magic (int) frameSize (int)
+ * frames: deflated bytes...
+ * index:  frameOffset (long) * frameCount
+ * footer: indexOffset (long) length (long) frameCount (int) magic (int)
+ * </pre>
+ *
+ * The frame holding any uncompressed offset is found from the index without reading the
+ * frames before it.  Compressed content is stored at a name ending in {@link #SUFFIX}.
+ */
+public final class FramedCompression {
+
+	/**
+	 * The suffix of the name content is stored at once compressed, so that whether
+	 * content is compressed is never guessed from the content itself.
+	 */
+	public static final String SUFFIX = ".scz";
+
+	static final int MAGIC = 0x53435a31; // "SCZ1"
+	static final int HEADER_SIZE = 8;
+	static final int FOOTER_SIZE = 24;
+
+	private FramedCompression() {
+	}
+
+	/**
+	 * Returns the uncompressed length of file.
+	 *
+	 * @param maxFrameSize
+	 * 					the largest frame size accepted
+	 * @throws IOException
+	 * 					if file is not in this format, or is corrupt
+	 */
+	public static long length(File file, int maxFrameSize) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			return readFooter(file, channel, maxFrameSize).length;
+		}
+	}
+
+	/**
+	 * Opens a range of the uncompressed content of file.  Only the frames the range
+	 * touches are read and decompressed.
+	 *
+	 * @param maxFrameSize
+	 * 					the largest frame size accepted, which bounds the memory a read of
+	 * 					a corrupt file can allocate
+	 * @throws IOException
+	 * 					if file is not in this format, or is corrupt
+	 */
+	public static InputStream open(File file, long offset, long length, int maxFrameSize) throws IOException {
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			return new FrameInputStream(channel, readFooter(file, channel, maxFrameSize), offset, length);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	// every offset is checked against the file's size before anything is allocated from it
+	private static Footer readFooter(File file, FileChannel channel, int maxFrameSize) throws IOException {
+		long size = channel.size();
+		if (size < HEADER_SIZE + FOOTER_SIZE) {
+			throw corrupt(file);
+		}
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		readFully(channel, header, 0);
+		ByteBuffer footer = ByteBuffer.allocate(FOOTER_SIZE);
+		readFully(channel, footer, size - FOOTER_SIZE);
+		if (header.getInt(0) != MAGIC || footer.getInt(20) != MAGIC) {
+			throw corrupt(file);
+		}
+
+		int frameSize = header.getInt(4);
+		if (frameSize <= 0 || frameSize > maxFrameSize) {
+			throw new IOException(String.format("%s has frames of %d bytes, outside the maximum of %d", file, frameSize, maxFrameSize));
+		}
+		long indexOffset = footer.getLong(0);
+		long length = footer.getLong(8);
+		int frameCount = footer.getInt(16);
+		long footerOffset = size - FOOTER_SIZE;
+		if (length < 0 || frameCount < 0
+				|| frameCount != length / frameSize + (length % frameSize != 0 ? 1 : 0)
+				|| indexOffset < HEADER_SIZE || indexOffset != footerOffset - frameCount * 8L) {
+			throw corrupt(file);
+		}
+		return new Footer(frameSize, indexOffset, length, frameCount);
+	}
+
+	private static IOException corrupt(File file) {
+		return new IOException(String.format("%s is not valid compressed content", file));
+	}
+
+	// generously above the most a frame can deflate to, as deflate falls back to storing
+	// incompressible input with a few bytes of overhead per block
+	private static long maxCompressedSize(int frameSize) {
+		return frameSize + (frameSize >> 10) + 64L;
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			int n = channel.read(buffer, position);
+			if (n < 0) {
+				throw new EOFException();
+			}
+			position += n;
+		}
+		buffer.flip();
+	}
+
+	private static class Footer {
+
+		private final int frameSize;
+		private final long indexOffset;
+		private final long length;
+		private final int frameCount;
+
+		private Footer(int frameSize, long indexOffset, long length, int frameCount) {
+			this.frameSize = frameSize;
+			this.indexOffset = indexOffset;
+			this.length = length;
+			this.frameCount = frameCount;
+		}
+	}
+
+	private static class FrameInputStream extends InputStream {
+
+		private final FileChannel channel;
+		private final Footer footer;
+		private final Inflater inflater = new Inflater(true);
+		private final byte[] frame;
+		private int frameIndex;
+		private int position;
+		private int limit;
+		private long remaining;
+
+		private FrameInputStream(FileChannel channel, Footer footer, long offset, long length) throws IOException {
+			this.channel = channel;
+			this.footer = footer;
+			this.frame = new byte[footer.frameSize];
+			this.remaining = Math.max(0, Math.min(length, footer.length - offset));
+			if (remaining > 0) {
+				frameIndex = (int) (offset / footer.frameSize);
+				inflate(frameIndex);
+				position = (int) (offset % footer.frameSize);
+			}
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (remaining <= 0) {
+				return -1;
+			}
+			if (position == limit) {
+				inflate(++frameIndex);
+				position = 0;
+			}
+			int n = (int) Math.min(Math.min(len, limit - position), remaining);
+			System.arraycopy(frame, position, b, off, n);
+			position += n;
+			remaining -= n;
+			return n;
+		}
+
+		@Override
+		public void close() throws IOException {
+			inflater.end();
+			channel.close();
+		}
+
+		private void inflate(int index) throws IOException {
+			if (index >= footer.frameCount) {
+				throw new EOFException(String.format("Frame %d is beyond the end of the content", index));
+			}
+			ByteBuffer offsets = ByteBuffer.allocate(16);
+			offsets.limit(index + 1 < footer.frameCount ? 16 : 8);
+			readFully(channel, offsets, footer.indexOffset + index * 8L);
+			long start = offsets.getLong(0);
+			long end = index + 1 < footer.frameCount ? offsets.getLong(8) : footer.indexOffset;
+			if (start < HEADER_SIZE || start > end || end > footer.indexOffset || end - start > maxCompressedSize(footer.frameSize)) {
+				throw new IOException(String.format("Frame %d is corrupt", index));
+			}
+
+			ByteBuffer compressed = ByteBuffer.allocate((int) (end - start));
+			readFully(channel, compressed, start);
+
+			inflater.reset();
+			inflater.setInput(compressed.array(), 0, compressed.limit());
+			try {
+				limit = 0;
+				while (limit < frame.length && !inflater.finished()) {
+					int n = inflater.inflate(frame, limit, frame.length - limit);
+					if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+						break;
+					}
+					limit += n;
+				}
+			} catch (DataFormatException e) {
+				throw new IOException(String.format("Frame %d is corrupt", index), e);
+			}
+			if (limit != Math.min(footer.frameSize, footer.length - (long) index * footer.frameSize)) {
+				throw new IOException(String.format("Frame %d is corrupt", index));
+			}
+		}
+	}
+}
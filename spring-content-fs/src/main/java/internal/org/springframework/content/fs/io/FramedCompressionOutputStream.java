@@ -0,0 +1,131 @@
+package internal.org.springframework.content.fs.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Writes content in the {@link FramedCompression} format, deflating each frame
+ * independently.
+ */
+public class FramedCompressionOutputStream extends OutputStream {
+
+	private final OutputStream out;
+	private final Deflater deflater;
+	private final byte[] frame;
+	private final byte[] compressed;
+	private int position = 0;
+	private long length = 0;
+	private long written = 0;
+	private long[] offsets = new long[16];
+	private int frameCount = 0;
+	private boolean closed = false;
+
+	public FramedCompressionOutputStream(OutputStream out, int frameSize, int level) throws IOException {
+		this.out = out;
+		this.deflater = new Deflater(level, true);
+		this.frame = new byte[frameSize];
+		this.compressed = new byte[Math.max(frameSize, 8 * 1024)];
+		ByteBuffer header = ByteBuffer.allocate(FramedCompression.HEADER_SIZE);
+		header.putInt(FramedCompression.MAGIC).putInt(frameSize);
+		writeRaw(header.array(), header.position());
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[] {(byte) b}, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		while (len > 0) {
+			int n = Math.min(len, frame.length - position);
+			System.arraycopy(b, off, frame, position, n);
+			position += n;
+			length += n;
+			off += n;
+			len -= n;
+			if (position == frame.length) {
+				writeFrame();
+			}
+		}
+	}
+
+	/**
+	 * Writes the last frame, the index and the footer, and closes the underlying stream.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			if (position > 0) {
+				writeFrame();
+			}
+			long indexOffset = written;
+			ByteBuffer trailer = ByteBuffer.allocate(frameCount * 8 + FramedCompression.FOOTER_SIZE);
+			for (int i = 0; i < frameCount; i++) {
+				trailer.putLong(offsets[i]);
+			}
+			trailer.putLong(indexOffset).putLong(length).putInt(frameCount).putInt(FramedCompression.MAGIC);
+			writeRaw(trailer.array(), trailer.position());
+		} finally {
+			deflater.end();
+			out.close();
+		}
+	}
+
+	/**
+	 * Closes the stream without completing the content, aborting the underlying stream
+	 * if it is a {@link DurableFileOutputStream}.
+	 */
+	public void abort() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		deflater.end();
+		if (out instanceof DurableFileOutputStream) {
+			((DurableFileOutputStream) out).abort();
+		} else {
+			try {
+				out.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of uncompressed bytes written.
+	 */
+	public long getLength() {
+		return length;
+	}
+
+	private void writeFrame() throws IOException {
+		if (frameCount == offsets.length) {
+			offsets = Arrays.copyOf(offsets, frameCount * 2);
+		}
+		offsets[frameCount++] = written;
+		deflater.reset();
+		deflater.setInput(frame, 0, position);
+		deflater.finish();
+		while (!deflater.finished()) {
+			writeRaw(compressed, deflater.deflate(compressed));
+		}
+		position = 0;
+	}
+
+	private void writeRaw(byte[] b, int len) throws IOException {
+		out.write(b, 0, len);
+		written += len;
+	}
+}
@@ -5,32 +5,56 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.annotations.MimeType;
+import org.springframework.content.commons.io.ContentCopyUtils;
 import org.springframework.content.commons.io.DeletableResource;
+import org.springframework.content.commons.io.RangeableResource;
 import org.springframework.content.commons.repository.AssociativeStore;
 import org.springframework.content.commons.repository.ContentStore;
 import org.springframework.content.commons.repository.Store;
-import org.springframework.content.commons.utils.BeanUtils;
+import org.springframework.content.commons.repository.StoreAccessException;
+import org.springframework.content.commons.utils.ContentPropertyMetadata;
 import org.springframework.content.commons.utils.FileService;
 import org.springframework.content.fs.io.FileSystemResourceLoader;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.WritableResource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import internal.org.springframework.content.fs.io.CompressedFileResource;
+import internal.org.springframework.content.fs.io.CompressionPolicy;
+import internal.org.springframework.content.fs.io.DurableFileOutputStream;
+import internal.org.springframework.content.fs.io.FramedCompression;
+import internal.org.springframework.content.fs.io.FramedCompressionOutputStream;
 
 public class DefaultFilesystemStoreImpl<S, SID extends Serializable> implements Store<SID>, AssociativeStore<S, SID>, ContentStore<S,SID> {
 
 	private static Log logger = LogFactory.getLog(DefaultFilesystemStoreImpl.class);
 
+	// bulk writes run on a pool of their own, bounded so that a large batch cannot start
+	// more writes at once than the disk usefully serves; idle threads exit
+	private static final ExecutorService writers = newWriters(Math.max(2, Math.min(Runtime.getRuntime().availableProcessors(), 8)));
+
 	private FileSystemResourceLoader loader;
 	private ConversionService conversion;
 	private FileService fileService;
+	private CompressionPolicy compression;
 
 
 	public DefaultFilesystemStoreImpl(FileSystemResourceLoader loader, ConversionService conversion, FileService fileService) {
@@ -39,20 +63,28 @@ public class DefaultFilesystemStoreImpl<S, SID extends Serializable> implements
 		this.fileService = fileService;
 	}
 
+	/**
+	 * Sets which content is compressed, or null, the default, to compress none.
+	 */
+	public void setCompressionPolicy(CompressionPolicy compression) {
+		this.compression = compression;
+	}
+
 	@Override
 	public Resource getResource(SID id) {
 		String location = conversion.convert(id, String.class);
-		Resource resource = loader.getResource(location);
+		Resource resource = getResource(location, compression != null && compression.appliesToAll());
 		return resource;
 	}
 	
 	@Override
 	public void associate(S entity, SID id) {
-		BeanUtils.setFieldWithAnnotation(entity, ContentId.class, id.toString());
+		ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(entity.getClass());
+		metadata.setValue(entity, ContentId.class, id.toString());
 		String location = conversion.convert(id, String.class);
-		Resource resource = loader.getResource(location);
+		Resource resource = getResource(location, false);
 		try {
-			BeanUtils.setFieldWithAnnotation(entity, ContentLength.class, resource.contentLength());
+			metadata.setValue(entity, ContentLength.class, resource.contentLength());
 		} catch (IOException e) {
 			logger.error(String.format("Unexpected error setting content length for %s", id.toString()), e);
 		}
@@ -60,21 +92,23 @@ public class DefaultFilesystemStoreImpl<S, SID extends Serializable> implements
 	
 	@Override
 	public void unassociate(S entity) {
-		BeanUtils.setFieldWithAnnotation(entity, ContentId.class, null);
-		BeanUtils.setFieldWithAnnotation(entity, ContentLength.class, 0L);
+		ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(entity.getClass());
+		metadata.setValue(entity, ContentId.class, null);
+		metadata.setValue(entity, ContentLength.class, 0L);
 	}
 
 	@Override
 	public void setContent(S property, InputStream content) {
-		Object contentId = BeanUtils.getFieldWithAnnotation(property, ContentId.class);
+		ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(property.getClass());
+		Object contentId = metadata.getValue(property, ContentId.class);
 		if (contentId == null) {
 			contentId = UUID.randomUUID();
-			contentId = convertToExternalContentIdType(property, contentId);
-			BeanUtils.setFieldWithAnnotation(property, ContentId.class, contentId);
+			contentId = convertToExternalContentIdType(metadata, contentId);
+			metadata.setValue(property, ContentId.class, contentId);
 		}
 
 		String location = conversion.convert(contentId, String.class);
-		Resource resource = loader.getResource(location);
+		Resource resource = getResource(location, compression != null && compression.appliesTo(metadata.getValue(property, MimeType.class)));
 		OutputStream os = null;
 		try {
 		    if (resource.exists() == false) {
@@ -83,11 +117,21 @@ public class DefaultFilesystemStoreImpl<S, SID extends Serializable> implements
 		        this.fileService.mkdirs(parent);
             }
 			if (resource instanceof WritableResource) {
-				os = ((WritableResource)resource).getOutputStream();
-				IOUtils.copy(content, os);
+				os = getOutputStream((WritableResource)resource);
+				ContentCopyUtils.copy(content, os);
+				// commits atomic and synced writes, so failures must not be ignored
+				os.close();
 			}
 		} catch (IOException e) {
 			logger.error(String.format("Unexpected error setting content %s", contentId.toString()), e);
+			// leave the previous content in place rather than commit a partial write
+			if (os instanceof CompressedFileResource.ReplacingOutputStream) {
+				((CompressedFileResource.ReplacingOutputStream)os).abort();
+			} else if (os instanceof DurableFileOutputStream) {
+				((DurableFileOutputStream)os).abort();
+			} else if (os instanceof FramedCompressionOutputStream) {
+				((FramedCompressionOutputStream)os).abort();
+			}
 		} finally {
 	        try {
 	            if (os != null) {
@@ -99,22 +143,75 @@ public class DefaultFilesystemStoreImpl<S, SID extends Serializable> implements
 		}
 			
 		try {
-			BeanUtils.setFieldWithAnnotation(property, ContentLength.class, resource.contentLength());
+			metadata.setValue(property, ContentLength.class, resource.contentLength());
 		} catch (IOException e) {
 			logger.error(String.format("Unexpected error setting content length for content %s", contentId.toString()), e);
 		}
 	}
 
+	// the directory may have been deleted since it was made, in which case it is made
+	// again and the resource opened once more; no content has been read yet
+	private OutputStream getOutputStream(WritableResource resource) throws IOException {
+		try {
+			return resource.getOutputStream();
+		} catch (IOException e) {
+			File parent = resource.getFile().getParentFile();
+			if (parent.isDirectory()) {
+				throw e;
+			}
+			this.fileService.forget(parent);
+			this.fileService.mkdirs(parent);
+			return resource.getOutputStream();
+		}
+	}
+
+	/**
+	 * Writes the contents in parallel, as writes to separate files do not contend.  If any
+	 * write fails the first failure is thrown once all writes have finished.
+	 */
+	@Override
+	public void setContents(Map<S, InputStream> contents) {
+		if (contents.size() <= 1) {
+			ContentStore.super.setContents(contents);
+			return;
+		}
+
+		List<Future<?>> writes = new ArrayList<>(contents.size());
+		for (Map.Entry<S, InputStream> entry : contents.entrySet()) {
+			writes.add(writers.submit(() -> setContent(entry.getKey(), entry.getValue())));
+		}
+
+		RuntimeException failure = null;
+		for (Future<?> write : writes) {
+			try {
+				write.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				for (Future<?> pending : writes) {
+					pending.cancel(true);
+				}
+				throw new StoreAccessException("Interrupted while setting contents", e);
+			} catch (ExecutionException e) {
+				if (failure == null) {
+					failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : new StoreAccessException("Unable to set contents", e.getCause());
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
 	@Override
 	public InputStream getContent(S property) {
 		if (property == null)
 			return null;
-		Object contentId = BeanUtils.getFieldWithAnnotation(property, ContentId.class);
+		Object contentId = ContentPropertyMetadata.forClass(property.getClass()).getValue(property, ContentId.class);
 		if (contentId == null)
 			return null;
 
 		String location = conversion.convert(contentId, String.class);
-		Resource resource = loader.getResource(location);
+		Resource resource = getResource(location, false);
 		
 		try {
 			if (resource.exists()) {
@@ -127,30 +224,70 @@ public class DefaultFilesystemStoreImpl<S, SID extends Serializable> implements
 		return null;
 	}
 
+	@Override
+	public InputStream getContent(S property, long offset, long length) {
+		if (property == null)
+			return null;
+		Object contentId = ContentPropertyMetadata.forClass(property.getClass()).getValue(property, ContentId.class);
+		if (contentId == null)
+			return null;
+
+		String location = conversion.convert(contentId, String.class);
+		Resource resource = getResource(location, false);
+
+		try {
+			if (resource.exists() && resource instanceof RangeableResource) {
+				return ((RangeableResource)resource).getInputStream(offset, length);
+			}
+		} catch (IOException e) {
+			logger.error(String.format("Unexpected error getting content %s", contentId.toString()), e);
+		}
+
+		return null;
+	}
+
 	@Override
 	public void unsetContent(S property) {
 		if (property == null)
 			return;
-		Object contentId = BeanUtils.getFieldWithAnnotation(property, ContentId.class);
+		ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(property.getClass());
+		Object contentId = metadata.getValue(property, ContentId.class);
 		if (contentId == null)
 			return;
 	
-		// delete any existing content object	
+		// delete any existing content object, compressed or not
 		String location = conversion.convert(contentId, String.class);
-		Resource resource = loader.getResource(location);
+		Resource resource = getResource(location, false);
 
 		if (resource.exists() && resource instanceof DeletableResource) {
 			((DeletableResource)resource).delete();
 		}
 
 		// reset content fields
-		BeanUtils.setFieldWithAnnotation(property, ContentId.class, null);
-		BeanUtils.setFieldWithAnnotation(property, ContentLength.class, 0);
+		metadata.setValue(property, ContentId.class, null);
+		metadata.setValue(property, ContentLength.class, 0);
 	}
 	
-	private Object convertToExternalContentIdType(S property, Object contentId) {
-		if (conversion.canConvert(TypeDescriptor.forObject(contentId), TypeDescriptor.valueOf(BeanUtils.getFieldWithAnnotationType(property, ContentId.class)))) {
-			contentId = conversion.convert(contentId, TypeDescriptor.forObject(contentId), TypeDescriptor.valueOf(BeanUtils.getFieldWithAnnotationType(property, ContentId.class)));
+	private Resource getResource(String location, boolean compressWrites) {
+		Resource resource = loader.getResource(location);
+		if (compression != null) {
+			resource = new CompressedFileResource(resource, loader.getResource(location + FramedCompression.SUFFIX), compression, compressWrites);
+		}
+		return resource;
+	}
+
+	private static ExecutorService newWriters(int threads) {
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("filesystem-store-writer-");
+		threadFactory.setDaemon(true);
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	private Object convertToExternalContentIdType(ContentPropertyMetadata metadata, Object contentId) {
+		TypeDescriptor contentIdType = TypeDescriptor.valueOf(metadata.getPropertyType(ContentId.class));
+		if (conversion.canConvert(TypeDescriptor.forObject(contentId), contentIdType)) {
+			contentId = conversion.convert(contentId, TypeDescriptor.forObject(contentId), contentIdType);
 			return contentId;
 		}
 		return contentId.toString();
@@ -0,0 +1,157 @@
+package internal.org.springframework.content.fs.repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.reactivestreams.Publisher;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.io.DeletableResource;
+import org.springframework.content.commons.repository.ReactiveContentStore;
+import org.springframework.content.commons.utils.ContentPropertyMetadata;
+import org.springframework.content.commons.utils.FileService;
+import org.springframework.content.fs.io.FileSystemResourceLoader;
+import org.springframework.content.fs.io.MappedFileCache;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.io.Resource;
+
+import internal.org.springframework.content.commons.io.EmptyPublisher;
+import internal.org.springframework.content.fs.io.AsynchronousFileChannelPublisher;
+import internal.org.springframework.content.fs.io.AsynchronousFileChannelWriter;
+
+public class DefaultReactiveFilesystemStoreImpl<S, SID extends Serializable> implements ReactiveContentStore<S, SID> {
+
+	private static Log logger = LogFactory.getLog(DefaultReactiveFilesystemStoreImpl.class);
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private FileSystemResourceLoader loader;
+	private ConversionService conversion;
+	private FileService fileService;
+
+	public DefaultReactiveFilesystemStoreImpl(FileSystemResourceLoader loader, ConversionService conversion, FileService fileService) {
+		this.loader = loader;
+		this.conversion = conversion;
+		this.fileService = fileService;
+	}
+
+	@Override
+	public Resource getResource(SID id) {
+		String location = conversion.convert(id, String.class);
+		return loader.getResource(location);
+	}
+
+	@Override
+	public CompletableFuture<S> setContent(S property, Publisher<ByteBuffer> content) {
+		ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(property.getClass());
+		Object contentId = metadata.getValue(property, ContentId.class);
+		if (contentId == null) {
+			contentId = UUID.randomUUID();
+			contentId = convertToExternalContentIdType(metadata, contentId);
+			metadata.setValue(property, ContentId.class, contentId);
+		}
+
+		String location = conversion.convert(contentId, String.class);
+		Resource resource = loader.getResource(location);
+		File file;
+		try {
+			file = resource.getFile();
+			if (!resource.exists()) {
+				this.fileService.mkdirs(file.getParentFile());
+			}
+		} catch (IOException e) {
+			logger.error(String.format("Unexpected error setting content %s", contentId.toString()), e);
+			CompletableFuture<S> failed = new CompletableFuture<>();
+			failed.completeExceptionally(e);
+			return failed;
+		}
+
+		CompletableFuture<Long> written = AsynchronousFileChannelWriter.write(content, file, loader.getFsyncPolicy());
+		// the directory may have been deleted since it was made, in which case it is made
+		// again and the write tried once more; content is only subscribed to once the
+		// file is open
+		if (written.isCompletedExceptionally() && !file.getParentFile().isDirectory()) {
+			try {
+				this.fileService.forget(file.getParentFile());
+				this.fileService.mkdirs(file.getParentFile());
+			} catch (IOException e) {
+				logger.error(String.format("Unexpected error setting content %s", contentId.toString()), e);
+				CompletableFuture<S> failed = new CompletableFuture<>();
+				failed.completeExceptionally(e);
+				return failed;
+			}
+			written = AsynchronousFileChannelWriter.write(content, file, loader.getFsyncPolicy());
+		}
+
+		return written.thenApply(length -> {
+			MappedFileCache mappedFiles = loader.getMappedFileCache();
+			if (mappedFiles != null) {
+				mappedFiles.invalidate(file);
+			}
+			metadata.setValue(property, ContentLength.class, length);
+			return property;
+		});
+	}
+
+	@Override
+	public Publisher<ByteBuffer> getContent(S property) {
+		if (property == null)
+			return EmptyPublisher.instance();
+		Object contentId = ContentPropertyMetadata.forClass(property.getClass()).getValue(property, ContentId.class);
+		if (contentId == null)
+			return EmptyPublisher.instance();
+
+		String location = conversion.convert(contentId, String.class);
+		Resource resource = loader.getResource(location);
+
+		try {
+			if (resource.exists()) {
+				return new AsynchronousFileChannelPublisher(resource.getFile().toPath(), BUFFER_SIZE);
+			}
+		} catch (IOException e) {
+			logger.error(String.format("Unexpected error getting content %s", contentId.toString()), e);
+		}
+
+		return EmptyPublisher.instance();
+	}
+
+	@Override
+	public CompletableFuture<S> unsetContent(S property) {
+		if (property == null)
+			return CompletableFuture.completedFuture(property);
+		ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(property.getClass());
+		Object contentId = metadata.getValue(property, ContentId.class);
+		if (contentId == null)
+			return CompletableFuture.completedFuture(property);
+
+		// delete any existing content object
+		String location = conversion.convert(contentId, String.class);
+		Resource resource = loader.getResource(location);
+
+		if (resource.exists() && resource instanceof DeletableResource) {
+			((DeletableResource)resource).delete();
+		}
+
+		// reset content fields
+		metadata.setValue(property, ContentId.class, null);
+		metadata.setValue(property, ContentLength.class, 0);
+
+		return CompletableFuture.completedFuture(property);
+	}
+
+	private Object convertToExternalContentIdType(ContentPropertyMetadata metadata, Object contentId) {
+		TypeDescriptor contentIdType = TypeDescriptor.valueOf(metadata.getPropertyType(ContentId.class));
+		if (conversion.canConvert(TypeDescriptor.forObject(contentId), contentIdType)) {
+			contentId = conversion.convert(contentId, TypeDescriptor.forObject(contentId), contentIdType);
+			return contentId;
+		}
+		return contentId.toString();
+	}
+}
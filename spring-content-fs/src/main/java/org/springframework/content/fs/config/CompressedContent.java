@@ -0,0 +1,57 @@
+package org.springframework.content.fs.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Compresses the content of a filesystem store.
+ * <p>
+ * Content is written as independently deflated frames followed by an index of their
+ * offsets, so that a range read only decompresses the frames it touches.  Compressed
+ * content is stored at a name of its own, ending in {@code .scz}; content written before
+ * compression was enabled, or whose mime type does not match, is stored and read as is.
+ * {@code @ContentLength} reports the uncompressed length.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface CompressedContent {
+
+	/**
+	 * Mime type patterns, such as {@code text/*} or {@code application/json}, of the
+	 * content to compress; as the entity's {@code @MimeType}.  Compresses all content when
+	 * empty.
+	 *
+	 * @return the mime type patterns
+	 */
+	String[] mimeTypes() default {};
+
+	/**
+	 * The number of uncompressed bytes in each frame.  Larger frames compress better;
+	 * smaller frames make range reads cheaper.
+	 *
+	 * @return the frame size
+	 */
+	int frameSize() default 64 * 1024;
+
+	/**
+	 * The largest frame size, in uncompressed bytes, of compressed content that is read;
+	 * content with larger frames is rejected as corrupt rather than buffered.  At least
+	 * {@link #frameSize()}.
+	 *
+	 * @return the maximum frame size
+	 */
+	int maxFrameSize() default 1024 * 1024;
+
+	/**
+	 * The deflate compression level, from 1 (fastest) to 9 (smallest).
+	 *
+	 * @return the compression level
+	 */
+	int level() default 6;
+}
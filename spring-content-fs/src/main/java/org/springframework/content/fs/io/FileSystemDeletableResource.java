@@ -1,28 +1,66 @@
 package org.springframework.content.fs.io;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.springframework.content.commons.io.BoundedInputStream;
 import org.springframework.content.commons.io.DeletableResource;
+import org.springframework.content.commons.io.FileBackedResource;
+import org.springframework.content.commons.io.RangeableResource;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.WritableResource;
 
-public class FileSystemDeletableResource implements WritableResource, DeletableResource {
+import internal.org.springframework.content.commons.io.ByteBufferInputStream;
+import internal.org.springframework.content.fs.io.DurableFileOutputStream;
+
+public class FileSystemDeletableResource implements WritableResource, DeletableResource, RangeableResource, FileBackedResource {
 
 	private static Log logger = LogFactory.getLog(FileSystemDeletableResource.class);
 
 	private FileSystemResource resource;
+	private boolean atomicWrites;
+	private FsyncPolicy fsyncPolicy;
+	private MappedFileCache mappedFiles;
 	
 	public FileSystemDeletableResource(FileSystemResource resource) {
+		this(resource, false, FsyncPolicy.NONE);
+	}
+
+	/**
+	 * @param atomicWrites
+	 * 					whether {@link #getOutputStream()} writes to a temporary file that
+	 * 					replaces this resource's file when the stream is closed
+	 * @param fsyncPolicy
+	 * 					what to force to the device when the stream is closed
+	 */
+	public FileSystemDeletableResource(FileSystemResource resource, boolean atomicWrites, FsyncPolicy fsyncPolicy) {
+		this(resource, atomicWrites, fsyncPolicy, null);
+	}
+
+	/**
+	 * @param mappedFiles
+	 * 					the cache of mappings to read this resource's file through, or null
+	 * 					to read it as usual; writes are always atomic when given
+	 */
+	public FileSystemDeletableResource(FileSystemResource resource, boolean atomicWrites, FsyncPolicy fsyncPolicy, MappedFileCache mappedFiles) {
 		this.resource = resource;
+		this.atomicWrites = atomicWrites || mappedFiles != null;
+		this.fsyncPolicy = fsyncPolicy;
+		this.mappedFiles = mappedFiles;
 	}
 
 	@Override
@@ -32,6 +70,9 @@ public class FileSystemDeletableResource implements WritableResource, DeletableR
 		} catch (IOException ioe) {
 			logger.debug(String.format("Unexpected error deleting resource %s", this), ioe);
 		}
+		if (mappedFiles != null) {
+			mappedFiles.invalidate(this.getFile());
+		}
 	}
 
 	public boolean isOpen() {
@@ -51,9 +92,38 @@ public class FileSystemDeletableResource implements WritableResource, DeletableR
 	}
 
 	public InputStream getInputStream() throws IOException {
+		if (mappedFiles != null) {
+			ByteBuffer buffer = map();
+			if (buffer != null) {
+				return new ByteBufferInputStream(buffer);
+			}
+		}
 		return resource.getInputStream();
 	}
 
+	/**
+	 * Opens the file positioned at offset so the preceding bytes are never read.
+	 */
+	@Override
+	public InputStream getInputStream(long offset, long length) throws IOException {
+		if (mappedFiles != null) {
+			ByteBuffer buffer = map();
+			if (buffer != null) {
+				buffer.position((int) Math.min(offset, buffer.limit()));
+				buffer.limit((int) Math.min(buffer.limit(), buffer.position() + length));
+				return new ByteBufferInputStream(buffer);
+			}
+		}
+		FileChannel channel = FileChannel.open(this.getFile().toPath(), StandardOpenOption.READ);
+		try {
+			channel.position(offset);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+		return new BoundedInputStream(Channels.newInputStream(channel), length);
+	}
+
 	public boolean isWritable() {
 		return resource.isWritable();
 	}
@@ -62,13 +132,36 @@ public class FileSystemDeletableResource implements WritableResource, DeletableR
 		return resource.lastModified();
 	}
 
+	/**
+	 * Returns a {@link DurableFileOutputStream} when writes are atomic or synced.
+	 */
 	public OutputStream getOutputStream() throws IOException {
+		if (mappedFiles != null) {
+			return new DurableFileOutputStream(this.getFile(), true, fsyncPolicy) {
+				@Override
+				public void close() throws IOException {
+					super.close();
+					mappedFiles.invalidate(FileSystemDeletableResource.this.getFile());
+				}
+			};
+		}
+		if (atomicWrites || fsyncPolicy != FsyncPolicy.NONE) {
+			return new DurableFileOutputStream(this.getFile(), atomicWrites, fsyncPolicy);
+		}
 		if (!exists()) {
 			FileUtils.touch(this.getFile());
 		}
 		return resource.getOutputStream();
 	}
 
+	private ByteBuffer map() throws IOException {
+		try {
+			return mappedFiles.get(this.getFile());
+		} catch (NoSuchFileException e) {
+			throw new FileNotFoundException(e.getMessage());
+		}
+	}
+
 	public URL getURL() throws IOException {
 		return resource.getURL();
 	}
@@ -0,0 +1,41 @@
+package org.springframework.content.fs.io;
+
+/**
+ * Maps resource locations onto paths beneath a {@link FileSystemResourceLoader}'s root.
+ */
+public interface FileSystemLayout {
+
+	/**
+	 * Lays files out as their locations, all in the root.
+	 */
+	FileSystemLayout FLAT = new FileSystemLayout() {
+
+		@Override
+		public String getPath(String location) {
+			return location;
+		}
+
+		@Override
+		public String getLocation(String path) {
+			return path;
+		}
+	};
+
+	/**
+	 * Returns the path, relative to the root, of the file at location.
+	 *
+	 * @param location
+	 * 					the location, without a leading slash
+	 * @return the relative path
+	 */
+	String getPath(String location);
+
+	/**
+	 * Returns the location of the file at path; the inverse of {@link #getPath(String)}.
+	 *
+	 * @param path
+	 * 					the path relative to the root
+	 * @return the location
+	 */
+	String getLocation(String path);
+}
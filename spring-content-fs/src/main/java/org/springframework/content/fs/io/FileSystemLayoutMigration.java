@@ -0,0 +1,137 @@
+package org.springframework.content.fs.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.content.commons.utils.FileService;
+import org.springframework.content.commons.utils.FileServiceImpl;
+import org.springframework.util.Assert;
+
+/**
+ * Moves the files beneath a filesystem store's root from one {@link FileSystemLayout}
+ * to another, in parallel.
+ * <p>
+ * Files are renamed, not copied, so the migration is fast and needs no free space.  The
+ * store should not be written to while it runs.  It can be run from the command line to
+ * shard a flat root:
+ *
+ * <pre>
+ * java -cp ... org.springframework.content.fs.io.FileSystemLayoutMigration &lt;root&gt; [depth] [width] [parallelism]
+ * </pre>
+ */
+public class FileSystemLayoutMigration {
+
+	private static final Logger logger = LoggerFactory.getLogger(FileSystemLayoutMigration.class);
+
+	private final FileService fileService = new FileServiceImpl();
+
+	private final Path root;
+	private final FileSystemLayout from;
+	private final FileSystemLayout to;
+	private final int parallelism;
+
+	public FileSystemLayoutMigration(File root, FileSystemLayout from, FileSystemLayout to) {
+		this(root, from, to, Runtime.getRuntime().availableProcessors());
+	}
+
+	public FileSystemLayoutMigration(File root, FileSystemLayout from, FileSystemLayout to, int parallelism) {
+		Assert.notNull(root, "root must not be null");
+		Assert.notNull(from, "from must not be null");
+		Assert.notNull(to, "to must not be null");
+		Assert.isTrue(parallelism > 0, "parallelism must be positive");
+		this.root = root.toPath().toAbsolutePath().normalize();
+		this.from = from;
+		this.to = to;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Moves every file that is not where the new layout expects it.
+	 *
+	 * @return the number of files moved
+	 * @throws IOException if the root cannot be listed or a file cannot be moved
+	 */
+	public long migrate() throws IOException {
+		List<Path> files;
+		try (Stream<Path> walk = Files.walk(root)) {
+			files = walk.filter(Files::isRegularFile).collect(Collectors.toList());
+		}
+
+		AtomicLong moved = new AtomicLong();
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			pool.submit(() -> files.parallelStream().forEach(file -> {
+				try {
+					if (move(file)) {
+						moved.incrementAndGet();
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			})).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Migration interrupted", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof UncheckedIOException) {
+				throw ((UncheckedIOException) e.getCause()).getCause();
+			}
+			throw new IOException("Migration failed", e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+
+		logger.info(String.format("Moved %d of %d files beneath %s", moved.get(), files.size(), root));
+		return moved.get();
+	}
+
+	private boolean move(Path file) throws IOException {
+		String path = root.relativize(file).toString().replace(File.separatorChar, '/');
+		// skips files already migrated, so that an interrupted migration can be re-run
+		if (!isLaidOut(path, from) || (to != FileSystemLayout.FLAT && isLaidOut(path, to))) {
+			return false;
+		}
+		Path target = root.resolve(to.getPath(from.getLocation(path)));
+		if (target.equals(file)) {
+			return false;
+		}
+		fileService.mkdirs(target.getParent().toFile());
+		Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+		return true;
+	}
+
+	private static boolean isLaidOut(String path, FileSystemLayout layout) {
+		try {
+			return layout.getPath(layout.getLocation(path)).equals(path);
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: FileSystemLayoutMigration <root> [depth] [width] [parallelism]");
+			System.exit(1);
+		}
+		int depth = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+		int width = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+		int parallelism = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+		long moved = new FileSystemLayoutMigration(Paths.get(args[0]).toFile(), FileSystemLayout.FLAT,
+				new ShardedFileSystemLayout(depth, width), parallelism).migrate();
+		System.out.println(String.format("Moved %d files", moved));
+	}
+}
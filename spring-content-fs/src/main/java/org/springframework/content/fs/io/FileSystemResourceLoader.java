@@ -1,6 +1,14 @@
 package org.springframework.content.fs.io;
 
+import static org.springframework.content.commons.utils.HashingUtils.hash;
+import static org.springframework.content.commons.utils.HashingUtils.mix;
 import static org.springframework.util.StringUtils.cleanPath;
+import static org.springframework.util.StringUtils.trimLeadingCharacter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,6 +34,11 @@ public class FileSystemResourceLoader extends org.springframework.core.io.FileSy
 	private static final Logger logger = LoggerFactory.getLogger(FileSystemResourceLoader.class);
 
 	private FileSystemResource root;
+	private List<Volume> volumes = Collections.emptyList();
+	private boolean atomicWrites = false;
+	private FsyncPolicy fsyncPolicy = FsyncPolicy.NONE;
+	private FileSystemLayout layout = FileSystemLayout.FLAT;
+	private MappedFileCache mappedFiles;
 	
 	public FileSystemResourceLoader(String root) {
 	    Assert.notNull(root);
@@ -33,10 +46,126 @@ public class FileSystemResourceLoader extends org.springframework.core.io.FileSy
 		this.root = new FileSystemResource(suffixPath(cleanPath(root)));
 	}
 
+	/**
+	 * Stripes content evenly over several roots, typically on separate disks of the same
+	 * size.
+	 *
+	 * @param roots
+	 * 					the roots; the first is reported as {@link #getFilesystemRoot()}
+	 * @see #FileSystemResourceLoader(List, List)
+	 */
+	public FileSystemResourceLoader(List<String> roots) {
+		this(roots, equalWeights(roots));
+	}
+
+	/**
+	 * Stripes content over several weighted roots, typically on separate disks.
+	 * <p>
+	 * Each path is placed on a root chosen by rendezvous hashing, weighted by the given
+	 * weights, so that content spreads over the roots in proportion to their weights and
+	 * adding a root moves only the content it takes over.  As the root a path is placed on
+	 * depends on the weights, they must not change between restarts, and a
+	 * {@link FileSystemVolumeRebalance} must be given the same weights.  Content is found
+	 * on the root its path hashes to; the other roots are only checked, in hash order,
+	 * when it is not there, as after a root has been added but before a rebalance has run.
+	 *
+	 * @param roots
+	 * 					the roots; the first is reported as {@link #getFilesystemRoot()}
+	 * @param weights
+	 * 					the positive weight of each root, typically its capacity
+	 */
+	public FileSystemResourceLoader(List<String> roots, List<Long> weights) {
+		this(first(roots));
+		Assert.isTrue(weights != null && weights.size() == roots.size(), "there must be a weight for each root");
+		if (roots.size() > 1) {
+			List<Volume> volumes = new ArrayList<>();
+			for (int i = 0; i < roots.size(); i++) {
+				Assert.isTrue(weights.get(i) != null && weights.get(i) > 0, "weights must be positive");
+				Volume volume = new Volume(new FileSystemResource(suffixPath(cleanPath(roots.get(i)))), weights.get(i));
+				logger.info(String.format("Striping content over %s, weighted %d", volume.root.getPath(), volume.weight));
+				volumes.add(volume);
+			}
+			this.volumes = volumes;
+		}
+	}
+
+	private static String first(List<String> roots) {
+		Assert.notEmpty(roots, "roots must not be empty");
+		return roots.get(0);
+	}
+
+	private static List<Long> equalWeights(List<String> roots) {
+		Assert.notEmpty(roots, "roots must not be empty");
+		return Collections.nCopies(roots.size(), 1L);
+	}
+
 	public String getFilesystemRoot() {
 		return root.getPath();
 	}
 
+	public List<String> getFilesystemRoots() {
+		if (volumes.isEmpty()) {
+			return Collections.singletonList(root.getPath());
+		}
+		List<String> roots = new ArrayList<>();
+		for (Volume volume : volumes) {
+			roots.add(volume.root.getPath());
+		}
+		return roots;
+	}
+
+	public boolean isAtomicWrites() {
+		return atomicWrites;
+	}
+
+	/**
+	 * Sets whether content is written to a temporary file that is atomically renamed into
+	 * place once complete, so that readers never see a partial write.  Defaults to false.
+	 */
+	public void setAtomicWrites(boolean atomicWrites) {
+		this.atomicWrites = atomicWrites;
+	}
+
+	public FsyncPolicy getFsyncPolicy() {
+		return fsyncPolicy;
+	}
+
+	/**
+	 * Sets what is forced to the device when content is written.  Defaults to
+	 * {@link FsyncPolicy#NONE}.
+	 */
+	public void setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+		Assert.notNull(fsyncPolicy);
+		this.fsyncPolicy = fsyncPolicy;
+	}
+
+	public FileSystemLayout getLayout() {
+		return layout;
+	}
+
+	/**
+	 * Sets how locations are laid out beneath the root.  Defaults to
+	 * {@link FileSystemLayout#FLAT}.  Existing content must be moved with a
+	 * {@link FileSystemLayoutMigration} when the layout is changed.
+	 */
+	public void setLayout(FileSystemLayout layout) {
+		Assert.notNull(layout);
+		this.layout = layout;
+	}
+
+	public MappedFileCache getMappedFileCache() {
+		return mappedFiles;
+	}
+
+	/**
+	 * Sets a cache of memory mappings to read small files through, or null, the default,
+	 * to read files as usual.  Writes are atomic when set, whatever
+	 * {@link #setAtomicWrites(boolean)} says.
+	 */
+	public void setMappedFileCache(MappedFileCache mappedFiles) {
+		this.mappedFiles = mappedFiles;
+	}
+
     private String suffixPath(String path) {
 	    if (path.endsWith("/") == false) {
 	        return path + "/";
@@ -47,10 +176,67 @@ public class FileSystemResourceLoader extends org.springframework.core.io.FileSy
     @Override
 	public Resource getResource(String location) {
         Assert.notNull(root);
-		Resource resource = root.createRelative(location);
+		String path = location;
+		if (layout != FileSystemLayout.FLAT) {
+			path = layout.getPath(trimLeadingCharacter(location, '/'));
+		}
+		Resource resource;
+		if (volumes.isEmpty()) {
+			resource = root.createRelative(path);
+		} else {
+			resource = getStripedResource(path);
+		}
 		if (resource instanceof FileSystemResource) {
-			resource = new FileSystemDeletableResource((FileSystemResource)resource);
+			resource = new FileSystemDeletableResource((FileSystemResource)resource, atomicWrites, fsyncPolicy, mappedFiles);
 		}
 		return resource;
 	}
+
+	/**
+	 * Returns the root that content at path, relative to a root, is placed on.
+	 */
+	String getPreferredRoot(String path) {
+		if (volumes.isEmpty()) {
+			return root.getPath();
+		}
+		return rank(path).get(0).root.getPath();
+	}
+
+	private Resource getStripedResource(String path) {
+		List<Volume> ranked = rank(path);
+		for (Volume volume : ranked) {
+			Resource resource = volume.root.createRelative(path);
+			if (resource.exists()) {
+				return resource;
+			}
+		}
+		return ranked.get(0).root.createRelative(path);
+	}
+
+	private List<Volume> rank(String path) {
+		long hash = hash(trimLeadingCharacter(path, '/'));
+		List<Volume> ranked = new ArrayList<>(volumes);
+		ranked.sort(Comparator.comparingDouble((Volume volume) -> volume.score(hash)).reversed());
+		return ranked;
+	}
+
+	private static class Volume {
+
+		private final FileSystemResource root;
+		// seeded by path, not position, so adding a volume leaves the others' scores unchanged
+		private final long seed;
+		private final long weight;
+
+		private Volume(FileSystemResource root, long weight) {
+			this.root = root;
+			this.seed = mix(hash(root.getPath()));
+			this.weight = weight;
+		}
+
+		// rendezvous hashing: weight / -ln(u), for u uniform in (0,1) per location and volume
+		private double score(long hash) {
+			double u = ((mix(hash ^ seed) >>> 11) + 0.5) / (1L << 53);
+			return weight / -Math.log(u);
+		}
+	}
 }
@@ -0,0 +1,145 @@
+package org.springframework.content.fs.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.content.commons.utils.FileService;
+import org.springframework.content.commons.utils.FileServiceImpl;
+import org.springframework.util.Assert;
+
+import internal.org.springframework.content.fs.io.DurableFileOutputStream;
+
+/**
+ * Moves the files of a striped {@link FileSystemResourceLoader} onto the roots their
+ * paths hash to, in parallel; typically after a root has been added.
+ * <p>
+ * Only the content that the new root takes over moves.  Each file is copied to a
+ * temporary file on its new root, renamed into place and then deleted from its old root,
+ * so that it can be read throughout.  The store should not be written to while it runs.
+ * It can be run from the command line with the roots in the order they are configured,
+ * each followed by its weight when the loader is configured with weights:
+ *
+ * <pre>
+ * java -cp ... org.springframework.content.fs.io.FileSystemVolumeRebalance &lt;root&gt;[=&lt;weight&gt;] &lt;root&gt;[=&lt;weight&gt;]...
+ * </pre>
+ */
+public class FileSystemVolumeRebalance {
+
+	private static final Logger logger = LoggerFactory.getLogger(FileSystemVolumeRebalance.class);
+
+	private final FileService fileService = new FileServiceImpl();
+
+	private final FileSystemResourceLoader loader;
+	private final int parallelism;
+
+	public FileSystemVolumeRebalance(FileSystemResourceLoader loader) {
+		this(loader, Runtime.getRuntime().availableProcessors());
+	}
+
+	public FileSystemVolumeRebalance(FileSystemResourceLoader loader, int parallelism) {
+		Assert.notNull(loader, "loader must not be null");
+		Assert.isTrue(parallelism > 0, "parallelism must be positive");
+		this.loader = loader;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Moves every file that is not on the root its path hashes to.
+	 *
+	 * @return the number of files moved
+	 * @throws IOException if a root cannot be listed or a file cannot be moved
+	 */
+	public long rebalance() throws IOException {
+		List<Path[]> files = new ArrayList<>();
+		for (String root : loader.getFilesystemRoots()) {
+			Path rootPath = Paths.get(root);
+			if (!Files.isDirectory(rootPath)) {
+				continue;
+			}
+			try (Stream<Path> walk = Files.walk(rootPath)) {
+				files.addAll(walk.filter(Files::isRegularFile).map(file -> new Path[] {rootPath, file}).collect(Collectors.toList()));
+			}
+		}
+
+		AtomicLong moved = new AtomicLong();
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			pool.submit(() -> files.parallelStream().forEach(file -> {
+				try {
+					if (move(file[0], file[1])) {
+						moved.incrementAndGet();
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			})).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Rebalance interrupted", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof UncheckedIOException) {
+				throw ((UncheckedIOException) e.getCause()).getCause();
+			}
+			throw new IOException("Rebalance failed", e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+
+		logger.info(String.format("Moved %d of %d files between %s", moved.get(), files.size(), loader.getFilesystemRoots()));
+		return moved.get();
+	}
+
+	private boolean move(Path root, Path file) throws IOException {
+		String path = root.relativize(file).toString().replace(File.separatorChar, '/');
+		Path preferred = Paths.get(loader.getPreferredRoot(path));
+		if (preferred.equals(root)) {
+			return false;
+		}
+
+		Path target = preferred.resolve(path);
+		if (!Files.exists(target)) {
+			fileService.mkdirs(target.getParent().toFile());
+			Path temp = DurableFileOutputStream.createTempFile(target);
+			try {
+				Files.copy(file, temp, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException e) {
+				Files.deleteIfExists(temp);
+				throw e;
+			}
+		}
+		// a file already on its preferred root is the one that is read
+		Files.delete(file);
+		return true;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: FileSystemVolumeRebalance <root>[=<weight>] <root>[=<weight>]...");
+			System.exit(1);
+		}
+		List<String> roots = new ArrayList<>();
+		List<Long> weights = new ArrayList<>();
+		for (String arg : args) {
+			int i = arg.lastIndexOf('=');
+			roots.add(i == -1 ? arg : arg.substring(0, i));
+			weights.add(i == -1 ? 1L : Long.parseLong(arg.substring(i + 1)));
+		}
+		long moved = new FileSystemVolumeRebalance(new FileSystemResourceLoader(roots, weights)).rebalance();
+		System.out.println(String.format("Moved %d files", moved));
+	}
+}
@@ -0,0 +1,23 @@
+package org.springframework.content.fs.io;
+
+/**
+ * How much of a content write is forced to the storage device before the write completes.
+ */
+public enum FsyncPolicy {
+
+	/**
+	 * Leave flushing to the operating system.  A crash may lose recently written content.
+	 */
+	NONE,
+
+	/**
+	 * Force the file's content to the device.
+	 */
+	FILE,
+
+	/**
+	 * Force the file's content and then its directory entry to the device, so that a
+	 * newly created or renamed file also survives a crash.
+	 */
+	FILE_AND_DIRECTORY
+}
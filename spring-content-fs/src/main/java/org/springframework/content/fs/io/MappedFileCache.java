@@ -0,0 +1,156 @@
+package org.springframework.content.fs.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+
+/**
+ * A bounded cache of read-only memory mappings of small files, so that files read
+ * repeatedly are served from the page cache without opening, reading and closing them
+ * each time.
+ * <p>
+ * Mappings are released, least recently used first, when their total size exceeds the
+ * maximum size, and once they have been idle for longer than the maximum idle time.
+ * Java cannot unmap files, so released mappings are unmapped when garbage collected.
+ * <p>
+ * A mapped file must be replaced, not overwritten in place, or readers of a stale
+ * mapping may fault; a {@link FileSystemResourceLoader} with a cache therefore always
+ * writes atomically.
+ */
+public class MappedFileCache {
+
+	private final long maxSize;
+	private final long maxFileSize;
+	private final long maxIdleMillis;
+
+	// access ordered, so the least recently used mapping comes first
+	private final LinkedHashMap<File, Mapping> mappings = new LinkedHashMap<>(16, 0.75f, true);
+	private long size = 0;
+	private long invalidations = 0;
+
+	/**
+	 * @param maxSize
+	 * 					the most bytes mapped at once
+	 * @param maxFileSize
+	 * 					the largest file mapped; larger files are read as usual
+	 * @param maxIdleMillis
+	 * 					how long a mapping is kept without being read
+	 */
+	public MappedFileCache(long maxSize, long maxFileSize, long maxIdleMillis) {
+		Assert.isTrue(maxSize > 0, "maxSize must be positive");
+		Assert.isTrue(maxFileSize > 0 && maxFileSize <= Math.min(maxSize, Integer.MAX_VALUE), "maxFileSize must be positive and no more than maxSize");
+		Assert.isTrue(maxIdleMillis > 0, "maxIdleMillis must be positive");
+		this.maxSize = maxSize;
+		this.maxFileSize = maxFileSize;
+		this.maxIdleMillis = maxIdleMillis;
+	}
+
+	public long getMaxFileSize() {
+		return maxFileSize;
+	}
+
+	/**
+	 * Returns a read-only buffer over the whole of file, mapping it if necessary.
+	 *
+	 * @return a buffer, positioned at 0, that the caller may consume, or null if file
+	 * 			is larger than the maximum file size
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public ByteBuffer get(File file) throws IOException {
+		long now = System.currentTimeMillis();
+		long version;
+		synchronized (this) {
+			expire(now);
+			Mapping mapping = mappings.get(file);
+			if (mapping != null) {
+				mapping.lastAccess = now;
+				return mapping.buffer.duplicate();
+			}
+			version = invalidations;
+		}
+
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long length = channel.size();
+			if (length > maxFileSize) {
+				return null;
+			}
+			// the mapping remains valid once the channel is closed
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+		}
+
+		synchronized (this) {
+			// a file replaced while it was being mapped may have been mapped before the replacement
+			if (version == invalidations && !mappings.containsKey(file)) {
+				mappings.put(file, new Mapping(buffer, now));
+				size += buffer.capacity();
+				evict();
+			}
+		}
+		return buffer.duplicate();
+	}
+
+	/**
+	 * Releases the mapping of file, if any.  Called whenever file is replaced or deleted.
+	 */
+	public synchronized void invalidate(File file) {
+		invalidations++;
+		Mapping mapping = mappings.remove(file);
+		if (mapping != null) {
+			size -= mapping.buffer.capacity();
+		}
+	}
+
+	public synchronized void clear() {
+		invalidations++;
+		mappings.clear();
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of bytes currently mapped.
+	 */
+	public synchronized long getSize() {
+		return size;
+	}
+
+	private void expire(long now) {
+		Iterator<Mapping> it = mappings.values().iterator();
+		while (it.hasNext()) {
+			Mapping mapping = it.next();
+			if (now - mapping.lastAccess <= maxIdleMillis) {
+				// later mappings were read more recently
+				break;
+			}
+			size -= mapping.buffer.capacity();
+			it.remove();
+		}
+	}
+
+	private void evict() {
+		Iterator<Map.Entry<File, Mapping>> it = mappings.entrySet().iterator();
+		while (size > maxSize && it.hasNext()) {
+			size -= it.next().getValue().buffer.capacity();
+			it.remove();
+		}
+	}
+
+	private static class Mapping {
+
+		private final MappedByteBuffer buffer;
+		private long lastAccess;
+
+		private Mapping(MappedByteBuffer buffer, long lastAccess) {
+			this.buffer = buffer;
+			this.lastAccess = lastAccess;
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package org.springframework.content.fs.io;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Fans files out into nested directories named after the leading characters of the
+ * hex MD5 hash of their location, so that no one directory grows too large.
+ * <p>
+ * For example, with a depth of 2 and a width of 2, location {@code 12345} is laid out as
+ * {@code 82/7c/12345}.  Each level holds up to 16<sup>width</sup> directories.
+ */
+public class ShardedFileSystemLayout implements FileSystemLayout {
+
+	private final int depth;
+	private final int width;
+
+	public ShardedFileSystemLayout() {
+		this(2, 2);
+	}
+
+	/**
+	 * @param depth
+	 * 					the number of nested directories
+	 * @param width
+	 * 					the number of hex characters naming each directory
+	 */
+	public ShardedFileSystemLayout(int depth, int width) {
+		Assert.isTrue(depth > 0 && width > 0, "depth and width must be positive");
+		Assert.isTrue(depth * width <= 32, "depth * width must not exceed the 32 characters of an MD5 hash");
+		this.depth = depth;
+		this.width = width;
+	}
+
+	public int getDepth() {
+		return depth;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public String getPath(String location) {
+		String hash = DigestUtils.md5DigestAsHex(location.getBytes(StandardCharsets.UTF_8));
+		StringBuilder path = new StringBuilder(depth * (width + 1) + location.length());
+		for (int i = 0; i < depth; i++) {
+			path.append(hash, i * width, (i + 1) * width).append('/');
+		}
+		return path.append(location).toString();
+	}
+
+	@Override
+	public String getLocation(String path) {
+		int start = 0;
+		for (int i = 0; i < depth; i++) {
+			start = path.indexOf('/', start) + 1;
+			Assert.isTrue(start > 0, String.format("%s is not a sharded path", path));
+		}
+		return path.substring(start);
+	}
+}
@@ -11,6 +11,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.content.commons.annotations.Content;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.ReactiveContentStore;
 import org.springframework.content.fs.config.EnableFilesystemContentRepositories;
 import org.springframework.content.fs.config.EnableFilesystemStores;
 import org.springframework.content.fs.config.FilesystemStoreConfigurer;
@@ -64,6 +65,9 @@ public class EnableFilesystemStoresTest {
 				It("should have a ContentRepository bean", () -> {
 					assertThat(context.getBean(TestEntityContentRepository.class), is(not(nullValue())));
 				});
+				It("should have a ReactiveContentStore bean", () -> {
+					assertThat(context.getBean(TestEntityReactiveStore.class), is(not(nullValue())));
+				});
 				It("should have a filesystem conversion service bean", () -> {
 					assertThat(context.getBean("filesystemStoreConverter"), is(not(nullValue())));
 				});
@@ -202,6 +206,9 @@ public class EnableFilesystemStoresTest {
 		private String contentId;
 	}
 
+	public interface TestEntityReactiveStore extends ReactiveContentStore<TestEntity, String> {
+	}
+
 	public interface TestEntityContentRepository extends ContentStore<TestEntity, String> {
 	}
 }
@@ -0,0 +1,102 @@
+package internal.org.springframework.content.fs.io;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.runner.RunWith;
+import org.springframework.content.fs.io.FsyncPolicy;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class DurableFileOutputStreamTest {
+
+	private File dir;
+	private File file;
+	private DurableFileOutputStream out;
+
+	{
+		Describe("DurableFileOutputStream", () -> {
+			BeforeEach(() -> {
+				dir = Files.createTempDirectory("durable").toFile();
+				file = new File(dir, "content.txt");
+				FileUtils.writeStringToFile(file, "Existing content");
+			});
+			AfterEach(() -> {
+				FileUtils.deleteDirectory(dir);
+			});
+			Context("given an atomic write", () -> {
+				BeforeEach(() -> {
+					out = new DurableFileOutputStream(file, true, FsyncPolicy.FILE_AND_DIRECTORY);
+					out.write("New content".getBytes());
+				});
+				It("should not change the file until the stream is closed", () -> {
+					assertThat(FileUtils.readFileToString(file), is("Existing content"));
+					assertThat(dir.list().length, is(2));
+
+					out.close();
+
+					assertThat(FileUtils.readFileToString(file), is("New content"));
+					assertThat(dir.list().length, is(1));
+				});
+				It("should discard the write when aborted", () -> {
+					out.abort();
+
+					assertThat(FileUtils.readFileToString(file), is("Existing content"));
+					assertThat(dir.list().length, is(1));
+				});
+				It("should keep the permissions of the file it replaces", () -> {
+					out.abort();
+					Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-rw----");
+					Files.setPosixFilePermissions(file.toPath(), permissions);
+					DurableFileOutputStream other = new DurableFileOutputStream(file, true, FsyncPolicy.NONE);
+					other.close();
+
+					assertThat(Files.getPosixFilePermissions(file.toPath()), is(permissions));
+				});
+				It("should create a new file with the default permissions", () -> {
+					File created = new File(dir, "new.txt");
+					DurableFileOutputStream other = new DurableFileOutputStream(created, true, FsyncPolicy.NONE);
+					other.close();
+
+					File expected = Files.createFile(new File(dir, "expected.txt").toPath()).toFile();
+					assertThat(Files.getPosixFilePermissions(created.toPath()), is(Files.getPosixFilePermissions(expected.toPath())));
+				});
+				It("should resolve concurrent writes to the last one closed", () -> {
+					DurableFileOutputStream other = new DurableFileOutputStream(file, true, FsyncPolicy.NONE);
+					other.write("Other content".getBytes());
+
+					out.close();
+					other.close();
+
+					assertThat(FileUtils.readFileToString(file), is("Other content"));
+					assertThat(dir.list().length, is(1));
+				});
+			});
+			Context("given a direct write", () -> {
+				It("should write the file in place", () -> {
+					out = new DurableFileOutputStream(file, false, FsyncPolicy.FILE);
+					out.write("New".getBytes());
+					out.close();
+
+					assertThat(FileUtils.readFileToString(file), is("New"));
+					assertThat(dir.list().length, is(1));
+				});
+			});
+		});
+	}
+}
@@ -0,0 +1,204 @@
+package internal.org.springframework.content.fs.io;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.annotations.MimeType;
+import org.springframework.content.commons.utils.FileServiceImpl;
+import org.springframework.content.fs.io.FileSystemResourceLoader;
+import org.springframework.core.convert.support.DefaultConversionService;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+import internal.org.springframework.content.fs.repository.DefaultFilesystemStoreImpl;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class FramedCompressionTest {
+
+	private File dir;
+	private File file;
+	private byte[] content;
+	private DefaultFilesystemStoreImpl<TestEntity, String> store;
+	private TestEntity entity;
+	private Exception error;
+
+	private static final int MAX_FRAME_SIZE = 1024 * 1024;
+
+	{
+		Describe("FramedCompression", () -> {
+			BeforeEach(() -> {
+				dir = Files.createTempDirectory("compressed").toFile();
+				file = new File(dir, "content");
+				content = new byte[10000];
+				for (int i = 0; i < content.length; i++) {
+					content[i] = (byte) ('a' + (i / 7) % 26);
+				}
+			});
+			AfterEach(() -> {
+				FileUtils.deleteDirectory(dir);
+			});
+			Context("given compressed content", () -> {
+				BeforeEach(() -> {
+					try (FramedCompressionOutputStream out = new FramedCompressionOutputStream(new FileOutputStream(file), 1024, 6)) {
+						IOUtils.copy(new ByteArrayInputStream(content), out);
+					}
+				});
+				It("should be smaller than the content", () -> {
+					assertThat(file.length() < content.length, is(true));
+				});
+				It("should report the uncompressed length", () -> {
+					assertThat(FramedCompression.length(file, MAX_FRAME_SIZE), is(10000L));
+				});
+				It("should read the whole content", () -> {
+					try (InputStream in = FramedCompression.open(file, 0, Long.MAX_VALUE, MAX_FRAME_SIZE)) {
+						assertThat(IOUtils.toByteArray(in), is(content));
+					}
+				});
+				It("should read a range spanning frames", () -> {
+					try (InputStream in = FramedCompression.open(file, 1000, 3000, MAX_FRAME_SIZE)) {
+						assertThat(IOUtils.toByteArray(in), is(Arrays.copyOfRange(content, 1000, 4000)));
+					}
+				});
+				It("should stop at the end of the content", () -> {
+					try (InputStream in = FramedCompression.open(file, 9990, 100, MAX_FRAME_SIZE)) {
+						assertThat(IOUtils.toByteArray(in), is(Arrays.copyOfRange(content, 9990, 10000)));
+					}
+				});
+			});
+			Context("given uncompressed content", () -> {
+				It("should reject it", () -> {
+					FileUtils.writeByteArrayToFile(file, content);
+					error = null;
+					try {
+						FramedCompression.open(file, 0, 10, MAX_FRAME_SIZE);
+					} catch (IOException e) {
+						error = e;
+					}
+					assertThat(error, is(instanceOf(IOException.class)));
+				});
+			});
+			Context("given compressed content with frames larger than the maximum", () -> {
+				It("should reject it without allocating the frame", () -> {
+					try (FramedCompressionOutputStream out = new FramedCompressionOutputStream(new FileOutputStream(file), 4096, 6)) {
+						IOUtils.copy(new ByteArrayInputStream(content), out);
+					}
+					error = null;
+					try {
+						FramedCompression.open(file, 0, 10, 1024);
+					} catch (IOException e) {
+						error = e;
+					}
+					assertThat(error, is(instanceOf(IOException.class)));
+				});
+			});
+			Context("given compressed content whose index points past it", () -> {
+				It("should reject the frame", () -> {
+					try (FramedCompressionOutputStream out = new FramedCompressionOutputStream(new FileOutputStream(file), 1024, 6)) {
+						IOUtils.copy(new ByteArrayInputStream(content), out);
+					}
+					try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+						long indexOffset = file.length() - FramedCompression.FOOTER_SIZE - 10 * 8;
+						raf.seek(indexOffset + 8);
+						raf.writeLong(Long.MAX_VALUE);
+					}
+					error = null;
+					try (InputStream in = FramedCompression.open(file, 0, Long.MAX_VALUE, MAX_FRAME_SIZE)) {
+						IOUtils.toByteArray(in);
+					} catch (IOException e) {
+						error = e;
+					}
+					assertThat(error, is(instanceOf(IOException.class)));
+				});
+			});
+		});
+
+		Describe("DefaultFilesystemStoreImpl given a compression policy", () -> {
+			BeforeEach(() -> {
+				dir = Files.createTempDirectory("compressed").toFile();
+				store = new DefaultFilesystemStoreImpl<>(new FileSystemResourceLoader(dir.getPath()), new DefaultConversionService(), new FileServiceImpl());
+				store.setCompressionPolicy(new CompressionPolicy(new String[] {"text/*"}, 8, 6));
+				entity = new TestEntity();
+			});
+			AfterEach(() -> {
+				FileUtils.deleteDirectory(dir);
+			});
+			Context("when content of a matching mime type is set", () -> {
+				BeforeEach(() -> {
+					entity.mimeType = "text/plain";
+					store.setContent(entity, new ByteArrayInputStream("Hello compressed content world!".getBytes()));
+				});
+				It("should compress it at a name of its own", () -> {
+					File stored = new File(dir, entity.contentId + FramedCompression.SUFFIX);
+					assertThat(FramedCompression.length(stored, MAX_FRAME_SIZE), is(31L));
+					assertThat(new File(dir, entity.contentId).exists(), is(false));
+					assertThat(entity.contentLength, is(31L));
+				});
+				It("should read it uncompressed", () -> {
+					assertThat(IOUtils.toString(store.getContent(entity)), is("Hello compressed content world!"));
+					assertThat(IOUtils.toString(store.getContent(entity, 6, 10)), is("compressed"));
+					assertThat(IOUtils.toString(store.getResource(entity.contentId).getInputStream()), is("Hello compressed content world!"));
+					assertThat(store.getResource(entity.contentId).contentLength(), is(31L));
+				});
+				It("should replace it with content of another mime type", () -> {
+					entity.mimeType = "image/png";
+					store.setContent(entity, new ByteArrayInputStream("Not compressed".getBytes()));
+
+					assertThat(new File(dir, entity.contentId + FramedCompression.SUFFIX).exists(), is(false));
+					assertThat(IOUtils.toString(store.getContent(entity)), is("Not compressed"));
+				});
+				It("should delete it when unset", () -> {
+					String contentId = entity.contentId;
+					store.unsetContent(entity);
+					assertThat(new File(dir, contentId + FramedCompression.SUFFIX).exists(), is(false));
+				});
+			});
+			Context("when content of another mime type is set", () -> {
+				It("should store it as is", () -> {
+					entity.mimeType = "image/png";
+					store.setContent(entity, new ByteArrayInputStream("Not compressed".getBytes()));
+
+					assertThat(FileUtils.readFileToString(new File(dir, entity.contentId)), is("Not compressed"));
+					assertThat(IOUtils.toString(store.getContent(entity)), is("Not compressed"));
+				});
+				It("should read it as is even if it ends like compressed content", () -> {
+					entity.mimeType = "image/png";
+					byte[] bytes = new byte[64];
+					ByteBuffer.wrap(bytes).putInt(0, FramedCompression.MAGIC).putInt(60, FramedCompression.MAGIC);
+					store.setContent(entity, new ByteArrayInputStream(bytes));
+
+					assertThat(IOUtils.toByteArray(store.getContent(entity)), is(bytes));
+					assertThat(entity.contentLength, is(64L));
+				});
+			});
+		});
+	}
+
+	public static class TestEntity {
+		@ContentId public String contentId;
+		@ContentLength public long contentLength;
+		@MimeType public String mimeType;
+	}
+}
@@ -1,9 +1,14 @@
 package internal.org.springframework.content.fs.repository;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.junit.runner.RunWith;
 import org.mockito.InOrder;
@@ -207,8 +212,62 @@ public class DefaultFilesystemStoresImplTest {
         					verify(output, times(1)).write(Matchers.<byte[]>any(), eq(0), eq(20));
         				});
         			});
+
+        			Context("when the directory was deleted after it was made", () -> {
+        				BeforeEach(() -> {
+        					File resourceFile = mock(File.class);
+        					parent = mock(File.class);
+
+        					when(writeableResource.getFile()).thenReturn(resourceFile);
+        					when(resourceFile.getParentFile()).thenReturn(parent);
+        					when(writeableResource.getOutputStream()).thenThrow(new FileNotFoundException("no such directory")).thenReturn(output);
+        				});
+
+        				It("should make the directory again and write once more", () -> {
+        					InOrder inOrder = Mockito.inOrder(fileService);
+        					inOrder.verify(fileService).mkdirs(eq(parent));
+        					inOrder.verify(fileService).forget(eq(parent));
+        					inOrder.verify(fileService).mkdirs(eq(parent));
+        					verify(writeableResource, times(2)).getOutputStream();
+        					verify(output, times(1)).write(Matchers.<byte[]>any(), eq(0), eq(20));
+        				});
+        			});
         		});
         		
+        		Context("when several contents are set at once", () -> {
+        			It("should write each on the store's writer pool", () -> {
+        				TestEntity other = new TestEntity();
+        				entity = new TestEntity();
+        				entity.setContentId("one");
+        				other.setContentId("two");
+        				when(conversion.convert(anyObject(), eq(String.class))).thenAnswer(invocation -> invocation.getArguments()[0].toString());
+
+        				Map<String, ByteArrayOutputStream> written = new ConcurrentHashMap<>();
+        				Map<String, String> writers = new ConcurrentHashMap<>();
+        				for (String location : new String[] {"one", "two"}) {
+        					WritableResource resource = mock(WritableResource.class);
+        					when(resource.exists()).thenReturn(true);
+        					when(resource.getOutputStream()).thenAnswer(invocation -> {
+        						writers.put(location, Thread.currentThread().getName());
+        						ByteArrayOutputStream out = new ByteArrayOutputStream();
+        						written.put(location, out);
+        						return out;
+        					});
+        					when(loader.getResource(eq(location))).thenReturn(resource);
+        				}
+
+        				Map<TestEntity, InputStream> contents = new LinkedHashMap<>();
+        				contents.put(entity, new ByteArrayInputStream("first".getBytes()));
+        				contents.put(other, new ByteArrayInputStream("second".getBytes()));
+        				filesystemContentRepoImpl.setContents(contents);
+
+        				assertThat(written.get("one").toString(), is("first"));
+        				assertThat(written.get("two").toString(), is("second"));
+        				assertThat(writers.get("one").startsWith("filesystem-store-writer-"), is(true));
+        				assertThat(writers.get("two").startsWith("filesystem-store-writer-"), is(true));
+        			});
+        		});
+
         		Context("#getContent", () -> {
         			BeforeEach(() -> {
         				entity = new TestEntity();
@@ -0,0 +1,167 @@
+package internal.org.springframework.content.fs.repository;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.runner.RunWith;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.utils.FileServiceImpl;
+import org.springframework.content.fs.io.FileSystemResourceLoader;
+import org.springframework.content.fs.io.MappedFileCache;
+import org.springframework.core.convert.support.DefaultConversionService;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+import internal.org.springframework.content.commons.io.InputStreamPublisher;
+import internal.org.springframework.content.commons.io.PublisherInputStream;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class DefaultReactiveFilesystemStoreImplTest {
+
+    private FileSystemResourceLoader loader;
+    private DefaultReactiveFilesystemStoreImpl<TestEntity, String> store;
+    private File root;
+    private TestEntity entity;
+    private byte[] content;
+
+    {
+        Describe("DefaultReactiveFilesystemStoreImpl", () -> {
+            BeforeEach(() -> {
+                root = Files.createTempDirectory("reactive").toFile();
+                loader = new FileSystemResourceLoader(root.getAbsolutePath() + "/");
+                store = new DefaultReactiveFilesystemStoreImpl<>(loader, new DefaultConversionService(), new FileServiceImpl());
+                entity = new TestEntity();
+                content = new byte[200 * 1024];
+                new Random().nextBytes(content);
+            });
+            Context("#setContent", () -> {
+                BeforeEach(() -> {
+                    store.setContent(entity, publisher(content)).get(10, TimeUnit.SECONDS);
+                });
+                It("should write the content and set the content id and length", () -> {
+                    assertThat(entity.getContentId(), is(not(nullValue())));
+                    assertThat(entity.getContentLen(), is((long) content.length));
+                    assertThat(Files.readAllBytes(new File(root, entity.getContentId()).toPath()), is(content));
+                    assertThat(root.list().length, is(1));
+                });
+                Context("when the content is replaced by a write that fails", () -> {
+                    It("should leave the previous content untouched", () -> {
+                        try {
+                            store.setContent(entity, failing(new IOException("badness"))).get(10, TimeUnit.SECONDS);
+                            fail("expected the write to fail");
+                        } catch (ExecutionException e) {
+                            assertThat(e.getCause().getMessage(), is("badness"));
+                        }
+                        assertThat(Files.readAllBytes(new File(root, entity.getContentId()).toPath()), is(content));
+                        assertThat(root.list().length, is(1));
+                    });
+                });
+                Context("when the content is mapped", () -> {
+                    It("should invalidate the mapping once the content is replaced", () -> {
+                        MappedFileCache mappedFiles = new MappedFileCache(1024 * 1024, 1024 * 1024, 60 * 1000);
+                        loader.setMappedFileCache(mappedFiles);
+                        File file = new File(root, entity.getContentId());
+                        mappedFiles.get(file);
+                        assertThat(mappedFiles.getSize(), is((long) content.length));
+
+                        byte[] replacement = "replacement".getBytes();
+                        store.setContent(entity, publisher(replacement)).get(10, TimeUnit.SECONDS);
+                        assertThat(mappedFiles.getSize(), is(0L));
+                        assertThat(Files.readAllBytes(file.toPath()), is(replacement));
+                    });
+                });
+                Context("#getContent", () -> {
+                    It("should stream the content back", () -> {
+                        try (InputStream in = new PublisherInputStream(store.getContent(entity))) {
+                            assertThat(IOUtils.toByteArray(in), is(content));
+                        }
+                    });
+                });
+                Context("#unsetContent", () -> {
+                    BeforeEach(() -> {
+                        store.unsetContent(entity).get(10, TimeUnit.SECONDS);
+                    });
+                    It("should delete the content and reset the content id and length", () -> {
+                        assertThat(root.list().length, is(0));
+                        assertThat(entity.getContentId(), is(nullValue()));
+                        assertThat(entity.getContentLen(), is(0L));
+                    });
+                });
+            });
+            Context("#getContent given an entity with no content", () -> {
+                It("should complete without content", () -> {
+                    try (InputStream in = new PublisherInputStream(store.getContent(entity))) {
+                        assertThat(in.read(), is(-1));
+                    }
+                });
+            });
+        });
+    }
+
+    private static Publisher<ByteBuffer> publisher(byte[] content) {
+        return new InputStreamPublisher(() -> new ByteArrayInputStream(content), Executors.newSingleThreadExecutor(), 8192);
+    }
+
+    private static Publisher<ByteBuffer> failing(Throwable t) {
+        return subscriber -> {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(t);
+        };
+    }
+
+    public static class TestEntity {
+        @ContentId
+        private String contentId;
+
+        @ContentLength
+        private long contentLen;
+
+        public String getContentId() {
+            return this.contentId;
+        }
+
+        public void setContentId(String contentId) {
+            this.contentId = contentId;
+        }
+
+        public long getContentLen() {
+            return contentLen;
+        }
+
+        public void setContentLen(long contentLen) {
+            this.contentLen = contentLen;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.springframework.content.fs.io;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.InputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.runner.RunWith;
+import org.springframework.core.io.FileSystemResource;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class FileSystemDeletableResourceTest {
+
+	private File file;
+	private FileSystemDeletableResource resource;
+
+	{
+		Describe("FileSystemDeletableResource", () -> {
+			BeforeEach(() -> {
+				file = File.createTempFile("range", ".txt");
+				FileUtils.writeStringToFile(file, "Hello content world!");
+				resource = new FileSystemDeletableResource(new FileSystemResource(file));
+			});
+			AfterEach(() -> {
+				file.delete();
+			});
+			Context("#getInputStream with a range", () -> {
+				It("should read only the requested range", () -> {
+					try (InputStream in = resource.getInputStream(6, 7)) {
+						assertThat(IOUtils.toString(in), is("content"));
+					}
+				});
+				It("should stop at the end of the file", () -> {
+					try (InputStream in = resource.getInputStream(14, 100)) {
+						assertThat(IOUtils.toString(in), is("world!"));
+					}
+				});
+				It("should return no content for an offset past the end of the file", () -> {
+					try (InputStream in = resource.getInputStream(100, 10)) {
+						assertThat(in.read(), is(-1));
+					}
+				});
+			});
+		});
+	}
+}
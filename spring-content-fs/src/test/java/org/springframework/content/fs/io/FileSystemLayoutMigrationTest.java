@@ -0,0 +1,85 @@
+package org.springframework.content.fs.io;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.runner.RunWith;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class FileSystemLayoutMigrationTest {
+
+	private File root;
+	private ShardedFileSystemLayout sharded;
+
+	{
+		Describe("ShardedFileSystemLayout", () -> {
+			BeforeEach(() -> {
+				sharded = new ShardedFileSystemLayout(2, 2);
+			});
+			It("should prefix locations with directories named after their hash", () -> {
+				assertThat(sharded.getPath("12345"), is("82/7c/12345"));
+			});
+			It("should recover locations from their paths", () -> {
+				assertThat(sharded.getLocation("82/7c/12345"), is("12345"));
+				assertThat(sharded.getLocation(sharded.getPath("a/b/c.txt")), is("a/b/c.txt"));
+			});
+		});
+
+		Describe("FileSystemLayoutMigration", () -> {
+			BeforeEach(() -> {
+				root = Files.createTempDirectory("migration").toFile();
+				sharded = new ShardedFileSystemLayout(2, 2);
+				for (int i = 0; i < 100; i++) {
+					FileUtils.writeStringToFile(new File(root, "content-" + i), "content " + i);
+				}
+				FileUtils.writeStringToFile(new File(root, "a/b/nested.txt"), "nested");
+			});
+			AfterEach(() -> {
+				FileUtils.deleteDirectory(root);
+			});
+			Context("given a flat root", () -> {
+				It("should move every file to its sharded path", () -> {
+					long moved = new FileSystemLayoutMigration(root, FileSystemLayout.FLAT, sharded, 4).migrate();
+
+					assertThat(moved, is(101L));
+					for (int i = 0; i < 100; i++) {
+						assertThat(new File(root, "content-" + i).exists(), is(false));
+						assertThat(FileUtils.readFileToString(new File(root, sharded.getPath("content-" + i))), is("content " + i));
+					}
+					assertThat(FileUtils.readFileToString(new File(root, sharded.getPath("a/b/nested.txt"))), is("nested"));
+				});
+				It("should leave files already sharded in place when run again", () -> {
+					new FileSystemLayoutMigration(root, FileSystemLayout.FLAT, sharded).migrate();
+
+					assertThat(new FileSystemLayoutMigration(root, FileSystemLayout.FLAT, sharded).migrate(), is(0L));
+					assertThat(FileUtils.readFileToString(new File(root, sharded.getPath("content-0"))), is("content 0"));
+				});
+			});
+			Context("given a sharded root", () -> {
+				It("should move every file back to the root", () -> {
+					new FileSystemLayoutMigration(root, FileSystemLayout.FLAT, sharded).migrate();
+
+					long moved = new FileSystemLayoutMigration(root, sharded, FileSystemLayout.FLAT).migrate();
+
+					assertThat(moved, is(101L));
+					assertThat(FileUtils.readFileToString(new File(root, "content-0")), is("content 0"));
+					assertThat(FileUtils.readFileToString(new File(root, "a/b/nested.txt")), is("nested"));
+					assertThat(new FileSystemLayoutMigration(root, sharded, FileSystemLayout.FLAT).migrate(), is(0L));
+				});
+			});
+		});
+	}
+}
@@ -69,6 +69,14 @@ public class FileSystemResourceLoaderTest {
                     });
                 });
 			});
+			Context("#setLayout", () -> {
+				It("should lay locations out beneath the root", () -> {
+					loader = new FileSystemResourceLoader("/some/path/");
+					loader.setLayout(new ShardedFileSystemLayout(2, 2));
+					assertThat(loader.getResource("/12345").getFile().getPath(), is("/some/path/82/7c/12345"));
+					assertThat(loader.getResource("12345").getFile().getPath(), is("/some/path/82/7c/12345"));
+				});
+			});
 		});
 
 		Describe("DeletableResource", () -> {
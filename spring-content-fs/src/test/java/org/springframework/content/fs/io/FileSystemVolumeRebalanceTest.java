@@ -0,0 +1,125 @@
+package org.springframework.content.fs.io;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.runner.RunWith;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.WritableResource;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class FileSystemVolumeRebalanceTest {
+
+	private static final int FILES = 300;
+
+	private File dir;
+	private File disk1, disk2, disk3;
+	private FileSystemResourceLoader loader;
+
+	{
+		Describe("FileSystemResourceLoader with several roots", () -> {
+			BeforeEach(() -> {
+				dir = Files.createTempDirectory("volumes").toFile();
+				disk1 = new File(dir, "disk1");
+				disk2 = new File(dir, "disk2");
+				disk3 = new File(dir, "disk3");
+				disk1.mkdirs();
+				disk2.mkdirs();
+				disk3.mkdirs();
+
+				loader = new FileSystemResourceLoader(Arrays.asList(disk1.getPath(), disk2.getPath()));
+				for (int i = 0; i < FILES; i++) {
+					try (OutputStream out = ((WritableResource) loader.getResource("content-" + i)).getOutputStream()) {
+						out.write(("content " + i).getBytes());
+					}
+				}
+			});
+			AfterEach(() -> {
+				FileUtils.deleteDirectory(dir);
+			});
+			It("should spread content over the roots", () -> {
+				assertThat(disk1.list().length > FILES / 4, is(true));
+				assertThat(disk2.list().length > FILES / 4, is(true));
+				assertThat(disk1.list().length + disk2.list().length, is(FILES));
+			});
+			It("should find content on its root", () -> {
+				for (int i = 0; i < FILES; i++) {
+					Resource resource = loader.getResource("content-" + i);
+					assertThat(new File(loader.getPreferredRoot("content-" + i), "content-" + i).exists(), is(true));
+					try (InputStream in = resource.getInputStream()) {
+						assertThat(IOUtils.toString(in), is("content " + i));
+					}
+				}
+			});
+			Context("given weighted roots", () -> {
+				It("should spread content over the roots in proportion to their weights", () -> {
+					File heavy = new File(dir, "heavy");
+					File light = new File(dir, "light");
+					loader = new FileSystemResourceLoader(Arrays.asList(heavy.getPath(), light.getPath()), Arrays.asList(3L, 1L));
+					for (int i = 0; i < FILES; i++) {
+						try (OutputStream out = ((WritableResource) loader.getResource("content-" + i)).getOutputStream()) {
+							out.write(("content " + i).getBytes());
+						}
+					}
+					assertThat(heavy.list().length > 2 * light.list().length, is(true));
+					assertThat(heavy.list().length + light.list().length, is(FILES));
+				});
+			});
+			Context("given no roots", () -> {
+				It("should be rejected", () -> {
+					try {
+						new FileSystemResourceLoader(Collections.<String>emptyList());
+						fail("expected no roots to be rejected");
+					} catch (IllegalArgumentException e) {
+						assertThat(e.getMessage(), is("roots must not be empty"));
+					}
+				});
+			});
+			Context("given a root is added", () -> {
+				BeforeEach(() -> {
+					loader = new FileSystemResourceLoader(Arrays.asList(disk1.getPath(), disk2.getPath(), disk3.getPath()));
+				});
+				It("should still find all content before rebalancing", () -> {
+					for (int i = 0; i < FILES; i++) {
+						try (InputStream in = loader.getResource("content-" + i).getInputStream()) {
+							assertThat(IOUtils.toString(in), is("content " + i));
+						}
+					}
+				});
+				It("should move only the content the new root takes over", () -> {
+					long moved = new FileSystemVolumeRebalance(loader, 4).rebalance();
+
+					assertThat(moved, is((long) disk3.list().length));
+					assertThat(moved > FILES / 6 && moved < FILES / 2, is(true));
+					assertThat(disk1.list().length + disk2.list().length + disk3.list().length, is(FILES));
+					for (int i = 0; i < FILES; i++) {
+						assertThat(new File(loader.getPreferredRoot("content-" + i), "content-" + i).exists(), is(true));
+						try (InputStream in = loader.getResource("content-" + i).getInputStream()) {
+							assertThat(IOUtils.toString(in), is("content " + i));
+						}
+					}
+					assertThat(new FileSystemVolumeRebalance(loader).rebalance(), is(0L));
+				});
+			});
+		});
+	}
+}
@@ -0,0 +1,123 @@
+package org.springframework.content.fs.io;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.runner.RunWith;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class MappedFileCacheTest {
+
+	private File dir;
+	private File file;
+	private MappedFileCache cache;
+	private FileSystemResourceLoader loader;
+
+	{
+		Describe("MappedFileCache", () -> {
+			BeforeEach(() -> {
+				dir = Files.createTempDirectory("mapped").toFile();
+				file = new File(dir, "content.txt");
+				FileUtils.writeStringToFile(file, "Hello content world!");
+				cache = new MappedFileCache(32, 20, 60 * 1000);
+			});
+			AfterEach(() -> {
+				FileUtils.deleteDirectory(dir);
+			});
+			Context("#get", () -> {
+				It("should map the file once", () -> {
+					assertThat(toString(cache.get(file)), is("Hello content world!"));
+					assertThat(cache.getSize(), is(20L));
+
+					assertThat(toString(cache.get(file)), is("Hello content world!"));
+					assertThat(cache.getSize(), is(20L));
+				});
+				It("should not map files larger than the maximum file size", () -> {
+					FileUtils.writeStringToFile(file, "Hello larger content world!");
+					assertThat(cache.get(file), is(nullValue()));
+					assertThat(cache.getSize(), is(0L));
+				});
+				It("should release the least recently used mapping when full", () -> {
+					File other = new File(dir, "other.txt");
+					FileUtils.writeStringToFile(other, "Other content");
+					cache.get(file);
+					cache.get(other);
+
+					assertThat(cache.getSize(), is(13L));
+				});
+			});
+			Context("given mappings that have been idle", () -> {
+				It("should release them", () -> {
+					cache = new MappedFileCache(32, 20, 1);
+					cache.get(file);
+					Thread.sleep(10);
+					cache.get(new File(dir, "content.txt"));
+
+					assertThat(cache.getSize(), is(20L));
+					FileUtils.writeStringToFile(file, "Replaced");
+					Thread.sleep(10);
+					assertThat(toString(cache.get(file)), is("Replaced"));
+				});
+			});
+			Context("given a loader with a mapped file cache", () -> {
+				BeforeEach(() -> {
+					loader = new FileSystemResourceLoader(dir.getPath());
+					loader.setMappedFileCache(cache);
+				});
+				It("should read content through the cache", () -> {
+					try (InputStream in = loader.getResource("content.txt").getInputStream()) {
+						assertThat(IOUtils.toString(in), is("Hello content world!"));
+					}
+					assertThat(cache.getSize(), is(20L));
+
+					try (InputStream in = ((FileSystemDeletableResource)loader.getResource("content.txt")).getInputStream(6, 7)) {
+						assertThat(IOUtils.toString(in), is("content"));
+					}
+				});
+				It("should invalidate the mapping when the content is replaced", () -> {
+					loader.getResource("content.txt").getInputStream().close();
+
+					FileSystemDeletableResource resource = (FileSystemDeletableResource)loader.getResource("content.txt");
+					try (OutputStream out = resource.getOutputStream()) {
+						out.write("New content".getBytes());
+					}
+					assertThat(cache.getSize(), is(0L));
+
+					try (InputStream in = loader.getResource("content.txt").getInputStream()) {
+						assertThat(IOUtils.toString(in), is("New content"));
+					}
+				});
+				It("should invalidate the mapping when the content is deleted", () -> {
+					loader.getResource("content.txt").getInputStream().close();
+
+					((FileSystemDeletableResource)loader.getResource("content.txt")).delete();
+
+					assertThat(cache.getSize(), is(0L));
+				});
+			});
+		});
+	}
+
+	private static String toString(ByteBuffer buffer) {
+		return StandardCharsets.UTF_8.decode(buffer).toString();
+	}
+}
@@ -5,10 +5,18 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Blob;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.sql.DataSource;
 
@@ -19,7 +27,7 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.annotations.ContentLength;
-import org.springframework.content.commons.utils.BeanUtils;
+import org.springframework.content.commons.utils.ContentPropertyMetadata;
 
 import internal.org.springframework.content.jpa.utils.InputStreamEx;
 import org.springframework.dao.DataAccessException;
@@ -27,15 +35,22 @@ import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCallback;
 import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.util.StringUtils;
 
 public class JpaContentTemplate implements InitializingBean {
 
 	private static Log logger = LogFactory.getLog(JpaContentTemplate.class);
+
+	// bounds IN lists, which some databases limit to 1000 entries
+	private static final int BATCH_SIZE = 500;
 	
 	private DataSource datasource;
 
     private JdbcTemplate template;
 
+    // whether the driver returns a generated key for each row of a batch; null until known
+    private volatile Boolean batchKeys;
+
     @Autowired
     public JpaContentTemplate(DataSource datasource) {
         this.datasource = datasource;
@@ -85,7 +100,8 @@ public class JpaContentTemplate implements InitializingBean {
 	}
 
 	public <T> void setContent(T metadata, InputStream content) {
-		if (BeanUtils.getFieldWithAnnotation(metadata, ContentId.class) == null) {
+		ContentPropertyMetadata contentProperties = ContentPropertyMetadata.forClass(metadata.getClass());
+		if (contentProperties.getValue(metadata, ContentId.class) == null) {
 			String sql = "INSERT INTO BLOBS VALUES(NULL, ?);";
             this.template.execute(new PreparedStatementCreator() {
                 @Override
@@ -105,8 +121,8 @@ public class JpaContentTemplate implements InitializingBean {
                         set = ps.getGeneratedKeys();
                         set.next();
                         id = set.getInt("ID");
-                        BeanUtils.setFieldWithAnnotation(metadata, ContentId.class, id);
-                        BeanUtils.setFieldWithAnnotation(metadata, ContentLength.class, in.getLength());
+                        contentProperties.setValue(metadata, ContentId.class, id);
+                        contentProperties.setValue(metadata, ContentLength.class, in.getLength());
                         return rc;
                     } catch (SQLException sqle) {
                         logger.error("Error inserting content", sqle);
@@ -123,7 +139,7 @@ public class JpaContentTemplate implements InitializingBean {
                 }
             });
 		} else {
-			String sql = "UPDATE BLOBS SET blob=? WHERE id=" + BeanUtils.getFieldWithAnnotation(metadata, ContentId.class);
+			String sql = "UPDATE BLOBS SET blob=? WHERE id=" + contentProperties.getValue(metadata, ContentId.class);
             this.template.execute(sql, new PreparedStatementCallback<Object>() {
                 @Override
                 public Object doInPreparedStatement(PreparedStatement ps) throws SQLException, DataAccessException {
@@ -132,9 +148,9 @@ public class JpaContentTemplate implements InitializingBean {
                         InputStreamEx in = new InputStreamEx(content);
                         ps.setBinaryStream(1, in);
                         rc = ps.executeUpdate();
-                        BeanUtils.setFieldWithAnnotation(metadata, ContentLength.class, in.getLength());
+                        contentProperties.setValue(metadata, ContentLength.class, in.getLength());
                     } catch (SQLException sqle) {
-                        logger.error(String.format("Error updating content %s", BeanUtils.getFieldWithAnnotation(metadata, ContentId.class)), sqle);
+                        logger.error(String.format("Error updating content %s", contentProperties.getValue(metadata, ContentId.class)), sqle);
                     }
                     return rc;
                 }
@@ -143,17 +159,18 @@ public class JpaContentTemplate implements InitializingBean {
     }
 
 	public <T> void unsetContent(T metadata) {
-		String sql = "DELETE FROM BLOBS WHERE id=" + BeanUtils.getFieldWithAnnotation(metadata, ContentId.class);
+		ContentPropertyMetadata contentProperties = ContentPropertyMetadata.forClass(metadata.getClass());
+		String sql = "DELETE FROM BLOBS WHERE id=" + contentProperties.getValue(metadata, ContentId.class);
         this.template.execute(sql, new PreparedStatementCallback<Integer>() {
             @Override
             public Integer doInPreparedStatement(PreparedStatement ps) throws SQLException, DataAccessException {
                 int rc = 0;
                 try {
                     rc = ps.executeUpdate();
-                    BeanUtils.setFieldWithAnnotation(metadata, ContentId.class, null);
-                    BeanUtils.setFieldWithAnnotation(metadata, ContentLength.class, 0);
+                    contentProperties.setValue(metadata, ContentId.class, null);
+                    contentProperties.setValue(metadata, ContentLength.class, 0);
                 } catch (SQLException sqle) {
-                    logger.error(String.format("Error deleting content %s", BeanUtils.getFieldWithAnnotation(metadata, ContentId.class)), sqle);
+                    logger.error(String.format("Error deleting content %s", contentProperties.getValue(metadata, ContentId.class)), sqle);
                 }
                 return rc;
             }
@@ -161,7 +178,8 @@ public class JpaContentTemplate implements InitializingBean {
 	}
 
 	public <T> InputStream getContent(T metadata) {
-		String sql = "SELECT blob FROM BLOBS WHERE id='" + BeanUtils.getFieldWithAnnotation(metadata, ContentId.class) + "'";
+		ContentPropertyMetadata contentProperties = ContentPropertyMetadata.forClass(metadata.getClass());
+		String sql = "SELECT blob FROM BLOBS WHERE id='" + contentProperties.getValue(metadata, ContentId.class) + "'";
         return this.template.execute(sql, new PreparedStatementCallback<InputStream>() {
             @Override
             public InputStream doInPreparedStatement(PreparedStatement ps) throws SQLException, DataAccessException {
@@ -181,17 +199,208 @@ public class JpaContentTemplate implements InitializingBean {
                         return null;
                     }
                 } catch (SQLException sqle) {
-                    logger.error(String.format("Error getting content %s", BeanUtils.getFieldWithAnnotation(metadata, ContentId.class)), sqle);
+                    logger.error(String.format("Error getting content %s", contentProperties.getValue(metadata, ContentId.class)), sqle);
                 } finally {
                     if (set != null)
                         try {
                             set.close();
                         } catch (SQLException sqle) {
-                            logger.error(String.format("Error closing resultset for content %s", BeanUtils.getFieldWithAnnotation(metadata, ContentId.class)), sqle);
+                            logger.error(String.format("Error closing resultset for content %s", contentProperties.getValue(metadata, ContentId.class)), sqle);
                         }
                 }
             return null;
             }
         });
 	}
+
+	/**
+	 * Inserts new, and updates existing, content with one JDBC batch each.  New content is
+	 * inserted one row at a time when the driver does not return the generated key of each
+	 * batched row.
+	 */
+	public <T> void setContents(Map<T, InputStream> contents) {
+		List<T> inserts = new ArrayList<>();
+		List<T> updates = new ArrayList<>();
+		for (T metadata : contents.keySet()) {
+			if (ContentPropertyMetadata.forClass(metadata.getClass()).getValue(metadata, ContentId.class) == null) {
+				inserts.add(metadata);
+			} else {
+				updates.add(metadata);
+			}
+		}
+
+		this.template.execute(new ConnectionCallback<Object>() {
+			@Override
+			public Object doInConnection(Connection con) throws SQLException, DataAccessException {
+				if (!inserts.isEmpty()) {
+					insertContents(con, inserts, contents);
+				}
+				if (!updates.isEmpty()) {
+					updateContents(con, updates, contents);
+				}
+				return null;
+			}
+		});
+	}
+
+	// inserts with one batch when the driver returns a generated key for every batched
+	// row, and one row at a time otherwise, as batched rows cannot otherwise be matched to
+	// their keys
+	private <T> void insertContents(Connection con, List<T> inserts, Map<T, InputStream> contents) throws SQLException {
+		if (!batchKeys(con)) {
+			for (T metadata : inserts) {
+				insertContent(con, metadata, contents.get(metadata));
+			}
+			return;
+		}
+
+		List<InputStreamEx> streams = new ArrayList<>();
+		List<Integer> ids = new ArrayList<>();
+		try (PreparedStatement ps = con.prepareStatement("INSERT INTO BLOBS VALUES(NULL, ?)", Statement.RETURN_GENERATED_KEYS)) {
+			for (T metadata : inserts) {
+				InputStreamEx in = new InputStreamEx(contents.get(metadata));
+				streams.add(in);
+				ps.setBinaryStream(1, in);
+				ps.addBatch();
+			}
+			ps.executeBatch();
+
+			try (ResultSet keys = ps.getGeneratedKeys()) {
+				while (keys.next()) {
+					ids.add(keys.getInt("ID"));
+				}
+			}
+		}
+
+		if (ids.size() != inserts.size()) {
+			// the content has been consumed, so remove what can be matched and fail; later
+			// batches are inserted one row at a time
+			batchKeys = false;
+			for (Integer id : ids) {
+				try (PreparedStatement ps = con.prepareStatement("DELETE FROM BLOBS WHERE id=?")) {
+					ps.setInt(1, id);
+					ps.executeUpdate();
+				}
+			}
+			throw new SQLException(String.format("Expected %d generated keys but found %d", inserts.size(), ids.size()));
+		}
+
+		// keys are returned in the order the rows were batched
+		for (int i = 0; i < inserts.size(); i++) {
+			ContentPropertyMetadata contentProperties = ContentPropertyMetadata.forClass(inserts.get(i).getClass());
+			contentProperties.setValue(inserts.get(i), ContentId.class, ids.get(i));
+			contentProperties.setValue(inserts.get(i), ContentLength.class, streams.get(i).getLength());
+		}
+	}
+
+	private <T> void insertContent(Connection con, T metadata, InputStream content) throws SQLException {
+		try (PreparedStatement ps = con.prepareStatement("INSERT INTO BLOBS VALUES(NULL, ?)", Statement.RETURN_GENERATED_KEYS)) {
+			InputStreamEx in = new InputStreamEx(content);
+			ps.setBinaryStream(1, in);
+			ps.executeUpdate();
+			try (ResultSet keys = ps.getGeneratedKeys()) {
+				if (!keys.next()) {
+					throw new SQLException("Expected a generated key but found none");
+				}
+				ContentPropertyMetadata contentProperties = ContentPropertyMetadata.forClass(metadata.getClass());
+				contentProperties.setValue(metadata, ContentId.class, keys.getInt("ID"));
+				contentProperties.setValue(metadata, ContentLength.class, in.getLength());
+			}
+		}
+	}
+
+	private boolean batchKeys(Connection con) throws SQLException {
+		if (batchKeys == null) {
+			DatabaseMetaData metaData = con.getMetaData();
+			batchKeys = metaData.supportsBatchUpdates() && metaData.supportsGetGeneratedKeys();
+		}
+		return batchKeys;
+	}
+
+	private <T> void updateContents(Connection con, List<T> updates, Map<T, InputStream> contents) throws SQLException {
+		List<InputStreamEx> streams = new ArrayList<>();
+		try (PreparedStatement ps = con.prepareStatement("UPDATE BLOBS SET blob=? WHERE id=?")) {
+			for (T metadata : updates) {
+				InputStreamEx in = new InputStreamEx(contents.get(metadata));
+				streams.add(in);
+				ps.setBinaryStream(1, in);
+				ps.setObject(2, ContentPropertyMetadata.forClass(metadata.getClass()).getValue(metadata, ContentId.class));
+				ps.addBatch();
+			}
+			ps.executeBatch();
+		}
+		for (int i = 0; i < updates.size(); i++) {
+			ContentPropertyMetadata.forClass(updates.get(i).getClass()).setValue(updates.get(i), ContentLength.class, streams.get(i).getLength());
+		}
+	}
+
+	/**
+	 * Deletes content in batches, with one DELETE statement per batch.
+	 */
+	public <T> void unsetContents(Collection<T> metadatas) {
+		Map<Object, List<T>> ids = contentIds(metadatas);
+		for (List<Object> batch : batches(new ArrayList<>(ids.keySet()))) {
+			this.template.update("DELETE FROM BLOBS WHERE id IN (" + placeholders(batch.size()) + ")", batch.toArray());
+		}
+		for (List<T> entities : ids.values()) {
+			for (T metadata : entities) {
+				ContentPropertyMetadata contentProperties = ContentPropertyMetadata.forClass(metadata.getClass());
+				contentProperties.setValue(metadata, ContentId.class, null);
+				contentProperties.setValue(metadata, ContentLength.class, 0);
+			}
+		}
+	}
+
+	/**
+	 * Selects content in batches, with one SELECT statement per batch.
+	 */
+	public <T> Map<T, InputStream> getContents(Collection<T> metadatas) {
+		Map<Object, List<T>> ids = contentIds(metadatas);
+		Map<String, byte[]> blobs = new HashMap<>();
+		for (List<Object> batch : batches(new ArrayList<>(ids.keySet()))) {
+			this.template.query("SELECT id, blob FROM BLOBS WHERE id IN (" + placeholders(batch.size()) + ")", batch.toArray(), rs -> {
+				Blob b = rs.getBlob("blob");
+				try {
+					// as for getContent, the binary stream does not outlive the connection
+					blobs.put(rs.getString("id"), IOUtils.toByteArray(b.getBinaryStream()));
+				} catch (IOException ioe) {
+					logger.error(String.format("Error reading content %s", rs.getString("id")), ioe);
+				}
+			});
+		}
+
+		Map<T, InputStream> contents = new LinkedHashMap<>();
+		for (T metadata : metadatas) {
+			Object id = ContentPropertyMetadata.forClass(metadata.getClass()).getValue(metadata, ContentId.class);
+			byte[] bytes = (id != null ? blobs.get(id.toString()) : null);
+			contents.put(metadata, bytes != null ? new ByteArrayInputStream(bytes) : null);
+		}
+		return contents;
+	}
+
+	private static <T> Map<Object, List<T>> contentIds(Collection<T> metadatas) {
+		Map<Object, List<T>> ids = new LinkedHashMap<>();
+		for (T metadata : metadatas) {
+			Object id = ContentPropertyMetadata.forClass(metadata.getClass()).getValue(metadata, ContentId.class);
+			if (id != null) {
+				ids.computeIfAbsent(id, k -> new ArrayList<>()).add(metadata);
+			}
+		}
+		return ids;
+	}
+
+	private static List<List<Object>> batches(List<Object> ids) {
+		if (ids.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<List<Object>> batches = new ArrayList<>();
+		for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+			batches.add(ids.subList(i, Math.min(i + BATCH_SIZE, ids.size())));
+		}
+		return batches;
+	}
+
+	private static String placeholders(int count) {
+		return StringUtils.collectionToCommaDelimitedString(Collections.nCopies(count, "?"));
+	}
 }
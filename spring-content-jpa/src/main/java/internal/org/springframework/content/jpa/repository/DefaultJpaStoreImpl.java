@@ -2,6 +2,8 @@ package internal.org.springframework.content.jpa.repository;
 
 import java.io.InputStream;
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
 
 import org.springframework.content.commons.repository.ContentStore;
 
@@ -30,4 +32,18 @@ public class DefaultJpaStoreImpl<S, SID extends Serializable> implements Content
 		return this.template.getContent(metadata);
 	}
 
+	@Override
+	public void setContents(Map<S, InputStream> contents) {
+		this.template.setContents(contents);
+	}
+
+	@Override
+	public void unsetContents(Collection<S> metadatas) {
+		this.template.unsetContents(metadatas);
+	}
+
+	@Override
+	public Map<S, InputStream> getContents(Collection<S> metadatas) {
+		return this.template.getContents(metadatas);
+	}
 }
@@ -9,12 +9,14 @@ import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.isA;
 import static org.mockito.Matchers.startsWith;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -26,6 +28,9 @@ import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.sql.DataSource;
 
@@ -33,6 +38,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
@@ -47,6 +53,8 @@ public class JpaContentTemplateTest {
 
     // actors
     private TestEntity entity;
+    private TestEntity other;
+    private Map<TestEntity, InputStream> contents;
     private InputStream stream;
 
     // mocks
@@ -181,6 +189,149 @@ public class JpaContentTemplateTest {
                 });
             });
 
+            Describe("#setContents", () -> {
+                BeforeEach(() -> {
+                    datasource = mock(DataSource.class);
+                    connection = mock(Connection.class);
+                    statement = mock(PreparedStatement.class);
+                    resultSet = mock(ResultSet.class);
+                    metadata = mock(DatabaseMetaData.class);
+                    when(datasource.getConnection()).thenReturn(connection);
+                    when(connection.getMetaData()).thenReturn(metadata);
+                    when(metadata.supportsBatchUpdates()).thenReturn(true);
+                    when(metadata.supportsGetGeneratedKeys()).thenReturn(true);
+                    template = new JpaContentTemplate(datasource);
+                    template.setTemplate(new JdbcTemplate(datasource));
+                });
+                JustBeforeEach(() -> {
+                    template.setContents(contents);
+                });
+                Context("given new content", () -> {
+                    BeforeEach(() -> {
+                        entity = new TestEntity();
+                        other = new TestEntity();
+                        contents = new LinkedHashMap<>();
+                        contents.put(entity, new ByteArrayInputStream("hello".getBytes()));
+                        contents.put(other, new ByteArrayInputStream("world".getBytes()));
+
+                        when(connection.prepareStatement(anyObject(), eq(Statement.RETURN_GENERATED_KEYS))).thenReturn(statement);
+                        when(statement.getGeneratedKeys()).thenReturn(resultSet);
+                        when(resultSet.next()).thenReturn(true, true, false);
+                        when(resultSet.getInt(eq("ID"))).thenReturn(1, 2);
+                    });
+                    It("inserts all content with a single batch", () -> {
+                        verify(connection).prepareStatement(startsWith("INSERT INTO BLOBS"), eq(Statement.RETURN_GENERATED_KEYS));
+                        verify(statement, times(2)).addBatch();
+                        verify(statement).executeBatch();
+                        verify(statement, never()).executeUpdate();
+                    });
+                    It("should set the generated content ids in order", () -> {
+                        assertThat(entity.getContentId(), is(1));
+                        assertThat(other.getContentId(), is(2));
+                    });
+                    It("should close the resultset and statement", () -> {
+                        verify(resultSet).close();
+                        verify(statement).close();
+                    });
+                });
+                Context("given the driver does not return batched generated keys", () -> {
+                    BeforeEach(() -> {
+                        entity = new TestEntity();
+                        other = new TestEntity();
+                        contents = new LinkedHashMap<>();
+                        contents.put(entity, new ByteArrayInputStream("hello".getBytes()));
+                        contents.put(other, new ByteArrayInputStream("world".getBytes()));
+
+                        when(metadata.supportsGetGeneratedKeys()).thenReturn(false);
+                        when(connection.prepareStatement(anyObject(), eq(Statement.RETURN_GENERATED_KEYS))).thenReturn(statement);
+                        when(statement.getGeneratedKeys()).thenReturn(resultSet);
+                        when(resultSet.next()).thenReturn(true);
+                        when(resultSet.getInt(eq("ID"))).thenReturn(1, 2);
+                    });
+                    It("inserts the content one row at a time", () -> {
+                        verify(statement, never()).executeBatch();
+                        verify(statement, times(2)).executeUpdate();
+                        assertThat(entity.getContentId(), is(1));
+                        assertThat(other.getContentId(), is(2));
+                    });
+                });
+                Context("given a batch returns fewer generated keys than rows", () -> {
+                    BeforeEach(() -> {
+                        entity = new TestEntity();
+                        other = new TestEntity();
+                        contents = new LinkedHashMap<>();
+                        contents.put(entity, new ByteArrayInputStream("hello".getBytes()));
+                        contents.put(other, new ByteArrayInputStream("world".getBytes()));
+
+                        PreparedStatement delete = mock(PreparedStatement.class);
+                        when(connection.prepareStatement(startsWith("DELETE"))).thenReturn(delete);
+                        when(connection.prepareStatement(anyObject(), eq(Statement.RETURN_GENERATED_KEYS))).thenReturn(statement);
+                        when(statement.getGeneratedKeys()).thenReturn(resultSet);
+                        when(resultSet.next()).thenReturn(true, false, true, true);
+                        when(resultSet.getInt(eq("ID"))).thenReturn(2, 3, 4);
+                        try {
+                            template.setContents(contents);
+                            fail("expected the batch to fail");
+                        } catch (DataAccessException e) {
+                            verify(delete).setInt(1, 2);
+                            verify(delete).executeUpdate();
+                        }
+                        contents.put(entity, new ByteArrayInputStream("hello".getBytes()));
+                        contents.put(other, new ByteArrayInputStream("world".getBytes()));
+                    });
+                    It("inserts later content one row at a time", () -> {
+                        verify(statement, times(1)).executeBatch();
+                        verify(statement, times(2)).executeUpdate();
+                        assertThat(entity.getContentId(), is(3));
+                        assertThat(other.getContentId(), is(4));
+                    });
+                });
+                Context("given content already exists", () -> {
+                    BeforeEach(() -> {
+                        entity = new TestEntity(1);
+                        other = new TestEntity(2);
+                        contents = new LinkedHashMap<>();
+                        contents.put(entity, new ByteArrayInputStream("hello".getBytes()));
+                        contents.put(other, new ByteArrayInputStream("world".getBytes()));
+
+                        when(connection.prepareStatement(anyObject())).thenReturn(statement);
+                    });
+                    It("updates all content with a single batch", () -> {
+                        verify(connection).prepareStatement(eq("UPDATE BLOBS SET blob=? WHERE id=?"));
+                        verify(statement).setObject(eq(2), eq(1));
+                        verify(statement).setObject(eq(2), eq(2));
+                        verify(statement, times(2)).addBatch();
+                        verify(statement).executeBatch();
+                    });
+                });
+            });
+
+            Describe("#unsetContents", () -> {
+                BeforeEach(() -> {
+                    datasource = mock(DataSource.class);
+                    connection = mock(Connection.class);
+                    statement = mock(PreparedStatement.class);
+                    when(datasource.getConnection()).thenReturn(connection);
+                    when(connection.prepareStatement(anyObject())).thenReturn(statement);
+
+                    entity = new TestEntity(1);
+                    other = new TestEntity(2);
+                });
+                JustBeforeEach(() -> {
+                    template = new JpaContentTemplate(datasource);
+                    template.setTemplate(new JdbcTemplate(datasource));
+                    template.unsetContents(Arrays.asList(entity, other));
+                });
+                It("deletes all content with a single DELETE statement", () -> {
+                    verify(connection).prepareStatement(eq("DELETE FROM BLOBS WHERE id IN (?,?)"));
+                    verify(statement).executeUpdate();
+                });
+                It("should reset the content metadata", () -> {
+                    assertThat(entity.getContentId(), is(nullValue()));
+                    assertThat(other.getContentId(), is(nullValue()));
+                });
+            });
+
             Describe("#unsetContent", () -> {
                 BeforeEach(() -> {
                     datasource = mock(DataSource.class);
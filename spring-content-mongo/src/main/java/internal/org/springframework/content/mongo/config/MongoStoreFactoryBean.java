@@ -1,11 +1,15 @@
 package internal.org.springframework.content.mongo.config;
 
+import java.util.concurrent.Executors;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.content.commons.repository.factory.AbstractStoreFactoryBean;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 import internal.org.springframework.content.mongo.repository.DefaultMongoStoreImpl;
+import internal.org.springframework.content.mongo.repository.DefaultReactiveMongoStoreImpl;
 
 public class MongoStoreFactoryBean extends AbstractStoreFactoryBean {
 
@@ -21,4 +25,12 @@ public class MongoStoreFactoryBean extends AbstractStoreFactoryBean {
 	protected Object getContentStoreImpl() {
 		return new DefaultMongoStoreImpl(gridFs, mongoStoreConverter);
 	}
+
+	@Override
+	protected Object getReactiveContentStoreImpl() {
+		// GridFS I/O blocks, so it is moved off the caller's thread
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("mongo-store-");
+		threadFactory.setDaemon(true);
+		return new DefaultReactiveMongoStoreImpl(gridFs, mongoStoreConverter, Executors.newCachedThreadPool(threadFactory));
+	}
 }
@@ -6,14 +6,18 @@ import static org.springframework.data.mongodb.gridfs.GridFsCriteria.whereFilena
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.io.BoundedInputStream;
 import org.springframework.content.commons.repository.ContentStore;
-import org.springframework.content.commons.utils.BeanUtils;
+import org.springframework.content.commons.utils.ContentPropertyMetadata;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.io.Resource;
 import org.springframework.data.mongodb.gridfs.GridFsTemplate;
@@ -36,10 +40,11 @@ public class DefaultMongoStoreImpl<S, SID extends Serializable> implements Conte
 
 	@Override
 	public void setContent(S property, InputStream content) {
-		Object contentId = BeanUtils.getFieldWithAnnotation(property, ContentId.class);
+		ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(property.getClass());
+		Object contentId = metadata.getValue(property, ContentId.class);
 		if (contentId == null) {
 			contentId = UUID.randomUUID();
-			BeanUtils.setFieldWithAnnotation(property, ContentId.class, contentId.toString());
+			metadata.setValue(property, ContentId.class, contentId.toString());
 		}
 
 		String location = converter.convert(contentId, String.class);
@@ -57,14 +62,14 @@ public class DefaultMongoStoreImpl<S, SID extends Serializable> implements Conte
 		} catch (IOException ioe) {
 			logger.debug(String.format("Unable to retrieve content length for %s", contentId));
 		}
-		BeanUtils.setFieldWithAnnotation(property, ContentLength.class, contentLen);
+		metadata.setValue(property, ContentLength.class, contentLen);
 	}
 
 	@Override
 	public InputStream getContent(S property) {
 		if (property == null)
 			return null;
-		Object contentId = BeanUtils.getFieldWithAnnotation(property, ContentId.class);
+		Object contentId = ContentPropertyMetadata.forClass(property.getClass()).getValue(property, ContentId.class);
 		if (contentId == null)
 			return null;
 
@@ -80,11 +85,36 @@ public class DefaultMongoStoreImpl<S, SID extends Serializable> implements Conte
 		return null;
 	}
 
+	/**
+	 * Skipping a GridFS stream seeks straight to the chunk containing the offset, so the
+	 * chunks before the range are never fetched.
+	 */
+	@Override
+	public InputStream getContent(S property, long offset, long length) {
+		if (property == null)
+			return null;
+		Object contentId = ContentPropertyMetadata.forClass(property.getClass()).getValue(property, ContentId.class);
+		if (contentId == null)
+			return null;
+
+		String location = converter.convert(contentId, String.class);
+		Resource resource = gridFs.getResource(location);
+		try {
+			if (resource != null && resource.exists()) {
+				return BoundedInputStream.range(resource.getInputStream(), offset, length);
+			}
+		} catch (IOException e) {
+			logger.error(String.format("Unexpected error getting content %s", contentId.toString()), e);
+		}
+		return null;
+	}
+
 	@Override
 	public void unsetContent(S property) {
 		if (property == null)
 			return;
-		Object contentId = BeanUtils.getFieldWithAnnotation(property, ContentId.class);
+		ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(property.getClass());
+		Object contentId = metadata.getValue(property, ContentId.class);
 		if (contentId == null)
 			return;
 
@@ -95,11 +125,46 @@ public class DefaultMongoStoreImpl<S, SID extends Serializable> implements Conte
 				gridFs.delete(query(whereFilename().is(resource.getFilename())));
 
 				// reset content fields
-				BeanUtils.setFieldWithAnnotation(property, ContentId.class, null);
-				BeanUtils.setFieldWithAnnotation(property, ContentLength.class, 0);
+				metadata.setValue(property, ContentId.class, null);
+				metadata.setValue(property, ContentLength.class, 0);
 			}
 		} catch (Exception ase) {
 			logger.error(String.format("Unexpected error unsetting content %s", contentId.toString()), ase);
 		}
 	}
+
+	/**
+	 * Deletes the content of all properties with a single {@literal $in} query on the
+	 * GridFS files collection.
+	 */
+	@Override
+	public void unsetContents(Collection<S> properties) {
+		List<S> unset = new ArrayList<>();
+		List<String> locations = new ArrayList<>();
+		for (S property : properties) {
+			if (property == null)
+				continue;
+			Object contentId = ContentPropertyMetadata.forClass(property.getClass()).getValue(property, ContentId.class);
+			if (contentId == null)
+				continue;
+			unset.add(property);
+			locations.add(converter.convert(contentId, String.class));
+		}
+		if (locations.isEmpty())
+			return;
+
+		try {
+			gridFs.delete(query(whereFilename().in(locations)));
+		} catch (Exception ase) {
+			logger.error(String.format("Unexpected error unsetting content %s", locations), ase);
+			return;
+		}
+
+		// reset content fields
+		for (S property : unset) {
+			ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(property.getClass());
+			metadata.setValue(property, ContentId.class, null);
+			metadata.setValue(property, ContentLength.class, 0);
+		}
+	}
 }
@@ -0,0 +1,141 @@
+package internal.org.springframework.content.mongo.repository;
+
+import static org.springframework.data.mongodb.core.query.Query.query;
+import static org.springframework.data.mongodb.gridfs.GridFsCriteria.whereFilename;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.reactivestreams.Publisher;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.repository.ReactiveContentStore;
+import org.springframework.content.commons.utils.ContentPropertyMetadata;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.io.Resource;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.util.Assert;
+
+import internal.org.springframework.content.commons.io.EmptyPublisher;
+import internal.org.springframework.content.commons.io.InputStreamPublisher;
+import internal.org.springframework.content.commons.io.PublisherInputStream;
+
+/**
+ * Reactive GridFS store.
+ * <p>
+ * The GridFS driver used by Spring Data MongoDB is blocking, so GridFS I/O is performed
+ * on the given executor rather than on the caller's thread.
+ */
+public class DefaultReactiveMongoStoreImpl<S, SID extends Serializable> implements ReactiveContentStore<S, SID> {
+
+	private static Log logger = LogFactory.getLog(DefaultReactiveMongoStoreImpl.class);
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private GridFsTemplate gridFs;
+	private ConversionService converter;
+	private Executor executor;
+
+	public DefaultReactiveMongoStoreImpl(GridFsTemplate gridFs, ConversionService converter, Executor executor) {
+		Assert.notNull(gridFs, "gridFs cannot be null");
+		Assert.notNull(converter, "converter cannot be null");
+		Assert.notNull(executor, "executor cannot be null");
+
+		this.gridFs = gridFs;
+		this.converter = converter;
+		this.executor = executor;
+	}
+
+	@Override
+	public Resource getResource(SID id) {
+		String location = converter.convert(id, String.class);
+		return gridFs.getResource(location);
+	}
+
+	@Override
+	public CompletableFuture<S> setContent(S property, Publisher<ByteBuffer> content) {
+		ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(property.getClass());
+		Object contentId = metadata.getValue(property, ContentId.class);
+		if (contentId == null) {
+			contentId = UUID.randomUUID();
+			metadata.setValue(property, ContentId.class, contentId.toString());
+		}
+
+		String location = converter.convert(contentId, String.class);
+		return CompletableFuture.supplyAsync(() -> {
+			Resource resource = gridFs.getResource(location);
+			if (resource != null && resource.exists()) {
+				gridFs.delete(query(whereFilename().is(resource.getFilename())));
+			}
+
+			try (InputStream in = new PublisherInputStream(content)) {
+				gridFs.store(in, location);
+			} catch (IOException ioe) {
+				throw new IllegalStateException(String.format("Unexpected error setting content %s", location), ioe);
+			}
+			resource = gridFs.getResource(location);
+
+			long contentLen = 0L;
+			try {
+				contentLen = resource.contentLength();
+			} catch (IOException ioe) {
+				logger.debug(String.format("Unable to retrieve content length for %s", location));
+			}
+			metadata.setValue(property, ContentLength.class, contentLen);
+			return property;
+		}, executor);
+	}
+
+	@Override
+	public Publisher<ByteBuffer> getContent(S property) {
+		if (property == null)
+			return EmptyPublisher.instance();
+		Object contentId = ContentPropertyMetadata.forClass(property.getClass()).getValue(property, ContentId.class);
+		if (contentId == null)
+			return EmptyPublisher.instance();
+
+		String location = converter.convert(contentId, String.class);
+		return new InputStreamPublisher(() -> {
+			Resource resource = gridFs.getResource(location);
+			if (resource != null && resource.exists()) {
+				return resource.getInputStream();
+			}
+			return new ByteArrayInputStream(new byte[0]);
+		}, executor, BUFFER_SIZE);
+	}
+
+	@Override
+	public CompletableFuture<S> unsetContent(S property) {
+		if (property == null)
+			return CompletableFuture.completedFuture(property);
+		ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(property.getClass());
+		Object contentId = metadata.getValue(property, ContentId.class);
+		if (contentId == null)
+			return CompletableFuture.completedFuture(property);
+
+		String location = converter.convert(contentId, String.class);
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				Resource resource = gridFs.getResource(location);
+				if (resource != null && resource.exists()) {
+					gridFs.delete(query(whereFilename().is(resource.getFilename())));
+
+					// reset content fields
+					metadata.setValue(property, ContentId.class, null);
+					metadata.setValue(property, ContentLength.class, 0);
+				}
+			} catch (Exception ase) {
+				logger.error(String.format("Unexpected error unsetting content %s", location), ase);
+			}
+			return property;
+		}, executor);
+	}
+}
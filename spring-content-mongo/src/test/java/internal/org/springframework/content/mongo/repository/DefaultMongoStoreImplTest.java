@@ -13,17 +13,21 @@ import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.isA;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.UUID;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.annotations.ContentLength;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.gridfs.GridFsResource;
 import org.springframework.data.mongodb.gridfs.GridFsTemplate;
 
@@ -37,6 +41,7 @@ public class DefaultMongoStoreImplTest {
     private GridFsTemplate gridFsTemplate;
     private GridFSFile gridFSFile;
     private TestEntity property;
+    private TestEntity other;
     private GridFsResource resource;
     private ConversionService converter;
 
@@ -192,6 +197,35 @@ public class DefaultMongoStoreImplTest {
                     assertThat(property.getContentLen(), is(0L));
                 });
             });
+
+            Context("bulk #unsetContents", () -> {
+                BeforeEach(() -> {
+                    property = new TestEntity();
+                    property.setContentId("abcd");
+                    other = new TestEntity();
+                    other.setContentId("efgh");
+
+                    when(converter.convert(eq("abcd"), eq(String.class))).thenReturn("abcd");
+                    when(converter.convert(eq("efgh"), eq(String.class))).thenReturn("efgh");
+                });
+
+                JustBeforeEach(() -> {
+                    mongoContentRepoImpl.unsetContents(Arrays.asList(property, other));
+                });
+
+                It("should delete all content with a single $in query", () -> {
+                    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+                    verify(gridFsTemplate).delete(query.capture());
+                    assertThat(query.getValue().getQueryObject().toString().contains("$in"), is(true));
+                    verify(gridFsTemplate, never()).getResource(anyObject());
+                });
+
+                It("should reset the metadata", () -> {
+                    assertThat(property.getContentId(), is(nullValue()));
+                    assertThat(other.getContentId(), is(nullValue()));
+                    assertThat(other.getContentLen(), is(0L));
+                });
+            });
         });
     }
 
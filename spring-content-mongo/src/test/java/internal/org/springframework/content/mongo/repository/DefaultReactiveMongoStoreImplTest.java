@@ -0,0 +1,134 @@
+package internal.org.springframework.content.mongo.repository;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+import internal.org.springframework.content.commons.io.InputStreamPublisher;
+import internal.org.springframework.content.commons.io.PublisherInputStream;
+
+@RunWith(Ginkgo4jRunner.class)
+public class DefaultReactiveMongoStoreImplTest {
+    private DefaultReactiveMongoStoreImpl<TestEntity, String> store;
+    private GridFsTemplate gridFsTemplate;
+    private GridFsResource resource;
+    private ConversionService converter;
+    private ExecutorService executor;
+    private TestEntity property;
+
+    private byte[] stored;
+
+    {
+        Describe("DefaultReactiveMongoStoreImpl", () -> {
+            BeforeEach(() -> {
+                converter = mock(ConversionService.class);
+                gridFsTemplate = mock(GridFsTemplate.class);
+                resource = mock(GridFsResource.class);
+                executor = Executors.newCachedThreadPool();
+                store = new DefaultReactiveMongoStoreImpl<TestEntity, String>(gridFsTemplate, converter, executor);
+
+                property = new TestEntity();
+                property.setContentId("abcd-efghi");
+                when(converter.convert(eq("abcd-efghi"), eq(String.class))).thenReturn("abcd-efghi");
+            });
+
+            Context("#setContent", () -> {
+                BeforeEach(() -> {
+                    when(gridFsTemplate.getResource(anyString())).thenReturn(null).thenReturn(resource);
+                    when(gridFsTemplate.store(anyObject(), anyString())).thenAnswer(invocation -> {
+                        stored = IOUtils.toByteArray((InputStream) invocation.getArguments()[0]);
+                        return null;
+                    });
+                    when(resource.contentLength()).thenReturn(5L);
+
+                    store.setContent(property, new InputStreamPublisher(() -> new ByteArrayInputStream("hello".getBytes()), executor, 2)).get(10, TimeUnit.SECONDS);
+                });
+                It("should store the published content in GridFS", () -> {
+                    verify(gridFsTemplate).store(anyObject(), eq("abcd-efghi"));
+                    assertThat(new String(stored), is("hello"));
+                });
+                It("should update the content length", () -> {
+                    assertThat(property.getContentLen(), is(5L));
+                });
+            });
+
+            Context("#getContent", () -> {
+                BeforeEach(() -> {
+                    when(gridFsTemplate.getResource("abcd-efghi")).thenReturn(resource);
+                    when(resource.exists()).thenReturn(true);
+                    when(resource.getInputStream()).thenReturn(new ByteArrayInputStream("hello".getBytes()));
+                });
+                It("should publish the content", () -> {
+                    try (InputStream in = new PublisherInputStream(store.getContent(property))) {
+                        assertThat(new String(IOUtils.toByteArray(in)), is("hello"));
+                    }
+                });
+            });
+
+            Context("#unsetContent", () -> {
+                BeforeEach(() -> {
+                    when(gridFsTemplate.getResource("abcd-efghi")).thenReturn(resource);
+                    when(resource.exists()).thenReturn(true);
+                    when(resource.getFilename()).thenReturn("abcd-efghi");
+
+                    store.unsetContent(property).get(10, TimeUnit.SECONDS);
+                });
+                It("should delete the content and reset the content fields", () -> {
+                    verify(gridFsTemplate).delete(anyObject());
+                    assertThat(property.getContentId(), is(nullValue()));
+                    assertThat(property.getContentLen(), is(0L));
+                });
+            });
+        });
+    }
+
+    public static class TestEntity {
+        @ContentId
+        private String contentId;
+
+        @ContentLength
+        private long contentLen;
+
+        public String getContentId() {
+            return this.contentId;
+        }
+
+        public void setContentId(String contentId) {
+            this.contentId = contentId;
+        }
+
+        public long getContentLen() {
+            return contentLen;
+        }
+
+        public void setContentLen(long contentLen) {
+            this.contentLen = contentLen;
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package org.springframework.content.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.annotations.MimeType;
+import org.springframework.content.commons.utils.ContentPropertyAccessor;
+
+/**
+ * Annotation processor that generates a {@link ContentPropertyAccessor} for every class
+ * declaring {@link ContentId}, {@link ContentLength} or {@link MimeType} fields.
+ * <p>
+ * The generated accessor resolves the same properties that
+ * {@link org.springframework.content.commons.utils.BeanUtils} would resolve reflectively:
+ * public fields (including inherited ones) and fields declared on the class with public
+ * getters and setters.  Classes with annotated fields that cannot be accessed that way
+ * are skipped and keep using reflection.
+ */
+public class ContentPropertyProcessor extends AbstractProcessor {
+
+	private static final List<String> ANNOTATIONS = Arrays.asList(
+			ContentId.class.getCanonicalName(),
+			ContentLength.class.getCanonicalName(),
+			MimeType.class.getCanonicalName());
+
+	@Override
+	public Set<String> getSupportedAnnotationTypes() {
+		return new LinkedHashSet<>(ANNOTATIONS);
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		Set<TypeElement> domainTypes = new LinkedHashSet<>();
+		for (TypeElement annotation : annotations) {
+			for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+				if (element.getKind() == ElementKind.FIELD) {
+					domainTypes.add((TypeElement) element.getEnclosingElement());
+				}
+			}
+		}
+
+		for (TypeElement domainType : domainTypes) {
+			Map<String, List<Property>> properties = getProperties(domainType);
+			if (properties == null) {
+				continue;
+			}
+			try {
+				writeAccessor(domainType, properties);
+			} catch (IOException ioe) {
+				processingEnv.getMessager().printMessage(Kind.ERROR, String.format("Unable to generate content accessor: %s", ioe.getMessage()), domainType);
+			}
+		}
+
+		// never claim the annotations, other processors may be interested in them
+		return false;
+	}
+
+	private Map<String, List<Property>> getProperties(TypeElement domainType) {
+		for (Element e = domainType; e instanceof TypeElement; e = e.getEnclosingElement()) {
+			if (e.getModifiers().contains(Modifier.PRIVATE)) {
+				processingEnv.getMessager().printMessage(Kind.NOTE, "Private class; content properties will be accessed reflectively", domainType);
+				return null;
+			}
+		}
+
+		Map<String, List<Property>> properties = new LinkedHashMap<>();
+		for (String annotation : ANNOTATIONS) {
+			List<Property> annotated = new ArrayList<>();
+
+			// bean properties backed by a field declared on the class itself
+			for (VariableElement field : ElementFilter.fieldsIn(domainType.getEnclosedElements())) {
+				if (!isAnnotated(field, annotation) || field.getModifiers().contains(Modifier.STATIC)) {
+					continue;
+				}
+				ExecutableElement getter = findGetter(domainType, field);
+				ExecutableElement setter = findSetter(domainType, field);
+				if (getter != null && setter != null) {
+					annotated.add(new Property(field, getter.getSimpleName() + "()", setter.getSimpleName() + "(%s)", false));
+				} else if (!isPublic(field)) {
+					processingEnv.getMessager().printMessage(Kind.NOTE, "No public getter and setter; content properties will be accessed reflectively", field);
+					return null;
+				}
+			}
+
+			// public fields, including inherited ones
+			for (TypeElement type = domainType; type != null; type = getSuperclass(type)) {
+				for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+					if (isAnnotated(field, annotation) && isPublic(field) && !field.getModifiers().contains(Modifier.STATIC)) {
+						if (field.getModifiers().contains(Modifier.FINAL)) {
+							processingEnv.getMessager().printMessage(Kind.NOTE, "Final field; content properties will be accessed reflectively", field);
+							return null;
+						}
+						annotated.add(new Property(field, field.getSimpleName().toString(), field.getSimpleName() + " = %s", true));
+					}
+				}
+			}
+
+			properties.put(annotation, annotated);
+		}
+		return properties;
+	}
+
+	private void writeAccessor(TypeElement domainType, Map<String, List<Property>> properties) throws IOException {
+		PackageElement pkg = processingEnv.getElementUtils().getPackageOf(domainType);
+		String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+		String binaryName = processingEnv.getElementUtils().getBinaryName(domainType).toString();
+		String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + ContentPropertyAccessor.ACCESSOR_SUFFIX;
+		String domainTypeName = processingEnv.getTypeUtils().erasure(domainType.asType()).toString();
+
+		JavaFileObject source = processingEnv.getFiler().createSourceFile(packageName.isEmpty() ? simpleName : packageName + "." + simpleName, domainType);
+		try (PrintWriter out = new PrintWriter(source.openWriter())) {
+			if (!packageName.isEmpty()) {
+				out.printf("package %s;%n%n", packageName);
+			}
+			String generated = getGeneratedAnnotation();
+			if (generated != null) {
+				out.printf("@%s(\"%s\")%n", generated, getClass().getName());
+			}
+			out.println("@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+			out.printf("public class %s implements %s {%n%n", simpleName, ContentPropertyAccessor.class.getName());
+
+			out.println("\t@Override");
+			out.println("\tpublic boolean supports(Class<? extends java.lang.annotation.Annotation> annotationClass) {");
+			out.print("\t\treturn ");
+			String separator = "";
+			for (String annotation : properties.keySet()) {
+				out.printf("%sannotationClass == %s.class", separator, annotation);
+				separator = " || ";
+			}
+			out.println(";");
+			out.println("\t}\n");
+
+			out.println("\t@Override");
+			out.println("\tpublic boolean hasProperty(Class<? extends java.lang.annotation.Annotation> annotationClass) {");
+			for (Map.Entry<String, List<Property>> entry : properties.entrySet()) {
+				if (!entry.getValue().isEmpty()) {
+					out.printf("\t\tif (annotationClass == %s.class) return true;%n", entry.getKey());
+				}
+			}
+			out.println("\t\treturn false;");
+			out.println("\t}\n");
+
+			out.println("\t@Override");
+			out.println("\tpublic Class<?> getPropertyType(Class<? extends java.lang.annotation.Annotation> annotationClass) {");
+			for (Map.Entry<String, List<Property>> entry : properties.entrySet()) {
+				Property property = getTypeDefiningProperty(entry.getValue());
+				if (property != null) {
+					out.printf("\t\tif (annotationClass == %s.class) return %s.class;%n", entry.getKey(), property.getErasure());
+				}
+			}
+			out.println("\t\treturn null;");
+			out.println("\t}\n");
+
+			out.println("\t@Override");
+			out.println("\tpublic Object getValue(Object domainObj, Class<? extends java.lang.annotation.Annotation> annotationClass) {");
+			out.printf("\t\t%s entity = (%s) domainObj;%n", domainTypeName, domainTypeName);
+			out.println("\t\tObject value = null;");
+			for (Map.Entry<String, List<Property>> entry : properties.entrySet()) {
+				if (entry.getValue().isEmpty()) {
+					continue;
+				}
+				out.printf("\t\tif (annotationClass == %s.class) {%n", entry.getKey());
+				for (Property property : entry.getValue()) {
+					if (!property.publicField) {
+						out.printf("\t\t\tvalue = entity.%s;%n", property.read);
+					}
+				}
+				boolean hasPublicFields = false;
+				for (Property property : entry.getValue()) {
+					if (property.publicField) {
+						if (!hasPublicFields) {
+							out.println("\t\t\tif (value == null) {");
+							hasPublicFields = true;
+						}
+						out.printf("\t\t\t\tvalue = entity.%s;%n", property.read);
+					}
+				}
+				if (hasPublicFields) {
+					out.println("\t\t\t}");
+				}
+				out.println("\t\t}");
+			}
+			out.println("\t\treturn value;");
+			out.println("\t}\n");
+
+			out.println("\t@Override");
+			out.println("\tpublic boolean setValue(Object domainObj, Class<? extends java.lang.annotation.Annotation> annotationClass, Object value) {");
+			out.printf("\t\t%s entity = (%s) domainObj;%n", domainTypeName, domainTypeName);
+			for (Map.Entry<String, List<Property>> entry : properties.entrySet()) {
+				if (entry.getValue().isEmpty()) {
+					continue;
+				}
+				out.printf("\t\tif (annotationClass == %s.class) {%n", entry.getKey());
+				for (Property property : entry.getValue()) {
+					out.printf("\t\t\tif (!(%s)) return false;%n", property.getAssignableCheck("value"));
+				}
+				for (Property property : entry.getValue()) {
+					out.printf("\t\t\tentity.%s;%n", String.format(property.write, "(" + property.getCastType() + ") value"));
+				}
+				out.println("\t\t}");
+			}
+			out.println("\t\treturn true;");
+			out.println("\t}");
+			out.println("}");
+		}
+	}
+
+	private Property getTypeDefiningProperty(List<Property> properties) {
+		Property typeDefining = null;
+		for (Property property : properties) {
+			if (!property.publicField) {
+				return property;
+			}
+			typeDefining = property;
+		}
+		return typeDefining;
+	}
+
+	private String getGeneratedAnnotation() {
+		for (String candidate : new String[] {"javax.annotation.processing.Generated", "javax.annotation.Generated"}) {
+			if (processingEnv.getElementUtils().getTypeElement(candidate) != null) {
+				return candidate;
+			}
+		}
+		return null;
+	}
+
+	private boolean isAnnotated(Element element, String annotation) {
+		for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+			if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isPublic(Element element) {
+		return element.getModifiers().contains(Modifier.PUBLIC);
+	}
+
+	private TypeElement getSuperclass(TypeElement type) {
+		TypeMirror superclass = type.getSuperclass();
+		if (superclass.getKind() != TypeKind.DECLARED) {
+			return null;
+		}
+		return (TypeElement) ((DeclaredType) superclass).asElement();
+	}
+
+	private ExecutableElement findGetter(TypeElement type, VariableElement field) {
+		String property = capitalize(field.getSimpleName().toString());
+		for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+			String name = method.getSimpleName().toString();
+			boolean isGetter = name.equals("get" + property) || (name.equals("is" + property) && field.asType().getKind() == TypeKind.BOOLEAN);
+			if (isGetter && method.getParameters().isEmpty() && isPublic(method) && !method.getModifiers().contains(Modifier.STATIC)
+					&& processingEnv.getTypeUtils().isAssignable(method.getReturnType(), field.asType())) {
+				return method;
+			}
+		}
+		return null;
+	}
+
+	private ExecutableElement findSetter(TypeElement type, VariableElement field) {
+		String name = "set" + capitalize(field.getSimpleName().toString());
+		for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+			if (method.getSimpleName().contentEquals(name) && method.getParameters().size() == 1 && isPublic(method) && !method.getModifiers().contains(Modifier.STATIC)
+					&& processingEnv.getTypeUtils().isSameType(method.getParameters().get(0).asType(), field.asType())) {
+				return method;
+			}
+		}
+		return null;
+	}
+
+	private static String capitalize(String name) {
+		return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+	}
+
+	private class Property {
+
+		private final VariableElement field;
+		private final String read;
+		private final String write;
+		private final boolean publicField;
+
+		Property(VariableElement field, String read, String write, boolean publicField) {
+			this.field = field;
+			this.read = read;
+			this.write = write;
+			this.publicField = publicField;
+		}
+
+		String getErasure() {
+			return processingEnv.getTypeUtils().erasure(field.asType()).toString();
+		}
+
+		String getCastType() {
+			TypeMirror type = field.asType();
+			if (type.getKind().isPrimitive()) {
+				return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+			}
+			return getErasure();
+		}
+
+		String getAssignableCheck(String value) {
+			if (field.asType().getKind().isPrimitive()) {
+				return String.format("%s instanceof %s", value, getCastType());
+			}
+			return String.format("%s == null || %s instanceof %s", value, value, getCastType());
+		}
+	}
+}
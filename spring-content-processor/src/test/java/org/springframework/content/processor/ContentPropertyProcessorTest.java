@@ -0,0 +1,133 @@
+package org.springframework.content.processor;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.JustBeforeEach;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.annotations.MimeType;
+import org.springframework.content.commons.utils.ContentPropertyAccessor;
+import org.springframework.content.commons.utils.ContentPropertyMetadata;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class ContentPropertyProcessorTest {
+
+	private String source;
+	private File outputDir;
+	private boolean compiled;
+	private Class<?> entityClass;
+	private Object entity;
+	private ContentPropertyMetadata metadata;
+
+	{
+		Describe("ContentPropertyProcessor", () -> {
+			BeforeEach(() -> {
+				outputDir = Files.createTempDirectory("processor").toFile();
+			});
+			JustBeforeEach(() -> {
+				compiled = compile(source);
+				if (compiled) {
+					URLClassLoader loader = new URLClassLoader(new URL[] {outputDir.toURI().toURL()}, getClass().getClassLoader());
+					entityClass = loader.loadClass("example.Document");
+					entity = entityClass.getDeclaredConstructor().newInstance();
+					metadata = ContentPropertyMetadata.forClass(entityClass);
+				}
+			});
+			Context("given an entity with a public field and a private field with accessors", () -> {
+				BeforeEach(() -> {
+					source = "package example;\n" +
+							"public class Document {\n" +
+							"  @org.springframework.content.commons.annotations.ContentId public String contentId;\n" +
+							"  @org.springframework.content.commons.annotations.ContentLength private long contentLength;\n" +
+							"  public long getContentLength() { return contentLength; }\n" +
+							"  public void setContentLength(long contentLength) { this.contentLength = contentLength; }\n" +
+							"}\n";
+				});
+				It("should generate an accessor that is picked up by ContentPropertyMetadata", () -> {
+					assertThat(compiled, is(true));
+					assertThat(new File(outputDir, "example/Document" + ContentPropertyAccessor.ACCESSOR_SUFFIX + ".class").exists(), is(true));
+					assertThat(metadata.hasGeneratedAccessor(), is(true));
+				});
+				It("should report the content properties", () -> {
+					assertThat(metadata.hasProperty(ContentId.class), is(true));
+					assertThat(metadata.hasProperty(ContentLength.class), is(true));
+					assertThat(metadata.hasProperty(MimeType.class), is(false));
+					assertThat(metadata.getPropertyType(ContentId.class), is(CoreMatchers.<Class<?>>equalTo(String.class)));
+					assertThat(metadata.getPropertyType(ContentLength.class), is(CoreMatchers.<Class<?>>equalTo(long.class)));
+				});
+				It("should get and set the content properties", () -> {
+					metadata.setValue(entity, ContentId.class, "12345");
+					metadata.setValue(entity, ContentLength.class, 20L);
+					assertThat(entityClass.getField("contentId").get(entity), is("12345"));
+					assertThat(metadata.getValue(entity, ContentId.class), is("12345"));
+					assertThat(metadata.getValue(entity, ContentLength.class), is(20L));
+				});
+				It("should fall back to reflection for values that need converting", () -> {
+					metadata.setValue(entity, ContentLength.class, 0);
+					assertThat(metadata.getValue(entity, ContentLength.class), is(0L));
+				});
+				It("should set null values", () -> {
+					metadata.setValue(entity, ContentId.class, "12345");
+					metadata.setValue(entity, ContentId.class, null);
+					assertThat(metadata.getValue(entity, ContentId.class), is(nullValue()));
+				});
+			});
+			Context("given an entity with a private field and no accessors", () -> {
+				BeforeEach(() -> {
+					source = "package example;\n" +
+							"public class Document {\n" +
+							"  @org.springframework.content.commons.annotations.ContentId private String contentId;\n" +
+							"}\n";
+				});
+				It("should not generate an accessor", () -> {
+					assertThat(compiled, is(true));
+					assertThat(new File(outputDir, "example/Document" + ContentPropertyAccessor.ACCESSOR_SUFFIX + ".class").exists(), is(false));
+					assertThat(metadata.hasGeneratedAccessor(), is(false));
+				});
+			});
+		});
+	}
+
+	private boolean compile(String source) throws IOException {
+		File sourceFile = new File(outputDir, "example/Document.java");
+		sourceFile.getParentFile().mkdirs();
+		Files.write(sourceFile.toPath(), source.getBytes(StandardCharsets.UTF_8));
+
+		String classpath = new File(ContentId.class.getProtectionDomain().getCodeSource().getLocation().getPath()).getAbsolutePath();
+
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+			JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null,
+					Arrays.asList("-classpath", classpath, "-d", outputDir.getAbsolutePath(), "-s", outputDir.getAbsolutePath()),
+					null,
+					fileManager.getJavaFileObjectsFromFiles(Collections.singletonList(sourceFile)));
+			task.setProcessors(Collections.singletonList(new ContentPropertyProcessor()));
+			return task.call();
+		}
+	}
+}
@@ -3,6 +3,7 @@ package internal.org.springframework.content.rest.controllers;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.net.URL;
 import java.util.List;
 
 import javax.servlet.ServletException;
@@ -14,6 +15,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.annotations.MimeType;
 import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.PresignedUrlStore;
 import org.springframework.content.commons.repository.Store;
 import org.springframework.content.commons.storeservice.ContentStoreInfo;
 import org.springframework.content.commons.storeservice.ContentStoreService;
@@ -78,6 +80,13 @@ public class ContentEntityRestController extends AbstractContentPropertyControll
 
 		Serializable cid = (Serializable) BeanUtils.getFieldWithAnnotation(domainObj, ContentId.class);
 		
+		URL url = ContentStoreUtils.getContentUrl(info.getImpementation(), domainObj, request.getHeader(HttpHeaders.CONTENT_DISPOSITION));
+		if (url != null) {
+			response.setStatus(HttpStatus.FOUND.value());
+			response.setHeader(HttpHeaders.LOCATION, url.toString());
+			return;
+		}
+
 		Resource r = ((Store)info.getImpementation()).getResource(cid);
 		if (r == null) {
 			throw new ResourceNotFoundException();
@@ -102,7 +111,8 @@ public class ContentEntityRestController extends AbstractContentPropertyControll
 	@RequestMapping(value = BASE_MAPPING, method = RequestMethod.GET)
 	public ResponseEntity<InputStreamResource> getContent(@PathVariable String repository, 
 														  @PathVariable String id, 
-														  @RequestHeader(value="Accept", required=false) String mimeType) 
+														  @RequestHeader(value="Accept", required=false) String mimeType,
+														  @RequestHeader(value="Content-Disposition", required=false) String contentDisposition) 
 			throws HttpRequestMethodNotSupportedException {
 		
 		Object domainObj = findOne(repositories, repository, id);
@@ -124,6 +134,11 @@ public class ContentEntityRestController extends AbstractContentPropertyControll
 		
 		final HttpHeaders headers = new HttpHeaders();
 		ContentStore<Object,Serializable> store = info.getImpementation();
+		URL url = ContentStoreUtils.getContentUrl(store, domainObj, mimeTypes, contentDisposition);
+		if (url != null) {
+			headers.set(HttpHeaders.LOCATION, url.toString());
+			return new ResponseEntity<InputStreamResource>(null, headers, HttpStatus.FOUND);
+		}
 		InputStream content = ContentStoreUtils.getContent(store, domainObj, mimeTypes, headers);
 		if (content != null) {		
 			InputStreamResource inputStreamResource = new InputStreamResource(content);
@@ -169,6 +184,67 @@ public class ContentEntityRestController extends AbstractContentPropertyControll
 		}
 	}
 	
+	@StoreType("contentstore")
+	@RequestMapping(value = BASE_MAPPING, method = RequestMethod.PUT, params = "presigned", headers={"content-type!=multipart/form-data", "accept!=application/hal+json"})
+	@ResponseBody
+	@SuppressWarnings("unchecked")
+	public void putContentUrl(HttpServletRequest request,
+							  HttpServletResponse response,
+							  @PathVariable String repository, 
+							  @PathVariable String id) 
+			throws HttpRequestMethodNotSupportedException {
+
+		Object domainObj = findOne(repositories, repository, id);
+		
+		ContentStoreInfo info = ContentStoreUtils.findContentStore(storeService, domainObj.getClass());
+		if (info == null) {
+			throw new IllegalArgumentException("Entity not a content repository");
+		}
+		if (info.getImpementation() instanceof PresignedUrlStore == false) {
+			throw new HttpRequestMethodNotSupportedException("PUT");
+		}
+
+		// the content is uploaded to the returned URL and then completed with a POST
+		URL url = ((PresignedUrlStore<Object>)info.getImpementation()).getUploadUrl(domainObj, request.getHeader("Content-Type"));
+		
+		if (BeanUtils.hasFieldWithAnnotation(domainObj, MimeType.class)) {
+			BeanUtils.setFieldWithAnnotation(domainObj, MimeType.class, request.getHeader("Content-Type"));
+		}
+		
+		save(repositories, repository, domainObj);
+		
+		response.setHeader(HttpHeaders.LOCATION, url.toString());
+		response.setStatus(HttpStatus.ACCEPTED.value());
+	}
+	
+	@StoreType("contentstore")
+	@RequestMapping(value = BASE_MAPPING, method = RequestMethod.POST, params = "presigned", headers={"content-type!=multipart/form-data", "accept!=application/hal+json"})
+	@ResponseBody
+	@SuppressWarnings("unchecked")
+	public void completeContentUpload(HttpServletResponse response,
+									  @PathVariable String repository, 
+									  @PathVariable String id) 
+			throws HttpRequestMethodNotSupportedException {
+
+		Object domainObj = findOne(repositories, repository, id);
+		
+		ContentStoreInfo info = ContentStoreUtils.findContentStore(storeService, domainObj.getClass());
+		if (info == null) {
+			throw new IllegalArgumentException("Entity not a content repository");
+		}
+		if (info.getImpementation() instanceof PresignedUrlStore == false) {
+			throw new HttpRequestMethodNotSupportedException("POST");
+		}
+
+		if (!((PresignedUrlStore<Object>)info.getImpementation()).completeUpload(domainObj)) {
+			throw new ResourceNotFoundException("No content uploaded");
+		}
+		
+		save(repositories, repository, domainObj);
+		
+		response.setStatus(HttpStatus.OK.value());
+	}
+	
 	@RequestMapping(value = BASE_MAPPING, method = RequestMethod.PUT, headers = "content-type=multipart/form-data")
 	@ResponseBody
 	public void putMultipartContent(HttpServletResponse response,
@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.lang.reflect.Array;
+import java.net.URL;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -111,6 +112,13 @@ public class ContentPropertyCollectionRestController extends AbstractContentProp
 		if (info == null)
 			throw new IllegalStateException(String.format("Unable to find a content store for %s", repository));
 		
+		URL url = ContentStoreUtils.getContentUrl(info.getImpementation(), propVal, request.getHeader(HttpHeaders.CONTENT_DISPOSITION));
+		if (url != null) {
+			response.setStatus(HttpStatus.FOUND.value());
+			response.setHeader(HttpHeaders.LOCATION, url.toString());
+			return;
+		}
+
 		org.springframework.core.io.Resource r = info.getImplementation(Store.class).getResource(cid);
 		if (r == null) {
 			response.setStatus(HttpStatus.NOT_FOUND.value());
@@ -180,6 +188,11 @@ public class ContentPropertyCollectionRestController extends AbstractContentProp
 		
 		final HttpHeaders headers = new HttpHeaders();
 		ContentStore<Object,Serializable> store = info.getImpementation();
+		URL url = ContentStoreUtils.getContentUrl(store, propVal, mimeTypes, request.getHeader(HttpHeaders.CONTENT_DISPOSITION));
+		if (url != null) {
+			headers.set(HttpHeaders.LOCATION, url.toString());
+			return new ResponseEntity<InputStreamResource>(null, headers, HttpStatus.FOUND);
+		}
 		InputStream content = ContentStoreUtils.getContent(store, propVal, mimeTypes, headers);
 		if (content != null) {		
 			InputStreamResource inputStreamResource = new InputStreamResource(content);
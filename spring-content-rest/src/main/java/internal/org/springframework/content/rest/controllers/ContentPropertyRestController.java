@@ -3,6 +3,7 @@ package internal.org.springframework.content.rest.controllers;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.net.URL;
 import java.util.List;
 
 import javax.servlet.ServletException;
@@ -94,6 +95,13 @@ public class ContentPropertyRestController extends AbstractContentPropertyContro
 			throw new IllegalArgumentException("Entity not a content repository");
 		}
 
+		URL url = ContentStoreUtils.getContentUrl(info.getImpementation(), contentPropertyValue, request.getHeader(HttpHeaders.CONTENT_DISPOSITION));
+		if (url != null) {
+			response.setStatus(HttpStatus.FOUND.value());
+			response.setHeader(HttpHeaders.LOCATION, url.toString());
+			return;
+		}
+
 		Resource r = ((Store)info.getImpementation()).getResource(cid);
 		if (r == null) {
 			throw new ResourceNotFoundException();
@@ -121,7 +129,8 @@ public class ContentPropertyRestController extends AbstractContentPropertyContro
 														  @PathVariable String id, 
 														  @PathVariable String contentProperty,
 														  @PathVariable String contentId,
-														  @RequestHeader("Accept") String mimeType) 
+														  @RequestHeader("Accept") String mimeType,
+														  @RequestHeader(value="Content-Disposition", required=false) String contentDisposition) 
 			throws HttpRequestMethodNotSupportedException {
 		
 		Object domainObj = findOne(repositories, repository, id);
@@ -150,6 +159,11 @@ public class ContentPropertyRestController extends AbstractContentPropertyContro
 		
 		final HttpHeaders headers = new HttpHeaders();
 		ContentStore<Object,Serializable> store = info.getImpementation();
+		URL url = ContentStoreUtils.getContentUrl(store, contentPropertyValue, mimeTypes, contentDisposition);
+		if (url != null) {
+			headers.set(HttpHeaders.LOCATION, url.toString());
+			return new ResponseEntity<InputStreamResource>(null, headers, HttpStatus.FOUND);
+		}
 		InputStream content = ContentStoreUtils.getContent(store, contentPropertyValue, mimeTypes, headers);
 		if (content != null) {		
 			InputStreamResource inputStreamResource = new InputStreamResource(content);
@@ -10,6 +10,7 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.io.IOUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.content.commons.io.ContentCopyUtils;
 import org.springframework.content.commons.io.DeletableResource;
 import org.springframework.content.commons.repository.Store;
 import org.springframework.content.commons.storeservice.ContentStoreInfo;
@@ -97,7 +98,7 @@ public class StoreRestController extends AbstractContentPropertyController {
 		}
 		InputStream in = request.getInputStream();
 		OutputStream out = ((WritableResource)r).getOutputStream();
-		IOUtils.copy(in, out);
+		ContentCopyUtils.copy(in, out);
 		IOUtils.closeQuietly(out);
 		IOUtils.closeQuietly(in);
 	}
@@ -170,7 +171,7 @@ public class StoreRestController extends AbstractContentPropertyController {
 		}
 		InputStream in = multiPart.getInputStream();
 		OutputStream out = ((WritableResource)r).getOutputStream();
-		IOUtils.copy(in, out);
+		ContentCopyUtils.copy(in, out);
 		IOUtils.closeQuietly(out);
 		IOUtils.closeQuietly(in);
 	}
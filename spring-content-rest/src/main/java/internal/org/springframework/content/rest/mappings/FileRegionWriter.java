@@ -0,0 +1,112 @@
+package internal.org.springframework.content.rest.mappings;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.content.commons.io.FileBackedResource;
+import org.springframework.content.commons.metrics.MeteredResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Writes regions of file-backed resources.
+ * <p>
+ * When the servlet container supports sendfile, Tomcat's sendfile request attributes
+ * hand the file to the container, which sends it from the kernel once the response is
+ * committed; only then is the content not copied through the JVM.  Otherwise the file is
+ * written with {@link FileChannel#transferTo}, which transfers straight to the response
+ * when its output stream is itself a channel but, as the servlet API exposes no channel,
+ * otherwise copies through a buffer much as a stream copy would.
+ */
+final class FileRegionWriter {
+
+	static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+	static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+	static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+	static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+	// as Tomcat's DefaultServlet; smaller files are cheaper to write directly
+	static final long SENDFILE_THRESHOLD = 48 * 1024;
+
+	private FileRegionWriter() {
+	}
+
+	/**
+	 * Returns the file holding resource's content.
+	 *
+	 * @return the file, or null if resource is not file-backed
+	 */
+	static File getFile(Resource resource) throws IOException {
+		if (resource instanceof FileBackedResource || resource instanceof FileSystemResource) {
+			return resource.getFile();
+		}
+		return null;
+	}
+
+	/**
+	 * Hands a region of file to the container's sendfile support, when the current
+	 * request supports it.  Nothing must be written to the response body afterwards.
+	 *
+	 * @return true if the container will send the region
+	 */
+	static boolean sendfile(File file, long position, long count) throws IOException {
+		if (count < SENDFILE_THRESHOLD) {
+			return false;
+		}
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (!(attributes instanceof ServletRequestAttributes)) {
+			return false;
+		}
+		HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+		if (!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR))) {
+			return false;
+		}
+
+		request.setAttribute(SENDFILE_FILENAME_ATTR, file.getCanonicalPath());
+		request.setAttribute(SENDFILE_START_ATTR, position);
+		request.setAttribute(SENDFILE_END_ATTR, position + count);
+		return true;
+	}
+
+	/**
+	 * Writes a region of file to out with {@link FileChannel#transferTo}, through out
+	 * itself when it is a channel.
+	 *
+	 * @return the number of bytes written
+	 */
+	static long transfer(File file, long position, long count, OutputStream out) throws IOException {
+		long start = position;
+		WritableByteChannel target = out instanceof WritableByteChannel ? (WritableByteChannel) out : Channels.newChannel(out);
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long end = Math.min(position + count, channel.size());
+			while (position < end) {
+				long transferred = channel.transferTo(position, end - position, target);
+				if (transferred <= 0) {
+					break;
+				}
+				position += transferred;
+			}
+		}
+		return position - start;
+	}
+
+	/**
+	 * Records bytes of resource's content sent from its file, which the store's metrics
+	 * do not see, when resource is metered.
+	 */
+	static void recordRead(Resource resource, long count) {
+		if (resource instanceof MeteredResource) {
+			((MeteredResource) resource).recordBytesRead(count);
+		}
+	}
+}
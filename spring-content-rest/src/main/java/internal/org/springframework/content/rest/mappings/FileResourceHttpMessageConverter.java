@@ -0,0 +1,57 @@
+package internal.org.springframework.content.rest.mappings;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.content.commons.io.ContentCopyUtils;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+
+/**
+ * Writes file-backed store resources with the container's sendfile support, or
+ * {@link java.nio.channels.FileChannel#transferTo}, instead of copying them through an
+ * input stream.  Other resources are copied with {@link ContentCopyUtils}.
+ */
+public class FileResourceHttpMessageConverter extends ResourceHttpMessageConverter {
+
+	@Override
+	protected void writeContent(Resource resource, HttpOutputMessage outputMessage)
+			throws IOException, HttpMessageNotWritableException {
+
+		File file = FileRegionWriter.getFile(resource);
+		if (file == null) {
+			copyContent(resource, outputMessage);
+			return;
+		}
+
+		long length = file.length();
+		if (!FileRegionWriter.sendfile(file, 0, length)) {
+			length = FileRegionWriter.transfer(file, 0, length, outputMessage.getBody());
+		}
+		FileRegionWriter.recordRead(resource, length);
+	}
+
+	// as super.writeContent, but through pooled buffers
+	private void copyContent(Resource resource, HttpOutputMessage outputMessage) throws IOException {
+		try {
+			InputStream in = resource.getInputStream();
+			try {
+				ContentCopyUtils.copy(in, outputMessage.getBody());
+			} catch (NullPointerException ex) {
+				// ignore, see SPR-13620
+			} finally {
+				try {
+					in.close();
+				} catch (Throwable ex) {
+					// ignore
+				}
+			}
+		} catch (FileNotFoundException ex) {
+			// ignore, see SPR-12999
+		}
+	}
+}
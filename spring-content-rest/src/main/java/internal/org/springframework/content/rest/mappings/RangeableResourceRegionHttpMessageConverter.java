@@ -0,0 +1,133 @@
+package internal.org.springframework.content.rest.mappings;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+import org.springframework.content.commons.io.BoundedInputStream;
+import org.springframework.content.commons.io.ContentCopyUtils;
+import org.springframework.content.commons.io.RangeableResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.ResourceRegionHttpMessageConverter;
+import org.springframework.util.Assert;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Writes byte ranges of store resources.
+ * <p>
+ * Unlike {@link ResourceRegionHttpMessageConverter}, which always reads the resource from
+ * its first byte and discards everything before the range, regions of a
+ * {@link RangeableResource} are read natively so that only the requested bytes are
+ * fetched from the store.  Regions of file-backed resources are written with the
+ * container's sendfile support or {@link java.nio.channels.FileChannel#transferTo}.
+ */
+public class RangeableResourceRegionHttpMessageConverter extends ResourceRegionHttpMessageConverter {
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+			throws IOException, HttpMessageNotWritableException {
+
+		if (object instanceof ResourceRegion) {
+			writeResourceRegion((ResourceRegion) object, outputMessage);
+		}
+		else {
+			Collection<ResourceRegion> regions = (Collection<ResourceRegion>) object;
+			if (regions.size() == 1) {
+				writeResourceRegion(regions.iterator().next(), outputMessage);
+			}
+			else {
+				writeResourceRegionCollection(regions, outputMessage);
+			}
+		}
+	}
+
+	@Override
+	protected void writeResourceRegion(ResourceRegion region, HttpOutputMessage outputMessage) throws IOException {
+		Assert.notNull(region, "ResourceRegion must not be null");
+		HttpHeaders responseHeaders = outputMessage.getHeaders();
+
+		long start = region.getPosition();
+		long resourceLength = region.getResource().contentLength();
+		long end = Math.min(start + region.getCount() - 1, resourceLength - 1);
+		long rangeLength = end - start + 1;
+		responseHeaders.add("Content-Range", "bytes " + start + '-' + end + '/' + resourceLength);
+		responseHeaders.setContentLength(rangeLength);
+
+		File file = FileRegionWriter.getFile(region.getResource());
+		if (file != null) {
+			if (!FileRegionWriter.sendfile(file, start, rangeLength)) {
+				rangeLength = FileRegionWriter.transfer(file, start, rangeLength, outputMessage.getBody());
+			}
+			FileRegionWriter.recordRead(region.getResource(), rangeLength);
+			return;
+		}
+
+		try (InputStream in = getInputStream(region.getResource(), start, rangeLength)) {
+			ContentCopyUtils.copy(in, outputMessage.getBody());
+		}
+	}
+
+	private void writeResourceRegionCollection(Collection<ResourceRegion> regions, HttpOutputMessage outputMessage) throws IOException {
+		Assert.notNull(regions, "Collection of ResourceRegion should not be null");
+		HttpHeaders responseHeaders = outputMessage.getHeaders();
+
+		MediaType contentType = responseHeaders.getContentType();
+		String boundaryString = MimeTypeUtils.generateMultipartBoundaryString();
+		responseHeaders.set(HttpHeaders.CONTENT_TYPE, "multipart/byteranges; boundary=" + boundaryString);
+		OutputStream out = outputMessage.getBody();
+
+		for (ResourceRegion region : regions) {
+			long start = region.getPosition();
+			long resourceLength = region.getResource().contentLength();
+			long end = Math.min(start + region.getCount() - 1, resourceLength - 1);
+
+			println(out);
+			print(out, "--" + boundaryString);
+			println(out);
+			if (contentType != null) {
+				print(out, "Content-Type: " + contentType.toString());
+				println(out);
+			}
+			print(out, "Content-Range: bytes " + start + '-' + end + '/' + resourceLength);
+			println(out);
+			println(out);
+
+			File file = FileRegionWriter.getFile(region.getResource());
+			if (file != null) {
+				FileRegionWriter.recordRead(region.getResource(), FileRegionWriter.transfer(file, start, end - start + 1, out));
+				continue;
+			}
+			try (InputStream in = getInputStream(region.getResource(), start, end - start + 1)) {
+				ContentCopyUtils.copy(in, out);
+			}
+		}
+
+		println(out);
+		print(out, "--" + boundaryString + "--");
+	}
+
+	private static InputStream getInputStream(Resource resource, long offset, long length) throws IOException {
+		if (resource instanceof RangeableResource) {
+			return ((RangeableResource) resource).getInputStream(offset, length);
+		}
+		return BoundedInputStream.range(resource.getInputStream(), offset, length);
+	}
+
+	private static void println(OutputStream os) throws IOException {
+		os.write('\r');
+		os.write('\n');
+	}
+
+	private static void print(OutputStream os, String buf) throws IOException {
+		os.write(buf.getBytes("US-ASCII"));
+	}
+}
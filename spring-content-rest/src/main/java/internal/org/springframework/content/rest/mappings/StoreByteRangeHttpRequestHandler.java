@@ -11,6 +11,8 @@ import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
 public class StoreByteRangeHttpRequestHandler extends ResourceHttpRequestHandler {
 
 	public StoreByteRangeHttpRequestHandler() {
+		this.setResourceHttpMessageConverter(new FileResourceHttpMessageConverter());
+		this.setResourceRegionHttpMessageConverter(new RangeableResourceRegionHttpMessageConverter());
 	}
 
     @Override
@@ -2,12 +2,14 @@ package internal.org.springframework.content.rest.utils;
 
 import java.io.InputStream;
 import java.io.Serializable;
+import java.net.URL;
 import java.util.List;
 
 import org.atteo.evo.inflector.English;
 import org.springframework.content.commons.annotations.ContentLength;
 import org.springframework.content.commons.renditions.Renderable;
 import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.PresignedUrlStore;
 import org.springframework.content.commons.repository.Store;
 import org.springframework.content.commons.storeservice.ContentStoreInfo;
 import org.springframework.content.commons.storeservice.ContentStoreService;
@@ -69,6 +71,64 @@ public final class ContentStoreUtils {
 		return content;
 	}
 	
+	/**
+	 * Returns a presigned URL that the entity's content can be read from, if the store hands
+	 * them out and the content itself, rather than one of its renditions, is the best match
+	 * for the requested mime types.
+	 * 
+	 * @param store		the store the content is held in
+	 * @param entity	the entity whose content is being fetched
+	 * @param mimeTypes	the mime types requested
+	 * @param contentDisposition	the Content-Disposition the request asks for, or null
+	 * 
+	 * @return the URL, or null if the content should be fetched from the store
+	 */
+	public static URL getContentUrl(Object store, Object entity, List<MediaType> mimeTypes, String contentDisposition) {
+		if (store instanceof PresignedUrlStore == false)
+			return null;
+		
+		Object entityMimeType = BeanUtils.getFieldWithAnnotation(entity, org.springframework.content.commons.annotations.MimeType.class);
+		if (entityMimeType == null)
+			return null;
+		
+		MediaType targetMimeType = MediaType.valueOf(entityMimeType.toString());
+		
+		MediaType.sortBySpecificityAndQuality(mimeTypes);
+		
+		for (MediaType mimeType : mimeTypes) {
+			if (mimeType.includes(targetMimeType)) {
+				return getContentUrl(store, entity, contentDisposition);
+			} else if (store instanceof Renderable) {
+				// a rendition may match better
+				return null;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Returns a presigned URL that the entity's content can be read from, if the store hands
+	 * them out.  The URL's response has the entity's mime type as its content type, and the
+	 * request's Content-Disposition, if any.
+	 * 
+	 * @param store		the store the content is held in
+	 * @param entity	the entity whose content is being fetched
+	 * @param contentDisposition	the Content-Disposition the request asks for, or null
+	 * 
+	 * @return the URL, or null if the content should be fetched from the store
+	 */
+	@SuppressWarnings("unchecked")
+	public static URL getContentUrl(Object store, Object entity, String contentDisposition) {
+		if (store instanceof PresignedUrlStore == false)
+			return null;
+		
+		Object entityMimeType = null;
+		if (BeanUtils.hasFieldWithAnnotation(entity, org.springframework.content.commons.annotations.MimeType.class)) {
+			entityMimeType = BeanUtils.getFieldWithAnnotation(entity, org.springframework.content.commons.annotations.MimeType.class);
+		}
+		return ((PresignedUrlStore<Object>)store).getContentUrl(entity, entityMimeType != null ? entityMimeType.toString() : null, contentDisposition);
+	}
+	
 	public static ContentStoreInfo findContentStore(ContentStoreService stores, Class<?> contentEntityClass) {
 		
 		for (ContentStoreInfo info : stores.getStores(ContentStore.class)) {
@@ -129,6 +129,17 @@ public class ContentEntityRestControllerIntegrationTest {
 						assertThat(IOUtils.toString(contentRepository.getContent(fetched)), is("Hello New Spring Content World!"));
 					});
 				});
+				Context("a presigned PUT to /{repository}/{id} of a store without presigned URLs", () -> {
+					It("should return 405 and leave the entity unchanged", () -> {
+						mvc.perform(put("/testEntities/" + testEntity.id.toString()).param("presigned", "")
+						.content("")
+						.contentType("text/plain"))
+						.andExpect(status().isMethodNotAllowed());
+
+						TestEntity fetched = repository.findOne(testEntity.id);
+						assertThat(fetched.contentId, is(nullValue()));
+					});
+				});
 				Context("a DELETE to /{repsotiory}/{id} with a mime-type", () -> {
 					It("should return 404", () -> {
 						mvc.perform(delete("/testEntities/" + testEntity.id)
@@ -7,6 +7,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
 import java.util.UUID;
 
 import org.apache.commons.io.IOUtils;
@@ -23,6 +24,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.WebApplicationContext;
@@ -99,6 +101,33 @@ public class StoreRestControllerIntegrationTest {
 					assertThat(response, is(not(nullValue())));
 					assertThat(response.getContentAsString(), is("cont"));
     			});
+    			It("should return multiple byte ranges when requested", () -> {
+					MockHttpServletResponse response = mvc.perform(get(request)
+							.header("range", "bytes=0-7,9-12"))
+							.andExpect(status().isPartialContent())
+							.andReturn().getResponse();
+
+					assertThat(response.getContentType().startsWith("multipart/byteranges"), is(true));
+					assertThat(response.getContentAsString().contains("Content-Range: bytes 0-7/16\r\n\r\nExisting\r\n"), is(true));
+					assertThat(response.getContentAsString().contains("Content-Range: bytes 9-12/16\r\n\r\ncont\r\n"), is(true));
+    			});
+    			It("should hand large content to the container's sendfile support", () -> {
+    				Resource r = store.getResource(path);
+    				try (OutputStream out = ((WritableResource)r).getOutputStream()) {
+    					out.write(new byte[64 * 1024]);
+    				}
+
+					MvcResult result = mvc.perform(get(request)
+							.header("range", "bytes=1024-")
+							.requestAttr("org.apache.tomcat.sendfile.support", true))
+							.andExpect(status().isPartialContent())
+							.andReturn();
+
+					assertThat(result.getRequest().getAttribute("org.apache.tomcat.sendfile.filename"), is(r.getFile().getCanonicalPath()));
+					assertThat(result.getRequest().getAttribute("org.apache.tomcat.sendfile.start"), is(1024L));
+					assertThat(result.getRequest().getAttribute("org.apache.tomcat.sendfile.end"), is(64L * 1024));
+					assertThat(result.getResponse().getContentAsByteArray().length, is(0));
+    			});
     			It("should overwrite the resource's content", () -> {
 					mvc.perform(put(request)
 							.content("New Existing content")
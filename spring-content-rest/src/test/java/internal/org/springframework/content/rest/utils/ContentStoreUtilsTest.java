@@ -2,6 +2,7 @@ package internal.org.springframework.content.rest.utils;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.net.URL;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
@@ -10,6 +11,7 @@ import org.junit.runner.RunWith;
 import org.mockito.InOrder;
 import org.springframework.content.commons.renditions.Renderable;
 import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.PresignedUrlStore;
 import org.springframework.content.commons.storeservice.ContentStoreInfo;
 import org.springframework.content.commons.storeservice.ContentStoreService;
 import org.springframework.content.rest.StoreRestResource;
@@ -19,6 +21,7 @@ import org.springframework.http.MediaType;
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 import static org.mockito.Matchers.anyObject;
@@ -55,6 +58,8 @@ public class ContentStoreUtilsTest {
 	private List<MediaType> mimeTypes;
 	private InputStream content;
 	private HttpHeaders headers;
+	private PresignedStore presignedStore;
+	private URL url;
 	
 	{
 		Describe("ContentStoreUtilsTest", () -> {
@@ -278,6 +283,40 @@ public class ContentStoreUtilsTest {
 				});
 			});
 		});
+		Context("presigned content URLs", () -> {
+			BeforeEach(() -> {
+				presignedStore = mock(PresignedStore.class);
+				when(presignedStore.getContentUrl(anyObject(), anyObject(), anyObject())).thenReturn(new URL("https://some-bucket.s3.amazonaws.com/some-key?signed"));
+				entity = new TestEntity();
+				entity.setMimeType("application/word");
+			});
+			It("should presign a URL with the entity's mime type when the content matches", () -> {
+				mimeTypes = Arrays.asList(new MediaType[] {MediaType.valueOf("text/xml"), MediaType.valueOf("*/*")});
+				url = ContentStoreUtils.getContentUrl(presignedStore, entity, mimeTypes, null);
+				assertThat(url.toString(), is("https://some-bucket.s3.amazonaws.com/some-key?signed"));
+				verify(presignedStore).getContentUrl(eq(entity), eq("application/word"), eq(null));
+			});
+			It("should presign a URL with the request's Content-Disposition", () -> {
+				mimeTypes = Arrays.asList(new MediaType[] {MediaType.ALL});
+				url = ContentStoreUtils.getContentUrl(presignedStore, entity, mimeTypes, "attachment; filename=\"some.doc\"");
+				verify(presignedStore).getContentUrl(eq(entity), eq("application/word"), eq("attachment; filename=\"some.doc\""));
+			});
+			It("should not presign a URL when the content does not match", () -> {
+				mimeTypes = Arrays.asList(new MediaType[] {MediaType.valueOf("text/html")});
+				assertThat(ContentStoreUtils.getContentUrl(presignedStore, entity, mimeTypes, null), is(nullValue()));
+				verify(presignedStore, never()).getContentUrl(anyObject(), anyObject(), anyObject());
+			});
+			It("should not presign a URL when a rendition may match better", () -> {
+				presignedStore = mock(PresignedStoreWithRenderable.class);
+				mimeTypes = Arrays.asList(new MediaType[] {MediaType.valueOf("text/xml"), MediaType.valueOf("*/*")});
+				assertThat(ContentStoreUtils.getContentUrl(presignedStore, entity, mimeTypes, null), is(nullValue()));
+				verify(presignedStore, never()).getContentUrl(anyObject(), anyObject(), anyObject());
+			});
+			It("should not presign a URL for stores that do not support them", () -> {
+				mimeTypes = Arrays.asList(new MediaType[] {MediaType.ALL});
+				assertThat(ContentStoreUtils.getContentUrl(mock(StoreWithRenderable.class), entity, mimeTypes, null), is(nullValue()));
+			});
+		});
 	}
 	
 	@ContentStoreRestResource
@@ -303,4 +342,12 @@ public class ContentStoreUtilsTest {
 	public static interface StoreWithRenderable extends ContentStore<TestEntity, UUID>, Renderable<TestEntity> {
 		//
 	}
+	
+	public static interface PresignedStore extends ContentStore<TestEntity, UUID>, PresignedUrlStore<TestEntity> {
+		//
+	}
+	
+	public static interface PresignedStoreWithRenderable extends PresignedStore, Renderable<TestEntity> {
+		//
+	}
 }
@@ -1,13 +1,32 @@
 package internal.org.springframework.content.s3.config;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.aws.core.io.s3.SimpleStorageResourceLoader;
 import org.springframework.content.commons.repository.factory.AbstractStoreFactoryBean;
+import org.springframework.content.s3.config.MultipartUpload;
+import org.springframework.content.s3.config.ParallelDownload;
+import org.springframework.content.s3.config.PresignedUrls;
+import org.springframework.content.s3.config.ReactiveConcurrency;
+import org.springframework.content.s3.config.UploadSpool;
+import org.springframework.content.s3.io.S3ObjectPlacement;
+import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.StringUtils;
 
 import com.amazonaws.services.s3.AmazonS3;
 
+import internal.org.springframework.content.s3.io.MultipartUploader;
+import internal.org.springframework.content.s3.io.ParallelDownloader;
+import internal.org.springframework.content.s3.io.UploadSpooler;
+import internal.org.springframework.content.s3.store.DefaultReactiveS3StoreImpl;
 import internal.org.springframework.content.s3.store.DefaultS3StoreImpl;
 
 @SuppressWarnings("rawtypes")
@@ -24,9 +43,79 @@ public class S3StoreFactoryBean extends AbstractStoreFactoryBean {
 
 	@Value("${spring.content.s3.bucket:#{environment.AWS_BUCKET}}")
 	private String bucket;
+
+	@Value("${spring.content.s3.buckets:}")
+	private String[] buckets;
+
+	@Value("${spring.content.s3.key-prefix-width:0}")
+	private int keyPrefixWidth;
 	
 	@Override
 	protected Object getContentStoreImpl() {
-		return new DefaultS3StoreImpl(loader, s3StoreConverter, client, bucket);
+		DefaultS3StoreImpl store = new DefaultS3StoreImpl(loader, s3StoreConverter, client, bucket);
+		store.setPlacement(getPlacement());
+		MultipartUpload multipart = AnnotationUtils.findAnnotation(getStoreInterface(), MultipartUpload.class);
+		if (multipart != null) {
+			store.setUploader(new MultipartUploader(client, multipart));
+		}
+		ParallelDownload download = AnnotationUtils.findAnnotation(getStoreInterface(), ParallelDownload.class);
+		if (download != null) {
+			store.setDownloader(new ParallelDownloader(client, download));
+		}
+		UploadSpool spool = AnnotationUtils.findAnnotation(getStoreInterface(), UploadSpool.class);
+		if (spool != null) {
+			store.setSpooler(new UploadSpooler(spool));
+		}
+		PresignedUrls presigned = AnnotationUtils.findAnnotation(getStoreInterface(), PresignedUrls.class);
+		if (presigned != null) {
+			store.setPresignedUrlExpiry(presigned.expiry());
+		}
+		return store;
+	}
+
+	@Override
+	protected Object getReactiveContentStoreImpl() {
+		ReactiveConcurrency concurrency = AnnotationUtils.findAnnotation(getStoreInterface(), ReactiveConcurrency.class);
+		int threads = concurrency != null ? concurrency.value() : Defaults.class.getAnnotation(ReactiveConcurrency.class).value();
+
+		// S3 calls block, so they are moved off the caller's thread onto a pool bounding the
+		// operations that run at once
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("s3-store-");
+		threadFactory.setDaemon(true);
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+		executor.allowCoreThreadTimeOut(true);
+
+		DefaultReactiveS3StoreImpl store = new DefaultReactiveS3StoreImpl(loader, s3StoreConverter, client, bucket, executor);
+		store.setPlacement(getPlacement());
+		MultipartUpload multipart = AnnotationUtils.findAnnotation(getStoreInterface(), MultipartUpload.class);
+		if (multipart != null) {
+			store.setUploader(new MultipartUploader(client, multipart));
+		}
+		ParallelDownload download = AnnotationUtils.findAnnotation(getStoreInterface(), ParallelDownload.class);
+		if (download != null) {
+			store.setDownloader(new ParallelDownloader(client, download));
+		}
+		UploadSpool spool = AnnotationUtils.findAnnotation(getStoreInterface(), UploadSpool.class);
+		if (spool != null) {
+			store.setSpooler(new UploadSpooler(spool));
+		}
+		return store;
+	}
+
+	private S3ObjectPlacement getPlacement() {
+		List<String> placed = new ArrayList<>();
+		for (String name : buckets != null ? buckets : new String[0]) {
+			if (StringUtils.hasText(name)) {
+				placed.add(name.trim());
+			}
+		}
+		if (placed.isEmpty()) {
+			placed.add(bucket);
+		}
+		return new S3ObjectPlacement(placed, keyPrefixWidth);
+	}
+
+	@ReactiveConcurrency
+	private static class Defaults {
 	}
 }
@@ -0,0 +1,793 @@
+package internal.org.springframework.content.s3.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.content.s3.config.MultipartUpload;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.retry.RetryUtils;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.model.CopyPartRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+
+/**
+ * Uploads streams to S3, as concurrent parts of a multipart upload once they exceed a
+ * threshold.
+ * <p>
+ * Each part is read into its own buffer, which is released once the part is uploaded,
+ * and no more than {@code concurrency} parts are buffered at once.  Parts are at least
+ * 5MB, S3's minimum, and an upload fails before it would take more than S3's maximum of
+ * 10,000 parts.  Failed parts are retried with exponential backoff; if a part still
+ * fails the multipart upload is aborted, so that S3 does not keep, and charge for, its
+ * uploaded parts.  These retries are made on top of those of the client's own retry
+ * policy, so a request is attempted up to {@code (retries + 1) * (maxErrorRetry + 1)}
+ * times.
+ * <p>
+ * Given an {@link UploadSpooler}, content within the single PUT threshold is spooled
+ * rather than buffered, and larger content is uploaded in parts as it is written.  Part
+ * buffers are reserved against the spooler's {@link UploadLimiter}, or the shared one
+ * when there is no spooler, as spooled content is; so an upload holds at most
+ * {@code concurrency * partSize} bytes of it.
+ * <p>
+ * Parts are uploaded on the uploader's own threads, of which there are at most
+ * {@code concurrency * 4}.  Once they are all busy, and as many parts again are queued,
+ * the thread writing an upload uploads its next part itself.
+ * <p>
+ * Objects are copied within S3, so that their content does not pass through the JVM;
+ * large objects as concurrent parts of a multipart copy.
+ */
+public class MultipartUploader {
+
+	private static Log logger = LogFactory.getLog(MultipartUploader.class);
+
+	private static final long RETRY_BACKOFF_MILLIS = 100;
+
+	static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+	static final int MAX_PARTS = 10000;
+
+	private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+	// the number of uploads per uploader whose parts may all be uploading at once
+	static final int MAX_UPLOADS = 4;
+
+	private static final MultipartUpload DEFAULTS = Defaults.class.getAnnotation(MultipartUpload.class);
+
+	private final AmazonS3 client;
+	private final int partSize;
+	private final int concurrency;
+	private final long threshold;
+	private final int retries;
+	private final long copyThreshold;
+	private final long copyPartSize;
+	private final ExecutorService executor;
+
+	public MultipartUploader(AmazonS3 client) {
+		this(client, DEFAULTS);
+	}
+
+	public MultipartUploader(AmazonS3 client, MultipartUpload config) {
+		this(client, config.partSize(), config.concurrency(), config.threshold(), config.retries(), config.copyThreshold(), config.copyPartSize());
+	}
+
+	public MultipartUploader(AmazonS3 client, int partSize, int concurrency, long threshold, int retries) {
+		this(client, partSize, concurrency, threshold, retries, DEFAULTS.copyThreshold(), DEFAULTS.copyPartSize());
+	}
+
+	public MultipartUploader(AmazonS3 client, int partSize, int concurrency, long threshold, int retries, long copyThreshold, long copyPartSize) {
+		this(client, partSize, concurrency, threshold, retries, copyThreshold, copyPartSize, MIN_PART_SIZE);
+	}
+
+	// minPartSize lets tests use parts smaller than S3 accepts
+	MultipartUploader(AmazonS3 client, int partSize, int concurrency, long threshold, int retries, long copyThreshold, long copyPartSize, long minPartSize) {
+		Assert.notNull(client, "client cannot be null");
+		Assert.isTrue(partSize >= minPartSize, String.format("partSize must be at least %d bytes", minPartSize));
+		Assert.isTrue(concurrency > 0, "concurrency must be positive");
+		Assert.isTrue(retries >= 0, "retries cannot be negative");
+		Assert.isTrue(copyPartSize >= minPartSize, String.format("copyPartSize must be at least %d bytes", minPartSize));
+		this.client = client;
+		this.partSize = partSize;
+		this.concurrency = concurrency;
+		this.threshold = threshold;
+		this.retries = retries;
+		this.copyThreshold = copyThreshold;
+		this.copyPartSize = copyPartSize;
+
+		// at most MAX_UPLOADS uploads' worth of parts are uploaded at once, as many again
+		// queue, and beyond that the writer uploads its part itself; idle threads exit
+		int threads = concurrency * MAX_UPLOADS;
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("s3-multipart-upload-");
+		threadFactory.setDaemon(true);
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(threads), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.allowCoreThreadTimeOut(true);
+		this.executor = executor;
+	}
+
+	public int getPartSize() {
+		return partSize;
+	}
+
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	public long getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * Uploads content to an object, replacing any existing one.
+	 *
+	 * @return the length and ETag of the uploaded object
+	 * @throws IOException
+	 * 					if content cannot be read or the upload fails
+	 */
+	public Result upload(String bucket, String key, InputStream content) throws IOException {
+		UploadLimiter.Reservation reservation = UploadLimiter.getShared().open();
+		PartsOutputStream out = new PartsOutputStream(bucket, key, reservation);
+		try {
+			out.transferFrom(content);
+			return out.finish();
+		} catch (IOException | RuntimeException e) {
+			out.abort();
+			throw e;
+		} finally {
+			reservation.close();
+		}
+	}
+
+	/**
+	 * Uploads content to an object, replacing any existing one.  Content within the single
+	 * PUT threshold is spooled, so that it is uploaded with a known length without being
+	 * held on the heap; the parts of larger content are uploaded as it is read.
+	 *
+	 * @return the length and ETag of the uploaded object
+	 * @throws IOException
+	 * 					if content cannot be read or the upload fails
+	 */
+	public Result upload(String bucket, String key, InputStream content, UploadSpooler spooler) throws IOException {
+		UploadStream out = open(bucket, key, spooler);
+		try {
+			byte[] buffer = new byte[COPY_BUFFER_SIZE];
+			int n;
+			while ((n = content.read(buffer)) != -1) {
+				out.write(buffer, 0, n);
+			}
+			out.close();
+			return out.getResult();
+		} catch (IOException | RuntimeException e) {
+			out.abort();
+			throw e;
+		}
+	}
+
+	/**
+	 * Uploads the content of a publisher to an object, replacing any existing one, as by
+	 * {@link #upload(String, String, InputStream, UploadSpooler)}.  Each buffer published
+	 * is written to the spool or part buffers on executor, where the upload's S3 requests
+	 * are made, and the next buffer is only requested once it has been written; so no
+	 * thread waits for the publisher.
+	 *
+	 * @return a future completed with the length and ETag of the uploaded object
+	 */
+	public CompletableFuture<Result> upload(String bucket, String key, Publisher<ByteBuffer> content, UploadSpooler spooler, Executor executor) {
+		UploadSubscriber subscriber = new UploadSubscriber(bucket, key, spooler, executor);
+		content.subscribe(subscriber);
+		return subscriber.result;
+	}
+
+	/**
+	 * Opens a stream whose content is uploaded to an object, replacing any existing one,
+	 * as by {@link #upload(String, String, InputStream, UploadSpooler)}.  The upload is
+	 * completed when the stream is closed.
+	 *
+	 * @throws IOException
+	 * 					if interrupted while the spooler's limiter is at capacity
+	 */
+	public UploadStream open(String bucket, String key, UploadSpooler spooler) throws IOException {
+		UploadLimiter.Reservation reservation = spooler.getLimiter().open();
+		return new UploadStream(bucket, key, spooler.open(reservation), reservation);
+	}
+
+	// the largest content uploaded with a single PUT; larger content does not fit in the
+	// part buffers
+	private long getSinglePutLimit() {
+		return Math.min(threshold, (long) partSize * concurrency);
+	}
+
+	private String put(String bucket, String key, UploadSpooler.Spool spool) throws IOException {
+		long length = spool.length();
+		ObjectMetadata metadata = new ObjectMetadata();
+		metadata.setContentLength(length);
+		return withRetries(() -> client.putObject(new PutObjectRequest(bucket, key, read(spool, length), metadata)).getETag());
+	}
+
+	// opened within a request, so that each attempt reads the content afresh
+	private static InputStream read(UploadSpooler.Spool spool, long length) {
+		try {
+			return spool.getInputStream(0, length);
+		} catch (IOException e) {
+			throw new AmazonClientException("Unable to read spooled content", e);
+		}
+	}
+
+	/**
+	 * Copies an object, replacing any existing target.
+	 *
+	 * @return the length and ETag of the target, or null if source does not exist
+	 * @throws IOException
+	 * 					if the copy fails
+	 */
+	public Result copy(String sourceBucket, String sourceKey, String bucket, String key) throws IOException {
+		ObjectMetadata source;
+		try {
+			source = withRetries(() -> client.getObjectMetadata(sourceBucket, sourceKey));
+		} catch (IOException e) {
+			if (e.getCause() instanceof AmazonServiceException && ((AmazonServiceException) e.getCause()).getStatusCode() == 404) {
+				return null;
+			}
+			throw e;
+		}
+		long length = source.getContentLength();
+		if (length <= copyThreshold) {
+			String etag = withRetries(() -> client.copyObject(new CopyObjectRequest(sourceBucket, sourceKey, bucket, key)).getETag());
+			return new Result(length, etag);
+		}
+
+		// the length is known, so parts are made large enough to stay within the part limit
+		long partSize = Math.max(copyPartSize, (length + MAX_PARTS - 1) / MAX_PARTS);
+		Semaphore permits = new Semaphore(concurrency);
+		Upload upload = new Upload(bucket, key, permits, null);
+		try {
+			int part = 0;
+			for (long offset = 0; offset < length; offset += partSize) {
+				acquire(permits);
+				upload.checkFailure();
+				upload.submitCopy(sourceBucket, sourceKey, ++part, offset, Math.min(offset + partSize, length) - 1);
+			}
+			return new Result(length, upload.complete());
+		} catch (IOException | RuntimeException e) {
+			upload.abort();
+			throw e;
+		}
+	}
+
+	private String put(String bucket, String key, List<Part> parts, long length) throws IOException {
+		ObjectMetadata metadata = new ObjectMetadata();
+		metadata.setContentLength(length);
+		return withRetries(() -> {
+			List<InputStream> streams = new ArrayList<>();
+			for (Part part : parts) {
+				streams.add(part.getInputStream());
+			}
+			return client.putObject(new PutObjectRequest(bucket, key, new SequenceInputStream(Collections.enumeration(streams)), metadata)).getETag();
+		});
+	}
+
+	private <T> T withRetries(Supplier<T> request) throws IOException {
+		for (int attempt = 0; ; attempt++) {
+			try {
+				return request.get();
+			} catch (AmazonClientException e) {
+				if (attempt >= retries || !isRetryable(e)) {
+					throw new IOException(e);
+				}
+				logger.debug(String.format("Retrying S3 request after attempt %d failed", attempt + 1), e);
+				try {
+					Thread.sleep(RETRY_BACKOFF_MILLIS << attempt);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException();
+				}
+			}
+		}
+	}
+
+	private static boolean isRetryable(AmazonClientException e) {
+		if (e instanceof AmazonServiceException) {
+			return RetryUtils.isRetryableServiceException(e) || RetryUtils.isThrottlingException(e);
+		}
+		return e.isRetryable();
+	}
+
+	private static void acquire(Semaphore permits) throws IOException {
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		}
+	}
+
+	/**
+	 * A stream whose content is spooled while it is within the single PUT threshold and
+	 * uploaded in parts once it is over it.  Closing the stream completes the upload; if
+	 * a write fails the upload is abandoned.
+	 */
+	public class UploadStream extends OutputStream {
+
+		private final String bucket;
+		private final String key;
+		private final UploadLimiter.Reservation reservation;
+		private UploadSpooler.Spool spool;
+		private PartsOutputStream parts;
+		private Result result;
+		private boolean closed;
+
+		UploadStream(String bucket, String key, UploadSpooler.Spool spool, UploadLimiter.Reservation reservation) {
+			this.bucket = bucket;
+			this.key = key;
+			this.spool = spool;
+			this.reservation = reservation;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (closed) {
+				throw new IOException("Stream closed");
+			}
+			try {
+				if (parts == null && spool.length() + len > getSinglePutLimit()) {
+					// the spooled content becomes the first parts, and its spool is freed
+					parts = new PartsOutputStream(bucket, key, reservation);
+					spool.close();
+					try (InputStream in = spool.getInputStream(0, spool.length())) {
+						parts.transferFrom(in);
+					}
+					spool.release();
+					spool = null;
+				}
+				if (parts != null) {
+					parts.write(b, off, len);
+				} else {
+					spool.write(b, off, len);
+				}
+			} catch (IOException | RuntimeException e) {
+				abort();
+				throw e;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			try {
+				if (parts != null) {
+					result = parts.finish();
+				} else {
+					spool.close();
+					result = new Result(spool.length(), put(bucket, key, spool));
+				}
+			} catch (IOException | RuntimeException e) {
+				abort();
+				throw e;
+			} finally {
+				if (spool != null) {
+					spool.release();
+				}
+				reservation.close();
+			}
+		}
+
+		/**
+		 * Returns the object written once the stream has been closed.
+		 */
+		public Result getResult() {
+			return result;
+		}
+
+		private void abort() {
+			closed = true;
+			if (spool != null) {
+				spool.release();
+			}
+			if (parts != null) {
+				parts.abort();
+			}
+			reservation.close();
+		}
+	}
+
+	// writes published buffers to an upload stream, one after the other on the executor
+	private class UploadSubscriber implements Subscriber<ByteBuffer> {
+
+		private final String bucket;
+		private final String key;
+		private final UploadSpooler spooler;
+		private final Executor executor;
+		private final CompletableFuture<Result> result = new CompletableFuture<>();
+		private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+		private Subscription subscription;
+		private UploadStream out;
+
+		UploadSubscriber(String bucket, String key, UploadSpooler spooler, Executor executor) {
+			this.bucket = bucket;
+			this.key = key;
+			this.spooler = spooler;
+			this.executor = executor;
+		}
+
+		@Override
+		public void onSubscribe(Subscription subscription) {
+			if (this.subscription != null) {
+				subscription.cancel();
+				return;
+			}
+			this.subscription = subscription;
+			subscription.request(1);
+		}
+
+		@Override
+		public void onNext(ByteBuffer buffer) {
+			then(() -> {
+				if (buffer.hasArray()) {
+					stream().write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+				} else {
+					byte[] bytes = new byte[buffer.remaining()];
+					buffer.get(bytes);
+					stream().write(bytes);
+				}
+				subscription.request(1);
+			});
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			then(() -> fail(t));
+		}
+
+		@Override
+		public void onComplete() {
+			then(() -> {
+				UploadStream out = stream();
+				out.close();
+				result.complete(out.getResult());
+			});
+		}
+
+		private UploadStream stream() throws IOException {
+			if (out == null) {
+				out = open(bucket, key, spooler);
+			}
+			return out;
+		}
+
+		private synchronized void then(Step step) {
+			tail = tail.thenRunAsync(() -> {
+				if (result.isDone()) {
+					return;
+				}
+				try {
+					step.run();
+				} catch (Throwable t) {
+					subscription.cancel();
+					fail(t);
+				}
+			}, executor);
+		}
+
+		private void fail(Throwable t) {
+			if (out != null && !out.closed) {
+				out.abort();
+			}
+			result.completeExceptionally(t);
+		}
+	}
+
+	private interface Step {
+		void run() throws Throwable;
+	}
+
+	// buffers content into parts, which are uploaded concurrently once the content is over
+	// the threshold.  No more than concurrency parts are buffered at once, and each is
+	// reserved against the upload's reservation until it has been uploaded.
+	private class PartsOutputStream extends OutputStream {
+
+		private final String bucket;
+		private final String key;
+		private final UploadLimiter.Reservation reservation;
+		private final Semaphore buffers = new Semaphore(concurrency);
+		private final List<Part> buffered = new ArrayList<>();
+		private Upload upload;
+		private int parts;
+		private long length;
+		private byte[] buffer;
+		private int position;
+
+		PartsOutputStream(String bucket, String key, UploadLimiter.Reservation reservation) {
+			this.bucket = bucket;
+			this.key = key;
+			this.reservation = reservation;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			while (len > 0) {
+				if (buffer == null) {
+					next();
+				}
+				int n = Math.min(len, partSize - position);
+				System.arraycopy(b, off, buffer, position, n);
+				position += n;
+				off += n;
+				len -= n;
+				if (position == partSize) {
+					flushPart();
+				}
+			}
+		}
+
+		// reads content straight into the part buffers
+		void transferFrom(InputStream content) throws IOException {
+			while (true) {
+				if (buffer == null) {
+					// content that ends with the last part S3 allows is not over the limit
+					if (parts == MAX_PARTS && content.read() == -1) {
+						return;
+					}
+					next();
+				}
+				int n = content.read(buffer, position, partSize - position);
+				if (n == -1) {
+					return;
+				}
+				position += n;
+				if (position == partSize) {
+					flushPart();
+				}
+			}
+		}
+
+		private void next() throws IOException {
+			if (parts == MAX_PARTS) {
+				throw new IOException(String.format("Content of %s is larger than %d parts of %d bytes", key, MAX_PARTS, partSize));
+			}
+			if (upload == null && (length > threshold || buffered.size() == concurrency)) {
+				upload = new Upload(bucket, key, buffers, reservation);
+				upload.submitAll(buffered);
+				buffered.clear();
+			}
+
+			acquire(buffers);
+			try {
+				reservation.reserve(partSize);
+			} catch (IOException e) {
+				buffers.release();
+				throw e;
+			}
+			if (upload != null) {
+				upload.checkFailure();
+			}
+			buffer = new byte[partSize];
+			position = 0;
+		}
+
+		private void flushPart() {
+			Part part = new Part(++parts, buffer, position);
+			length += position;
+			buffer = null;
+			if (upload == null) {
+				buffered.add(part);
+			} else {
+				upload.submit(part);
+			}
+		}
+
+		Result finish() throws IOException {
+			if (buffer != null && position > 0) {
+				flushPart();
+			} else if (buffer != null) {
+				buffer = null;
+				buffers.release();
+				reservation.release(partSize);
+			}
+
+			if (upload == null && length > threshold) {
+				upload = new Upload(bucket, key, buffers, reservation);
+				upload.submitAll(buffered);
+			}
+			if (upload == null) {
+				return new Result(length, put(bucket, key, buffered, length));
+			}
+			return new Result(length, upload.complete());
+		}
+
+		void abort() {
+			if (upload != null) {
+				upload.abort();
+			}
+		}
+	}
+
+	private static class Part {
+
+		private final int number;
+		private final byte[] buffer;
+		private final int length;
+
+		Part(int number, byte[] buffer, int length) {
+			this.number = number;
+			this.buffer = buffer;
+			this.length = length;
+		}
+
+		InputStream getInputStream() {
+			return new ByteArrayInputStream(buffer, 0, length);
+		}
+	}
+
+	private class Upload {
+
+		private final String bucket;
+		private final String key;
+		private final String uploadId;
+		private final Semaphore permits;
+		private final UploadLimiter.Reservation reservation;
+		private final List<Future<PartETag>> parts = new ArrayList<>();
+		private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+		// a permit is released as each part completes, along with the part's buffer from
+		// reservation, if given
+		Upload(String bucket, String key, Semaphore permits, UploadLimiter.Reservation reservation) throws IOException {
+			this.bucket = bucket;
+			this.key = key;
+			this.permits = permits;
+			this.reservation = reservation;
+			this.uploadId = withRetries(() -> client.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucket, key)).getUploadId());
+		}
+
+		void submitAll(List<Part> parts) {
+			for (Part part : parts) {
+				submit(part);
+			}
+		}
+
+		void submit(Part part) {
+			reservation.drain(part.buffer.length);
+			submit(part.buffer.length, () -> client.uploadPart(new UploadPartRequest()
+					.withBucketName(bucket)
+					.withKey(key)
+					.withUploadId(uploadId)
+					.withPartNumber(part.number)
+					.withPartSize(part.length)
+					.withInputStream(part.getInputStream())).getPartETag());
+		}
+
+		void submitCopy(String sourceBucket, String sourceKey, int number, long firstByte, long lastByte) {
+			submit(0, () -> client.copyPart(new CopyPartRequest()
+					.withSourceBucketName(sourceBucket)
+					.withSourceKey(sourceKey)
+					.withDestinationBucketName(bucket)
+					.withDestinationKey(key)
+					.withUploadId(uploadId)
+					.withPartNumber(number)
+					.withFirstByte(firstByte)
+					.withLastByte(lastByte)).getPartETag());
+		}
+
+		private void submit(long buffered, Supplier<PartETag> request) {
+			parts.add(executor.submit(() -> {
+				try {
+					return withRetries(request);
+				} catch (IOException | RuntimeException e) {
+					failure.compareAndSet(null, e);
+					throw e;
+				} finally {
+					if (buffered > 0) {
+						reservation.release(buffered);
+					}
+					permits.release();
+				}
+			}));
+		}
+
+		// stops reading content as soon as a part has failed
+		void checkFailure() throws IOException {
+			Throwable t = failure.get();
+			if (t != null) {
+				throw t instanceof IOException ? (IOException) t : new IOException(t);
+			}
+		}
+
+		String complete() throws IOException {
+			List<PartETag> etags = new ArrayList<>();
+			for (Future<PartETag> part : parts) {
+				try {
+					etags.add(part.get());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException();
+				} catch (ExecutionException e) {
+					throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+				}
+			}
+			return withRetries(() -> client.completeMultipartUpload(new CompleteMultipartUploadRequest(bucket, key, uploadId, etags)).getETag());
+		}
+
+		void abort() {
+			for (Future<PartETag> part : parts) {
+				part.cancel(true);
+			}
+			try {
+				client.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, key, uploadId));
+			} catch (AmazonClientException e) {
+				logger.warn(String.format("Unable to abort multipart upload %s of %s", uploadId, key), e);
+			}
+		}
+	}
+
+	/**
+	 * The object written by an upload, as returned by S3; so that it need not be read
+	 * back.
+	 */
+	public static class Result {
+
+		private final long length;
+		private final String etag;
+
+		Result(long length, String etag) {
+			this.length = length;
+			this.etag = etag;
+		}
+
+		public long getLength() {
+			return length;
+		}
+
+		public String getETag() {
+			return etag;
+		}
+	}
+
+	@MultipartUpload
+	private static class Defaults {
+	}
+}
@@ -0,0 +1,285 @@
+package internal.org.springframework.content.s3.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.content.s3.config.ParallelDownload;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+
+/**
+ * Downloads large S3 objects as concurrent ranged GETs.
+ * <p>
+ * A download starts from a GET the caller has already made; its content is streamed as
+ * the first part, and its length and ETag bound the range and pin the other parts to
+ * the same version of the object.  The returned stream fetches up to {@code concurrency}
+ * parts ahead of the reader and returns them in order, so at most
+ * {@code concurrency + 1} parts are held in memory.
+ * <p>
+ * Parts are fetched on the downloader's own threads, of which there are at most
+ * {@code concurrency * 4}.  Once they are all busy, and as many parts again are queued,
+ * the reader fetches its next part itself.
+ */
+public class ParallelDownloader {
+
+	// the number of downloads per downloader whose parts may all be fetched at once
+	static final int MAX_DOWNLOADS = 4;
+
+	private final AmazonS3 client;
+	private final int partSize;
+	private final int concurrency;
+	private final long threshold;
+	private final ExecutorService executor;
+
+	public ParallelDownloader(AmazonS3 client) {
+		this(client, Defaults.class.getAnnotation(ParallelDownload.class));
+	}
+
+	public ParallelDownloader(AmazonS3 client, ParallelDownload config) {
+		this(client, config.partSize(), config.concurrency(), config.threshold());
+	}
+
+	public ParallelDownloader(AmazonS3 client, int partSize, int concurrency, long threshold) {
+		Assert.notNull(client, "client cannot be null");
+		Assert.isTrue(partSize > 0, "partSize must be positive");
+		Assert.isTrue(concurrency > 0, "concurrency must be positive");
+		this.client = client;
+		this.partSize = partSize;
+		this.concurrency = concurrency;
+		this.threshold = threshold;
+
+		// at most MAX_DOWNLOADS downloads' worth of parts are fetched at once, as many again
+		// queue, and beyond that the reader fetches its part itself; idle threads exit
+		int threads = concurrency * MAX_DOWNLOADS;
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("s3-parallel-download-");
+		threadFactory.setDaemon(true);
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(threads), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.allowCoreThreadTimeOut(true);
+		this.executor = executor;
+	}
+
+	/**
+	 * Returns whether content of length should be downloaded in parts.
+	 */
+	public boolean appliesTo(long length) {
+		return length > threshold;
+	}
+
+	public int getPartSize() {
+		return partSize;
+	}
+
+	/**
+	 * Opens a range of an object that is fetched in parts, the first of them from first.
+	 *
+	 * @param first
+	 * 					a GET, ranged or not, of the object from offset; at most a part of its
+	 * 					content is read
+	 * @param offset
+	 * 					the first byte of the range
+	 * @param end
+	 * 					the byte after the last of the range; a range past the end of the
+	 * 					object is clamped to it
+	 * @return the range's content
+	 */
+	public InputStream download(String bucket, String key, S3Object first, long offset, long end) {
+		ObjectMetadata metadata = first.getObjectMetadata();
+		return new PartsInputStream(bucket, key, metadata.getETag(), first.getObjectContent(), metadata.getContentLength(), offset, Math.min(end, metadata.getInstanceLength()));
+	}
+
+	private byte[] fetch(String bucket, String key, String etag, long start, long end) throws IOException {
+		byte[] part = new byte[(int) (end - start)];
+		S3Object object;
+		try {
+			object = client.getObject(new GetObjectRequest(bucket, key).withRange(start, end - 1).withMatchingETagConstraint(etag));
+		} catch (AmazonClientException e) {
+			throw new IOException(e);
+		}
+		// no object is returned when the ETag no longer matches
+		if (object == null) {
+			throw new IOException(String.format("%s changed while it was being read", key));
+		}
+		try (InputStream in = object.getObjectContent()) {
+			int read = 0;
+			while (read < part.length) {
+				int n = in.read(part, read, part.length - read);
+				if (n == -1) {
+					throw new EOFException(String.format("%s ended at %d, before %d", key, start + read, end));
+				}
+				read += n;
+			}
+		} catch (AmazonClientException e) {
+			throw new IOException(e);
+		}
+		return part;
+	}
+
+	private class PartsInputStream extends InputStream {
+
+		private final String bucket;
+		private final String key;
+		private final String etag;
+		private final long end;
+		private final Deque<Future<byte[]>> window = new ArrayDeque<>();
+
+		// the first part, streamed from the caller's GET
+		private S3ObjectInputStream head;
+		private long headRemaining;
+		private boolean headTruncated;
+
+		private long next;
+		private byte[] part;
+		private int position;
+		private boolean closed;
+
+		PartsInputStream(String bucket, String key, String etag, S3ObjectInputStream head, long headLength, long start, long end) {
+			this.bucket = bucket;
+			this.key = key;
+			this.etag = etag;
+			this.end = end;
+			this.head = head;
+			this.headRemaining = Math.max(0, Math.min(partSize, end - start));
+			this.headTruncated = headLength > headRemaining;
+			this.next = start + headRemaining;
+			if (headRemaining == 0) {
+				releaseHead();
+			}
+			while (window.size() < concurrency && next < end) {
+				schedule();
+			}
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (head != null) {
+				return readHead(b, off, len);
+			}
+			if (!advance()) {
+				return -1;
+			}
+			int n = Math.min(len, part.length - position);
+			System.arraycopy(part, position, b, off, n);
+			position += n;
+			return n;
+		}
+
+		@Override
+		public int available() throws IOException {
+			if (head != null) {
+				return 0;
+			}
+			return part != null ? part.length - position : 0;
+		}
+
+		@Override
+		public void close() throws IOException {
+			closed = true;
+			part = null;
+			if (head != null) {
+				headTruncated = true;
+				releaseHead();
+			}
+			for (Future<byte[]> pending : window) {
+				pending.cancel(true);
+			}
+			window.clear();
+		}
+
+		private void schedule() {
+			long start = next;
+			long stop = Math.min(start + partSize, end);
+			next = stop;
+			window.add(executor.submit(() -> fetch(bucket, key, etag, start, stop)));
+		}
+
+		private int readHead(byte[] b, int off, int len) throws IOException {
+			if (closed) {
+				throw new IOException("Stream closed");
+			}
+			int n;
+			try {
+				n = head.read(b, off, (int) Math.min(len, headRemaining));
+			} catch (AmazonClientException e) {
+				throw new IOException(e);
+			}
+			if (n == -1) {
+				throw new EOFException(String.format("%s ended %d bytes before the end of its first part", key, headRemaining));
+			}
+			headRemaining -= n;
+			if (headRemaining == 0) {
+				releaseHead();
+			}
+			return n;
+		}
+
+		// a GET whose content has not all been read is aborted rather than drained
+		private void releaseHead() {
+			if (headTruncated) {
+				head.abort();
+			} else {
+				try {
+					head.close();
+				} catch (IOException e) {
+					head.abort();
+				}
+			}
+			head = null;
+		}
+
+		// moves to the next part once the current one has been read
+		private boolean advance() throws IOException {
+			if (closed) {
+				throw new IOException("Stream closed");
+			}
+			while (part == null || position == part.length) {
+				Future<byte[]> pending = window.poll();
+				if (pending == null) {
+					return false;
+				}
+				if (next < end) {
+					schedule();
+				}
+				try {
+					part = pending.get();
+					position = 0;
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException();
+				} catch (ExecutionException e) {
+					throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+				}
+			}
+			return true;
+		}
+	}
+
+	@ParallelDownload
+	private static class Defaults {
+	}
+}
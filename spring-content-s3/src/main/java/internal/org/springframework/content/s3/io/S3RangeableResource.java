@@ -0,0 +1,195 @@
+package internal.org.springframework.content.s3.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URL;
+
+import org.springframework.content.commons.io.RangeableResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.WritableResource;
+import org.springframework.util.Assert;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+
+/**
+ * Decorates an S3 resource with ranged reads that fetch only the requested bytes using
+ * an HTTP Range GET.  Given a {@link ParallelDownloader}, large content and ranges are
+ * fetched as concurrent ranged GETs.  Given a {@link MultipartUploader} and an
+ * {@link UploadSpooler}, content written to the resource is uploaded as by
+ * {@link MultipartUploader#upload(String, String, InputStream, UploadSpooler)}.
+ */
+public class S3RangeableResource implements WritableResource, RangeableResource {
+
+	private final Resource resource;
+	private final AmazonS3 client;
+	private final String bucket;
+	private final String key;
+	private final ParallelDownloader downloader;
+	private final MultipartUploader uploader;
+	private final UploadSpooler spooler;
+
+	public S3RangeableResource(Resource resource, AmazonS3 client, String bucket, String key) {
+		this(resource, client, bucket, key, null);
+	}
+
+	public S3RangeableResource(Resource resource, AmazonS3 client, String bucket, String key, ParallelDownloader downloader) {
+		this(resource, client, bucket, key, downloader, null, null);
+	}
+
+	public S3RangeableResource(Resource resource, AmazonS3 client, String bucket, String key, ParallelDownloader downloader, MultipartUploader uploader, UploadSpooler spooler) {
+		Assert.notNull(resource, "resource cannot be null");
+		Assert.notNull(client, "client cannot be null");
+		this.resource = resource;
+		this.client = client;
+		this.bucket = bucket;
+		this.key = key;
+		this.downloader = downloader;
+		this.uploader = uploader;
+		this.spooler = spooler;
+	}
+
+	@Override
+	public InputStream getInputStream(long offset, long length) throws IOException {
+		if (length <= 0) {
+			return new ByteArrayInputStream(new byte[0]);
+		}
+		// a range to the end of the content may be given as Long.MAX_VALUE
+		long end = length > Long.MAX_VALUE - offset ? Long.MAX_VALUE : offset + length;
+		if (downloader == null || !downloader.appliesTo(end - offset)) {
+			S3Object object = getRange(offset, end);
+			return object != null ? object.getObjectContent() : new ByteArrayInputStream(new byte[0]);
+		}
+		// the first part's GET also gives the object's length and ETag, which clamp the
+		// range and pin the other parts to the same version of the object
+		S3Object first = getRange(offset, Math.min(end, offset + downloader.getPartSize()));
+		if (first == null) {
+			return new ByteArrayInputStream(new byte[0]);
+		}
+		return downloader.download(bucket, key, first, offset, end);
+	}
+
+	/**
+	 * Opens the object with a GET, without checking that it exists first.  Large objects
+	 * are read in parts, the first of them from that GET.
+	 *
+	 * @throws FileNotFoundException
+	 * 					if the object does not exist
+	 */
+	public InputStream getInputStream() throws IOException {
+		S3Object object = getObject(new GetObjectRequest(bucket, key));
+		long length = object.getObjectMetadata().getContentLength();
+		if (downloader != null && downloader.appliesTo(length)) {
+			return downloader.download(bucket, key, object, 0, length);
+		}
+		return object.getObjectContent();
+	}
+
+	// null if the range starts at or past the end of the object
+	private S3Object getRange(long start, long end) throws IOException {
+		try {
+			return getObject(new GetObjectRequest(bucket, key).withRange(start, end - 1));
+		} catch (IOException e) {
+			if (e.getCause() instanceof AmazonServiceException && ((AmazonServiceException) e.getCause()).getStatusCode() == 416) {
+				return null;
+			}
+			throw e;
+		}
+	}
+
+	private S3Object getObject(GetObjectRequest request) throws IOException {
+		try {
+			return client.getObject(request);
+		} catch (AmazonServiceException e) {
+			if (e.getStatusCode() == 404) {
+				throw new FileNotFoundException(String.format("%s does not exist", resource.getDescription()));
+			}
+			throw new IOException(e);
+		}
+	}
+
+	public boolean exists() {
+		return resource.exists();
+	}
+
+	public boolean isReadable() {
+		return resource.isReadable();
+	}
+
+	public boolean isOpen() {
+		return resource.isOpen();
+	}
+
+	public boolean isWritable() {
+		if (uploader != null && spooler != null) {
+			return true;
+		}
+		return resource instanceof WritableResource && ((WritableResource)resource).isWritable();
+	}
+
+	/**
+	 * Returns a stream whose content is uploaded as it is written, as by
+	 * {@link MultipartUploader#open}, and completed when it is closed.  Opening the
+	 * stream waits while the spooler is at capacity.
+	 */
+	public OutputStream getOutputStream() throws IOException {
+		if (uploader != null && spooler != null) {
+			return uploader.open(bucket, key, spooler);
+		}
+		if (!(resource instanceof WritableResource)) {
+			throw new FileNotFoundException(String.format("%s is not writable", resource.getDescription()));
+		}
+		return ((WritableResource)resource).getOutputStream();
+	}
+
+	public URL getURL() throws IOException {
+		return resource.getURL();
+	}
+
+	public URI getURI() throws IOException {
+		return resource.getURI();
+	}
+
+	public File getFile() throws IOException {
+		return resource.getFile();
+	}
+
+	public long contentLength() throws IOException {
+		return resource.contentLength();
+	}
+
+	public long lastModified() throws IOException {
+		return resource.lastModified();
+	}
+
+	public Resource createRelative(String relativePath) throws IOException {
+		return resource.createRelative(relativePath);
+	}
+
+	public String getFilename() {
+		return resource.getFilename();
+	}
+
+	public String getDescription() {
+		return resource.getDescription();
+	}
+
+	public String toString() {
+		return resource.toString();
+	}
+
+	public boolean equals(Object obj) {
+		return resource.equals(obj);
+	}
+
+	public int hashCode() {
+		return resource.hashCode();
+	}
+}
@@ -0,0 +1,181 @@
+package internal.org.springframework.content.s3.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+import org.springframework.content.s3.config.UploadSpool;
+import org.springframework.util.Assert;
+
+/**
+ * Limits the memory and disk held by uploads in flight, their spooled content and part
+ * buffers, to a capacity.
+ * <p>
+ * Each upload holds a {@link Reservation}, against which it reserves bytes before it
+ * buffers them; while that would exceed the capacity the upload waits for others to
+ * release theirs.  The capacity is never exceeded: when every upload holding a
+ * reservation is waiting, and none has parts in flight that will release theirs, the
+ * upload that cannot go ahead fails instead of deadlocking.
+ * <p>
+ * S3 stores share one limiter, so that their uploads are limited together.
+ */
+public class UploadLimiter {
+
+	private static final UploadLimiter SHARED = new UploadLimiter(Defaults.class.getAnnotation(UploadSpool.class).capacity());
+
+	private long capacity;
+	private long reserved;
+	private long draining;
+	private int holders;
+	private int waiting;
+
+	public UploadLimiter(long capacity) {
+		Assert.isTrue(capacity > 0, "capacity must be positive");
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Returns the limiter shared by S3 stores.
+	 */
+	public static UploadLimiter getShared() {
+		return SHARED;
+	}
+
+	public synchronized long getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Lowers the capacity to at most capacity; so that stores sharing the limiter are held
+	 * to the smallest capacity any of them is configured with.
+	 */
+	public synchronized void limitTo(long capacity) {
+		Assert.isTrue(capacity > 0, "capacity must be positive");
+		this.capacity = Math.min(this.capacity, capacity);
+	}
+
+	/**
+	 * Returns the number of bytes reserved by uploads in flight.
+	 */
+	public synchronized long getReserved() {
+		return reserved;
+	}
+
+	/**
+	 * Opens a reservation, waiting while the limiter is at capacity.  The reservation must
+	 * be closed once the upload is complete.
+	 *
+	 * @throws InterruptedIOException
+	 * 					if interrupted while waiting
+	 */
+	public Reservation open() throws IOException {
+		synchronized (this) {
+			while (reserved >= capacity) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException();
+				}
+			}
+			holders++;
+		}
+		return new Reservation();
+	}
+
+	/**
+	 * The bytes reserved by one upload.  Its methods may be called from any thread.
+	 */
+	public class Reservation {
+
+		private long reserved;
+		private long draining;
+		private boolean closed;
+
+		/**
+		 * Reserves bytes, waiting while they would take the limiter past its capacity.
+		 *
+		 * @throws IOException
+		 * 					if every upload is waiting, so the bytes would never be released
+		 */
+		public void reserve(long bytes) throws IOException {
+			synchronized (UploadLimiter.this) {
+				Assert.state(!closed, "reservation is closed");
+				waiting++;
+				try {
+					while (UploadLimiter.this.reserved + bytes > capacity) {
+						if (waiting == holders && UploadLimiter.this.draining == 0) {
+							throw new IOException(String.format("Unable to reserve %d bytes of upload capacity; %d of %d bytes are held by uploads that are all waiting", bytes, UploadLimiter.this.reserved, capacity));
+						}
+						UploadLimiter.this.wait();
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException();
+				} finally {
+					waiting--;
+				}
+				UploadLimiter.this.reserved += bytes;
+				reserved += bytes;
+			}
+		}
+
+		/**
+		 * Marks reserved bytes as being released without the upload going ahead, such as
+		 * the buffers of parts being uploaded; so that uploads waiting for them do not fail.
+		 */
+		public void drain(long bytes) {
+			synchronized (UploadLimiter.this) {
+				if (closed) {
+					return;
+				}
+				draining += bytes;
+				UploadLimiter.this.draining += bytes;
+			}
+		}
+
+		/**
+		 * Releases reserved bytes, draining ones first.
+		 */
+		public void release(long bytes) {
+			synchronized (UploadLimiter.this) {
+				if (closed) {
+					return;
+				}
+				long drained = Math.min(bytes, draining);
+				draining -= drained;
+				UploadLimiter.this.draining -= drained;
+				reserved -= bytes;
+				UploadLimiter.this.reserved -= bytes;
+				UploadLimiter.this.notifyAll();
+			}
+		}
+
+		/**
+		 * Returns the number of bytes held by this reservation.
+		 */
+		public long getReserved() {
+			synchronized (UploadLimiter.this) {
+				return reserved;
+			}
+		}
+
+		/**
+		 * Releases every byte still reserved.  Releases made after closing are ignored.
+		 */
+		public void close() {
+			synchronized (UploadLimiter.this) {
+				if (closed) {
+					return;
+				}
+				release(reserved);
+				closed = true;
+				holders--;
+				UploadLimiter.this.notifyAll();
+			}
+		}
+	}
+
+	@UploadSpool
+	private static class Defaults {
+	}
+}
@@ -0,0 +1,279 @@
+package internal.org.springframework.content.s3.io;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.content.commons.io.BoundedInputStream;
+import org.springframework.content.s3.config.UploadSpool;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Spools content of unknown length so that it can be uploaded with a known length.
+ * <p>
+ * Each spool holds content in memory up to {@code memoryThreshold} bytes and spills it
+ * to a temporary file beyond that.  The content of spools, in memory and on disk, is
+ * reserved against an {@link UploadLimiter} as it is written, so writes, and new spools,
+ * wait while it is at capacity.  Spoolers created from an {@link UploadSpool} share
+ * {@link UploadLimiter#getShared() one limiter}, which the part buffers of multipart
+ * uploads are reserved against too.
+ */
+public class UploadSpooler {
+
+	private static Log logger = LogFactory.getLog(UploadSpooler.class);
+
+	private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+	private final int memoryThreshold;
+	private final UploadLimiter limiter;
+	private final File directory;
+
+	public UploadSpooler() {
+		this(Defaults.class.getAnnotation(UploadSpool.class));
+	}
+
+	/**
+	 * Creates a spooler on the shared limiter, whose capacity is lowered to the configured
+	 * one if that is smaller.
+	 */
+	public UploadSpooler(UploadSpool config) {
+		this(config.memoryThreshold(), limitShared(config.capacity()), StringUtils.hasText(config.directory()) ? new File(config.directory()) : null);
+	}
+
+	/**
+	 * Creates a spooler with a limiter of its own.
+	 *
+	 * @param directory
+	 * 					the directory content is spilled to, or null for the default
+	 * 					temporary directory
+	 */
+	public UploadSpooler(int memoryThreshold, long capacity, File directory) {
+		this(memoryThreshold, new UploadLimiter(capacity), directory);
+	}
+
+	/**
+	 * @param directory
+	 * 					the directory content is spilled to, or null for the default
+	 * 					temporary directory
+	 */
+	public UploadSpooler(int memoryThreshold, UploadLimiter limiter, File directory) {
+		Assert.isTrue(memoryThreshold >= 0, "memoryThreshold cannot be negative");
+		Assert.notNull(limiter, "limiter cannot be null");
+		this.memoryThreshold = memoryThreshold;
+		this.limiter = limiter;
+		this.directory = directory;
+	}
+
+	private static UploadLimiter limitShared(long capacity) {
+		UploadLimiter.getShared().limitTo(capacity);
+		return UploadLimiter.getShared();
+	}
+
+	public int getMemoryThreshold() {
+		return memoryThreshold;
+	}
+
+	public long getCapacity() {
+		return limiter.getCapacity();
+	}
+
+	public UploadLimiter getLimiter() {
+		return limiter;
+	}
+
+	/**
+	 * Returns the number of bytes, in memory and on disk, reserved against the spooler's
+	 * limiter.
+	 */
+	public long getSpooled() {
+		return limiter.getReserved();
+	}
+
+	/**
+	 * Opens a spool, waiting while the limiter is at capacity.  Writing to the spool waits
+	 * too while its content would take the limiter past its capacity.  The spool must be
+	 * released once its content has been uploaded.
+	 *
+	 * @throws java.io.InterruptedIOException
+	 * 					if interrupted while waiting
+	 */
+	public Spool open() throws IOException {
+		return new Spool(limiter.open(), true);
+	}
+
+	/**
+	 * Opens a spool whose content is reserved against an upload's own reservation, which
+	 * releasing the spool does not close.
+	 */
+	public Spool open(UploadLimiter.Reservation reservation) {
+		return new Spool(reservation, false);
+	}
+
+	/**
+	 * Spools all of content, waiting while the spooler is at capacity.
+	 *
+	 * @return the closed spool, which must be released once its content has been uploaded
+	 */
+	public Spool spool(InputStream content) throws IOException {
+		Spool spool = open();
+		try {
+			byte[] buffer = new byte[COPY_BUFFER_SIZE];
+			int n;
+			while ((n = content.read(buffer)) != -1) {
+				spool.write(buffer, 0, n);
+			}
+			spool.close();
+			return spool;
+		} catch (IOException | RuntimeException e) {
+			spool.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Content written to a spool; in memory or, once larger than the memory threshold,
+	 * in a temporary file.  Closing the spool finishes writing, releasing it discards its
+	 * content.
+	 */
+	public class Spool extends OutputStream {
+
+		private final UploadLimiter.Reservation reservation;
+		private final boolean owned;
+		private byte[] buffer = new byte[Math.min(memoryThreshold, 8 * 1024)];
+		private File file;
+		private OutputStream out;
+		private long length;
+		private long reserved;
+		private boolean closed;
+		private boolean released;
+
+		private Spool(UploadLimiter.Reservation reservation, boolean owned) {
+			this.reservation = reservation;
+			this.owned = owned;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (closed) {
+				throw new IOException("Spool closed");
+			}
+			reservation.reserve(len);
+			reserved += len;
+			if (out == null && length + len > memoryThreshold) {
+				spill();
+			}
+			if (out != null) {
+				out.write(b, off, len);
+			} else {
+				if (length + len > buffer.length) {
+					buffer = Arrays.copyOf(buffer, (int) Math.min(Math.max(buffer.length * 2L, length + len), memoryThreshold));
+				}
+				System.arraycopy(b, off, buffer, (int) length, len);
+			}
+			length += len;
+		}
+
+		private void spill() throws IOException {
+			file = File.createTempFile("s3-upload-", ".spool", directory);
+			out = new BufferedOutputStream(new FileOutputStream(file), COPY_BUFFER_SIZE);
+			out.write(buffer, 0, (int) length);
+			buffer = null;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (out != null) {
+				out.flush();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			if (out != null) {
+				out.close();
+			}
+		}
+
+		public long length() {
+			return length;
+		}
+
+		/**
+		 * Returns whether the content has been spilled to a file.
+		 */
+		public boolean isSpilled() {
+			return file != null;
+		}
+
+		/**
+		 * Returns the file holding the content, or null if it is held in memory.
+		 */
+		public File getFile() {
+			return file;
+		}
+
+		/**
+		 * Opens a range of the content.
+		 */
+		public InputStream getInputStream(long offset, long len) throws IOException {
+			Assert.state(closed && !released, "spool must be closed and not released");
+			if (file == null) {
+				return new ByteArrayInputStream(buffer, (int) offset, (int) len);
+			}
+			FileInputStream in = new FileInputStream(file);
+			try {
+				in.getChannel().position(offset);
+			} catch (IOException e) {
+				in.close();
+				throw e;
+			}
+			return new BoundedInputStream(in, len);
+		}
+
+		/**
+		 * Discards the content, deleting any file it was spilled to.
+		 */
+		public void release() {
+			if (released) {
+				return;
+			}
+			released = true;
+			try {
+				close();
+			} catch (IOException e) {
+				logger.warn(String.format("Unable to close spool file %s", file), e);
+			}
+			if (file != null && !file.delete()) {
+				logger.warn(String.format("Unable to delete spool file %s", file));
+			}
+			buffer = null;
+			if (owned) {
+				reservation.close();
+			} else {
+				reservation.release(reserved);
+			}
+		}
+	}
+
+	@UploadSpool
+	private static class Defaults {
+	}
+}
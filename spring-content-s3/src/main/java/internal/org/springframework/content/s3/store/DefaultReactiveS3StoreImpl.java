@@ -0,0 +1,177 @@
+package internal.org.springframework.content.s3.store;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import org.reactivestreams.Publisher;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.repository.ReactiveContentStore;
+import org.springframework.content.commons.repository.StoreAccessException;
+import org.springframework.content.commons.utils.ContentPropertyMetadata;
+import org.springframework.content.s3.io.S3ObjectPlacement;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.util.Assert;
+
+import com.amazonaws.services.s3.AmazonS3;
+
+import internal.org.springframework.content.commons.io.EmptyPublisher;
+import internal.org.springframework.content.commons.io.InputStreamPublisher;
+import internal.org.springframework.content.s3.io.MultipartUploader;
+import internal.org.springframework.content.s3.io.ParallelDownloader;
+import internal.org.springframework.content.s3.io.S3RangeableResource;
+import internal.org.springframework.content.s3.io.UploadSpooler;
+
+/**
+ * Reactive S3 store.
+ * <p>
+ * The S3 client is blocking, so S3 calls are performed on the given executor rather
+ * than on the caller's thread.  Content being set is subscribed to rather than read, so
+ * no thread of the executor waits for it to be published.  The executor's size bounds
+ * the number of operations running at once; the parts of multipart uploads and
+ * parallel downloads run on the uploader's and downloader's own threads, up to their
+ * concurrency for each operation.
+ */
+public class DefaultReactiveS3StoreImpl<S, SID extends Serializable> implements ReactiveContentStore<S, SID> {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private ResourceLoader loader;
+	private ConversionService converter;
+	private AmazonS3 client;
+	private S3ObjectPlacement placement;
+	private Executor executor;
+	private MultipartUploader uploader;
+	private ParallelDownloader downloader;
+	private UploadSpooler spooler;
+
+	public DefaultReactiveS3StoreImpl(ResourceLoader loader, ConversionService converter, AmazonS3 client, String bucket, Executor executor) {
+		Assert.notNull(loader, "loader cannot be null");
+		Assert.notNull(converter, "converter cannot be null");
+		Assert.notNull(client, "client cannot be null");
+		Assert.notNull(executor, "executor cannot be null");
+
+		this.loader = loader;
+		this.converter = converter;
+		this.client = client;
+		this.placement = new S3ObjectPlacement(bucket);
+		this.executor = executor;
+		this.uploader = new MultipartUploader(client);
+		this.downloader = new ParallelDownloader(client);
+		this.spooler = new UploadSpooler();
+	}
+
+	/**
+	 * Sets the buckets and keys that content is placed at.
+	 */
+	public void setPlacement(S3ObjectPlacement placement) {
+		Assert.notNull(placement, "placement cannot be null");
+		this.placement = placement;
+	}
+
+	/**
+	 * Sets the uploader that content is written with.
+	 */
+	public void setUploader(MultipartUploader uploader) {
+		Assert.notNull(uploader, "uploader cannot be null");
+		this.uploader = uploader;
+	}
+
+	/**
+	 * Sets the downloader that large content is read with.
+	 */
+	public void setDownloader(ParallelDownloader downloader) {
+		Assert.notNull(downloader, "downloader cannot be null");
+		this.downloader = downloader;
+	}
+
+	/**
+	 * Sets the spooler that content written to the store's resources is held in until it
+	 * is uploaded.
+	 */
+	public void setSpooler(UploadSpooler spooler) {
+		Assert.notNull(spooler, "spooler cannot be null");
+		this.spooler = spooler;
+	}
+
+	@Override
+	public Resource getResource(SID id) {
+		String location = converter.convert(id, String.class);
+		return rangeable(placement.getBucket(location), placement.getKey(location));
+	}
+
+	@Override
+	public CompletableFuture<S> setContent(S property, Publisher<ByteBuffer> content) {
+		ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(property.getClass());
+		Object contentId = metadata.getValue(property, ContentId.class);
+		if (contentId == null) {
+			contentId = UUID.randomUUID().toString();
+			metadata.setValue(property, ContentId.class, contentId);
+		}
+
+		String location = converter.convert(contentId, String.class);
+		return uploader.upload(placement.getBucket(location), placement.getKey(location), content, spooler, executor).handle((result, t) -> {
+			if (t != null) {
+				throw new StoreAccessException(String.format("Unexpected error setting content %s", location), t instanceof CompletionException ? t.getCause() : t);
+			}
+			metadata.setValue(property, ContentLength.class, result.getLength());
+			return property;
+		});
+	}
+
+	@Override
+	public Publisher<ByteBuffer> getContent(S property) {
+		if (property == null)
+			return EmptyPublisher.instance();
+		Object contentId = ContentPropertyMetadata.forClass(property.getClass()).getValue(property, ContentId.class);
+		if (contentId == null)
+			return EmptyPublisher.instance();
+
+		String location = converter.convert(contentId, String.class);
+		return new InputStreamPublisher(() -> {
+			// content not yet rebalanced onto the bucket and key it prefers is at one of the others
+			for (String key : placement.getKeys(location)) {
+				for (String bucket : placement.getBuckets(location)) {
+					try {
+						return rangeable(bucket, key).getInputStream();
+					} catch (FileNotFoundException e) {
+						continue;
+					}
+				}
+			}
+			return new ByteArrayInputStream(new byte[0]);
+		}, executor, BUFFER_SIZE);
+	}
+
+	@Override
+	public CompletableFuture<S> unsetContent(S property) {
+		if (property == null)
+			return CompletableFuture.completedFuture(property);
+		ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(property.getClass());
+		Object contentId = metadata.getValue(property, ContentId.class);
+		if (contentId == null)
+			return CompletableFuture.completedFuture(property);
+
+		String location = converter.convert(contentId, String.class);
+		return CompletableFuture.supplyAsync(() -> {
+			DefaultS3StoreImpl.delete(client, placement, location);
+
+			// reset content fields
+			metadata.setValue(property, ContentId.class, null);
+			metadata.setValue(property, ContentLength.class, 0);
+			return property;
+		}, executor);
+	}
+
+	private S3RangeableResource rangeable(String bucket, String key) {
+		return new S3RangeableResource(loader.getResource(String.format("s3://%s/%s", bucket, key)), client, bucket, key, downloader, uploader, spooler);
+	}
+}
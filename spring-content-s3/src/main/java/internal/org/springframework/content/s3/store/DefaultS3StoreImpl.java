@@ -1,77 +1,142 @@
 package internal.org.springframework.content.s3.store;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.Serializable;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.annotations.ContentLength;
 import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.PresignedUrlStore;
 import org.springframework.content.commons.repository.Store;
-import org.springframework.content.commons.utils.BeanUtils;
+import org.springframework.content.commons.repository.StoreAccessException;
+import org.springframework.content.commons.utils.ContentPropertyMetadata;
+import org.springframework.content.s3.config.PresignedUrls;
+import org.springframework.content.s3.io.S3ObjectPlacement;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
-import org.springframework.core.io.WritableResource;
 import org.springframework.util.Assert;
 
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.HttpMethod;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.DeleteObjectRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest.KeyVersion;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException.DeleteError;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.ResponseHeaderOverrides;
 
-public class DefaultS3StoreImpl<S, SID extends Serializable> implements Store<SID>, ContentStore<S,SID> {
+import internal.org.springframework.content.s3.io.MultipartUploader;
+import internal.org.springframework.content.s3.io.ParallelDownloader;
+import internal.org.springframework.content.s3.io.S3RangeableResource;
+import internal.org.springframework.content.s3.io.UploadSpooler;
+
+public class DefaultS3StoreImpl<S, SID extends Serializable> implements Store<SID>, ContentStore<S,SID>, PresignedUrlStore<S> {
 
 	private static Log logger = LogFactory.getLog(DefaultS3StoreImpl.class);
 
+	// the maximum number of keys of a multi-object delete
+	private static final int MAX_DELETE_KEYS = 1000;
+
 	private ResourceLoader loader;
 	private ConversionService converter;
 	private AmazonS3 client;
-	private String bucket;
+	private S3ObjectPlacement placement;
+	private MultipartUploader uploader;
+	private ParallelDownloader downloader;
+	private UploadSpooler spooler;
+	private int presignedUrlExpiry = Defaults.class.getAnnotation(PresignedUrls.class).expiry();
 
 	public DefaultS3StoreImpl(ResourceLoader loader, ConversionService converter, AmazonS3 client, String bucket) {
 		this.loader = loader;
 		this.converter = converter;
 		this.client = client;
-		this.bucket = bucket;
+		this.placement = new S3ObjectPlacement(bucket);
+		this.uploader = new MultipartUploader(client);
+		this.downloader = new ParallelDownloader(client);
+		this.spooler = new UploadSpooler();
+	}
+
+	/**
+	 * Sets the buckets and keys that content is placed at.  Defaults to the store's
+	 * bucket, with each object at its content id.
+	 */
+	public void setPlacement(S3ObjectPlacement placement) {
+		Assert.notNull(placement, "placement cannot be null");
+		this.placement = placement;
+	}
+
+	/**
+	 * Sets the uploader that content is written with.  Defaults to one configured as
+	 * {@link org.springframework.content.s3.config.MultipartUpload}'s defaults.
+	 */
+	public void setUploader(MultipartUploader uploader) {
+		Assert.notNull(uploader, "uploader cannot be null");
+		this.uploader = uploader;
+	}
+
+	/**
+	 * Sets the downloader that large content is read with.  Defaults to one configured
+	 * as {@link org.springframework.content.s3.config.ParallelDownload}'s defaults.
+	 */
+	public void setDownloader(ParallelDownloader downloader) {
+		Assert.notNull(downloader, "downloader cannot be null");
+		this.downloader = downloader;
+	}
+
+	/**
+	 * Sets the spooler that content is held in until it is uploaded.  Defaults to one
+	 * configured as {@link org.springframework.content.s3.config.UploadSpool}'s defaults.
+	 */
+	public void setSpooler(UploadSpooler spooler) {
+		Assert.notNull(spooler, "spooler cannot be null");
+		this.spooler = spooler;
+	}
+
+	/**
+	 * Sets how long, in seconds, presigned URLs can be used for.  Defaults to
+	 * {@link PresignedUrls}'s default.
+	 */
+	public void setPresignedUrlExpiry(int seconds) {
+		Assert.isTrue(seconds > 0, "expiry must be positive");
+		this.presignedUrlExpiry = seconds;
 	}
 
 	@Override
 	public void setContent(S property, InputStream content) {
-		Object contentId = BeanUtils.getFieldWithAnnotation(property, ContentId.class);
+		ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(property.getClass());
+		Object contentId = metadata.getValue(property, ContentId.class);
 		if (contentId == null) {
 			contentId = UUID.randomUUID().toString();
-			BeanUtils.setFieldWithAnnotation(property, ContentId.class, contentId);
+			metadata.setValue(property, ContentId.class, contentId);
 		}
 
+		// content within the single PUT threshold is spooled, so that it is uploaded with a
+		// known length without being held on the heap; larger content is uploaded in parts
+		// as it is read
 		String location = converter.convert(contentId, String.class);
-		location = absolutify(location);
-		Resource resource = loader.getResource(location);
-		OutputStream os = null;
 		try {
-			if (resource instanceof WritableResource) {
-				os = ((WritableResource)resource).getOutputStream();
-				IOUtils.copy(content, os);
-			}
+			MultipartUploader.Result result = uploader.upload(placement.getBucket(location), placement.getKey(location), content, spooler);
+			metadata.setValue(property, ContentLength.class, result.getLength());
 		} catch (IOException e) {
 			logger.error(String.format("Unexpected error setting content %s", contentId.toString()), e);
-		} finally {
-	        try {
-	            if (os != null) {
-	                os.close();
-	            }
-	        } catch (IOException ioe) {
-	            // ignore
-	        }
-		}
-			
-		try {
-			BeanUtils.setFieldWithAnnotation(property, ContentLength.class, resource.contentLength());
-		} catch (IOException e) {
-			logger.error(String.format("Unexpected error setting content length for content %s", contentId.toString()), e);
 		}
 	}
 
@@ -79,21 +144,44 @@ public class DefaultS3StoreImpl<S, SID extends Serializable> implements Store<SI
 	public InputStream getContent(S property) {
 		if (property == null)
 			return null;
-		Object contentId = BeanUtils.getFieldWithAnnotation(property, ContentId.class);
+		Object contentId = ContentPropertyMetadata.forClass(property.getClass()).getValue(property, ContentId.class);
 		if (contentId == null)
 			return null;
 
 		String location = converter.convert(contentId, String.class);
-		location = absolutify(location);
-		Resource resource = loader.getResource(location);
-		try {
-			if (resource.exists()) {
-				return resource.getInputStream();
+		return open(location, S3RangeableResource::getInputStream);
+	}
+
+	@Override
+	public InputStream getContent(S property, long offset, long length) {
+		if (property == null)
+			return null;
+		Object contentId = ContentPropertyMetadata.forClass(property.getClass()).getValue(property, ContentId.class);
+		if (contentId == null)
+			return null;
+
+		String location = converter.convert(contentId, String.class);
+		return open(location, resource -> resource.getInputStream(offset, length));
+	}
+
+	private InputStream open(String location, Opener opener) {
+		// a GET of a missing object is a 404, so there is no need for a HEAD first.  Content
+		// not yet rebalanced onto the bucket and key it prefers is at one of the others.
+		for (String key : placement.getKeys(location)) {
+			for (String bucket : placement.getBuckets(location)) {
+				S3RangeableResource resource = rangeable(bucket, key);
+				try {
+					if (resource != null) {
+						return opener.open(resource);
+					}
+				} catch (FileNotFoundException e) {
+					continue;
+				} catch (IOException e) {
+					logger.error(String.format("Unexpected error getting content %s", location), e);
+					return null;
+				}
 			}
-		} catch (IOException e) {
-			logger.error(String.format("Unexpected error getting content %s", contentId.toString()), e);
 		}
-		
 		return null;
 	}
 
@@ -101,49 +189,295 @@ public class DefaultS3StoreImpl<S, SID extends Serializable> implements Store<SI
 	public void unsetContent(S property) {
 		if (property == null)
 			return;
-		Object contentId = BeanUtils.getFieldWithAnnotation(property, ContentId.class);
+		ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(property.getClass());
+		Object contentId = metadata.getValue(property, ContentId.class);
 		if (contentId == null)
 			return;
 
 		// delete any existing content object
 		try {
-			String location = converter.convert(contentId, String.class);
-			location = absolutify(location);
-			Resource resource = loader.getResource(location);
-			if (resource.exists()) {
-				this.delete(resource);
-			}
+			delete(client, placement, converter.convert(contentId, String.class));
 
 			// reset content fields
-	        BeanUtils.setFieldWithAnnotation(property, ContentId.class, null);
-	        BeanUtils.setFieldWithAnnotation(property, ContentLength.class, 0);
+	        metadata.setValue(property, ContentId.class, null);
+	        metadata.setValue(property, ContentLength.class, 0);
 		} catch (Exception ase) {
 			logger.error(String.format("Unexpected error unsetting content %s", contentId.toString()), ase);
 		}
 	}
 
-	private String absolutify(String location) {
-		String locationToUse = null;
-		Assert.state(location.startsWith("s3://") == false);
-		if (location.startsWith("/")) {
-			locationToUse = location.substring(1);
+	/**
+	 * Copies the object within S3, so that its content does not pass through the JVM.
+	 *
+	 * @throws StoreAccessException
+	 * 					if the copy fails
+	 */
+	@Override
+	public void copyContent(S source, S target) {
+		copy(source, target);
+	}
+
+	@Override
+	public void moveContent(S source, S target) {
+		// only unset source once target holds its content
+		if (copy(source, target)) {
+			unsetContent(source);
+		}
+	}
+
+	private boolean copy(S source, S target) {
+		Object sourceId = ContentPropertyMetadata.forClass(source.getClass()).getValue(source, ContentId.class);
+		if (sourceId == null)
+			return false;
+		ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(target.getClass());
+		Object targetId = metadata.getValue(target, ContentId.class);
+		if (targetId == null) {
+			targetId = UUID.randomUUID().toString();
+		}
+
+		String sourceLocation = converter.convert(sourceId, String.class);
+		String targetLocation = converter.convert(targetId, String.class);
+		String targetKey = placement.getKey(targetLocation);
+		if (placement.getKey(sourceLocation).equals(targetKey))
+			return false;
+		try {
+			for (String sourceKey : placement.getKeys(sourceLocation)) {
+				for (String sourceBucket : placement.getBuckets(sourceLocation)) {
+					MultipartUploader.Result result = uploader.copy(sourceBucket, sourceKey, placement.getBucket(targetLocation), targetKey);
+					if (result != null) {
+						metadata.setValue(target, ContentId.class, targetId);
+						metadata.setValue(target, ContentLength.class, result.getLength());
+						return true;
+					}
+				}
+			}
+			return false;
+		} catch (IOException e) {
+			throw new StoreAccessException(String.format("Unable to copy content %s to %s", sourceId, targetId), e);
+		}
+	}
+
+	/**
+	 * Deletes the content of all properties with multi-object deletes of up to 1000 keys
+	 * each, rather than a HEAD and a DELETE per property.
+	 */
+	@Override
+	public void unsetContents(Collection<S> properties) {
+		List<S> unset = new ArrayList<>();
+		List<List<String>> unsetKeys = new ArrayList<>();
+		List<KeyVersion> keys = new ArrayList<>();
+		for (S property : properties) {
+			if (property == null)
+				continue;
+			Object contentId = ContentPropertyMetadata.forClass(property.getClass()).getValue(property, ContentId.class);
+			if (contentId == null)
+				continue;
+			List<String> propertyKeys = placement.getKeys(converter.convert(contentId, String.class));
+			unset.add(property);
+			unsetKeys.add(propertyKeys);
+			for (String key : propertyKeys) {
+				keys.add(new KeyVersion(key));
+			}
+		}
+
+		// objects are deleted from every bucket and key they may be at
+		Set<String> failed = new HashSet<>();
+		for (String bucket : placement.getBuckets()) {
+			for (int i = 0; i < keys.size(); i += MAX_DELETE_KEYS) {
+				List<KeyVersion> batch = keys.subList(i, Math.min(i + MAX_DELETE_KEYS, keys.size()));
+				try {
+					client.deleteObjects(new DeleteObjectsRequest(bucket).withKeys(batch).withQuiet(true));
+				} catch (MultiObjectDeleteException mode) {
+					// the other objects of the batch were deleted
+					for (DeleteError error : mode.getErrors()) {
+						failed.add(error.getKey());
+					}
+					logger.error(String.format("Unexpected error unsetting content of %d properties", mode.getErrors().size()), mode);
+				} catch (Exception ase) {
+					for (KeyVersion key : batch) {
+						failed.add(key.getKey());
+					}
+					logger.error(String.format("Unexpected error unsetting content of %d properties", batch.size()), ase);
+				}
+			}
+		}
+
+		// reset content fields
+		for (int i = 0; i < unset.size(); i++) {
+			if (!Collections.disjoint(failed, unsetKeys.get(i)))
+				continue;
+			S property = unset.get(i);
+			ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(property.getClass());
+			metadata.setValue(property, ContentId.class, null);
+			metadata.setValue(property, ContentLength.class, 0);
+		}
+	}
+
+	@Override
+	public URL getContentUrl(S property, String contentType, String contentDisposition) {
+		if (property == null)
+			return null;
+		Object contentId = ContentPropertyMetadata.forClass(property.getClass()).getValue(property, ContentId.class);
+		if (contentId == null)
+			return null;
+
+		// content not yet rebalanced onto the bucket and key it prefers is not found at the
+		// URL until it is, rather than paying a HEAD per bucket for every redirected read
+		String location = converter.convert(contentId, String.class);
+		ResponseHeaderOverrides overrides = new ResponseHeaderOverrides()
+				.withContentType(contentType)
+				.withContentDisposition(contentDisposition);
+		GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(placement.getBucket(location), placement.getKey(location), HttpMethod.GET)
+				.withExpiration(expiration())
+				.withResponseHeaders(overrides);
+		return client.generatePresignedUrl(request);
+	}
+
+	/**
+	 * Presigns a PUT to the object at a content id of its own, so that the property's
+	 * current content is neither overwritten nor out of step with its
+	 * {@link ContentLength} until the upload is completed.  Any earlier upload to that
+	 * object that was not completed is discarded.
+	 */
+	@Override
+	public URL getUploadUrl(S property, String contentType) {
+		ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(property.getClass());
+		Object contentId = metadata.getValue(property, ContentId.class);
+		String location;
+		if (contentId == null) {
+			// there is no content to keep until the upload completes
+			contentId = UUID.randomUUID().toString();
+			metadata.setValue(property, ContentId.class, contentId);
+			location = converter.convert(contentId, String.class);
 		} else {
-			locationToUse = location;
+			location = converter.convert(uploadId(contentId), String.class);
+			client.deleteObject(new DeleteObjectRequest(placement.getBucket(location), placement.getKey(location)));
+		}
+
+		GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(placement.getBucket(location), placement.getKey(location), HttpMethod.PUT)
+				.withExpiration(expiration());
+		if (contentType != null) {
+			request.setContentType(contentType);
+		}
+		return client.generatePresignedUrl(request);
+	}
+
+	/**
+	 * Reads the length of the uploaded object with a HEAD.  When it replaces content the
+	 * property had, its content id is swapped in and the replaced content deleted.
+	 *
+	 * @throws StoreAccessException
+	 * 					if the object's metadata cannot be read
+	 */
+	@Override
+	public boolean completeUpload(S property) {
+		ContentPropertyMetadata metadata = ContentPropertyMetadata.forClass(property.getClass());
+		Object contentId = metadata.getValue(property, ContentId.class);
+		if (contentId == null)
+			return false;
+
+		// uploads are made to the bucket the content prefers
+		String location = converter.convert(contentId, String.class);
+		Object uploadId = uploadId(contentId);
+		try {
+			ObjectMetadata object = getObjectMetadata(converter.convert(uploadId, String.class));
+			if (object != null) {
+				metadata.setValue(property, ContentId.class, uploadId);
+				metadata.setValue(property, ContentLength.class, object.getContentLength());
+				try {
+					delete(client, placement, location);
+				} catch (Exception e) {
+					logger.error(String.format("Unexpected error deleting replaced content %s", contentId), e);
+				}
+				return true;
+			}
+
+			// a property without content when the upload URL was handed out is uploaded to
+			// its own content id; one that has content was not uploaded to at all
+			if (hasContent(metadata, property)) {
+				return false;
+			}
+			object = getObjectMetadata(location);
+			if (object != null) {
+				metadata.setValue(property, ContentLength.class, object.getContentLength());
+				return true;
+			}
+			return false;
+		} catch (AmazonServiceException ase) {
+			throw new StoreAccessException(String.format("Unable to complete upload of content %s", contentId), ase);
 		}
-		return String.format("s3://%s/%s", bucket, locationToUse);
 	}
-	
-	private void delete(Resource resource) {
-		if (resource.exists()) {
-			client.deleteObject(new DeleteObjectRequest(bucket, resource.getFilename()));
+
+	// content set or completed earlier has a length; the content id handed out for an
+	// upload to a property without content does not
+	private boolean hasContent(ContentPropertyMetadata metadata, S property) {
+		Object length = metadata.getValue(property, ContentLength.class);
+		return length instanceof Number && ((Number) length).longValue() > 0;
+	}
+
+	private ObjectMetadata getObjectMetadata(String location) {
+		try {
+			return client.getObjectMetadata(placement.getBucket(location), placement.getKey(location));
+		} catch (AmazonServiceException ase) {
+			if (ase.getStatusCode() == 404) {
+				return null;
+			}
+			throw ase;
 		}
 	}
 
+	/**
+	 * Returns the content id that content replacing the content at contentId is uploaded
+	 * to.  It is derived from contentId, so that completing the upload needs no record of
+	 * it, and differs with every replacement.
+	 */
+	static String uploadId(Object contentId) {
+		return UUID.nameUUIDFromBytes(("upload:" + contentId).getBytes(StandardCharsets.UTF_8)).toString();
+	}
+
+	private Date expiration() {
+		return new Date(System.currentTimeMillis() + presignedUrlExpiry * 1000L);
+	}
+
+	private S3RangeableResource rangeable(String bucket, String key) {
+		Resource resource = loader.getResource(String.format("s3://%s/%s", bucket, key));
+		if (resource == null) {
+			return null;
+		}
+		return new S3RangeableResource(resource, client, bucket, key, downloader, uploader, spooler);
+	}
+
+	/**
+	 * Returns the resource at the bucket and key the content prefers, without looking for
+	 * it elsewhere; content not yet rebalanced onto them is not found through the resource
+	 * until it is, although {@link #getContent} still reads it.
+	 */
 	@Override
 	public Resource getResource(SID id) {
 		String location = converter.convert(id, String.class);
-		location = absolutify(location);
-		Resource resource = loader.getResource(location);
-		return resource;
+		return rangeable(placement.getBucket(location), placement.getKey(location));
+	}
+
+	/**
+	 * Deletes the content at location from every bucket and key it may be at.  A DELETE of
+	 * a missing object succeeds, so, as in {@link #unsetContents}, none is looked for first.
+	 */
+	static void delete(AmazonS3 client, S3ObjectPlacement placement, String location) {
+		List<String> keys = placement.getKeys(location);
+		for (String bucket : placement.getBuckets(location)) {
+			if (keys.size() == 1) {
+				client.deleteObject(new DeleteObjectRequest(bucket, keys.get(0)));
+			} else {
+				client.deleteObjects(new DeleteObjectsRequest(bucket).withKeys(keys.toArray(new String[keys.size()])).withQuiet(true));
+			}
+		}
+	}
+
+	private interface Opener {
+		InputStream open(S3RangeableResource resource) throws IOException;
+	}
+
+	@PresignedUrls
+	private static class Defaults {
 	}
 }
@@ -0,0 +1,73 @@
+package org.springframework.content.s3.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Configures how an S3 store uploads content.
+ * <p>
+ * Content larger than {@link #threshold()} is split into parts of {@link #partSize()}
+ * bytes that are uploaded concurrently as an S3 multipart upload.  At most
+ * {@link #concurrency()} parts are held in memory at once.  Smaller content is uploaded
+ * with a single PUT.  Copies are made within S3, in concurrent parts above
+ * {@link #copyThreshold()}.  Stores without this annotation use its defaults.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface MultipartUpload {
+
+	/**
+	 * The size of each part in bytes; at least 5MB, S3's minimum part size.  As an upload
+	 * has at most 10,000 parts, content larger than 10,000 parts fails to upload.
+	 *
+	 * @return the part size
+	 */
+	int partSize() default 8 * 1024 * 1024;
+
+	/**
+	 * The maximum number of parts of one upload that are uploaded, or held in memory,
+	 * at once.
+	 *
+	 * @return the concurrency
+	 */
+	int concurrency() default 4;
+
+	/**
+	 * The size in bytes up to which content is uploaded with a single PUT.  Capped at
+	 * {@code partSize * concurrency}.
+	 *
+	 * @return the single PUT threshold
+	 */
+	long threshold() default 16 * 1024 * 1024;
+
+	/**
+	 * The number of times a failed part is retried before the upload is aborted.  These
+	 * retries are on top of the retries of the {@code AmazonS3} client's retry policy;
+	 * set either to 0 to retry at one layer only.
+	 *
+	 * @return the number of retries
+	 */
+	int retries() default 3;
+
+	/**
+	 * The size in bytes above which content is copied within S3 as a multipart copy,
+	 * rather than a single copy; at most 5GB, S3's maximum for a single copy.
+	 *
+	 * @return the multipart copy threshold
+	 */
+	long copyThreshold() default 5L * 1024 * 1024 * 1024;
+
+	/**
+	 * The size of each part of a multipart copy in bytes; at least 5MB.  Larger parts are
+	 * used for objects that would otherwise take more than 10,000 parts.
+	 *
+	 * @return the copy part size
+	 */
+	long copyPartSize() default 100L * 1024 * 1024;
+}
@@ -0,0 +1,45 @@
+package org.springframework.content.s3.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Configures how an S3 store downloads large content.
+ * <p>
+ * Content, or ranges of content, larger than {@link #threshold()} are fetched as
+ * concurrent ranged GETs of {@link #partSize()} bytes and reassembled in order.  At
+ * most {@link #concurrency()} parts are read ahead of the reader.  Smaller content is
+ * fetched with a single GET.  Stores without this annotation use its defaults.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface ParallelDownload {
+
+	/**
+	 * The size of each ranged GET in bytes.
+	 *
+	 * @return the part size
+	 */
+	int partSize() default 8 * 1024 * 1024;
+
+	/**
+	 * The maximum number of parts that are fetched, or held in memory, ahead of the
+	 * reader.
+	 *
+	 * @return the concurrency
+	 */
+	int concurrency() default 4;
+
+	/**
+	 * The size in bytes above which content is fetched in parts.
+	 *
+	 * @return the threshold
+	 */
+	long threshold() default 64 * 1024 * 1024;
+}
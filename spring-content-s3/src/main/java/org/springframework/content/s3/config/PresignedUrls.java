@@ -0,0 +1,27 @@
+package org.springframework.content.s3.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Configures the presigned URLs an S3 store that extends
+ * {@link org.springframework.content.commons.repository.PresignedUrlStore} hands out.
+ * Stores without this annotation use its defaults.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface PresignedUrls {
+
+	/**
+	 * How long, in seconds, a URL can be used for after it has been handed out.
+	 *
+	 * @return the expiry
+	 */
+	int expiry() default 300;
+}
@@ -0,0 +1,30 @@
+package org.springframework.content.s3.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Configures how many S3 operations a reactive S3 store runs at once.
+ * <p>
+ * The S3 client blocks, so each operation of a reactive store runs on one of the
+ * store's own threads, and operations beyond {@link #value()} wait for a thread.  Each
+ * running operation holds at least one of the client's pooled connections.  Stores
+ * without this annotation use its default.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface ReactiveConcurrency {
+
+	/**
+	 * The maximum number of operations that run at once.
+	 *
+	 * @return the concurrency
+	 */
+	int value() default 16;
+}
@@ -0,0 +1,49 @@
+package org.springframework.content.s3.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Configures how an S3 store spools content before uploading it.
+ * <p>
+ * Content within the single PUT threshold of the store's {@link MultipartUpload} is
+ * held in memory up to {@link #memoryThreshold()} bytes and spilled to a temporary file
+ * beyond that, so that it is uploaded with a known length without being held on the
+ * heap; larger content is uploaded in parts as it is written.  The spooled content and
+ * part buffers of uploads are reserved against {@link #capacity()} as they are written,
+ * and writes that would exceed it wait.  The capacity is shared by the uploads of every
+ * S3 store.  Stores without this annotation use its defaults.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface UploadSpool {
+
+	/**
+	 * The size in bytes up to which an upload's content is held in memory.
+	 *
+	 * @return the memory threshold
+	 */
+	int memoryThreshold() default 1024 * 1024;
+
+	/**
+	 * The total size in bytes, in memory and on disk, of the spooled content and part
+	 * buffers of uploads in flight, beyond which writes wait.  Every S3 store's uploads
+	 * share one capacity, the smallest that any store is configured with.
+	 *
+	 * @return the capacity
+	 */
+	long capacity() default 1024L * 1024 * 1024;
+
+	/**
+	 * The directory content is spilled to; the default temporary directory if empty.
+	 *
+	 * @return the spool directory
+	 */
+	String directory() default "";
+}
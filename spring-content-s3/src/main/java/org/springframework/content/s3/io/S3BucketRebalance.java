@@ -0,0 +1,168 @@
+package org.springframework.content.s3.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.util.Assert;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.DeleteObjectRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+
+import internal.org.springframework.content.s3.io.MultipartUploader;
+
+/**
+ * Moves the objects of an {@link S3ObjectPlacement} onto the buckets their locations
+ * hash to, in parallel; typically after a bucket has been added.
+ * <p>
+ * Only the objects that the new bucket takes over move.  Each object is copied
+ * server-side to its new bucket and then deleted from its old one, so that it can be
+ * read throughout.  Objects at keys the placement does not make are left alone unless
+ * {@link #setPrefixExistingKeys(boolean) prefixExistingKeys} is set, when they are taken
+ * to be content stored before the placement's prefix width was set and are moved to
+ * their prefixed keys.  The store should not be written to while it runs.  It can be run
+ * from the command line with the key prefix width and the buckets, and
+ * {@code --prefix-existing-keys} to move unprefixed keys:
+ *
+ * <pre>
+ * java -cp ... org.springframework.content.s3.io.S3BucketRebalance [--prefix-existing-keys] &lt;prefixWidth&gt; &lt;bucket&gt; &lt;bucket&gt;...
+ * </pre>
+ */
+public class S3BucketRebalance {
+
+	private static Log logger = LogFactory.getLog(S3BucketRebalance.class);
+
+	private final AmazonS3 client;
+	private final S3ObjectPlacement placement;
+	private final MultipartUploader uploader;
+	private final int parallelism;
+	private boolean prefixExistingKeys = false;
+
+	public S3BucketRebalance(AmazonS3 client, S3ObjectPlacement placement) {
+		this(client, placement, 16);
+	}
+
+	public S3BucketRebalance(AmazonS3 client, S3ObjectPlacement placement, int parallelism) {
+		Assert.notNull(client, "client must not be null");
+		Assert.notNull(placement, "placement must not be null");
+		Assert.isTrue(parallelism > 0, "parallelism must be positive");
+		this.client = client;
+		this.placement = placement;
+		this.uploader = new MultipartUploader(client);
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Sets whether objects at keys the placement does not make are moved to the keys
+	 * their names, taken as locations, are placed at.  Defaults to false.  Set it once
+	 * after a prefix width has been given to a store that already has content; the
+	 * buckets should hold nothing but the store's content.
+	 */
+	public void setPrefixExistingKeys(boolean prefixExistingKeys) {
+		this.prefixExistingKeys = prefixExistingKeys;
+	}
+
+	/**
+	 * Moves every object that is not on the bucket its location hashes to.
+	 *
+	 * @return the number of objects moved
+	 * @throws IOException if a bucket cannot be listed or an object cannot be moved
+	 */
+	public long rebalance() throws IOException {
+		AtomicLong listed = new AtomicLong();
+		AtomicLong moved = new AtomicLong();
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			for (String bucket : placement.getBuckets()) {
+				ListObjectsV2Request request = new ListObjectsV2Request().withBucketName(bucket);
+				ListObjectsV2Result page;
+				do {
+					page = client.listObjectsV2(request);
+					List<S3ObjectSummary> objects = page.getObjectSummaries();
+					listed.addAndGet(objects.size());
+					pool.submit(() -> objects.parallelStream().forEach(object -> {
+						try {
+							if (move(bucket, object.getKey())) {
+								moved.incrementAndGet();
+							}
+						} catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+					})).get();
+					request.setContinuationToken(page.getNextContinuationToken());
+				} while (page.isTruncated());
+			}
+		} catch (AmazonClientException e) {
+			throw new IOException(e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Rebalance interrupted", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof UncheckedIOException) {
+				throw ((UncheckedIOException) e.getCause()).getCause();
+			}
+			throw new IOException(e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+
+		logger.info(String.format("Moved %d of %d objects between %s", moved.get(), listed.get(), placement.getBuckets()));
+		return moved.get();
+	}
+
+	private boolean move(String bucket, String key) throws IOException {
+		String location = placement.getLocation(key);
+		String target = key;
+		if (location == null) {
+			if (!prefixExistingKeys || placement.getPrefixWidth() == 0) {
+				return false;
+			}
+			location = key;
+			target = placement.getKey(location);
+		}
+		String preferred = placement.getBucket(location);
+		if (preferred.equals(bucket) && target.equals(key)) {
+			return false;
+		}
+
+		try {
+			if (!client.doesObjectExist(preferred, target)) {
+				uploader.copy(bucket, key, preferred, target);
+			}
+			// an object already on its preferred bucket is the one that is read
+			client.deleteObject(new DeleteObjectRequest(bucket, key));
+		} catch (AmazonClientException e) {
+			throw new IOException(e);
+		}
+		return true;
+	}
+
+	public static void main(String[] args) throws IOException {
+		boolean prefixExistingKeys = args.length > 0 && args[0].equals("--prefix-existing-keys");
+		int first = prefixExistingKeys ? 1 : 0;
+		if (args.length < first + 2) {
+			System.err.println("Usage: S3BucketRebalance [--prefix-existing-keys] <prefixWidth> <bucket>...");
+			System.exit(1);
+		}
+		List<String> buckets = new ArrayList<>();
+		for (int i = first + 1; i < args.length; i++) {
+			buckets.add(args[i]);
+		}
+		S3ObjectPlacement placement = new S3ObjectPlacement(buckets, Integer.parseInt(args[first]));
+		S3BucketRebalance rebalance = new S3BucketRebalance(AmazonS3ClientBuilder.defaultClient(), placement);
+		rebalance.setPrefixExistingKeys(prefixExistingKeys);
+		long moved = rebalance.rebalance();
+		System.out.println(String.format("Moved %d objects", moved));
+	}
+}
@@ -0,0 +1,147 @@
+package org.springframework.content.s3.io;
+
+import static org.springframework.content.commons.utils.HashingUtils.hash;
+import static org.springframework.content.commons.utils.HashingUtils.mix;
+import static org.springframework.util.StringUtils.trimLeadingCharacter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Places the objects of an S3 store over one or more buckets and hashed key prefixes, so
+ * that requests are not throttled by the request rate limits of a single bucket or
+ * prefix.
+ * <p>
+ * Each location is placed on a bucket chosen by rendezvous hashing of the location, so
+ * that adding a bucket moves only the objects it takes over.  Given a prefix width, each
+ * key is prefixed with that many leading hex characters of the MD5 hash of its location,
+ * for example {@code 827c/12345}.  A single bucket without a prefix places each location
+ * at its own key, as stores always have.  Content stored before a prefix width was set is
+ * still found at its unprefixed key, see {@link #getKeys(String)}.
+ */
+public class S3ObjectPlacement {
+
+	private final List<String> buckets;
+	private final long[] seeds;
+	private final int prefixWidth;
+
+	public S3ObjectPlacement(String bucket) {
+		this(Collections.singletonList(bucket), 0);
+	}
+
+	/**
+	 * @param buckets
+	 * 					the buckets
+	 * @param prefixWidth
+	 * 					the number of hex characters of each key's prefix, or 0 for no prefix
+	 */
+	public S3ObjectPlacement(List<String> buckets, int prefixWidth) {
+		Assert.notEmpty(buckets, "buckets must not be empty");
+		Assert.isTrue(prefixWidth >= 0 && prefixWidth <= 32, "prefixWidth must be between 0 and the 32 characters of an MD5 hash");
+		this.buckets = Collections.unmodifiableList(new ArrayList<>(buckets));
+		this.prefixWidth = prefixWidth;
+
+		// seeded by name, not position, so adding a bucket leaves the others' scores unchanged
+		this.seeds = new long[buckets.size()];
+		for (int i = 0; i < seeds.length && seeds.length > 1; i++) {
+			Assert.hasText(buckets.get(i), "buckets must not be blank");
+			seeds[i] = mix(hash(buckets.get(i)));
+		}
+	}
+
+	public List<String> getBuckets() {
+		return buckets;
+	}
+
+	public int getPrefixWidth() {
+		return prefixWidth;
+	}
+
+	/**
+	 * Returns the bucket that location is placed on.
+	 */
+	public String getBucket(String location) {
+		if (buckets.size() == 1) {
+			return buckets.get(0);
+		}
+		long hash = hash(trimLeadingCharacter(location, '/'));
+		int best = 0;
+		for (int i = 1; i < seeds.length; i++) {
+			if (Long.compareUnsigned(mix(hash ^ seeds[i]), mix(hash ^ seeds[best])) > 0) {
+				best = i;
+			}
+		}
+		return buckets.get(best);
+	}
+
+	/**
+	 * Returns every bucket, in the order location prefers them.  Content not found on
+	 * the first, as after a bucket has been added but before a {@link S3BucketRebalance}
+	 * has run, is on one of the others.
+	 */
+	public List<String> getBuckets(String location) {
+		if (buckets.size() == 1) {
+			return buckets;
+		}
+		long hash = hash(trimLeadingCharacter(location, '/'));
+		List<Integer> ranked = new ArrayList<>();
+		for (int i = 0; i < seeds.length; i++) {
+			ranked.add(i);
+		}
+		ranked.sort(Comparator.comparing((Integer i) -> mix(hash ^ seeds[i]), Long::compareUnsigned).reversed());
+		List<String> result = new ArrayList<>();
+		for (int i : ranked) {
+			result.add(buckets.get(i));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the key that location is placed at.
+	 */
+	public String getKey(String location) {
+		Assert.state(location.startsWith("s3://") == false, String.format("location %s must be a path, not an s3:// url", location));
+		location = trimLeadingCharacter(location, '/');
+		if (prefixWidth == 0) {
+			return location;
+		}
+		String hash = DigestUtils.md5DigestAsHex(location.getBytes(StandardCharsets.UTF_8));
+		return hash.substring(0, prefixWidth) + "/" + location;
+	}
+
+	/**
+	 * Returns every key content at location may be at, in the order they are tried: the
+	 * key it is placed at and, given a prefix width, the unprefixed key it was placed at
+	 * before the prefix width was set, until an {@link S3BucketRebalance} moves it.
+	 */
+	public List<String> getKeys(String location) {
+		String key = getKey(location);
+		if (prefixWidth == 0) {
+			return Collections.singletonList(key);
+		}
+		return Arrays.asList(key, trimLeadingCharacter(location, '/'));
+	}
+
+	/**
+	 * Returns the location placed at key, or null if key is not one this placement
+	 * makes.
+	 */
+	public String getLocation(String key) {
+		String location = key;
+		if (prefixWidth > 0) {
+			int slash = key.indexOf('/');
+			if (slash == -1) {
+				return null;
+			}
+			location = key.substring(slash + 1);
+		}
+		return getKey(location).equals(key) ? location : null;
+	}
+}
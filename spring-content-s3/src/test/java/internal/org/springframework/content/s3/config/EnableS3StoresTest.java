@@ -9,6 +9,7 @@ import org.springframework.cloud.aws.core.io.s3.SimpleStorageResourceLoader;
 import org.springframework.content.commons.annotations.Content;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.ReactiveContentStore;
 import org.springframework.content.s3.config.EnableS3ContentRepositories;
 import org.springframework.content.s3.config.EnableS3Stores;
 import org.springframework.content.s3.config.S3StoreConfigurer;
@@ -59,6 +60,9 @@ public class EnableS3StoresTest {
 				It("should have a Content Repository bean", () -> {
 					assertThat(context.getBean(TestEntityContentRepository.class), is(not(nullValue())));
 				});
+				It("should have a ReactiveContentStore bean", () -> {
+					assertThat(context.getBean(TestEntityReactiveStore.class), is(not(nullValue())));
+				});
 				It("should have an s3 store converter", () -> {
 					assertThat(context.getBean("s3StoreConverter"), is(not(nullValue())));
 				});
@@ -183,6 +187,9 @@ public class EnableS3StoresTest {
 		private String contentId;
 	}
 
+	public interface TestEntityReactiveStore extends ReactiveContentStore<TestEntity, String> {
+	}
+
 	public interface TestEntityContentRepository extends ContentStore<TestEntity, String> {
 	}
 }
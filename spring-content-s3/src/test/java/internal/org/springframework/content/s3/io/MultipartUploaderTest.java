@@ -0,0 +1,326 @@
+package internal.org.springframework.content.s3.io;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.JustBeforeEach;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.model.CopyObjectResult;
+import com.amazonaws.services.s3.model.CopyPartRequest;
+import com.amazonaws.services.s3.model.CopyPartResult;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class MultipartUploaderTest {
+
+	private AmazonS3 client;
+	private MultipartUploader uploader;
+	private Map<Integer, String> parts;
+	private AtomicInteger failures;
+	private String content;
+	private MultipartUploader.Result uploaded;
+	private Exception error;
+
+	{
+		Describe("MultipartUploader", () -> {
+			BeforeEach(() -> {
+				client = mock(AmazonS3.class);
+				parts = new ConcurrentHashMap<>();
+				failures = new AtomicInteger();
+				error = null;
+
+				InitiateMultipartUploadResult initiated = new InitiateMultipartUploadResult();
+				initiated.setUploadId("upload-id");
+				when(client.initiateMultipartUpload(any(InitiateMultipartUploadRequest.class))).thenReturn(initiated);
+				PutObjectResult put = new PutObjectResult();
+				put.setETag("put-etag");
+				when(client.putObject(any(PutObjectRequest.class))).thenReturn(put);
+				CompleteMultipartUploadResult completed = new CompleteMultipartUploadResult();
+				completed.setETag("multipart-etag");
+				when(client.completeMultipartUpload(any(CompleteMultipartUploadRequest.class))).thenReturn(completed);
+				when(client.uploadPart(any(UploadPartRequest.class))).thenAnswer(invocation -> {
+					UploadPartRequest request = (UploadPartRequest) invocation.getArguments()[0];
+					if (failures.getAndDecrement() > 0) {
+						AmazonServiceException e = new AmazonServiceException("unavailable");
+						e.setStatusCode(503);
+						throw e;
+					}
+					parts.put(request.getPartNumber(), IOUtils.toString(request.getInputStream()));
+					UploadPartResult result = new UploadPartResult();
+					result.setPartNumber(request.getPartNumber());
+					result.setETag("etag-" + request.getPartNumber());
+					return result;
+				});
+
+				uploader = new MultipartUploader(client, 4, 2, 6, 2, 5L * 1024 * 1024 * 1024, 100L * 1024 * 1024, 1);
+			});
+			JustBeforeEach(() -> {
+				try {
+					uploaded = uploader.upload("some-bucket", "some-key", new ByteArrayInputStream(content.getBytes()));
+				} catch (IOException e) {
+					error = e;
+				}
+			});
+			Context("given content within the threshold", () -> {
+				BeforeEach(() -> {
+					content = "012345";
+				});
+				It("should upload it with a single PUT", () -> {
+					ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+					verify(client).putObject(request.capture());
+					assertThat(request.getValue().getBucketName(), is("some-bucket"));
+					assertThat(request.getValue().getKey(), is("some-key"));
+					assertThat(request.getValue().getMetadata().getContentLength(), is(6L));
+					assertThat(IOUtils.toString(request.getValue().getInputStream()), is("012345"));
+					verify(client, never()).initiateMultipartUpload(any(InitiateMultipartUploadRequest.class));
+					assertThat(uploaded.getLength(), is(6L));
+					assertThat(uploaded.getETag(), is("put-etag"));
+				});
+			});
+			Context("given content over the threshold", () -> {
+				BeforeEach(() -> {
+					content = "0123456789";
+				});
+				It("should upload it in parts", () -> {
+					assertThat(error, is(nullValue()));
+					assertThat(uploaded.getLength(), is(10L));
+					assertThat(uploaded.getETag(), is("multipart-etag"));
+					assertThat(parts.get(1), is("0123"));
+					assertThat(parts.get(2), is("4567"));
+					assertThat(parts.get(3), is("89"));
+
+					ArgumentCaptor<CompleteMultipartUploadRequest> request = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+					verify(client).completeMultipartUpload(request.capture());
+					assertThat(request.getValue().getUploadId(), is("upload-id"));
+					assertThat(request.getValue().getPartETags().size(), is(3));
+					assertThat(request.getValue().getPartETags().get(2).getETag(), is("etag-3"));
+					verify(client, never()).putObject(any(PutObjectRequest.class));
+				});
+				Context("when a part fails transiently", () -> {
+					BeforeEach(() -> {
+						failures.set(1);
+					});
+					It("should retry the part", () -> {
+						assertThat(error, is(nullValue()));
+						verify(client, times(4)).uploadPart(any(UploadPartRequest.class));
+						verify(client).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+					});
+				});
+				Context("when a part keeps failing", () -> {
+					BeforeEach(() -> {
+						failures.set(Integer.MAX_VALUE);
+					});
+					It("should abort the upload", () -> {
+						assertThat(error, is(instanceOf(IOException.class)));
+						verify(client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+						verify(client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+					});
+				});
+			});
+			Context("given content that fills the part limit", () -> {
+				BeforeEach(() -> {
+					content = String.join("", Collections.nCopies(MultipartUploader.MAX_PARTS, "0123"));
+				});
+				It("should upload it", () -> {
+					assertThat(error, is(nullValue()));
+					assertThat(parts.size(), is(MultipartUploader.MAX_PARTS));
+					verify(client).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+				});
+			});
+			Context("given content larger than the part limit", () -> {
+				BeforeEach(() -> {
+					content = String.join("", Collections.nCopies(MultipartUploader.MAX_PARTS, "0123")) + "4";
+				});
+				It("should fail and abort the upload", () -> {
+					assertThat(error, is(instanceOf(IOException.class)));
+					verify(client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+					verify(client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+				});
+			});
+		});
+		Describe("MultipartUploader part size", () -> {
+			It("should not be under S3's minimum", () -> {
+				try {
+					new MultipartUploader(mock(AmazonS3.class), 1024 * 1024, 2, 6, 2);
+					fail("expected an IllegalArgumentException");
+				} catch (IllegalArgumentException e) {
+					assertThat(e.getMessage(), is("partSize must be at least 5242880 bytes"));
+				}
+			});
+		});
+		Describe("MultipartUploader of spooled content", () -> {
+			BeforeEach(() -> {
+				client = mock(AmazonS3.class);
+				parts = new ConcurrentHashMap<>();
+
+				PutObjectResult put = new PutObjectResult();
+				put.setETag("put-etag");
+				when(client.putObject(any(PutObjectRequest.class))).thenReturn(put);
+				InitiateMultipartUploadResult initiated = new InitiateMultipartUploadResult();
+				initiated.setUploadId("upload-id");
+				when(client.initiateMultipartUpload(any(InitiateMultipartUploadRequest.class))).thenReturn(initiated);
+				CompleteMultipartUploadResult completed = new CompleteMultipartUploadResult();
+				completed.setETag("multipart-etag");
+				when(client.completeMultipartUpload(any(CompleteMultipartUploadRequest.class))).thenReturn(completed);
+				when(client.uploadPart(any(UploadPartRequest.class))).thenAnswer(invocation -> {
+					UploadPartRequest request = (UploadPartRequest) invocation.getArguments()[0];
+					parts.put(request.getPartNumber(), IOUtils.toString(request.getInputStream()));
+					UploadPartResult result = new UploadPartResult();
+					result.setPartNumber(request.getPartNumber());
+					result.setETag("etag-" + request.getPartNumber());
+					return result;
+				});
+
+				uploader = new MultipartUploader(client, 4, 2, 6, 2, 5L * 1024 * 1024 * 1024, 100L * 1024 * 1024, 1);
+			});
+			Context("given spooled content within the threshold", () -> {
+				It("should upload it with a single PUT of a known length", () -> {
+					UploadSpooler spooler = new UploadSpooler(4, 100, null);
+					uploaded = uploader.upload("some-bucket", "some-key", new ByteArrayInputStream("012345".getBytes()), spooler);
+					ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+					verify(client).putObject(request.capture());
+					assertThat(request.getValue().getMetadata().getContentLength(), is(6L));
+					assertThat(IOUtils.toString(request.getValue().getInputStream()), is("012345"));
+					assertThat(uploaded.getETag(), is("put-etag"));
+					assertThat(spooler.getSpooled(), is(0L));
+				});
+			});
+			Context("given spooled content over the threshold", () -> {
+				It("should upload it in parts without spooling all of it", () -> {
+					UploadSpooler spooler = new UploadSpooler(4, 100, null);
+					MultipartUploader.UploadStream out = uploader.open("some-bucket", "some-key", spooler);
+					out.write("012345".getBytes());
+					assertThat(spooler.getSpooled(), is(6L));
+					out.write("6789".getBytes());
+					// only the part buffers, no more than concurrency of them, are reserved
+					assertThat(spooler.getSpooled() <= 8L, is(true));
+					verify(client).initiateMultipartUpload(any(InitiateMultipartUploadRequest.class));
+					out.close();
+					assertThat(spooler.getSpooled(), is(0L));
+
+					assertThat(out.getResult().getLength(), is(10L));
+					assertThat(out.getResult().getETag(), is("multipart-etag"));
+					assertThat(parts.get(1), is("0123"));
+					assertThat(parts.get(2), is("4567"));
+					assertThat(parts.get(3), is("89"));
+					verify(client, never()).putObject(any(PutObjectRequest.class));
+				});
+				It("should fail rather than reserve part buffers past the capacity", () -> {
+					UploadSpooler spooler = new UploadSpooler(4, 6, null);
+					MultipartUploader.UploadStream out = uploader.open("some-bucket", "some-key", spooler);
+					out.write("012345".getBytes());
+					try {
+						out.write("6789".getBytes());
+						fail("expected an IOException");
+					} catch (IOException e) {
+						assertThat(spooler.getSpooled(), is(0L));
+					}
+				});
+			});
+		});
+		Describe("MultipartUploader#copy", () -> {
+			BeforeEach(() -> {
+				client = mock(AmazonS3.class);
+				error = null;
+
+				ObjectMetadata metadata = new ObjectMetadata();
+				metadata.setContentLength(10L);
+				when(client.getObjectMetadata("some-bucket", "source-key")).thenReturn(metadata);
+				AmazonServiceException missing = new AmazonServiceException("not found");
+				missing.setStatusCode(404);
+				when(client.getObjectMetadata("some-bucket", "missing-key")).thenThrow(missing);
+				CopyObjectResult copied = new CopyObjectResult();
+				copied.setETag("copy-etag");
+				when(client.copyObject(any(CopyObjectRequest.class))).thenReturn(copied);
+				InitiateMultipartUploadResult initiated = new InitiateMultipartUploadResult();
+				initiated.setUploadId("upload-id");
+				when(client.initiateMultipartUpload(any(InitiateMultipartUploadRequest.class))).thenReturn(initiated);
+				when(client.copyPart(any(CopyPartRequest.class))).thenAnswer(invocation -> {
+					CopyPartRequest request = (CopyPartRequest) invocation.getArguments()[0];
+					CopyPartResult result = new CopyPartResult();
+					result.setPartNumber(request.getPartNumber());
+					result.setETag("etag-" + request.getPartNumber());
+					return result;
+				});
+				CompleteMultipartUploadResult completed = new CompleteMultipartUploadResult();
+				completed.setETag("multipart-etag");
+				when(client.completeMultipartUpload(any(CompleteMultipartUploadRequest.class))).thenReturn(completed);
+			});
+			Context("given an object within the copy threshold", () -> {
+				BeforeEach(() -> {
+					uploader = new MultipartUploader(client, 4, 2, 6, 2, 10, 4, 1);
+				});
+				It("should copy it with a single CopyObject", () -> {
+					uploaded = uploader.copy("some-bucket", "source-key", "some-bucket", "target-key");
+					ArgumentCaptor<CopyObjectRequest> request = ArgumentCaptor.forClass(CopyObjectRequest.class);
+					verify(client).copyObject(request.capture());
+					assertThat(request.getValue().getSourceKey(), is("source-key"));
+					assertThat(request.getValue().getDestinationKey(), is("target-key"));
+					verify(client, never()).initiateMultipartUpload(any(InitiateMultipartUploadRequest.class));
+					assertThat(uploaded.getLength(), is(10L));
+					assertThat(uploaded.getETag(), is("copy-etag"));
+				});
+				It("should return null when the source does not exist", () -> {
+					assertThat(uploader.copy("some-bucket", "missing-key", "some-bucket", "target-key"), is(nullValue()));
+					verify(client, never()).copyObject(any(CopyObjectRequest.class));
+				});
+			});
+			Context("given an object over the copy threshold", () -> {
+				BeforeEach(() -> {
+					uploader = new MultipartUploader(client, 4, 2, 6, 2, 8, 4, 1);
+				});
+				It("should copy it in parts", () -> {
+					uploaded = uploader.copy("some-bucket", "source-key", "some-bucket", "target-key");
+					ArgumentCaptor<CopyPartRequest> parts = ArgumentCaptor.forClass(CopyPartRequest.class);
+					verify(client, times(3)).copyPart(parts.capture());
+					for (CopyPartRequest part : parts.getAllValues()) {
+						assertThat(part.getUploadId(), is("upload-id"));
+						assertThat(part.getFirstByte(), is((part.getPartNumber() - 1) * 4L));
+						assertThat(part.getLastByte(), is(Math.min(part.getPartNumber() * 4L, 10L) - 1));
+					}
+					verify(client, never()).copyObject(any(CopyObjectRequest.class));
+					assertThat(uploaded.getLength(), is(10L));
+					assertThat(uploaded.getETag(), is("multipart-etag"));
+				});
+			});
+		});
+	}
+}
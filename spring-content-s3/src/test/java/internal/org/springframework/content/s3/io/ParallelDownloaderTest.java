@@ -0,0 +1,147 @@
+package internal.org.springframework.content.s3.io;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.runner.RunWith;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class ParallelDownloaderTest {
+
+	private static final String CONTENT = "0123456789";
+
+	private AmazonS3 client;
+	private ParallelDownloader downloader;
+	private List<String> ranges;
+	private String etag;
+	private Exception error;
+
+	{
+		Describe("ParallelDownloader", () -> {
+			BeforeEach(() -> {
+				client = mock(AmazonS3.class);
+				ranges = new CopyOnWriteArrayList<>();
+				etag = "some-etag";
+				error = null;
+
+				when(client.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> {
+					GetObjectRequest request = (GetObjectRequest) invocation.getArguments()[0];
+					if (!request.getMatchingETagConstraints().contains(etag)) {
+						return null;
+					}
+					long[] range = request.getRange();
+					ranges.add(range[0] + "-" + range[1]);
+					return object(range[0], range[1] + 1);
+				});
+
+				downloader = new ParallelDownloader(client, 4, 2, 6);
+			});
+			Context("#appliesTo", () -> {
+				It("should only apply above the threshold", () -> {
+					assertThat(downloader.appliesTo(6), is(false));
+					assertThat(downloader.appliesTo(7), is(true));
+				});
+			});
+			Context("#download", () -> {
+				It("should reassemble the parts in order, starting with the given GET", () -> {
+					try (InputStream in = downloader.download("some-bucket", "some-key", object(0, 4), 0, 10)) {
+						assertThat(IOUtils.toString(in), is(CONTENT));
+					}
+					assertThat(ranges.size(), is(2));
+					assertThat(ranges.contains("4-7"), is(true));
+					assertThat(ranges.contains("8-9"), is(true));
+				});
+				It("should download only the requested range", () -> {
+					try (InputStream in = downloader.download("some-bucket", "some-key", object(2, 6), 2, 9)) {
+						assertThat(IOUtils.toString(in), is("2345678"));
+					}
+					verify(client, times(1)).getObject(any(GetObjectRequest.class));
+				});
+				It("should clamp a range past the end of the object", () -> {
+					try (InputStream in = downloader.download("some-bucket", "some-key", object(4, 8), 4, Long.MAX_VALUE)) {
+						assertThat(IOUtils.toString(in), is("456789"));
+					}
+					assertThat(ranges.size(), is(1));
+					assertThat(ranges.contains("8-9"), is(true));
+				});
+				It("should read only a part of an unranged GET", () -> {
+					try (InputStream in = downloader.download("some-bucket", "some-key", object(0, 10), 0, 10)) {
+						assertThat(IOUtils.toString(in), is(CONTENT));
+					}
+					assertThat(ranges.size(), is(2));
+				});
+				It("should read no further ahead than its window", () -> {
+					try (InputStream in = downloader.download("some-bucket", "some-key", object(0, 4), 0, 10)) {
+						Thread.sleep(100);
+						assertThat(ranges.size(), is(2));
+					}
+				});
+			});
+			Context("#download of an object that changes", () -> {
+				It("should fail the read", () -> {
+					S3Object first = object(0, 4);
+					etag = "another-etag";
+					try (InputStream in = downloader.download("some-bucket", "some-key", first, 0, 10)) {
+						IOUtils.toString(in);
+					} catch (IOException e) {
+						error = e;
+					}
+					assertThat(error, is(instanceOf(IOException.class)));
+					assertThat(error.getMessage(), is("some-key changed while it was being read"));
+				});
+			});
+			Context("#download with a failing part", () -> {
+				BeforeEach(() -> {
+					doThrow(new AmazonServiceException("unavailable")).when(client).getObject(any(GetObjectRequest.class));
+				});
+				It("should fail the read", () -> {
+					try (InputStream in = downloader.download("some-bucket", "some-key", object(0, 4), 0, 10)) {
+						IOUtils.toString(in);
+					} catch (IOException e) {
+						error = e;
+					}
+					assertThat(error, is(instanceOf(IOException.class)));
+				});
+			});
+		});
+	}
+
+	// a response to a GET of the range [start, end) of CONTENT
+	private S3Object object(long start, long end) {
+		ObjectMetadata metadata = new ObjectMetadata();
+		metadata.setContentLength(end - start);
+		metadata.setHeader("ETag", "some-etag");
+		metadata.setHeader("Content-Range", String.format("bytes %d-%d/%d", start, end - 1, CONTENT.length()));
+		S3Object object = new S3Object();
+		object.setObjectMetadata(metadata);
+		object.setObjectContent(new ByteArrayInputStream(CONTENT.substring((int) start, (int) end).getBytes()));
+		return object;
+	}
+}
@@ -0,0 +1,153 @@
+package internal.org.springframework.content.s3.io;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.runner.RunWith;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class UploadSpoolerTest {
+
+	private File directory;
+	private UploadSpooler spooler;
+	private UploadSpooler.Spool spool;
+
+	{
+		Describe("UploadSpooler", () -> {
+			BeforeEach(() -> {
+				directory = Files.createTempDirectory("upload-spooler-test").toFile();
+				directory.deleteOnExit();
+				spooler = new UploadSpooler(4, 10, directory);
+			});
+			Context("given content within the memory threshold", () -> {
+				BeforeEach(() -> {
+					spool = spooler.spool(new ByteArrayInputStream("0123".getBytes()));
+				});
+				It("should hold it in memory", () -> {
+					assertThat(spool.isSpilled(), is(false));
+					assertThat(spool.length(), is(4L));
+					assertThat(directory.list().length, is(0));
+					try (InputStream in = spool.getInputStream(1, 2)) {
+						assertThat(IOUtils.toString(in), is("12"));
+					}
+				});
+			});
+			Context("given content over the memory threshold", () -> {
+				BeforeEach(() -> {
+					spool = spooler.spool(new ByteArrayInputStream("0123456789".getBytes()));
+				});
+				It("should spill it to a file", () -> {
+					assertThat(spool.isSpilled(), is(true));
+					assertThat(spool.length(), is(10L));
+					assertThat(FileUtils.readFileToString(spool.getFile()), is("0123456789"));
+					try (InputStream in = spool.getInputStream(4, 4)) {
+						assertThat(IOUtils.toString(in), is("4567"));
+					}
+				});
+				It("should delete the file once released", () -> {
+					File file = spool.getFile();
+					spool.release();
+					assertThat(file.exists(), is(false));
+					assertThat(spooler.getSpooled(), is(0L));
+				});
+			});
+			Context("when the spooler is at capacity", () -> {
+				BeforeEach(() -> {
+					spool = spooler.spool(new ByteArrayInputStream("0123456789".getBytes()));
+				});
+				It("should hold back new spools until content is released", () -> {
+					assertThat(spooler.getSpooled(), is(10L));
+					CompletableFuture<UploadSpooler.Spool> opened = CompletableFuture.supplyAsync(() -> {
+						try {
+							return spooler.open();
+						} catch (Exception e) {
+							throw new RuntimeException(e);
+						}
+					});
+					Thread.sleep(100);
+					assertThat(opened.isDone(), is(false));
+
+					spool.release();
+					opened.get(5, TimeUnit.SECONDS).release();
+				});
+			});
+			Context("given spools that share the capacity", () -> {
+				BeforeEach(() -> {
+					spool = spooler.open();
+					spool.write("012345".getBytes());
+				});
+				It("should hold back a write that would exceed it until content is released", () -> {
+					UploadSpooler.Spool other = spooler.open();
+					CompletableFuture<Void> written = CompletableFuture.runAsync(() -> {
+						try {
+							other.write("6789AB".getBytes());
+						} catch (Exception e) {
+							throw new RuntimeException(e);
+						}
+					});
+					Thread.sleep(100);
+					assertThat(written.isDone(), is(false));
+					assertThat(spooler.getSpooled(), is(6L));
+
+					spool.release();
+					written.get(5, TimeUnit.SECONDS);
+					assertThat(spooler.getSpooled(), is(6L));
+					other.release();
+				});
+				It("should fail a write that could never fit rather than exceed it", () -> {
+					try {
+						spool.write("6789AB".getBytes());
+						fail("expected an IOException");
+					} catch (IOException e) {
+						assertThat(spooler.getSpooled(), is(6L));
+					}
+					spool.release();
+					assertThat(spooler.getSpooled(), is(0L));
+				});
+			});
+			Context("given spoolers that share a limiter", () -> {
+				It("should reserve the content of both against it", () -> {
+					UploadLimiter limiter = new UploadLimiter(10);
+					UploadSpooler.Spool one = new UploadSpooler(4, limiter, directory).open();
+					UploadSpooler.Spool two = new UploadSpooler(4, limiter, directory).open();
+					one.write("012345".getBytes());
+					two.write("6789".getBytes());
+					assertThat(limiter.getReserved(), is(10L));
+					CompletableFuture<Void> written = CompletableFuture.runAsync(() -> {
+						try {
+							two.write("A".getBytes());
+						} catch (Exception e) {
+							throw new RuntimeException(e);
+						}
+					});
+					Thread.sleep(100);
+					assertThat(written.isDone(), is(false));
+
+					one.release();
+					written.get(5, TimeUnit.SECONDS);
+					two.release();
+					assertThat(limiter.getReserved(), is(0L));
+				});
+			});
+		});
+	}
+}
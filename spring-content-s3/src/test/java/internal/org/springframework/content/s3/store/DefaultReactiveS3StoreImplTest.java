@@ -0,0 +1,188 @@
+package internal.org.springframework.content.s3.store;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.WritableResource;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.DeleteObjectRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+import internal.org.springframework.content.commons.io.InputStreamPublisher;
+import internal.org.springframework.content.commons.io.PublisherInputStream;
+
+@RunWith(Ginkgo4jRunner.class)
+public class DefaultReactiveS3StoreImplTest {
+    private DefaultReactiveS3StoreImpl<TestEntity, String> store;
+    private ResourceLoader loader;
+    private ConversionService converter;
+    private AmazonS3 client;
+    private ExecutorService executor;
+    private TestEntity property;
+
+    private String stored;
+    private Exception error;
+
+    {
+        Describe("DefaultReactiveS3StoreImpl", () -> {
+            BeforeEach(() -> {
+                loader = mock(ResourceLoader.class);
+                converter = mock(ConversionService.class);
+                client = mock(AmazonS3.class);
+                executor = Executors.newFixedThreadPool(2);
+                store = new DefaultReactiveS3StoreImpl<TestEntity, String>(loader, converter, client, "some-bucket", executor);
+                error = null;
+
+                property = new TestEntity();
+                property.setContentId("abcd-efgh");
+                when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("abcd-efgh");
+                when(loader.getResource("s3://some-bucket/abcd-efgh")).thenReturn(mock(WritableResource.class));
+            });
+
+            Context("#setContent", () -> {
+                BeforeEach(() -> {
+                    when(client.putObject(any(PutObjectRequest.class))).thenAnswer(invocation -> {
+                        stored = IOUtils.toString(((PutObjectRequest) invocation.getArguments()[0]).getInputStream());
+                        return new PutObjectResult();
+                    });
+
+                    store.setContent(property, new InputStreamPublisher(() -> new ByteArrayInputStream("hello".getBytes()), executor, 2)).get(10, TimeUnit.SECONDS);
+                });
+                It("should upload the published content", () -> {
+                    ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+                    verify(client).putObject(request.capture());
+                    assertThat(request.getValue().getKey(), is("abcd-efgh"));
+                    assertThat(stored, is("hello"));
+                });
+                It("should update the content length", () -> {
+                    assertThat(property.getContentLen(), is(5L));
+                });
+            });
+
+            Context("#setContent with the store's own content on a single thread", () -> {
+                It("should copy the content without waiting on itself", () -> {
+                    executor = Executors.newSingleThreadExecutor();
+                    store = new DefaultReactiveS3StoreImpl<TestEntity, String>(loader, converter, client, "some-bucket", executor);
+
+                    S3Object object = new S3Object();
+                    object.setObjectContent(new ByteArrayInputStream("hello".getBytes()));
+                    object.getObjectMetadata().setContentLength(5L);
+                    when(client.getObject(any(GetObjectRequest.class))).thenReturn(object);
+                    when(client.putObject(any(PutObjectRequest.class))).thenAnswer(invocation -> {
+                        stored = IOUtils.toString(((PutObjectRequest) invocation.getArguments()[0]).getInputStream());
+                        return new PutObjectResult();
+                    });
+
+                    TestEntity copy = new TestEntity();
+                    copy.setContentId("ijkl-mnop");
+                    when(converter.convert(eq("ijkl-mnop"), eq(String.class))).thenReturn("ijkl-mnop");
+                    store.setContent(copy, store.getContent(property)).get(10, TimeUnit.SECONDS);
+
+                    assertThat(stored, is("hello"));
+                    assertThat(copy.getContentLen(), is(5L));
+                });
+            });
+
+            Context("#getContent", () -> {
+                It("should publish the content", () -> {
+                    S3Object object = new S3Object();
+                    object.setObjectContent(new ByteArrayInputStream("hello".getBytes()));
+                    object.getObjectMetadata().setContentLength(5L);
+                    when(client.getObject(any(GetObjectRequest.class))).thenReturn(object);
+
+                    try (InputStream in = new PublisherInputStream(store.getContent(property))) {
+                        assertThat(IOUtils.toString(in), is("hello"));
+                    }
+                });
+                It("should publish nothing when the object does not exist", () -> {
+                    AmazonS3Exception missing = new AmazonS3Exception("not found");
+                    missing.setStatusCode(404);
+                    when(client.getObject(any(GetObjectRequest.class))).thenThrow(missing);
+
+                    try (InputStream in = new PublisherInputStream(store.getContent(property))) {
+                        assertThat(IOUtils.toString(in), is(""));
+                    }
+                });
+            });
+
+            Context("#unsetContent", () -> {
+                It("should delete the object and reset the content fields", () -> {
+                    store.unsetContent(property).get(10, TimeUnit.SECONDS);
+
+                    ArgumentCaptor<DeleteObjectRequest> request = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+                    verify(client).deleteObject(request.capture());
+                    assertThat(request.getValue().getKey(), is("abcd-efgh"));
+                    assertThat(property.getContentId(), is(nullValue()));
+                    assertThat(property.getContentLen(), is(0L));
+                });
+                It("should complete exceptionally when the delete fails", () -> {
+                    doThrow(new AmazonServiceException("unavailable")).when(client).deleteObject(any(DeleteObjectRequest.class));
+                    try {
+                        store.unsetContent(property).get(10, TimeUnit.SECONDS);
+                    } catch (ExecutionException e) {
+                        error = e;
+                    }
+                    assertThat(error.getCause(), is(instanceOf(AmazonServiceException.class)));
+                    assertThat(property.getContentId(), is("abcd-efgh"));
+                });
+            });
+        });
+    }
+
+    public static class TestEntity {
+        @ContentId
+        private String contentId;
+
+        @ContentLength
+        private long contentLen;
+
+        public String getContentId() {
+            return this.contentId;
+        }
+
+        public void setContentId(String contentId) {
+            this.contentId = contentId;
+        }
+
+        public long getContentLen() {
+            return contentLen;
+        }
+
+        public void setContentLen(long contentLen) {
+            this.contentLen = contentLen;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.JustBeforeEach;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
@@ -12,6 +13,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.endsWith;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -19,23 +21,46 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
-import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 
+import org.apache.commons.io.IOUtils;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Matchers;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.io.RangeableResource;
+import org.springframework.content.s3.io.S3ObjectPlacement;
 import org.springframework.core.convert.ConversionService;
-import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.WritableResource;
 
+import com.amazonaws.HttpMethod;
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.model.CopyObjectResult;
+import com.amazonaws.services.s3.model.DeleteObjectRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsResult.DeletedObject;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException.DeleteError;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
 
+import internal.org.springframework.content.s3.io.ParallelDownloader;
+
 
 @RunWith(Ginkgo4jRunner.class)
 @Ginkgo4jConfiguration(threads=1)
@@ -45,15 +70,12 @@ public class DefaultS3StoreImplTest {
     private ConversionService converter;
     private AmazonS3 client;
     private TestEntity entity;
+    private TestEntity other;
+    private S3ObjectPlacement placement;
     
     private WritableResource resource;
-    private Resource nonExistentResource;
 
     private InputStream content;
-    private OutputStream output;
-
-    private File parent;
-
     private InputStream result;
     
     {
@@ -71,7 +93,7 @@ public class DefaultS3StoreImplTest {
                     entity = new TestEntity();
                     content = new ByteArrayInputStream("Hello content world!".getBytes());
 
-//                    when(placement.getLocation(anyObject())).thenReturn("/some/deeply/located/content");
+                    when(client.putObject(Matchers.any(PutObjectRequest.class))).thenReturn(new PutObjectResult());
                 });
 
                 JustBeforeEach(() -> {
@@ -83,33 +105,23 @@ public class DefaultS3StoreImplTest {
                         entity.setContentId("abcd-efgh");
                         
                         when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("abcd-efgh");
-
-                        when(loader.getResource(endsWith("abcd-efgh"))).thenReturn(resource);
-                        output = mock(OutputStream.class);
-                        when(resource.getOutputStream()).thenReturn(output);
-
-                        when(resource.contentLength()).thenReturn(20L);
-
-                        
-                        when(resource.exists()).thenReturn(true);
                     });
 
                     It("should use the converter to establish a resource path", () -> {
-//                        verify(placement).getLocation(anyObject());
                         verify(converter).convert(eq("abcd-efgh"),eq(String.class));
                     });
 
-                    It("should fetch the resource", () -> {
-                    	verify(loader).getResource(eq("s3://some-bucket/abcd-efgh"));
+                    It("should upload the content to the object", () -> {
+                        ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+                        verify(client).putObject(request.capture());
+                        assertThat(request.getValue().getBucketName(), is("some-bucket"));
+                        assertThat(request.getValue().getKey(), is("abcd-efgh"));
+                        assertThat(request.getValue().getMetadata().getContentLength(), is(20L));
                     });
                     
-                    It("should change the content length", () -> {
+                    It("should change the content length without reading the object back", () -> {
                         assertThat(entity.getContentLen(), is(20L));
-                    });
-
-                    It("should write to the resource's outputstream", () -> {
-                        verify(resource).getOutputStream();
-                        verify(output, times(1)).write(Matchers.<byte[]>any(), eq(0), eq(20));
+                        verify(loader, never()).getResource(anyObject());
                     });
                 });
 
@@ -118,32 +130,17 @@ public class DefaultS3StoreImplTest {
                         assertThat(entity.getContentId(), is(nullValue()));
 
                         when(converter.convert(anyObject(), eq(String.class))).thenReturn("abcd-efgh");
-
-                        when(loader.getResource(endsWith("abcd-efgh"))).thenReturn(resource);
-                        output = mock(OutputStream.class);
-                        when(resource.getOutputStream()).thenReturn(output);
-
-                        when(resource.contentLength()).thenReturn(20L);
-
-                        
-                        File resourceFile = mock(File.class);
-                        parent = mock(File.class);
-
-                        when(resource.getFile()).thenReturn(resourceFile);
-                        when(resourceFile.getParentFile()).thenReturn(parent);
                     });
 
                     It("should make a new UUID", () -> {
                         assertThat(entity.getContentId(), is(not(nullValue())));
                     });
 
-                    It("should create a new resource", () -> {
-                    	verify(loader).getResource(eq("s3://some-bucket/abcd-efgh"));
-                    });
-                    
-                    It("should write to the resource's outputstream", () -> {
-                        verify(resource).getOutputStream();
-                        verify(output, times(1)).write(Matchers.<byte[]>any(), eq(0), eq(20));
+                    It("should upload the content to a new object", () -> {
+                        ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+                        verify(client).putObject(request.capture());
+                        assertThat(request.getValue().getKey(), is("abcd-efgh"));
+                        assertThat(IOUtils.toString(request.getValue().getInputStream()), is("Hello content world!"));
                     });
                 });
             });
@@ -151,14 +148,12 @@ public class DefaultS3StoreImplTest {
             Context("#getContent", () -> {
                 BeforeEach(() -> {
                     entity = new TestEntity();
-                    content = mock(InputStream.class);
+                    content = new ByteArrayInputStream("Hello content world!".getBytes());
                     entity.setContentId("abcd-efgh");
                   
-//                    when(placement.getLocation(eq("abcd-efgh"))).thenReturn("/abcd/efgh");
                     when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("abcd-efgh");
 
                     when(loader.getResource(endsWith("abcd-efgh"))).thenReturn(resource);
-                    when(resource.getInputStream()).thenReturn(content);
                 });
 
                 JustBeforeEach(() -> {
@@ -166,103 +161,430 @@ public class DefaultS3StoreImplTest {
                 });
                 Context("when the resource exists", () -> {
                     BeforeEach(() -> {
-                        when(resource.exists()).thenReturn(true);
+                        S3Object object = new S3Object();
+                        object.getObjectMetadata().setContentLength(20L);
+                        object.setObjectContent(content);
+                        when(client.getObject(Matchers.any(GetObjectRequest.class))).thenReturn(object);
                     });
 
                     It("should use the converter to establish a resource path", () -> {
                       verify(converter).convert(eq("abcd-efgh"),eq(String.class));
                     });
 
-	                It("should fetch the resource", () -> {
-	                	verify(loader).getResource(eq("s3://some-bucket/abcd-efgh"));
+	                It("should get the object without a HEAD request first", () -> {
+	                    ArgumentCaptor<GetObjectRequest> request = ArgumentCaptor.forClass(GetObjectRequest.class);
+	                    verify(client).getObject(request.capture());
+	                    assertThat(request.getValue().getKey(), is("abcd-efgh"));
+	                    assertThat(request.getValue().getRange(), is(nullValue()));
+	                    verify(resource, never()).exists();
+	                    verify(client, never()).getObjectMetadata(anyObject());
 	                });
                   
                     It("should get content", () -> {
-                        assertThat(result, is(content));
+                        assertThat(IOUtils.toString(result), is("Hello content world!"));
                     });
                 });
                 Context("when the resource does not exist", () -> {
                     BeforeEach(() -> {
-                		nonExistentResource = mock(Resource.class);
-                		when(resource.exists()).thenReturn(true);
-
-                        when(loader.getResource(endsWith("abcd-efgh"))).thenReturn(nonExistentResource);
+                        AmazonS3Exception notFound = new AmazonS3Exception("The specified key does not exist.");
+                        notFound.setStatusCode(404);
+                        when(client.getObject(Matchers.any(GetObjectRequest.class))).thenThrow(notFound);
                     });
 
-                    It("should use the converter to establish a resource path", () -> {
-                        verify(converter).convert(eq("abcd-efgh"),eq(String.class));
-                      });
-
-  	                It("should fetch the resource", () -> {
-  	                	verify(loader).getResource(eq("s3://some-bucket/abcd-efgh"));
-  	                });
-                    
                     It("should not find the content", () -> {
                         assertThat(result, is(nullValue()));
                     });
                 });
             });
+            Context("#getContent with a range", () -> {
+                BeforeEach(() -> {
+                    entity = new TestEntity();
+                    entity.setContentId("abcd-efgh");
+                    when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("abcd-efgh");
+                    when(loader.getResource(endsWith("abcd-efgh"))).thenReturn(resource);
+
+                    S3Object object = new S3Object();
+                    object.setObjectContent(new ByteArrayInputStream("cont".getBytes()));
+                    when(client.getObject(Matchers.any(GetObjectRequest.class))).thenReturn(object);
+                });
+                JustBeforeEach(() -> {
+                    result = s3StoreImpl.getContent(entity, 9L, 4L);
+                });
+                It("should request only the range from S3", () -> {
+                    ArgumentCaptor<GetObjectRequest> request = ArgumentCaptor.forClass(GetObjectRequest.class);
+                    verify(client).getObject(request.capture());
+                    assertThat(request.getValue().getBucketName(), is("some-bucket"));
+                    assertThat(request.getValue().getKey(), is("abcd-efgh"));
+                    assertThat(request.getValue().getRange(), is(new long[] {9L, 12L}));
+                });
+                It("should not read the full resource", () -> {
+                    verify(resource, never()).getInputStream();
+                });
+                It("should return the ranged content", () -> {
+                    assertThat(IOUtils.toString(result), is("cont"));
+                });
+            });
+            Context("#getContent of large content", () -> {
+                BeforeEach(() -> {
+                    entity = new TestEntity();
+                    entity.setContentId("abcd-efgh");
+                    when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("abcd-efgh");
+                    when(loader.getResource(endsWith("abcd-efgh"))).thenReturn(resource);
+
+                    when(client.getObject(Matchers.any(GetObjectRequest.class))).thenAnswer(invocation -> {
+                        long[] range = ((GetObjectRequest) invocation.getArguments()[0]).getRange();
+                        if (range == null) {
+                            range = new long[] {0, 9};
+                        }
+                        S3Object object = new S3Object();
+                        object.getObjectMetadata().setContentLength(range[1] - range[0] + 1);
+                        object.getObjectMetadata().setHeader("ETag", "some-etag");
+                        object.setObjectContent(new ByteArrayInputStream("0123456789".substring((int) range[0], (int) range[1] + 1).getBytes()));
+                        return object;
+                    });
+
+                    s3StoreImpl.setDownloader(new ParallelDownloader(client, 4, 2, 6));
+                });
+                JustBeforeEach(() -> {
+                    result = s3StoreImpl.getContent(entity);
+                });
+                It("should download the content in parts, reading the first from its GET", () -> {
+                    assertThat(IOUtils.toString(result), is("0123456789"));
+                    verify(client, times(3)).getObject(Matchers.any(GetObjectRequest.class));
+                });
+            });
+            Context("#unsetContents", () -> {
+                BeforeEach(() -> {
+                    entity = new TestEntity();
+                    entity.setContentId("abcd-efgh");
+                    entity.setContentLen(100L);
+                    other = new TestEntity();
+                    other.setContentId("ijkl-mnop");
+                    other.setContentLen(100L);
+                    when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("abcd-efgh");
+                    when(converter.convert(eq("ijkl-mnop"), eq(String.class))).thenReturn("ijkl-mnop");
+                });
+                JustBeforeEach(() -> {
+                    s3StoreImpl.unsetContents(Arrays.asList(entity, other));
+                });
+                It("should delete all objects with a single multi-object delete", () -> {
+                    ArgumentCaptor<DeleteObjectsRequest> request = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+                    verify(client).deleteObjects(request.capture());
+                    assertThat(request.getValue().getBucketName(), is("some-bucket"));
+                    assertThat(request.getValue().getKeys().size(), is(2));
+                    assertThat(request.getValue().getKeys().get(0).getKey(), is("abcd-efgh"));
+                    assertThat(request.getValue().getKeys().get(1).getKey(), is("ijkl-mnop"));
+                });
+                It("should not look the objects up first", () -> {
+                    verify(loader, never()).getResource(anyObject());
+                });
+                It("should reset the content fields", () -> {
+                    assertThat(entity.getContentId(), is(nullValue()));
+                    assertThat(other.getContentId(), is(nullValue()));
+                    assertThat(other.getContentLen(), is(0L));
+                });
+            });
+            Context("#unsetContents with a partial failure", () -> {
+                BeforeEach(() -> {
+                    entity = new TestEntity();
+                    entity.setContentId("abcd-efgh");
+                    other = new TestEntity();
+                    other.setContentId("ijkl-mnop");
+                    when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("abcd-efgh");
+                    when(converter.convert(eq("ijkl-mnop"), eq(String.class))).thenReturn("ijkl-mnop");
+
+                    DeleteError failed = new DeleteError();
+                    failed.setKey("ijkl-mnop");
+                    MultiObjectDeleteException e = new MultiObjectDeleteException(Arrays.asList(failed), Arrays.asList(new DeletedObject()));
+                    when(client.deleteObjects(Matchers.any(DeleteObjectsRequest.class))).thenThrow(e);
+                });
+                It("should only reset the content fields of deleted objects", () -> {
+                    s3StoreImpl.unsetContents(Arrays.asList(entity, other));
+                    assertThat(entity.getContentId(), is(nullValue()));
+                    assertThat(other.getContentId(), is("ijkl-mnop"));
+                });
+            });
+            Context("#copyContent", () -> {
+                BeforeEach(() -> {
+                    entity = new TestEntity();
+                    entity.setContentId("abcd-efgh");
+                    other = new TestEntity();
+                    when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("abcd-efgh");
+                    when(converter.convert(Matchers.argThat(is(not("abcd-efgh"))), eq(String.class))).thenReturn("ijkl-mnop");
+
+                    ObjectMetadata metadata = new ObjectMetadata();
+                    metadata.setContentLength(20L);
+                    when(client.getObjectMetadata("some-bucket", "abcd-efgh")).thenReturn(metadata);
+                    when(client.copyObject(Matchers.any(CopyObjectRequest.class))).thenReturn(new CopyObjectResult());
+                });
+                It("should copy the object within the bucket", () -> {
+                    s3StoreImpl.copyContent(entity, other);
+                    ArgumentCaptor<CopyObjectRequest> request = ArgumentCaptor.forClass(CopyObjectRequest.class);
+                    verify(client).copyObject(request.capture());
+                    assertThat(request.getValue().getSourceBucketName(), is("some-bucket"));
+                    assertThat(request.getValue().getSourceKey(), is("abcd-efgh"));
+                    assertThat(request.getValue().getDestinationKey(), is("ijkl-mnop"));
+                    verify(client, never()).getObject(Matchers.any(GetObjectRequest.class));
+                    verify(client, never()).putObject(Matchers.any(PutObjectRequest.class));
+                });
+                It("should set the target's content fields", () -> {
+                    s3StoreImpl.copyContent(entity, other);
+                    assertThat(other.getContentId(), is(not(nullValue())));
+                    assertThat(other.getContentLen(), is(20L));
+                    assertThat(entity.getContentId(), is("abcd-efgh"));
+                });
+                It("should delete the source after moving it", () -> {
+                    s3StoreImpl.moveContent(entity, other);
+                    ArgumentCaptor<DeleteObjectRequest> request = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+                    verify(client).deleteObject(request.capture());
+                    assertThat(request.getValue().getKey(), is("abcd-efgh"));
+                    assertThat(entity.getContentId(), is(nullValue()));
+                    assertThat(other.getContentLen(), is(20L));
+                });
+            });
+            Context("given a placement over several buckets", () -> {
+                BeforeEach(() -> {
+                    placement = new S3ObjectPlacement(Arrays.asList("bucket-1", "bucket-2"), 2);
+                    s3StoreImpl.setPlacement(placement);
+
+                    entity = new TestEntity();
+                    entity.setContentId("abcd-efgh");
+                    when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("abcd-efgh");
+                    when(loader.getResource(anyObject())).thenReturn(resource);
+                });
+                It("should upload content to the preferred bucket at a prefixed key", () -> {
+                    when(client.putObject(Matchers.any(PutObjectRequest.class))).thenReturn(new PutObjectResult());
+                    s3StoreImpl.setContent(entity, new ByteArrayInputStream("Hello content world!".getBytes()));
+
+                    ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+                    verify(client).putObject(request.capture());
+                    assertThat(request.getValue().getBucketName(), is(placement.getBucket("abcd-efgh")));
+                    assertThat(request.getValue().getKey(), is(placement.getKey("abcd-efgh")));
+                    assertThat(request.getValue().getKey().endsWith("/abcd-efgh"), is(true));
+                });
+                It("should read content from another bucket when the preferred one does not have it", () -> {
+                    String preferred = placement.getBuckets("abcd-efgh").get(0);
+                    when(client.getObject(Matchers.any(GetObjectRequest.class))).thenAnswer(invocation -> {
+                        if (((GetObjectRequest) invocation.getArguments()[0]).getBucketName().equals(preferred)) {
+                            AmazonS3Exception missing = new AmazonS3Exception("not found");
+                            missing.setStatusCode(404);
+                            throw missing;
+                        }
+                        S3Object object = new S3Object();
+                        object.setObjectContent(new ByteArrayInputStream("Hello content world!".getBytes()));
+                        return object;
+                    });
+
+                    result = s3StoreImpl.getContent(entity);
+                    assertThat(IOUtils.toString(result), is("Hello content world!"));
+                    verify(client, times(2)).getObject(Matchers.any(GetObjectRequest.class));
+                });
+                It("should read content stored before the prefix width was set at its unprefixed key", () -> {
+                    when(client.getObject(Matchers.any(GetObjectRequest.class))).thenAnswer(invocation -> {
+                        if (!((GetObjectRequest) invocation.getArguments()[0]).getKey().equals("abcd-efgh")) {
+                            AmazonS3Exception missing = new AmazonS3Exception("not found");
+                            missing.setStatusCode(404);
+                            throw missing;
+                        }
+                        S3Object object = new S3Object();
+                        object.setObjectContent(new ByteArrayInputStream("Hello content world!".getBytes()));
+                        return object;
+                    });
+
+                    result = s3StoreImpl.getContent(entity);
+                    assertThat(IOUtils.toString(result), is("Hello content world!"));
+                    verify(client, times(3)).getObject(Matchers.any(GetObjectRequest.class));
+                });
+                It("should delete content from every bucket and key it may be at without looking for it", () -> {
+                    s3StoreImpl.unsetContent(entity);
+
+                    ArgumentCaptor<DeleteObjectsRequest> request = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+                    verify(client, times(2)).deleteObjects(request.capture());
+                    Set<String> buckets = new HashSet<>();
+                    for (DeleteObjectsRequest delete : request.getAllValues()) {
+                        buckets.add(delete.getBucketName());
+                        assertThat(delete.getKeys().size(), is(2));
+                        assertThat(delete.getKeys().get(0).getKey(), is(placement.getKey("abcd-efgh")));
+                        assertThat(delete.getKeys().get(1).getKey(), is("abcd-efgh"));
+                    }
+                    assertThat(buckets, is(new HashSet<>(Arrays.asList("bucket-1", "bucket-2"))));
+                    verify(client, never()).doesObjectExist(anyObject(), anyObject());
+                    assertThat(entity.getContentId(), is(nullValue()));
+                });
+                It("should resolve a resource at the preferred bucket and key without looking for the object", () -> {
+                    assertThat(s3StoreImpl.getResource("abcd-efgh"), is(not(nullValue())));
+                    verify(loader).getResource(String.format("s3://%s/%s", placement.getBucket("abcd-efgh"), placement.getKey("abcd-efgh")));
+                    verify(client, never()).doesObjectExist(anyObject(), anyObject());
+                });
+                It("should presign a GET of the preferred bucket and key without looking for the object", () -> {
+                    s3StoreImpl.getContentUrl(entity, null, null);
+
+                    ArgumentCaptor<GeneratePresignedUrlRequest> request = ArgumentCaptor.forClass(GeneratePresignedUrlRequest.class);
+                    verify(client).generatePresignedUrl(request.capture());
+                    assertThat(request.getValue().getBucketName(), is(placement.getBucket("abcd-efgh")));
+                    assertThat(request.getValue().getKey(), is(placement.getKey("abcd-efgh")));
+                    verify(client, never()).doesObjectExist(anyObject(), anyObject());
+                });
+            });
+            Context("presigned content URLs", () -> {
+                BeforeEach(() -> {
+                    entity = new TestEntity();
+                    entity.setContentId("abcd-efgh");
+                    when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("abcd-efgh");
+                    when(client.generatePresignedUrl(Matchers.any(GeneratePresignedUrlRequest.class))).thenReturn(new URL("https://some-bucket.s3.amazonaws.com/abcd-efgh?signed"));
+                });
+                It("should presign a GET with response header overrides", () -> {
+                    long now = System.currentTimeMillis();
+                    URL url = s3StoreImpl.getContentUrl(entity, "text/plain", "attachment; filename=\"some.txt\"");
+                    assertThat(url.toString(), is("https://some-bucket.s3.amazonaws.com/abcd-efgh?signed"));
+
+                    ArgumentCaptor<GeneratePresignedUrlRequest> request = ArgumentCaptor.forClass(GeneratePresignedUrlRequest.class);
+                    verify(client).generatePresignedUrl(request.capture());
+                    assertThat(request.getValue().getMethod(), is(HttpMethod.GET));
+                    assertThat(request.getValue().getBucketName(), is("some-bucket"));
+                    assertThat(request.getValue().getKey(), is("abcd-efgh"));
+                    assertThat(request.getValue().getResponseHeaders().getContentType(), is("text/plain"));
+                    assertThat(request.getValue().getResponseHeaders().getContentDisposition(), is("attachment; filename=\"some.txt\""));
+                    assertThat(request.getValue().getExpiration().getTime() - now >= 300 * 1000L, is(true));
+                });
+                It("should not presign a URL for a property without content", () -> {
+                    assertThat(s3StoreImpl.getContentUrl(new TestEntity(), null, null), is(nullValue()));
+                    verify(client, never()).generatePresignedUrl(Matchers.any(GeneratePresignedUrlRequest.class));
+                });
+                It("should presign a PUT that assigns a content id", () -> {
+                    when(converter.convert(Matchers.argThat(is(not("abcd-efgh"))), eq(String.class))).thenReturn("ijkl-mnop");
+                    other = new TestEntity();
+                    s3StoreImpl.setPresignedUrlExpiry(60);
+                    long now = System.currentTimeMillis();
+                    s3StoreImpl.getUploadUrl(other, "text/plain");
+
+                    ArgumentCaptor<GeneratePresignedUrlRequest> request = ArgumentCaptor.forClass(GeneratePresignedUrlRequest.class);
+                    verify(client).generatePresignedUrl(request.capture());
+                    assertThat(request.getValue().getMethod(), is(HttpMethod.PUT));
+                    assertThat(request.getValue().getKey(), is("ijkl-mnop"));
+                    assertThat(request.getValue().getContentType(), is("text/plain"));
+                    assertThat(request.getValue().getExpiration().getTime() - now < 300 * 1000L, is(true));
+                    assertThat(other.getContentId(), is(not(nullValue())));
+                });
+                It("should presign a PUT that leaves existing content in place", () -> {
+                    String uploadId = DefaultS3StoreImpl.uploadId("abcd-efgh");
+                    when(converter.convert(eq(uploadId), eq(String.class))).thenReturn(uploadId);
+                    entity.setContentLen(10L);
+                    s3StoreImpl.getUploadUrl(entity, null);
+
+                    ArgumentCaptor<GeneratePresignedUrlRequest> request = ArgumentCaptor.forClass(GeneratePresignedUrlRequest.class);
+                    verify(client).generatePresignedUrl(request.capture());
+                    assertThat(request.getValue().getKey(), is(uploadId));
+                    assertThat(entity.getContentId(), is("abcd-efgh"));
+                    assertThat(entity.getContentLen(), is(10L));
+
+                    // an earlier upload that was never completed is not swapped in later
+                    ArgumentCaptor<DeleteObjectRequest> delete = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+                    verify(client).deleteObject(delete.capture());
+                    assertThat(delete.getValue().getKey(), is(uploadId));
+                });
+            });
+            Context("completing an upload", () -> {
+                BeforeEach(() -> {
+                    entity = new TestEntity();
+                    entity.setContentId("abcd-efgh");
+                    when(converter.convert(Matchers.anyString(), eq(String.class))).thenAnswer(invocation -> invocation.getArguments()[0]);
+                    AmazonS3Exception missing = new AmazonS3Exception("not found");
+                    missing.setStatusCode(404);
+                    when(client.getObjectMetadata(eq("some-bucket"), Matchers.anyString())).thenThrow(missing);
+                });
+                It("should set the content length of the uploaded object", () -> {
+                    ObjectMetadata metadata = new ObjectMetadata();
+                    metadata.setContentLength(20L);
+                    doReturn(metadata).when(client).getObjectMetadata("some-bucket", "abcd-efgh");
+
+                    assertThat(s3StoreImpl.completeUpload(entity), is(true));
+                    assertThat(entity.getContentId(), is("abcd-efgh"));
+                    assertThat(entity.getContentLen(), is(20L));
+                });
+                It("should swap in content that replaces the property's", () -> {
+                    String uploadId = DefaultS3StoreImpl.uploadId("abcd-efgh");
+                    ObjectMetadata metadata = new ObjectMetadata();
+                    metadata.setContentLength(30L);
+                    doReturn(metadata).when(client).getObjectMetadata("some-bucket", uploadId);
+
+                    assertThat(s3StoreImpl.completeUpload(entity), is(true));
+                    assertThat(entity.getContentId(), is(uploadId));
+                    assertThat(entity.getContentLen(), is(30L));
+
+                    ArgumentCaptor<DeleteObjectRequest> delete = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+                    verify(client).deleteObject(delete.capture());
+                    assertThat(delete.getValue().getKey(), is("abcd-efgh"));
+                });
+                It("should fail when nothing has been uploaded", () -> {
+                    assertThat(s3StoreImpl.completeUpload(entity), is(false));
+                    assertThat(entity.getContentId(), is("abcd-efgh"));
+                    assertThat(entity.getContentLen(), is(0L));
+                });
+                It("should fail when nothing has been uploaded to replace the property's content", () -> {
+                    ObjectMetadata metadata = new ObjectMetadata();
+                    metadata.setContentLength(10L);
+                    doReturn(metadata).when(client).getObjectMetadata("some-bucket", "abcd-efgh");
+                    entity.setContentLen(10L);
+
+                    assertThat(s3StoreImpl.completeUpload(entity), is(false));
+                    assertThat(entity.getContentId(), is("abcd-efgh"));
+                    assertThat(entity.getContentLen(), is(10L));
+                    verify(client, never()).getObjectMetadata("some-bucket", "abcd-efgh");
+                });
+            });
+            Context("#getResource", () -> {
+                It("should return a rangeable resource", () -> {
+                    when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("abcd-efgh");
+                    when(loader.getResource(endsWith("abcd-efgh"))).thenReturn(resource);
+                    assertThat(s3StoreImpl.getResource("abcd-efgh"), is(instanceOf(RangeableResource.class)));
+                });
+                It("should upload content written to it with a known length once closed", () -> {
+                    when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("abcd-efgh");
+                    when(loader.getResource(endsWith("abcd-efgh"))).thenReturn(resource);
+                    when(client.putObject(Matchers.any(PutObjectRequest.class))).thenReturn(new PutObjectResult());
+
+                    try (OutputStream out = ((WritableResource) s3StoreImpl.getResource("abcd-efgh")).getOutputStream()) {
+                        out.write("Hello content world!".getBytes());
+                        verify(client, never()).putObject(Matchers.any(PutObjectRequest.class));
+                    }
+
+                    ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+                    verify(client).putObject(request.capture());
+                    assertThat(request.getValue().getKey(), is("abcd-efgh"));
+                    assertThat(request.getValue().getMetadata().getContentLength(), is(20L));
+                    verify(resource, never()).getOutputStream();
+                });
+            });
 
             Context("#unsetContent", () -> {
                 BeforeEach(() -> {
                     entity = new TestEntity();
                     entity.setContentId("abcd-efgh");
                     entity.setContentLen(100L);
-                    resource = mock(WritableResource.class);
+
+                    when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("abcd-efgh");
                 });
 
                 JustBeforeEach(() -> {
                 	s3StoreImpl.unsetContent(entity);
                 });
 
-                Context("when the content exists", () -> {
-                	
-                	BeforeEach(() -> {
-//                        when(placement.getLocation("abcd-efgh")).thenReturn("/abcd/efgh");
-                        when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("abcd-efgh");
-                		
-	            		when(loader.getResource(endsWith("abcd-efgh"))).thenReturn(resource);
-	            		when(resource.exists()).thenReturn(true);
-                	});
-                	
-                    It("should use the converter to establish a resource path", () -> {
-                        verify(converter).convert(eq("abcd-efgh"),eq(String.class));
-                      });
-
-  	                It("should fetch the resource", () -> {
-  	                	verify(loader).getResource(eq("s3://some-bucket/abcd-efgh"));
-  	                });
-
-  	                It("should unset content", () -> {
-                	    verify(client).deleteObject(anyObject());
-                		assertThat(entity.getContentId(), is(nullValue()));
-                		assertThat(entity.getContentLen(), is(0L));
-                	});
-                });
-                
-                Context("when the content doesnt exist", () -> {
-                	BeforeEach(() -> {
-//                        when(placement.getLocation("abcd-efgh")).thenReturn("/abcd/efgh");
-                        when(converter.convert(eq("abcd-efgh"), eq(String.class))).thenReturn("abcd-efgh");
-
-                		nonExistentResource = mock(Resource.class);
-                        when(loader.getResource(endsWith("abcd-efgh"))).thenReturn(nonExistentResource);
-                        when(nonExistentResource.exists()).thenReturn(false);
-                	});
-                	
-                    It("should use the converter to establish a resource path", () -> {
-                        verify(converter).convert(eq("abcd-efgh"),eq(String.class));
-                      });
+                It("should use the converter to establish a resource path", () -> {
+                    verify(converter).convert(eq("abcd-efgh"),eq(String.class));
+                });
 
-  	                It("should fetch the resource", () -> {
-  	                	verify(loader).getResource(eq("s3://some-bucket/abcd-efgh"));
-  	                });
+                It("should delete the object without checking that it exists", () -> {
+                    ArgumentCaptor<DeleteObjectRequest> request = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+                    verify(client).deleteObject(request.capture());
+                    assertThat(request.getValue().getBucketName(), is("some-bucket"));
+                    assertThat(request.getValue().getKey(), is("abcd-efgh"));
+                    verify(loader, never()).getResource(anyObject());
+                });
 
-  	                It("should unset the content", () -> {
-                		verify(client, never()).deleteObject(anyObject());
-                		assertThat(entity.getContentId(), is(nullValue()));
-                		assertThat(entity.getContentLen(), is(0L));
-                	});
+                It("should unset content", () -> {
+                    assertThat(entity.getContentId(), is(nullValue()));
+                    assertThat(entity.getContentLen(), is(0L));
                 });
             });
         });
@@ -0,0 +1,122 @@
+package org.springframework.content.s3.io;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatcher;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.model.CopyObjectResult;
+import com.amazonaws.services.s3.model.DeleteObjectRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class S3BucketRebalanceTest {
+
+	private AmazonS3 client;
+	private S3ObjectPlacement placement;
+	private String misplaced;
+	private String placed;
+
+	{
+		Describe("S3BucketRebalance", () -> {
+			BeforeEach(() -> {
+				client = mock(AmazonS3.class);
+				placement = new S3ObjectPlacement(Arrays.asList("bucket-1", "bucket-2"), 2);
+
+				// find a location that prefers each bucket
+				for (int i = 0; misplaced == null || placed == null; i++) {
+					String location = "content-" + i;
+					if (placement.getBucket(location).equals("bucket-2")) {
+						misplaced = location;
+					} else {
+						placed = location;
+					}
+				}
+
+				when(client.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(invocation -> {
+					ListObjectsV2Request request = (ListObjectsV2Request) invocation.getArguments()[0];
+					ListObjectsV2Result result = new ListObjectsV2Result();
+					if (request.getBucketName().equals("bucket-1")) {
+						result.getObjectSummaries().addAll(summaries(placement.getKey(misplaced), placement.getKey(placed), "foreign-key"));
+					}
+					return result;
+				});
+				ObjectMetadata metadata = new ObjectMetadata();
+				metadata.setContentLength(10L);
+				when(client.getObjectMetadata(anyString(), anyString())).thenReturn(metadata);
+				when(client.copyObject(any(CopyObjectRequest.class))).thenReturn(new CopyObjectResult());
+			});
+			It("should move only objects that are not on their preferred bucket", () -> {
+				assertThat(new S3BucketRebalance(client, placement, 2).rebalance(), is(1L));
+
+				ArgumentCaptor<CopyObjectRequest> copy = ArgumentCaptor.forClass(CopyObjectRequest.class);
+				verify(client).copyObject(copy.capture());
+				assertThat(copy.getValue().getSourceBucketName(), is("bucket-1"));
+				assertThat(copy.getValue().getDestinationBucketName(), is("bucket-2"));
+				assertThat(copy.getValue().getDestinationKey(), is(placement.getKey(misplaced)));
+
+				ArgumentCaptor<DeleteObjectRequest> delete = ArgumentCaptor.forClass(DeleteObjectRequest.class);
+				verify(client).deleteObject(delete.capture());
+				assertThat(delete.getValue().getBucketName(), is("bucket-1"));
+				assertThat(delete.getValue().getKey(), is(placement.getKey(misplaced)));
+			});
+			It("should not copy an object its preferred bucket already has", () -> {
+				when(client.doesObjectExist("bucket-2", placement.getKey(misplaced))).thenReturn(true);
+
+				assertThat(new S3BucketRebalance(client, placement, 2).rebalance(), is(1L));
+				verify(client, never()).copyObject(any(CopyObjectRequest.class));
+				verify(client, times(1)).deleteObject(any(DeleteObjectRequest.class));
+			});
+			It("should move objects at unprefixed keys to their prefixed keys when prefixing existing keys", () -> {
+				S3BucketRebalance rebalance = new S3BucketRebalance(client, placement, 2);
+				rebalance.setPrefixExistingKeys(true);
+				assertThat(rebalance.rebalance(), is(2L));
+
+				ArgumentCaptor<CopyObjectRequest> copy = ArgumentCaptor.forClass(CopyObjectRequest.class);
+				verify(client, times(2)).copyObject(copy.capture());
+				CopyObjectRequest prefixed = copy.getAllValues().stream().filter(request -> request.getSourceKey().equals("foreign-key")).findFirst().get();
+				assertThat(prefixed.getDestinationBucketName(), is(placement.getBucket("foreign-key")));
+				assertThat(prefixed.getDestinationKey(), is(placement.getKey("foreign-key")));
+				verify(client).deleteObject(argThat(new ArgumentMatcher<DeleteObjectRequest>() {
+					@Override
+					public boolean matches(Object request) {
+						return ((DeleteObjectRequest) request).getKey().equals("foreign-key");
+					}
+				}));
+			});
+		});
+	}
+
+	private static List<S3ObjectSummary> summaries(String... keys) {
+		S3ObjectSummary[] summaries = new S3ObjectSummary[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			summaries[i] = new S3ObjectSummary();
+			summaries[i].setKey(keys[i]);
+		}
+		return Arrays.asList(summaries);
+	}
+}
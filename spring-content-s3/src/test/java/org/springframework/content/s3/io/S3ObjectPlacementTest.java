@@ -0,0 +1,90 @@
+package org.springframework.content.s3.io;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.runner.RunWith;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+public class S3ObjectPlacementTest {
+
+	private static final int LOCATIONS = 3000;
+
+	private S3ObjectPlacement placement;
+
+	{
+		Describe("S3ObjectPlacement", () -> {
+			Context("given a single bucket", () -> {
+				BeforeEach(() -> {
+					placement = new S3ObjectPlacement("some-bucket");
+				});
+				It("should place each location at its own key", () -> {
+					assertThat(placement.getBucket("abcd-efgh"), is("some-bucket"));
+					assertThat(placement.getKey("abcd-efgh"), is("abcd-efgh"));
+					assertThat(placement.getKey("/abcd-efgh"), is("abcd-efgh"));
+					assertThat(placement.getLocation("abcd-efgh"), is("abcd-efgh"));
+				});
+			});
+			Context("given a key prefix width", () -> {
+				BeforeEach(() -> {
+					placement = new S3ObjectPlacement(Arrays.asList("some-bucket"), 4);
+				});
+				It("should prefix each key with the hash of its location", () -> {
+					// md5("12345") = 827ccb0eea8a706c4c34a16891f84e7b
+					assertThat(placement.getKey("12345"), is("827c/12345"));
+					assertThat(placement.getLocation("827c/12345"), is("12345"));
+				});
+				It("should not recognise keys it does not make", () -> {
+					assertThat(placement.getLocation("0000/12345"), is(nullValue()));
+					assertThat(placement.getLocation("12345"), is(nullValue()));
+				});
+				It("should also try the key content was placed at before the prefix width was set", () -> {
+					assertThat(placement.getKeys("12345"), is(Arrays.asList("827c/12345", "12345")));
+				});
+			});
+			Context("given several buckets", () -> {
+				BeforeEach(() -> {
+					placement = new S3ObjectPlacement(Arrays.asList("bucket-1", "bucket-2", "bucket-3"), 0);
+				});
+				It("should spread locations over the buckets", () -> {
+					Map<String, Integer> counts = new HashMap<>();
+					for (int i = 0; i < LOCATIONS; i++) {
+						counts.merge(placement.getBucket("content-" + i), 1, Integer::sum);
+					}
+					for (String bucket : placement.getBuckets()) {
+						assertThat(counts.get(bucket) > LOCATIONS / 4, is(true));
+					}
+				});
+				It("should rank the preferred bucket first", () -> {
+					for (int i = 0; i < 100; i++) {
+						assertThat(placement.getBuckets("content-" + i).get(0), is(placement.getBucket("content-" + i)));
+						assertThat(placement.getBuckets("content-" + i).size(), is(3));
+					}
+				});
+				It("should only move locations onto a bucket that is added", () -> {
+					S3ObjectPlacement added = new S3ObjectPlacement(Arrays.asList("bucket-1", "bucket-2", "bucket-3", "bucket-4"), 0);
+					int moved = 0;
+					for (int i = 0; i < LOCATIONS; i++) {
+						String bucket = added.getBucket("content-" + i);
+						if (!bucket.equals(placement.getBucket("content-" + i))) {
+							assertThat(bucket, is("bucket-4"));
+							moved++;
+						}
+					}
+					assertThat(moved > LOCATIONS / 8 && moved < LOCATIONS / 3, is(true));
+				});
+			});
+		});
+	}
+}